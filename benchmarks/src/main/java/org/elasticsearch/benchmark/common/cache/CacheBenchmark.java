@@ -0,0 +1,123 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.common.cache;
+
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link Cache} lookups and insertions, and the hit ratio of a cache that loads missing keys, for keys drawn
+ * from a skewed distribution. Run with {@code -t} to vary the number of threads, e.g. {@code -t 1}, {@code -t 8} and {@code -t 64}. The
+ * hit ratio is {@code hits / (hits + misses)} from the secondary results of {@link #getOrPut}.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class CacheBenchmark {
+
+    private static final int NUMBER_OF_KEYS = 1 << 20;
+
+    @Param({ "10000" })
+    public int maximumWeight;
+
+    @Param({ "false", "true" })
+    public boolean frequencyBasedAdmission;
+
+    // the higher the skew the more often the most popular keys are looked up
+    @Param({ "3" })
+    public double skew;
+
+    private Cache<Integer, Integer> cache;
+
+    private int[] keys;
+
+    @Setup
+    public void setUp() {
+        cache = CacheBuilder.<Integer, Integer>builder()
+            .setMaximumWeight(maximumWeight)
+            .setFrequencyBasedAdmission(frequencyBasedAdmission)
+            .build();
+        final Random random = new Random(0);
+        keys = new int[NUMBER_OF_KEYS];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (int) (Math.pow(random.nextDouble(), skew) * 10 * maximumWeight);
+        }
+        for (int i = 0; i < maximumWeight; i++) {
+            cache.put(keys[i], keys[i]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int index = ThreadLocalRandom.current().nextInt(NUMBER_OF_KEYS);
+
+        int nextKey(int[] keys) {
+            index = (index + 1) & (NUMBER_OF_KEYS - 1);
+            return keys[index];
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class HitCounters {
+        public long hits;
+        public long misses;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    @Benchmark
+    public Integer get(ThreadState threadState) {
+        return cache.get(threadState.nextKey(keys));
+    }
+
+    @Benchmark
+    public int put(ThreadState threadState) {
+        final int key = threadState.nextKey(keys);
+        cache.put(key, key);
+        return key;
+    }
+
+    @Benchmark
+    public Integer getOrPut(ThreadState threadState, HitCounters hitCounters) {
+        final int key = threadState.nextKey(keys);
+        final Integer value = cache.get(key);
+        if (value == null) {
+            hitCounters.misses++;
+            cache.put(key, key);
+            return key;
+        }
+        hitCounters.hits++;
+        return value;
+    }
+}
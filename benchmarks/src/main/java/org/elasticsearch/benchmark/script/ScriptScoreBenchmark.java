@@ -14,6 +14,7 @@ import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
@@ -60,7 +61,13 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * A race between Lucene Expressions, Painless, and a hand optimized script
- * implementing a {@link ScriptScoreQuery}.
+ * implementing a {@link ScriptScoreQuery}. {@code painless_def_dynamic_field}
+ * reads the field by a name that isn't a constant of the script, so it shows
+ * what the specialization of {@code doc['n']} in {@code painless_def} saves.
+ * {@link #perDocument()} and {@link #block()} score all documents without a
+ * query, one at a time or in blocks of {@code blockSize} documents with
+ * {@link ScoreScript#executeBlock}, which expressions evaluate over arrays of
+ * the values of their fields.
  */
 @Fork(2)
 @Warmup(iterations = 10)
@@ -89,12 +96,15 @@ public class ScriptScoreBenchmark {
         (mft, lookup) -> mft.fielddataBuilder("test", lookup).build(fieldDataCache, breakerService)
     );
 
-    @Param({ "expression", "metal", "painless_cast", "painless_def" })
+    @Param({ "expression", "metal", "painless_cast", "painless_def", "painless_def_dynamic_field" })
     private String script;
 
     @Param({ "16" })
     private double indexingBufferMb;
 
+    @Param({ "1024" })
+    private int blockSize;
+
     private ScoreScript.Factory factory;
 
     private IndexReader reader;
@@ -120,6 +130,10 @@ public class ScriptScoreBenchmark {
             case "painless_def":
                 factory = scriptModule.engines.get("painless").compile("test", "doc['n'].value", ScoreScript.CONTEXT, Map.of());
                 break;
+            case "painless_def_dynamic_field":
+                factory = scriptModule.engines.get("painless")
+                    .compile("test", "doc[params.field].value", ScoreScript.CONTEXT, Map.of());
+                break;
             default:
                 throw new IllegalArgumentException("Don't know how to implement script [" + script + "]");
         }
@@ -153,8 +167,52 @@ public class ScriptScoreBenchmark {
         return topDocs;
     }
 
+    @Benchmark
+    public double perDocument() throws IOException {
+        ScoreScript.LeafFactory leafFactory = factory.newFactory(Map.of("field", "n"), lookup);
+        double max = Double.NEGATIVE_INFINITY;
+        for (LeafReaderContext ctx : reader.leaves()) {
+            ScoreScript script = leafFactory.newInstance(new DocValuesDocReader(lookup, ctx));
+            for (int doc = 0; doc < ctx.reader().maxDoc(); doc++) {
+                script.setDocument(doc);
+                max = Math.max(max, script.execute(null));
+            }
+        }
+        return checkMaxScore(max);
+    }
+
+    @Benchmark
+    public double block() throws IOException {
+        ScoreScript.LeafFactory leafFactory = factory.newFactory(Map.of("field", "n"), lookup);
+        int[] docs = new int[blockSize];
+        double[] scores = new double[blockSize];
+        double max = Double.NEGATIVE_INFINITY;
+        for (LeafReaderContext ctx : reader.leaves()) {
+            ScoreScript script = leafFactory.newInstance(new DocValuesDocReader(lookup, ctx));
+            int maxDoc = ctx.reader().maxDoc();
+            for (int start = 0; start < maxDoc; start += blockSize) {
+                int count = Math.min(blockSize, maxDoc - start);
+                for (int i = 0; i < count; i++) {
+                    docs[i] = start + i;
+                }
+                script.executeBlock(docs, count, scores);
+                for (int i = 0; i < count; i++) {
+                    max = Math.max(max, scores[i]);
+                }
+            }
+        }
+        return checkMaxScore(max);
+    }
+
+    private static double checkMaxScore(double max) {
+        if (max != 1_000_000) {
+            throw new AssertionError("Expected max score to be 1,000,000 but was [" + max + "]");
+        }
+        return max;
+    }
+
     private Query scriptScoreQuery(ScoreScript.Factory factory) {
-        ScoreScript.LeafFactory leafFactory = factory.newFactory(Map.of(), lookup);
+        ScoreScript.LeafFactory leafFactory = factory.newFactory(Map.of("field", "n"), lookup);
         return new ScriptScoreQuery(new MatchAllDocsQuery(), null, leafFactory, lookup, null, "test", 0, Version.CURRENT);
     }
 
@@ -0,0 +1,131 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.search;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.join.BitSetProducer;
+import org.apache.lucene.search.join.ScoreMode;
+import org.apache.lucene.search.join.ToParentBlockJoinQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BitSet;
+import org.elasticsearch.index.cache.bitset.BitsetFilterCache;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of nested queries when the bitsets of the parent documents are the {@link BitSet}s that Lucene picks, or
+ * when they are {@link org.elasticsearch.lucene.util.RoaringBitSet}s, as built by the {@link BitsetFilterCache} depending on
+ * {@link BitsetFilterCache#INDEX_COMPRESS_BITSET_FILTERS_SETTING}. The memory that the bitsets take is reported as the secondary
+ * result {@code parentBitSetsRamBytesUsed}.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class NestedQueryBenchmark {
+
+    private static final int NUMBER_OF_PARENTS = 100_000;
+
+    @Param({ "false", "true" })
+    public boolean compressed;
+
+    // the average number of nested documents per parent
+    @Param({ "2", "20" })
+    public int nestedDocsPerParent;
+
+    private Directory directory;
+    private DirectoryReader reader;
+    private IndexSearcher searcher;
+    private Query query;
+    private long parentBitSetsRamBytesUsed;
+
+    @Setup
+    public void setUp() throws IOException {
+        final Random random = new Random(0);
+        directory = new ByteBuffersDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+            for (int i = 0; i < NUMBER_OF_PARENTS; i++) {
+                final List<Document> block = new ArrayList<>();
+                final int nestedDocs = random.nextInt(2 * nestedDocsPerParent + 1);
+                for (int j = 0; j < nestedDocs; j++) {
+                    final Document nested = new Document();
+                    nested.add(new StringField("tag", "tag" + random.nextInt(10), Field.Store.NO));
+                    block.add(nested);
+                }
+                final Document parent = new Document();
+                parent.add(new StringField("type", "parent", Field.Store.NO));
+                block.add(parent);
+                writer.addDocuments(block);
+            }
+            writer.forceMerge(1);
+        }
+        reader = DirectoryReader.open(directory);
+        searcher = new IndexSearcher(reader);
+        searcher.setQueryCache(null);
+
+        final Query parentsQuery = new TermQuery(new Term("type", "parent"));
+        final BitSet[] parents = new BitSet[reader.leaves().size()];
+        long ramBytesUsed = 0;
+        for (LeafReaderContext context : reader.leaves()) {
+            parents[context.ord] = BitsetFilterCache.bitsetFromQuery(parentsQuery, context, compressed);
+            ramBytesUsed += parents[context.ord].ramBytesUsed();
+        }
+        parentBitSetsRamBytesUsed = ramBytesUsed;
+        final BitSetProducer parentsProducer = context -> parents[context.ord];
+        query = new ToParentBlockJoinQuery(new TermQuery(new Term("tag", "tag0")), parentsProducer, ScoreMode.None);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class MemoryCounters {
+        public long parentBitSetsRamBytesUsed;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    @Benchmark
+    public int nestedQuery(MemoryCounters memoryCounters) throws IOException {
+        memoryCounters.parentBitSetsRamBytesUsed = parentBitSetsRamBytesUsed;
+        return searcher.count(query);
+    }
+}
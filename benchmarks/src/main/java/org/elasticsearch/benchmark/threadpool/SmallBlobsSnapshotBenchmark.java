@@ -0,0 +1,112 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.threadpool;
+
+import org.elasticsearch.common.blobstore.BlobContainer;
+import org.elasticsearch.common.blobstore.BlobPath;
+import org.elasticsearch.common.blobstore.fs.FsBlobStore;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how quickly the {@code snapshot} thread pool writes many small blobs to a filesystem blob store, comparing platform threads
+ * with virtual threads and different pool sizes. Runs with virtual threads need a JVM that supports them and no security manager.
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class SmallBlobsSnapshotBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean virtualThreads;
+
+    @Param({ "5", "64" })
+    public int maxThreads;
+
+    @Param({ "1000" })
+    public int blobCount;
+
+    @Param({ "1024" })
+    public int blobSize;
+
+    private Path path;
+    private ThreadPool threadPool;
+    private BlobContainer blobContainer;
+    private BytesArray[] blobs;
+
+    @Setup
+    public void setup() throws IOException {
+        path = Files.createTempDirectory("small-blobs");
+        threadPool = new ThreadPool(
+            Settings.builder()
+                .put("node.name", "benchmark")
+                .put("thread_pool.snapshot.max", maxThreads)
+                .put("thread_pool.snapshot.virtual_threads", virtualThreads)
+                .build()
+        );
+        blobContainer = new FsBlobStore(8192, path, false).blobContainer(BlobPath.EMPTY.add("indices"));
+        final Random random = new Random(0);
+        blobs = new BytesArray[blobCount];
+        for (int i = 0; i < blobCount; i++) {
+            final byte[] bytes = new byte[blobSize];
+            random.nextBytes(bytes);
+            blobs[i] = new BytesArray(bytes);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        IOUtils.rm(path);
+    }
+
+    @Benchmark
+    public void writeBlobs() throws InterruptedException {
+        final ExecutorService executor = threadPool.executor(ThreadPool.Names.SNAPSHOT);
+        final CountDownLatch latch = new CountDownLatch(blobCount);
+        for (int i = 0; i < blobCount; i++) {
+            final int blob = i;
+            executor.execute(() -> {
+                try {
+                    blobContainer.writeBlob("blob-" + blob, blobs[blob], false);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+    }
+}
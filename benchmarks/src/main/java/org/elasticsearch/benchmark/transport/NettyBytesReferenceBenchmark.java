@@ -0,0 +1,106 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.benchmark.transport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.transport.netty4.Netty4Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading inbound transport bytes through the {@link BytesReference} that {@link Netty4Utils#toBytesReference} wraps
+ * around heap and direct Netty buffers.
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class NettyBytesReferenceBenchmark {
+
+    @Param({ "heap", "direct" })
+    public String bufferType;
+
+    @Param({ "1024", "65536", "1048576" })
+    public int length;
+
+    private ByteBuf buffer;
+    private BytesReference bytesReference;
+    private byte[] readBuffer;
+
+    @Setup
+    public void setup() {
+        final byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        buffer = "direct".equals(bufferType) ? Unpooled.directBuffer(length) : Unpooled.buffer(length);
+        buffer.writeBytes(bytes);
+        bytesReference = Netty4Utils.toBytesReference(buffer);
+        readBuffer = new byte[1024];
+    }
+
+    @TearDown
+    public void tearDown() {
+        buffer.release();
+    }
+
+    @Benchmark
+    public long iterate() throws IOException {
+        final BytesRefIterator iterator = bytesReference.iterator();
+        long sum = 0;
+        BytesRef ref;
+        while ((ref = iterator.next()) != null) {
+            sum += ref.bytes[ref.offset + ref.length - 1];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public BytesRef toBytesRef() {
+        return bytesReference.toBytesRef();
+    }
+
+    @Benchmark
+    public long streamInput() throws IOException {
+        long sum = 0;
+        try (StreamInput input = bytesReference.streamInput()) {
+            int remaining = length;
+            while (remaining > 0) {
+                final int read = Math.min(remaining, readBuffer.length);
+                input.readBytes(readBuffer, 0, read);
+                sum += readBuffer[read - 1];
+                remaining -= read;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long slice() {
+        return bytesReference.slice(length / 4, length / 2).ramBytesUsed();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.script.expression;
+
+import org.apache.lucene.expressions.Bindings;
+import org.apache.lucene.expressions.Expression;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DoubleValues;
+import org.apache.lucene.util.ArrayUtil;
+
+import java.io.IOException;
+
+/**
+ * Evaluates an {@link Expression} over blocks of documents of a segment. The values of each variable are read for the whole
+ * block into a primitive array, one variable at a time, before the expression is evaluated for each document against these
+ * arrays. This reads the doc values of each field sequentially rather than interleaving the reads of all fields for every
+ * document, and the evaluation only reads arrays.
+ * <p>
+ * Lucene compiles expressions to byte code and doesn't expose their tree, so the expression itself is still evaluated one
+ * document at a time. Variables that are not positioned on a document evaluate to {@code 0}, like in
+ * {@link Expression#getDoubleValuesSource(Bindings)}.
+ */
+final class ExpressionBlockEvaluator {
+
+    private final Expression expression;
+    private final DoubleValues[] values;
+    private final double[][] blocks;
+    private final DoubleValues[] blockValues;
+    private int index;
+
+    /**
+     * @param expression the expression to evaluate
+     * @param bindings the bindings of the variables of the expression, which must not need scores
+     * @param leaf the segment to evaluate the expression on
+     */
+    ExpressionBlockEvaluator(Expression expression, Bindings bindings, LeafReaderContext leaf) throws IOException {
+        this.expression = expression;
+        this.values = new DoubleValues[expression.variables.length];
+        this.blocks = new double[expression.variables.length][];
+        this.blockValues = new DoubleValues[expression.variables.length];
+        for (int i = 0; i < expression.variables.length; i++) {
+            values[i] = bindings.getDoubleValuesSource(expression.variables[i]).getValues(leaf, null);
+            blocks[i] = new double[0];
+            blockValues[i] = new BlockValues(i);
+        }
+    }
+
+    /**
+     * Evaluates the expression for the first {@code count} documents of {@code docs}, which must be in increasing order
+     * across calls, into {@code results}.
+     */
+    void evaluate(int[] docs, int count, double[] results) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            final DoubleValues variable = values[i];
+            blocks[i] = ArrayUtil.grow(blocks[i], count);
+            final double[] block = blocks[i];
+            for (int j = 0; j < count; j++) {
+                block[j] = variable.advanceExact(docs[j]) ? variable.doubleValue() : 0;
+            }
+        }
+        for (index = 0; index < count; index++) {
+            results[index] = expression.evaluate(blockValues);
+        }
+    }
+
+    /**
+     * The values of a variable for the document of the block that is being evaluated.
+     */
+    private class BlockValues extends DoubleValues {
+
+        private final int variable;
+
+        BlockValues(int variable) {
+            this.variable = variable;
+        }
+
+        @Override
+        public double doubleValue() {
+            return blocks[variable][index];
+        }
+
+        @Override
+        public boolean advanceExact(int doc) {
+            throw new UnsupportedOperationException("the values of a block are not advanced");
+        }
+    }
+}
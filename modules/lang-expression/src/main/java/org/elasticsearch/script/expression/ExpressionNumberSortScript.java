@@ -62,6 +62,9 @@ class ExpressionNumberSortScript implements NumberSortScript.LeafFactory {
                 }
             });
 
+            // Created on the first block, the values of documents that are evaluated one at a time are not read in blocks.
+            ExpressionBlockEvaluator blockEvaluator;
+
             @Override
             public double execute() {
                 try {
@@ -71,6 +74,27 @@ class ExpressionNumberSortScript implements NumberSortScript.LeafFactory {
                 }
             }
 
+            @Override
+            public void executeBlock(int[] docs, int count, double[] results) {
+                if (needsScores) {
+                    super.executeBlock(docs, count, results);
+                    return;
+                }
+                try {
+                    if (blockEvaluator == null) {
+                        blockEvaluator = new ExpressionBlockEvaluator(exprScript, bindings, ctx);
+                    }
+                    blockEvaluator.evaluate(docs, count, results);
+                } catch (Exception exception) {
+                    throw new GeneralScriptException("Error evaluating " + exprScript, exception);
+                }
+            }
+
+            @Override
+            public boolean hasFastBlockExecution() {
+                return needsScores == false;
+            }
+
             @Override
             public void setDocument(int d) {
                 try {
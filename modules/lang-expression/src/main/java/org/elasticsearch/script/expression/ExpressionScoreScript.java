@@ -28,11 +28,13 @@ import java.io.IOException;
 class ExpressionScoreScript implements ScoreScript.LeafFactory {
 
     private final Expression exprScript;
+    private final SimpleBindings bindings;
     private final DoubleValuesSource source;
     private final boolean needsScores;
 
     ExpressionScoreScript(Expression e, SimpleBindings b, boolean needsScores) {
         this.exprScript = e;
+        this.bindings = b;
         this.source = exprScript.getDoubleValuesSource(b);
         this.needsScores = needsScores;
     }
@@ -66,6 +68,9 @@ class ExpressionScoreScript implements ScoreScript.LeafFactory {
                 }
             });
 
+            // Created on the first block, the values of documents that are scored one at a time are not read in blocks.
+            ExpressionBlockEvaluator blockEvaluator;
+
             @Override
             public double execute(ExplanationHolder explanation) {
                 try {
@@ -75,6 +80,22 @@ class ExpressionScoreScript implements ScoreScript.LeafFactory {
                 }
             }
 
+            @Override
+            public void executeBlock(int[] docs, int count, double[] scores) {
+                if (needsScores) {
+                    super.executeBlock(docs, count, scores);
+                    return;
+                }
+                try {
+                    if (blockEvaluator == null) {
+                        blockEvaluator = new ExpressionBlockEvaluator(exprScript, bindings, leaf);
+                    }
+                    blockEvaluator.evaluate(docs, count, scores);
+                } catch (Exception exception) {
+                    throw new GeneralScriptException("Error evaluating " + exprScript, exception);
+                }
+            }
+
             @Override
             public void setDocument(int d) {
                 try {
@@ -80,4 +80,19 @@ public class ExpressionNumberSortScriptTests extends ESTestCase {
         double result = script.execute();
         assertEquals(2.718, result, 0.0);
     }
+
+    public void testBlock() throws IOException {
+        NumberSortScript.LeafFactory factory = compile("doc['field'].value * 2 + 1");
+        NumberSortScript script = factory.newInstance(mock(DocValuesDocReader.class));
+        assertTrue(script.hasFastBlockExecution());
+        int[] docs = new int[] { 1, 3, 5, 8 };
+        double[] results = new double[docs.length];
+        script.executeBlock(docs, 3, results);
+        assertArrayEquals(new double[] { 6.436, 6.436, 6.436, 0.0 }, results, 1e-9);
+
+        NumberSortScript perDoc = factory.newInstance(mock(DocValuesDocReader.class));
+        perDoc.setDocument(8);
+        script.executeBlock(new int[] { 8 }, 1, results);
+        assertEquals(perDoc.execute(), results[0], 0.0);
+    }
 }
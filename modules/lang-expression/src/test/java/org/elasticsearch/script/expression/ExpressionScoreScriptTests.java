@@ -0,0 +1,99 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.script.expression;
+
+import org.apache.lucene.search.Scorable;
+import org.elasticsearch.index.fielddata.IndexNumericFieldData;
+import org.elasticsearch.index.fielddata.LeafNumericFieldData;
+import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+import org.elasticsearch.index.mapper.NumberFieldMapper.NumberFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper.NumberType;
+import org.elasticsearch.script.DocValuesDocReader;
+import org.elasticsearch.script.ScoreScript;
+import org.elasticsearch.search.lookup.SearchLookup;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ExpressionScoreScriptTests extends ESTestCase {
+    private ExpressionScriptEngine service;
+    private SearchLookup lookup;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+
+        NumberFieldType fieldType = new NumberFieldType("field", NumberType.DOUBLE);
+
+        SortedNumericDoubleValues doubleValues = mock(SortedNumericDoubleValues.class);
+        // documents with an odd id have a value
+        when(doubleValues.advanceExact(anyInt())).thenAnswer(invocation -> (int) invocation.getArguments()[0] % 2 == 1);
+        when(doubleValues.nextValue()).thenReturn(2.718);
+
+        LeafNumericFieldData atomicFieldData = mock(LeafNumericFieldData.class);
+        when(atomicFieldData.getDoubleValues()).thenReturn(doubleValues);
+
+        IndexNumericFieldData fieldData = mock(IndexNumericFieldData.class);
+        when(fieldData.getFieldName()).thenReturn("field");
+        when(fieldData.load(anyObject())).thenReturn(atomicFieldData);
+
+        service = new ExpressionScriptEngine();
+        lookup = new SearchLookup(field -> field.equals("field") ? fieldType : null, (ignored, lookup) -> fieldData);
+    }
+
+    private ScoreScript.LeafFactory compile(String expression) {
+        ScoreScript.Factory factory = service.compile(null, expression, ScoreScript.CONTEXT, Collections.emptyMap());
+        return factory.newFactory(Collections.emptyMap(), lookup);
+    }
+
+    public void testBlock() throws IOException {
+        ScoreScript.LeafFactory factory = compile("doc['field'].value * 2 + 1");
+        assertFalse(factory.needs_score());
+        ScoreScript script = factory.newInstance(mock(DocValuesDocReader.class));
+        int[] docs = new int[] { 1, 2, 5, 8 };
+        double[] scores = new double[docs.length];
+        script.executeBlock(docs, 3, scores);
+        assertArrayEquals(new double[] { 6.436, 1.0, 6.436, 0.0 }, scores, 1e-9);
+
+        // the next block continues after the previous one and gives the same scores as scoring one document at a time
+        script.executeBlock(new int[] { 7, 9 }, 2, scores);
+        for (int doc : new int[] { 7, 9 }) {
+            ScoreScript perDoc = factory.newInstance(mock(DocValuesDocReader.class));
+            perDoc.setDocument(doc);
+            assertEquals(perDoc.execute(null), scores[doc == 7 ? 0 : 1], 0.0);
+        }
+    }
+
+    public void testBlockNeedsScores() throws IOException {
+        ScoreScript.LeafFactory factory = compile("doc['field'].value * _score");
+        assertTrue(factory.needs_score());
+        ScoreScript script = factory.newInstance(mock(DocValuesDocReader.class));
+        // scripts that need scores are evaluated one document at a time, with the score of the scorer that is set
+        script.setScorer(new Scorable() {
+            @Override
+            public float score() {
+                return 2f;
+            }
+
+            @Override
+            public int docID() {
+                return 0;
+            }
+        });
+        double[] scores = new double[2];
+        script.executeBlock(new int[] { 1, 3 }, 2, scores);
+        assertArrayEquals(new double[] { 5.436, 5.436 }, scores, 1e-9);
+    }
+}
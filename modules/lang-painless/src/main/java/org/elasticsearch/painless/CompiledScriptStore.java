@@ -0,0 +1,467 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.painless;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.Build;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.hash.MessageDigests;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.settings.SecureSetting;
+import org.elasticsearch.common.settings.SecureString;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.core.CharArrays;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.painless.lookup.PainlessClass;
+import org.elasticsearch.painless.lookup.PainlessLookup;
+import org.elasticsearch.painless.symbol.FunctionTable;
+import org.elasticsearch.painless.symbol.FunctionTable.LocalFunction;
+import org.elasticsearch.painless.symbol.ScriptScope;
+import org.elasticsearch.script.ScriptContext;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Persists the byte code of compiled scripts in a node-local directory, together with the static constants needed to define them
+ * again, so that scripts that were compiled before the node restarted can be loaded rather than compiled again. Scripts are keyed by
+ * their name, source, context, compiler settings, the whitelist of their context and the build of Elasticsearch, so a script is only
+ * loaded if compiling it again would generate the same byte code.
+ * <p>
+ * Only scripts whose static constants can be written to disk are persisted, which excludes scripts that call instance bindings.
+ * <p>
+ * The byte code in these files is defined without being compiled again, so every file is authenticated with an HMAC keyed by the secure
+ * setting {@link #KEY_SETTING}. The key is kept in the keystore, outside of the data path, so that code that can write to the data path
+ * can't make the node run arbitrary byte code. Files that fail authentication are deleted and their scripts are compiled again.
+ * <p>
+ * At most {@link #MAX_SCRIPTS_SETTING} scripts are stored. Storing another script evicts the least recently used one.
+ */
+public final class CompiledScriptStore {
+
+    private static final Logger logger = LogManager.getLogger(CompiledScriptStore.class);
+
+    public static final Setting<Boolean> ENABLED_SETTING =
+        Setting.boolSetting("script.painless.compiled_cache.enabled", false, Property.NodeScope);
+    public static final Setting<Integer> MAX_SCRIPTS_SETTING =
+        Setting.intSetting("script.painless.compiled_cache.max_scripts", 10000, 0, Property.NodeScope);
+    public static final Setting<SecureString> KEY_SETTING = SecureSetting.secureString("script.painless.compiled_cache.key", null);
+
+    // bump whenever the format of the files changes
+    private static final int FORMAT_VERSION = 2;
+    private static final String FILE_SUFFIX = ".script";
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+
+    // the types of static constants that can be persisted
+    private static final byte STRING = 0;
+    private static final byte BIT_SET = 1;
+    private static final byte PATTERN = 2;
+    private static final byte PAINLESS_LOOKUP = 3;
+    private static final byte FUNCTION_TABLE = 4;
+    private static final byte COMPILER_SETTINGS = 5;
+
+    private static final Map<String, Class<?>> PRIMITIVE_TYPES = Map.of(
+        "boolean", boolean.class,
+        "byte", byte.class,
+        "short", short.class,
+        "char", char.class,
+        "int", int.class,
+        "long", long.class,
+        "float", float.class,
+        "double", double.class,
+        "void", void.class
+    );
+
+    private final Path directory;
+    private final int maxScripts;
+    private final SecretKeySpec key;
+    private final ConcurrentMap<PainlessLookup, String> whitelistHashes = new ConcurrentHashMap<>();
+    // when each persisted script was last stored or loaded, as a sequence number by file name, guarded by this
+    private final Map<String, Long> lastUsed = new HashMap<>();
+    private long useSequence; // guarded by this
+
+    /**
+     * @param path the directory to persist scripts in, scripts that other builds of Elasticsearch persisted there are deleted
+     * @param maxScripts the maximum number of scripts to persist
+     * @param key the secret that the persisted scripts are authenticated with, see {@link #KEY_SETTING}
+     */
+    public CompiledScriptStore(Path path, int maxScripts, SecureString key) throws IOException {
+        if (key.length() == 0) {
+            throw new IllegalArgumentException("[" + ENABLED_SETTING.getKey() + "] requires the secure setting [" + KEY_SETTING.getKey()
+                + "] to be set in the keystore");
+        }
+        this.directory = path.resolve(FORMAT_VERSION + "_" + Build.CURRENT.hash());
+        this.maxScripts = maxScripts;
+        this.key = new SecretKeySpec(CharArrays.toUtf8Bytes(key.getChars()), MAC_ALGORITHM);
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+            for (Path other : stream) {
+                if (other.equals(directory) == false) {
+                    IOUtils.rm(other);
+                }
+            }
+        }
+        final Map<String, Long> modifiedTimes = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                if (file.getFileName().toString().endsWith(FILE_SUFFIX)) {
+                    modifiedTimes.put(file.getFileName().toString(), Files.getLastModifiedTime(file).toMillis());
+                } else {
+                    // left over from a write that did not complete
+                    Files.delete(file);
+                }
+            }
+        }
+        // the modification times of the files are updated when they are loaded, so they order the scripts by when they were last used
+        modifiedTimes.entrySet().stream()
+            .sorted(Map.Entry.comparingByValue())
+            .forEach(entry -> lastUsed.put(entry.getKey(), ++useSequence));
+        while (lastUsed.size() > maxScripts) {
+            // the limit was lowered since the scripts were stored
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    /**
+     * Builds the key of a script, which is everything that the byte code of the script depends on.
+     */
+    String key(ScriptContext<?> context, PainlessLookup painlessLookup, CompilerSettings compilerSettings,
+               Map<String, String> params, String name, String source) {
+        final String whitelistHash = whitelistHashes.computeIfAbsent(painlessLookup, CompiledScriptStore::whitelistHash);
+        return context.name + '\n'
+            + whitelistHash + '\n'
+            + new TreeMap<>(compilerSettings.asMap()) + '\n'
+            + new TreeMap<>(params) + '\n'
+            + name + '\n'
+            + source;
+    }
+
+    /**
+     * Persists a compiled script, unless one of its static constants cannot be persisted, evicting the least recently used script if the
+     * maximum number of scripts is reached. Failures are logged rather than thrown since the script can always be compiled again.
+     * @param key the key of the script, see {@link #key}
+     * @param scriptBytes the byte code of the script
+     * @param scriptScope the scope that the script was compiled with
+     */
+    void store(String key, byte[] scriptBytes, ScriptScope scriptScope) {
+        final String fileName = fileName(key);
+        synchronized (this) {
+            if (maxScripts == 0 || lastUsed.containsKey(fileName)) {
+                return;
+            }
+        }
+        final byte[] content;
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.writeString(key);
+            out.writeByteArray(scriptBytes);
+            out.writeStringCollection(scriptScope.getUsedVariables());
+            out.writeBoolean(scriptScope.isDeterministic());
+            out.writeVInt(scriptScope.getStaticConstants().size());
+            for (Map.Entry<String, Object> staticConstant : scriptScope.getStaticConstants().entrySet()) {
+                out.writeString(staticConstant.getKey());
+                if (writeStaticConstant(out, staticConstant.getKey(), staticConstant.getValue()) == false) {
+                    logger.trace("not persisting script with static constant [{}] of type [{}]",
+                        staticConstant.getKey(), staticConstant.getValue().getClass().getName());
+                    return;
+                }
+            }
+            content = BytesReference.toBytes(out.bytes());
+        } catch (IOException e) {
+            throw new AssertionError("writing to a BytesStreamOutput does not throw", e);
+        }
+
+        final byte[] mac = mac(content, 0, content.length);
+        final byte[] fileContent = Arrays.copyOf(content, content.length + mac.length);
+        System.arraycopy(mac, 0, fileContent, content.length, mac.length);
+
+        final Path file = directory.resolve(fileName);
+        synchronized (this) {
+            // reserve the file, so that the script is only counted once if it is compiled concurrently
+            if (lastUsed.containsKey(fileName)) {
+                return;
+            }
+            lastUsed.put(fileName, ++useSequence);
+            while (lastUsed.size() > maxScripts) {
+                evictLeastRecentlyUsed();
+            }
+        }
+        // write to a temporary file first so that a partially written file is never loaded
+        final Path tempFile = directory.resolve(fileName + "." + UUIDs.randomBase64UUID() + ".tmp");
+        try {
+            Files.write(tempFile, fileContent);
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                if (lastUsed.containsKey(fileName) == false) {
+                    // evicted while it was being written
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn(new ParameterizedMessage("failed to persist compiled script to [{}]", file), e);
+            IOUtils.deleteFilesIgnoringExceptions(tempFile);
+            synchronized (this) {
+                lastUsed.remove(fileName);
+            }
+        }
+    }
+
+    private synchronized void evictLeastRecentlyUsed() {
+        assert lastUsed.isEmpty() == false;
+        String leastRecentlyUsed = null;
+        long leastRecentUse = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> entry : lastUsed.entrySet()) {
+            if (entry.getValue() < leastRecentUse) {
+                leastRecentlyUsed = entry.getKey();
+                leastRecentUse = entry.getValue();
+            }
+        }
+        lastUsed.remove(leastRecentlyUsed);
+        try {
+            Files.deleteIfExists(directory.resolve(leastRecentlyUsed));
+        } catch (IOException e) {
+            logger.warn(new ParameterizedMessage("failed to evict compiled script [{}]", leastRecentlyUsed), e);
+        }
+    }
+
+    private byte[] mac(byte[] bytes, int offset, int length) {
+        try {
+            final Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            mac.update(bytes, offset, length);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("failed to compute the " + MAC_ALGORITHM + " of a compiled script", e);
+        }
+    }
+
+    /**
+     * Loads a persisted script.
+     * @param key the key of the script, see {@link #key}
+     * @param painlessLookup the whitelist of the context of the script
+     * @param compilerSettings the settings that the script would be compiled with
+     * @param loader the loader that will define the script, used to resolve the types of the functions of the script
+     * @return the persisted script, or {@code null} if the script has to be compiled
+     */
+    StoredScript load(String key, PainlessLookup painlessLookup, CompilerSettings compilerSettings, ClassLoader loader) {
+        final String fileName = fileName(key);
+        synchronized (this) {
+            if (lastUsed.containsKey(fileName) == false) {
+                return null;
+            }
+        }
+        final Path file = directory.resolve(fileName);
+        try {
+            final byte[] bytes;
+            try {
+                bytes = Files.readAllBytes(file);
+            } catch (NoSuchFileException e) {
+                // evicted, or not completely stored yet
+                return null;
+            }
+            final int length = bytes.length - MAC_LENGTH;
+            if (length < 0
+                || MessageDigest.isEqual(mac(bytes, 0, length), Arrays.copyOfRange(bytes, length, bytes.length)) == false) {
+                throw new IOException("authentication of the file failed");
+            }
+            final StreamInput in = StreamInput.wrap(bytes, 0, length);
+            if (key.equals(in.readString()) == false) {
+                // another script with the same hash
+                return null;
+            }
+            final byte[] scriptBytes = in.readByteArray();
+            final Set<String> usedVariables = in.readSet(StreamInput::readString);
+            final boolean deterministic = in.readBoolean();
+            final int numStaticConstants = in.readVInt();
+            final Map<String, Object> staticConstants = new HashMap<>(numStaticConstants);
+            for (int i = 0; i < numStaticConstants; i++) {
+                final String name = in.readString();
+                staticConstants.put(name, readStaticConstant(in, painlessLookup, compilerSettings, loader));
+            }
+            synchronized (this) {
+                if (lastUsed.containsKey(fileName)) {
+                    lastUsed.put(fileName, ++useSequence);
+                }
+            }
+            // keeps the order of eviction across restarts
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return new StoredScript(scriptBytes, staticConstants, usedVariables, deterministic);
+        } catch (IOException | RuntimeException e) {
+            logger.warn(new ParameterizedMessage("failed to load compiled script from [{}], compiling it again", file), e);
+            synchronized (this) {
+                lastUsed.remove(fileName);
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException inner) {
+                    e.addSuppressed(inner);
+                }
+            }
+            return null;
+        }
+    }
+
+    private static boolean writeStaticConstant(BytesStreamOutput out, String name, Object value) throws IOException {
+        if (value instanceof String) {
+            out.writeByte(STRING);
+            out.writeString((String) value);
+        } else if (value instanceof BitSet) {
+            out.writeByte(BIT_SET);
+            out.writeLongArray(((BitSet) value).toLongArray());
+        } else if (value instanceof Pattern) {
+            out.writeByte(PATTERN);
+            out.writeString(((Pattern) value).pattern());
+            out.writeVInt(((Pattern) value).flags());
+        } else if (value instanceof PainlessLookup) {
+            out.writeByte(PAINLESS_LOOKUP);
+        } else if (value instanceof FunctionTable) {
+            out.writeByte(FUNCTION_TABLE);
+            final List<LocalFunction> functions = new ArrayList<>(((FunctionTable) value).getFunctions());
+            out.writeVInt(functions.size());
+            for (LocalFunction function : functions) {
+                out.writeString(function.getFunctionName());
+                out.writeBoolean(function.getMangledName().equals(function.getFunctionName()) == false);
+                out.writeString(function.getReturnType().getName());
+                out.writeStringCollection(function.getTypeParameters().stream().map(Class::getName).collect(Collectors.toList()));
+                out.writeBoolean(function.isInternal());
+                out.writeBoolean(function.isStatic());
+            }
+        } else if ("$COMPILERSETTINGS".equals(name)) {
+            // the compiler settings are part of the key
+            out.writeByte(COMPILER_SETTINGS);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static Object readStaticConstant(StreamInput in, PainlessLookup painlessLookup, CompilerSettings compilerSettings,
+                                             ClassLoader loader) throws IOException {
+        final byte type = in.readByte();
+        switch (type) {
+            case STRING:
+                return in.readString();
+            case BIT_SET:
+                return BitSet.valueOf(in.readLongArray());
+            case PATTERN:
+                return Pattern.compile(in.readString(), in.readVInt());
+            case PAINLESS_LOOKUP:
+                return painlessLookup;
+            case FUNCTION_TABLE:
+                final FunctionTable functionTable = new FunctionTable();
+                final int numFunctions = in.readVInt();
+                for (int i = 0; i < numFunctions; i++) {
+                    final String functionName = in.readString();
+                    final boolean mangled = in.readBoolean();
+                    final Class<?> returnType = resolveType(in.readString(), loader);
+                    final List<Class<?>> typeParameters = new ArrayList<>();
+                    for (String typeParameter : in.readStringList()) {
+                        typeParameters.add(resolveType(typeParameter, loader));
+                    }
+                    final boolean isInternal = in.readBoolean();
+                    final boolean isStatic = in.readBoolean();
+                    if (mangled) {
+                        functionTable.addMangledFunction(functionName, returnType, typeParameters, isInternal, isStatic);
+                    } else {
+                        functionTable.addFunction(functionName, returnType, typeParameters, isInternal, isStatic);
+                    }
+                }
+                return functionTable;
+            case COMPILER_SETTINGS:
+                return compilerSettings.asMap();
+            default:
+                throw new IOException("unknown static constant type [" + type + "]");
+        }
+    }
+
+    private static Class<?> resolveType(String name, ClassLoader loader) throws IOException {
+        final Class<?> primitiveType = PRIMITIVE_TYPES.get(name);
+        if (primitiveType != null) {
+            return primitiveType;
+        }
+        try {
+            return Class.forName(name, false, loader);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("failed to resolve type [" + name + "]", e);
+        }
+    }
+
+    private static String fileName(String key) {
+        return MessageDigests.toHexString(MessageDigests.sha256().digest(key.getBytes(StandardCharsets.UTF_8))) + FILE_SUFFIX;
+    }
+
+    /**
+     * A hash of the signatures of all the classes, methods and fields of a whitelist.
+     */
+    static String whitelistHash(PainlessLookup painlessLookup) {
+        final List<String> entries = new ArrayList<>();
+        for (Class<?> clazz : painlessLookup.getClasses()) {
+            entries.add(clazz.getName());
+            final PainlessClass painlessClass = painlessLookup.lookupPainlessClass(clazz);
+            painlessClass.constructors.values().forEach(constructor -> entries.add(constructor.javaConstructor.toString()));
+            painlessClass.staticMethods.values().forEach(method -> entries.add(method.javaMethod.toString()));
+            painlessClass.methods.values().forEach(method -> entries.add(method.javaMethod.toString()));
+            painlessClass.staticFields.values().forEach(field -> entries.add(field.javaField.toString()));
+            painlessClass.fields.values().forEach(field -> entries.add(field.javaField.toString()));
+        }
+        entries.addAll(painlessLookup.getImportedPainlessMethodsKeys());
+        entries.addAll(painlessLookup.getPainlessClassBindingsKeys());
+        entries.addAll(painlessLookup.getPainlessInstanceBindingsKeys());
+        Collections.sort(entries);
+        final MessageDigest digest = MessageDigests.sha256();
+        for (String entry : entries) {
+            digest.update(entry.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        return MessageDigests.toHexString(digest.digest());
+    }
+
+    /**
+     * A script loaded from disk, ready to be defined.
+     */
+    static final class StoredScript {
+        final byte[] scriptBytes;
+        final Map<String, Object> staticConstants;
+        final Set<String> usedVariables;
+        final boolean deterministic;
+
+        StoredScript(byte[] scriptBytes, Map<String, Object> staticConstants, Set<String> usedVariables, boolean deterministic) {
+            this.scriptBytes = scriptBytes;
+            this.staticConstants = staticConstants;
+            this.usedVariables = usedVariables;
+            this.deterministic = deterministic;
+        }
+    }
+}
@@ -18,6 +18,7 @@ import org.elasticsearch.painless.phase.DefaultIRTreeToASMBytesPhase;
 import org.elasticsearch.painless.phase.DefaultStaticConstantExtractionPhase;
 import org.elasticsearch.painless.phase.DefaultStringConcatenationOptimizationPhase;
 import org.elasticsearch.painless.phase.IRTreeVisitor;
+import org.elasticsearch.painless.phase.PainlessDocAccessOptimizationPhase;
 import org.elasticsearch.painless.phase.PainlessSemanticAnalysisPhase;
 import org.elasticsearch.painless.phase.PainlessSemanticHeaderPhase;
 import org.elasticsearch.painless.phase.PainlessUserTreeToIRTreePhase;
@@ -70,6 +71,7 @@ final class Compiler {
      */
     final class Loader extends SecureClassLoader {
         private final AtomicInteger lambdaCounter = new AtomicInteger(0);
+        private byte[] scriptBytes;
 
         /**
          * @param parent The parent ClassLoader.
@@ -112,7 +114,17 @@ final class Compiler {
          * @return A Class object extending {@link PainlessScript}.
          */
         Class<? extends PainlessScript> defineScript(String name, byte[] bytes) {
-            return defineClass(name, bytes, 0, bytes.length, CODESOURCE).asSubclass(PainlessScript.class);
+            Class<? extends PainlessScript> clazz = defineClass(name, bytes, 0, bytes.length, CODESOURCE)
+                .asSubclass(PainlessScript.class);
+            scriptBytes = bytes;
+            return clazz;
+        }
+
+        /**
+         * The byte code of the script defined by this loader, or {@code null} if no script was defined yet.
+         */
+        byte[] getScriptBytes() {
+            return scriptBytes;
         }
 
         /**
@@ -217,18 +229,29 @@ final class Compiler {
         ClassNode classNode = (ClassNode)scriptScope.getDecoration(root, IRNodeDecoration.class).getIRNode();
         new DefaultStringConcatenationOptimizationPhase().visitClass(classNode, null);
         new DefaultConstantFoldingOptimizationPhase().visitClass(classNode, null);
+        new PainlessDocAccessOptimizationPhase().visitClass(classNode, null);
         new DefaultStaticConstantExtractionPhase().visitClass(classNode, scriptScope);
         new DefaultIRTreeToASMBytesPhase().visitScript(classNode);
         byte[] bytes = classNode.getBytes();
 
+        define(loader, name, bytes, scriptScope.getStaticConstants());
+        return scriptScope;
+    }
+
+    /**
+     * Defines a script from its byte code, either just generated or compiled earlier, and initializes its static constants.
+     * @param loader The ClassLoader used to define the script.
+     * @param name The name of the script.
+     * @param bytes The byte code of the script.
+     * @param staticConstants The values of the static constants of the script.
+     */
+    void define(Loader loader, String name, byte[] bytes, Map<String, Object> staticConstants) {
         try {
             Class<? extends PainlessScript> clazz = loader.defineScript(CLASS_NAME, bytes);
 
-            for (Map.Entry<String, Object> staticConstant : scriptScope.getStaticConstants().entrySet()) {
+            for (Map.Entry<String, Object> staticConstant : staticConstants.entrySet()) {
                 clazz.getField(staticConstant.getKey()).set(null, staticConstant.getValue());
             }
-
-            return scriptScope;
         } catch (Exception exception) {
             // Catch everything to let the user know this is something caused internally.
             throw new IllegalStateException("An internal error occurred attempting to define the script [" + name + "].", exception);
@@ -252,6 +275,7 @@ final class Compiler {
         ClassNode classNode = (ClassNode)scriptScope.getDecoration(root, IRNodeDecoration.class).getIRNode();
         new DefaultStringConcatenationOptimizationPhase().visitClass(classNode, null);
         new DefaultConstantFoldingOptimizationPhase().visitClass(classNode, null);
+        new PainlessDocAccessOptimizationPhase().visitClass(classNode, null);
         new DefaultStaticConstantExtractionPhase().visitClass(classNode, scriptScope);
         classNode.setDebugStream(debugStream);
         new DefaultIRTreeToASMBytesPhase().visitScript(classNode);
@@ -285,6 +309,7 @@ final class Compiler {
         ClassNode classNode = (ClassNode)scriptScope.getDecoration(root, IRNodeDecoration.class).getIRNode();
         new DefaultStringConcatenationOptimizationPhase().visitClass(classNode, null);
         new DefaultConstantFoldingOptimizationPhase().visitClass(classNode, null);
+        new PainlessDocAccessOptimizationPhase().visitClass(classNode, null);
         new DefaultStaticConstantExtractionPhase().visitClass(classNode, scriptScope);
         classNode.setDebugStream(debugStream);
 
@@ -0,0 +1,33 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.painless;
+
+import org.elasticsearch.search.lookup.LeafDocLookup;
+
+import java.util.Map;
+
+/**
+ * Runtime support for {@code doc['field']} accesses whose field name is a constant, see
+ * {@link org.elasticsearch.painless.phase.PainlessDocAccessOptimizationPhase}.
+ */
+public final class DocAccess {
+
+    /**
+     * Same as {@code doc.get(key)}, but finds the doc values of the field by the identity of the constant field name
+     * when {@code doc} is the {@link LeafDocLookup} of a script.
+     */
+    public static Object get(Map<?, ?> doc, Object key) {
+        if (doc instanceof LeafDocLookup && key instanceof String) {
+            return ((LeafDocLookup) doc).getConstant((String) key);
+        }
+        return doc.get(key);
+    }
+
+    private DocAccess() {}
+}
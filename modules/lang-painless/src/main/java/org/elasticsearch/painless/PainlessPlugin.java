@@ -19,6 +19,7 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.IndexScopedSettings;
+import org.elasticsearch.common.settings.SecureString;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.settings.SettingsFilter;
@@ -45,6 +46,8 @@ import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.watcher.ResourceWatcherService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -137,6 +140,16 @@ public final class PainlessPlugin extends Plugin implements ScriptPlugin, Extens
                                                NodeEnvironment nodeEnvironment, NamedWriteableRegistry namedWriteableRegistry,
                                                IndexNameExpressionResolver expressionResolver,
                                                Supplier<RepositoriesService> repositoriesServiceSupplier) {
+        if (CompiledScriptStore.ENABLED_SETTING.get(environment.settings()) && nodeEnvironment.hasNodeFile()) {
+            try (SecureString key = CompiledScriptStore.KEY_SETTING.get(environment.settings())) {
+                painlessScriptEngine.get().setCompiledScriptStore(new CompiledScriptStore(
+                    nodeEnvironment.nodeDataPath().resolve("painless"),
+                    CompiledScriptStore.MAX_SCRIPTS_SETTING.get(environment.settings()),
+                    key));
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to open the store of compiled painless scripts", e);
+            }
+        }
         // this is a hack to bind the painless script engine in guice (all components are added to guice), so that
         // the painless context api. this is a temporary measure until transport actions do no require guice
         return Collections.singletonList(painlessScriptEngine.get());
@@ -144,7 +157,8 @@ public final class PainlessPlugin extends Plugin implements ScriptPlugin, Extens
 
     @Override
     public List<Setting<?>> getSettings() {
-        return Arrays.asList(CompilerSettings.REGEX_ENABLED, CompilerSettings.REGEX_LIMIT_FACTOR);
+        return Arrays.asList(CompilerSettings.REGEX_ENABLED, CompilerSettings.REGEX_LIMIT_FACTOR,
+            CompiledScriptStore.ENABLED_SETTING, CompiledScriptStore.MAX_SCRIPTS_SETTING, CompiledScriptStore.KEY_SETTING);
     }
 
     @Override
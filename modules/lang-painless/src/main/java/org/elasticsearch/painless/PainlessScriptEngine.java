@@ -75,6 +75,11 @@ public final class PainlessScriptEngine implements ScriptEngine {
     private final Map<ScriptContext<?>, Compiler> contextsToCompilers;
     private final Map<ScriptContext<?>, PainlessLookup> contextsToLookups;
 
+    /**
+     * Persists compiled scripts across restarts of the node, {@code null} unless {@link CompiledScriptStore#ENABLED_SETTING} is set.
+     */
+    private volatile CompiledScriptStore compiledScriptStore;
+
     /**
      * Constructor.
      * @param settings The settings to initialize the engine with.
@@ -102,6 +107,10 @@ public final class PainlessScriptEngine implements ScriptEngine {
         return contextsToLookups;
     }
 
+    void setCompiledScriptStore(CompiledScriptStore compiledScriptStore) {
+        this.compiledScriptStore = compiledScriptStore;
+    }
+
     /**
      * Get the type name(s) for the language.
      * @return Always contains only the single name of the language.
@@ -133,10 +142,68 @@ public final class PainlessScriptEngine implements ScriptEngine {
 
         ScriptScope scriptScope = compile(contextsToCompilers.get(context), loader, scriptName, scriptSource, params);
 
+        final CompiledScriptStore store = compiledScriptStore;
+        if (store != null) {
+            final String key = store.key(context, contextsToLookups.get(context), buildCompilerSettings(params), params,
+                scriptName, scriptSource);
+            AccessController.doPrivileged((PrivilegedAction<Void>) () -> {
+                store.store(key, loader.getScriptBytes(), scriptScope);
+                return null;
+            });
+        }
+
+        return generateFactory(loader, context, scriptScope.getUsedVariables(), scriptScope.isDeterministic());
+    }
+
+    @Override
+    public <T> T load(
+        String scriptName,
+        String scriptSource,
+        ScriptContext<T> context,
+        Map<String, String> params
+    ) {
+        final CompiledScriptStore store = compiledScriptStore;
+        final Compiler compiler = contextsToCompilers.get(context);
+        if (store == null || compiler == null) {
+            return null;
+        }
+
+        // Check we ourselves are not being called by unprivileged code.
+        SpecialPermission.check();
+
+        final Loader loader = AccessController.doPrivileged(new PrivilegedAction<Loader>() {
+            @Override
+            public Loader run() {
+                return compiler.createLoader(getClass().getClassLoader());
+            }
+        });
+
+        final CompilerSettings compilerSettings = buildCompilerSettings(params);
+        final PainlessLookup painlessLookup = contextsToLookups.get(context);
+        final String key = store.key(context, painlessLookup, compilerSettings, params, scriptName, scriptSource);
+        final CompiledScriptStore.StoredScript storedScript = AccessController.doPrivileged(
+            (PrivilegedAction<CompiledScriptStore.StoredScript>) () -> store.load(key, painlessLookup, compilerSettings, loader));
+        if (storedScript == null) {
+            return null;
+        }
+
+        // Drop all permissions to define the script, like when compiling it.
+        AccessController.doPrivileged((PrivilegedAction<Void>) () -> {
+            compiler.define(loader, scriptName == null ? scriptSource : scriptName, storedScript.scriptBytes, storedScript.staticConstants);
+            return null;
+        }, COMPILATION_CONTEXT);
+
+        return generateFactory(loader, context, storedScript.usedVariables, storedScript.deterministic);
+    }
+
+    /**
+     * Generates the factory of a script that was defined by the given loader.
+     */
+    private <T> T generateFactory(Loader loader, ScriptContext<T> context, Set<String> usedVariables, boolean deterministic) {
         if (context.statefulFactoryClazz != null) {
-            return generateFactory(loader, context, generateStatefulFactory(loader, context, scriptScope), scriptScope);
+            return generateFactory(loader, context, generateStatefulFactory(loader, context, usedVariables), usedVariables, deterministic);
         } else {
-            return generateFactory(loader, context, WriterConstants.CLASS_TYPE, scriptScope);
+            return generateFactory(loader, context, WriterConstants.CLASS_TYPE, usedVariables, deterministic);
         }
     }
 
@@ -153,13 +220,14 @@ public final class PainlessScriptEngine implements ScriptEngine {
      * define the factory method to create new instances of the {@link ScriptContext#instanceClazz}.
      * @param loader The {@link ClassLoader} that is used to define the factory class and script class.
      * @param context The {@link ScriptContext}'s semantics are used to define the factory class.
+     * @param usedVariables The variables that the script uses.
      * @param <T> The factory class.
      * @return A factory class that will return script instances.
      */
     private <T> Type generateStatefulFactory(
         Loader loader,
         ScriptContext<T> context,
-        ScriptScope scriptScope
+        Set<String> usedVariables
     ) {
         int classFrames = ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS;
         int classAccess = Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER | Opcodes.ACC_FINAL;
@@ -241,7 +309,7 @@ public final class PainlessScriptEngine implements ScriptEngine {
         adapter.returnValue();
         adapter.endMethod();
 
-        writeNeedsMethods(context.statefulFactoryClazz, writer, scriptScope.getUsedVariables());
+        writeNeedsMethods(context.statefulFactoryClazz, writer, usedVariables);
         writer.visitEnd();
 
         loader.defineFactory(className.replace('/', '.'), writer.toByteArray());
@@ -258,7 +326,8 @@ public final class PainlessScriptEngine implements ScriptEngine {
      * @param context The {@link ScriptContext}'s semantics are used to define the factory class.
      * @param classType The type to be instaniated in the newFactory or newInstance method.  Depends
      *                  on whether a {@link ScriptContext#statefulFactoryClazz} is specified.
-     * @param scriptScope the {@link ScriptScope} used to do the compilation
+     * @param usedVariables The variables that the script uses.
+     * @param deterministic Whether the results of the script are deterministic.
      * @param <T> The factory class.
      * @return A factory class that will return script instances.
      */
@@ -266,7 +335,8 @@ public final class PainlessScriptEngine implements ScriptEngine {
         Loader loader,
         ScriptContext<T> context,
         Type classType,
-        ScriptScope scriptScope
+        Set<String> usedVariables,
+        boolean deterministic
     ) {
         int classFrames = ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS;
         int classAccess = Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER| Opcodes.ACC_FINAL;
@@ -315,7 +385,7 @@ public final class PainlessScriptEngine implements ScriptEngine {
         adapter.returnValue();
         adapter.endMethod();
 
-        writeNeedsMethods(context.factoryClazz, writer, scriptScope.getUsedVariables());
+        writeNeedsMethods(context.factoryClazz, writer, usedVariables);
 
         String methodName = "isResultDeterministic";
         org.objectweb.asm.commons.Method isResultDeterministic = new org.objectweb.asm.commons.Method(methodName,
@@ -324,7 +394,7 @@ public final class PainlessScriptEngine implements ScriptEngine {
         GeneratorAdapter deterAdapter = new GeneratorAdapter(Opcodes.ASM5, isResultDeterministic,
             writer.visitMethod(Opcodes.ACC_PUBLIC, methodName, isResultDeterministic.getDescriptor(), null, null));
         deterAdapter.visitCode();
-        deterAdapter.push(scriptScope.isDeterministic());
+        deterAdapter.push(deterministic);
         deterAdapter.returnValue();
         deterAdapter.endMethod();
 
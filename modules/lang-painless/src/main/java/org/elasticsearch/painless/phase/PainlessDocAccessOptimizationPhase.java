@@ -0,0 +1,78 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.painless.phase;
+
+import org.elasticsearch.painless.DocAccess;
+import org.elasticsearch.painless.ir.BinaryImplNode;
+import org.elasticsearch.painless.ir.CastNode;
+import org.elasticsearch.painless.ir.ConstantNode;
+import org.elasticsearch.painless.ir.ExpressionNode;
+import org.elasticsearch.painless.ir.LoadMapShortcutNode;
+import org.elasticsearch.painless.ir.LoadVariableNode;
+import org.elasticsearch.painless.lookup.PainlessMethod;
+import org.elasticsearch.painless.symbol.IRDecorations.IRDConstant;
+import org.elasticsearch.painless.symbol.IRDecorations.IRDMethod;
+import org.elasticsearch.painless.symbol.IRDecorations.IRDName;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Specializes {@code doc['field']} loads whose field name is a constant so that they call {@link DocAccess#get} rather than
+ * {@link Map#get}. Scripts look up the doc values of such fields by the identity of the field name in the constant pool
+ * instead of hashing it for every document. The mapping of the fields isn't known when scripts are compiled, so the doc
+ * values themselves are still resolved when the script runs on a segment.
+ */
+public class PainlessDocAccessOptimizationPhase extends IRTreeBaseVisitor<Void> {
+
+    private static final Method MAP_GET;
+    private static final Method DOC_ACCESS_GET;
+
+    static {
+        try {
+            MAP_GET = Map.class.getMethod("get", Object.class);
+            DOC_ACCESS_GET = DocAccess.class.getMethod("get", Map.class, Object.class);
+        } catch (NoSuchMethodException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    @Override
+    public void visitBinaryImpl(BinaryImplNode irBinaryImplNode, Void scope) {
+        super.visitBinaryImpl(irBinaryImplNode, scope);
+
+        // a brace load is a binary node of the prefix and index, followed by the load of the map shortcut
+        if (irBinaryImplNode.getRightNode() instanceof LoadMapShortcutNode
+                && irBinaryImplNode.getLeftNode() instanceof BinaryImplNode) {
+            BinaryImplNode irPrefixNode = (BinaryImplNode)irBinaryImplNode.getLeftNode();
+            LoadMapShortcutNode irLoadMapShortcutNode = (LoadMapShortcutNode)irBinaryImplNode.getRightNode();
+            PainlessMethod getter = irLoadMapShortcutNode.getDecorationValue(IRDMethod.class);
+
+            if (isDocVariable(irPrefixNode.getLeftNode()) && isConstantString(irPrefixNode.getRightNode())
+                    && MAP_GET.equals(getter.javaMethod)) {
+                irLoadMapShortcutNode.attachDecoration(new IRDMethod(new PainlessMethod(DOC_ACCESS_GET, DocAccess.class,
+                        getter.returnType, getter.typeParameters, null,
+                        MethodType.methodType(Object.class, Map.class, Object.class), getter.annotations)));
+            }
+        }
+    }
+
+    private static boolean isDocVariable(ExpressionNode irExpressionNode) {
+        return irExpressionNode instanceof LoadVariableNode && "doc".equals(irExpressionNode.getDecorationValue(IRDName.class));
+    }
+
+    private static boolean isConstantString(ExpressionNode irExpressionNode) {
+        if (irExpressionNode instanceof CastNode) {
+            irExpressionNode = ((CastNode)irExpressionNode).getChildNode();
+        }
+
+        return irExpressionNode instanceof ConstantNode && irExpressionNode.getDecorationValue(IRDConstant.class) instanceof String;
+    }
+}
@@ -12,6 +12,7 @@ import org.elasticsearch.painless.lookup.PainlessLookupUtility;
 import org.objectweb.asm.commons.Method;
 
 import java.lang.invoke.MethodType;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -62,6 +63,10 @@ public class FunctionTable {
                     MethodType.methodType(javaReturnType, javaTypeParameters).toMethodDescriptorString());
         }
 
+        public String getFunctionName() {
+            return functionName;
+        }
+
         public String getMangledName() {
             return mangledName;
         }
@@ -129,4 +134,8 @@ public class FunctionTable {
     public LocalFunction getFunction(String functionKey) {
         return localFunctions.get(functionKey);
     }
+
+    public Collection<LocalFunction> getFunctions() {
+        return Collections.unmodifiableCollection(localFunctions.values());
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.painless;
+
+import org.elasticsearch.common.settings.SecureString;
+import org.elasticsearch.painless.action.PainlessExecuteAction.PainlessTestScript;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+public class CompiledScriptStoreTests extends ScriptTestCase {
+
+    private static final String SCRIPT =
+        "int twice(int x) { return x * 2 } List l = [1, 2, 3]; return l.stream().mapToInt(x -> twice(x)).sum() + params.a";
+
+    private final SecureString key = new SecureString(randomAlphaOfLength(32).toCharArray());
+
+    public void testLoadAfterRestart() throws IOException {
+        final Path path = createTempDir();
+        scriptEngine.setCompiledScriptStore(new CompiledScriptStore(path, 100, key));
+        assertNull(scriptEngine.load(null, SCRIPT, PainlessTestScript.CONTEXT, Collections.emptyMap()));
+        final PainlessTestScript.Factory compiled = scriptEngine.compile(null, SCRIPT, PainlessTestScript.CONTEXT, Collections.emptyMap());
+        assertEquals(13, compiled.newInstance(Map.of("a", 1)).execute());
+
+        // a new engine, as after a restart of the node
+        final PainlessScriptEngine restarted = restart(path, 100, key);
+        final PainlessTestScript.Factory loaded = restarted.load(null, SCRIPT, PainlessTestScript.CONTEXT, Collections.emptyMap());
+        assertNotNull(loaded);
+        assertEquals(13, loaded.newInstance(Map.of("a", 1)).execute());
+        assertEquals(15, loaded.newInstance(Map.of("a", 3)).execute());
+
+        // other sources and other compiler settings are compiled separately
+        assertNull(restarted.load(null, SCRIPT + " + 1", PainlessTestScript.CONTEXT, Collections.emptyMap()));
+        assertNull(restarted.load(null, SCRIPT, PainlessTestScript.CONTEXT,
+            Map.of(CompilerSettings.MAX_LOOP_COUNTER, "100")));
+    }
+
+    public void testEvictsLeastRecentlyUsedScript() throws IOException {
+        final Path path = createTempDir();
+        scriptEngine.setCompiledScriptStore(new CompiledScriptStore(path, 2, key));
+        scriptEngine.compile(null, "return 1", PainlessTestScript.CONTEXT, Collections.emptyMap());
+        scriptEngine.compile(null, "return 2", PainlessTestScript.CONTEXT, Collections.emptyMap());
+        // the same script again is not counted twice
+        scriptEngine.compile(null, "return 2", PainlessTestScript.CONTEXT, Collections.emptyMap());
+        assertThat(storedFiles(path).size(), equalTo(2));
+
+        // using the first script makes the second one the least recently used
+        assertNotNull(scriptEngine.load(null, "return 1", PainlessTestScript.CONTEXT, Collections.emptyMap()));
+        scriptEngine.compile(null, "return 3", PainlessTestScript.CONTEXT, Collections.emptyMap());
+        assertThat(storedFiles(path).size(), equalTo(2));
+        assertNull(scriptEngine.load(null, "return 2", PainlessTestScript.CONTEXT, Collections.emptyMap()));
+        assertNotNull(scriptEngine.load(null, "return 1", PainlessTestScript.CONTEXT, Collections.emptyMap()));
+        assertNotNull(scriptEngine.load(null, "return 3", PainlessTestScript.CONTEXT, Collections.emptyMap()));
+
+        // lowering the limit evicts scripts on startup
+        restart(path, 1, key);
+        assertThat(storedFiles(path).size(), equalTo(1));
+    }
+
+    public void testRejectsModifiedScripts() throws IOException {
+        final Path path = createTempDir();
+        scriptEngine.setCompiledScriptStore(new CompiledScriptStore(path, 100, key));
+        scriptEngine.compile(null, SCRIPT, PainlessTestScript.CONTEXT, Collections.emptyMap());
+        final List<Path> files = storedFiles(path);
+        assertThat(files.size(), equalTo(1));
+        final byte[] bytes = Files.readAllBytes(files.get(0));
+        final int position = randomIntBetween(0, bytes.length - 1);
+        bytes[position] = (byte) (bytes[position] ^ (1 << randomIntBetween(0, 7)));
+        Files.write(files.get(0), bytes);
+
+        assertNull(restart(path, 100, key).load(null, SCRIPT, PainlessTestScript.CONTEXT, Collections.emptyMap()));
+        assertThat(storedFiles(path).size(), equalTo(0));
+    }
+
+    public void testRejectsScriptsStoredWithAnotherKey() throws IOException {
+        final Path path = createTempDir();
+        scriptEngine.setCompiledScriptStore(new CompiledScriptStore(path, 100, key));
+        scriptEngine.compile(null, SCRIPT, PainlessTestScript.CONTEXT, Collections.emptyMap());
+
+        final SecureString otherKey = new SecureString(randomAlphaOfLength(33).toCharArray());
+        assertNull(restart(path, 100, otherKey).load(null, SCRIPT, PainlessTestScript.CONTEXT, Collections.emptyMap()));
+        assertThat(storedFiles(path).size(), equalTo(0));
+    }
+
+    public void testRequiresKey() {
+        final IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> new CompiledScriptStore(createTempDir(), 100, new SecureString(new char[0])));
+        assertThat(e.getMessage(), containsString("[" + CompiledScriptStore.KEY_SETTING.getKey() + "]"));
+    }
+
+    private PainlessScriptEngine restart(Path path, int maxScripts, SecureString key) throws IOException {
+        final PainlessScriptEngine restarted = new PainlessScriptEngine(scriptEngineSettings(), scriptContexts());
+        restarted.setCompiledScriptStore(new CompiledScriptStore(path, maxScripts, key));
+        return restarted;
+    }
+
+    private static List<Path> storedFiles(Path path) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(path)) {
+            for (Path directory : directories) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.script")) {
+                    stream.forEach(files::add);
+                }
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+}
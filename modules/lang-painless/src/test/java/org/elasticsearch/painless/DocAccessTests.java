@@ -0,0 +1,80 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.painless;
+
+import org.elasticsearch.painless.spi.Whitelist;
+import org.elasticsearch.script.ScriptContext;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.emptyMap;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Tests that {@code doc['field']} loads with a constant field name are specialized by the
+ * {@link org.elasticsearch.painless.phase.PainlessDocAccessOptimizationPhase}.
+ */
+public class DocAccessTests extends ScriptTestCase {
+
+    private static final String DOC_ACCESS_GET =
+        "INVOKESTATIC org/elasticsearch/painless/DocAccess.get (Ljava/util/Map;Ljava/lang/Object;)Ljava/lang/Object;";
+
+    @Override
+    protected Map<ScriptContext<?>, List<Whitelist>> scriptContexts() {
+        Map<ScriptContext<?>, List<Whitelist>> contexts = new HashMap<>();
+        contexts.put(DocScript.CONTEXT, PainlessPlugin.BASE_WHITELISTS);
+        return contexts;
+    }
+
+    public abstract static class DocScript {
+
+        public interface Factory {
+            DocScript newInstance(Map<String, Object> doc);
+        }
+
+        public static final ScriptContext<Factory> CONTEXT = new ScriptContext<>("doc_access", Factory.class);
+
+        private final Map<String, Object> doc;
+
+        public DocScript(Map<String, Object> doc) {
+            this.doc = doc;
+        }
+
+        public static final String[] PARAMETERS = new String[] {};
+        public abstract Object execute();
+
+        public Map<String, Object> getDoc() {
+            return doc;
+        }
+    }
+
+    public void testConstantFieldName() {
+        assertThat(debug("doc['field']"), containsString(DOC_ACCESS_GET));
+        assertThat(debug("doc['fi' + 'eld'].length()"), containsString(DOC_ACCESS_GET));
+        assertEquals(5, exec("doc['field'].length()", Map.of("field", "value")));
+    }
+
+    public void testNotSpecialized() {
+        assertThat(debug("String field = 'field'; doc[field]"), not(containsString(DOC_ACCESS_GET)));
+        assertThat(debug("Map other = doc; other['field']"), not(containsString(DOC_ACCESS_GET)));
+        assertThat(debug("doc['field'] = 1"), not(containsString(DOC_ACCESS_GET)));
+        assertEquals(5, exec("String field = 'field'; doc[field].length()", Map.of("field", "value")));
+    }
+
+    private static String debug(String source) {
+        return Debugger.toString(DocScript.class, source, new CompilerSettings(), PainlessPlugin.BASE_WHITELISTS);
+    }
+
+    private Object exec(String source, Map<String, Object> doc) {
+        return scriptEngine.compile(null, source, DocScript.CONTEXT, emptyMap()).newInstance(doc).execute();
+    }
+}
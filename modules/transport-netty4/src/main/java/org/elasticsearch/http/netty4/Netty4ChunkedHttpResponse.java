@@ -0,0 +1,187 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpChunkedInput;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.http.HttpResponse;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.transport.netty4.NettyAllocator;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A response whose body is a {@link ChunkedRestResponseBody}, sent using chunked transfer encoding. The {@link Netty4HttpResponseCreator}
+ * follows this response with an {@link HttpChunkedInput} that the {@link ChunkedWriteHandler} reads from whenever the channel is
+ * writable. Each chunk of the body is only serialized once the handler asks for it, and on a worker thread rather than on the event loop,
+ * so that a slow client holds up at most one chunk of the body in memory and a large body does not block the other channels of the event
+ * loop while it is being serialized.
+ */
+public class Netty4ChunkedHttpResponse extends DefaultHttpResponse implements HttpResponse {
+
+    // Netty will add some header bytes if it compresses the chunks. So we downsize slightly.
+    private static final int CHUNK_SIZE = (int) (NettyAllocator.suggestedMaxAllocationSize() * 0.99);
+
+    private final HttpHeaders requestHeaders;
+    private final ChunkedRestResponseBody body;
+
+    Netty4ChunkedHttpResponse(HttpHeaders requestHeaders, HttpVersion version, RestStatus status, ChunkedRestResponseBody body) {
+        super(version, HttpResponseStatus.valueOf(status.getStatus()));
+        this.requestHeaders = requestHeaders;
+        this.body = body;
+        HttpUtil.setTransferEncodingChunked(this, true);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        headers().add(name, value);
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return headers().contains(name);
+    }
+
+    public HttpHeaders requestHeaders() {
+        return requestHeaders;
+    }
+
+    /**
+     * @param executor the executor to serialize the chunks of the body on
+     * @param chunkedWriteHandler the handler that writes the returned chunks, which is resumed each time a chunk has been serialized
+     * @return the chunks of the body of this response.
+     */
+    HttpChunkedInput bodyInput(Executor executor, ChunkedWriteHandler chunkedWriteHandler) {
+        return new HttpChunkedInput(new BodyInput(body, executor, chunkedWriteHandler));
+    }
+
+    /**
+     * Serializes the next chunk of the body on the executor the first time the {@link ChunkedWriteHandler} asks for it, which it only does
+     * while the channel is writable, and returns {@code null} until that chunk is ready. Once it is ready the handler is resumed and picks
+     * it up on the event loop.
+     */
+    static final class BodyInput implements ChunkedInput<ByteBuf> {
+
+        private final ChunkedRestResponseBody body;
+        private final Executor executor;
+        private final ChunkedWriteHandler chunkedWriteHandler;
+
+        // all the following fields are guarded by this
+        private ByteBuf nextChunk;
+        private boolean encoding;
+        private boolean bodyDone;
+        private boolean closed;
+        private Exception failure;
+        private long progress;
+
+        BodyInput(ChunkedRestResponseBody body, Executor executor, ChunkedWriteHandler chunkedWriteHandler) {
+            this.body = body;
+            this.executor = executor;
+            this.chunkedWriteHandler = chunkedWriteHandler;
+        }
+
+        @Override
+        public synchronized boolean isEndOfInput() {
+            return bodyDone && nextChunk == null && failure == null;
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            if (nextChunk != null) {
+                nextChunk.release();
+                nextChunk = null;
+            }
+        }
+
+        @Deprecated
+        @Override
+        public ByteBuf readChunk(ChannelHandlerContext ctx) throws Exception {
+            return readChunk(ctx.alloc());
+        }
+
+        @Override
+        public ByteBuf readChunk(ByteBufAllocator allocator) throws Exception {
+            synchronized (this) {
+                if (failure != null) {
+                    throw failure;
+                }
+                if (nextChunk != null) {
+                    final ByteBuf chunk = nextChunk;
+                    nextChunk = null;
+                    progress += chunk.readableBytes();
+                    return chunk;
+                }
+                if (encoding || bodyDone) {
+                    return null;
+                }
+                encoding = true;
+            }
+            executor.execute(new AbstractRunnable() {
+                @Override
+                protected void doRun() throws Exception {
+                    encodeNextChunk(allocator);
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    synchronized (BodyInput.this) {
+                        encoding = false;
+                        failure = e;
+                    }
+                    chunkedWriteHandler.resumeTransfer();
+                }
+            });
+            return null;
+        }
+
+        private void encodeNextChunk(ByteBufAllocator allocator) throws Exception {
+            final ByteBuf chunk = allocator.buffer(CHUNK_SIZE);
+            boolean success = false;
+            try {
+                body.encodeChunk(CHUNK_SIZE, new ByteBufOutputStream(chunk));
+                synchronized (this) {
+                    encoding = false;
+                    bodyDone = body.isDone();
+                    if (closed == false) {
+                        nextChunk = chunk;
+                        success = true;
+                    }
+                }
+            } finally {
+                if (success == false) {
+                    chunk.release();
+                }
+            }
+            chunkedWriteHandler.resumeTransfer();
+        }
+
+        @Override
+        public long length() {
+            return -1;
+        }
+
+        @Override
+        public synchronized long progress() {
+            return progress;
+        }
+    }
+}
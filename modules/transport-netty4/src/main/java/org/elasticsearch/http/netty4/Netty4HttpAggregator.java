@@ -0,0 +1,81 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+
+import java.util.function.Predicate;
+
+/**
+ * Aggregates the body of each request before it is dispatched, except for the requests that the given predicate selects, whose body is
+ * streamed to the rest layer as it arrives through a {@link Netty4HttpRequestBodyStream}. The channel stops reading on its own once the
+ * headers of such a request were received, and only reads further chunks of the body when the rest layer asks for them, so that a slow
+ * consumer pushes back on the client instead of buffering the body. Streamed bodies are not limited by the maximum content length.
+ */
+class Netty4HttpAggregator extends HttpObjectAggregator {
+
+    private final Predicate<HttpRequest> streamedBody;
+    private Netty4HttpRequestBodyStream currentStream;
+
+    Netty4HttpAggregator(int maxContentLength, Predicate<HttpRequest> streamedBody) {
+        super(maxContentLength);
+        this.streamedBody = streamedBody;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (currentStream != null && msg instanceof HttpContent) {
+            final Netty4HttpRequestBodyStream stream = currentStream;
+            if (msg instanceof LastHttpContent) {
+                currentStream = null;
+                ctx.channel().config().setAutoRead(true);
+            }
+            stream.onContent((HttpContent) msg);
+        } else if (currentStream == null && msg instanceof HttpRequest && msg instanceof FullHttpRequest == false
+            && HttpUtil.isUnsupportedExpectation((HttpRequest) msg) == false && streamedBody.test((HttpRequest) msg)) {
+            startStream(ctx, (HttpRequest) msg);
+        } else {
+            super.channelRead(ctx, msg);
+        }
+    }
+
+    private void startStream(ChannelHandlerContext ctx, HttpRequest request) {
+        ctx.channel().config().setAutoRead(false);
+        if (HttpUtil.is100ContinueExpected(request)) {
+            // the aggregator would only send this once it started to aggregate the body, which a streamed body is never subject to
+            ctx.writeAndFlush(new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.CONTINUE, Unpooled.EMPTY_BUFFER));
+            HttpUtil.set100ContinueExpected(request, false);
+        }
+        currentStream = new Netty4HttpRequestBodyStream(ctx.channel());
+        final FullHttpRequest headers = new DefaultFullHttpRequest(request.protocolVersion(), request.method(), request.uri(),
+            Unpooled.EMPTY_BUFFER, request.headers(), new DefaultHttpHeaders());
+        ctx.fireChannelRead(new Netty4HttpRequest(headers, currentStream));
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (currentStream != null) {
+            currentStream.onChannelClosed();
+            currentStream = null;
+        }
+        super.channelInactive(ctx);
+    }
+}
@@ -20,7 +20,10 @@ import io.netty.handler.codec.http.cookie.Cookie;
 import io.netty.handler.codec.http.cookie.ServerCookieDecoder;
 import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.http.HttpRequest;
+import org.elasticsearch.http.HttpRequestBodyStream;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.transport.netty4.Netty4Utils;
@@ -42,35 +45,44 @@ public class Netty4HttpRequest implements HttpRequest {
     private final AtomicBoolean released;
     private final Exception inboundException;
     private final boolean pooled;
+    @Nullable
+    private final Netty4HttpRequestBodyStream contentStream;
 
     Netty4HttpRequest(FullHttpRequest request) {
         this(request, new HttpHeadersMap(request.headers()), new AtomicBoolean(false), true,
-            Netty4Utils.toBytesReference(request.content()));
+            Netty4Utils.toBytesReference(request.content()), null, null);
     }
 
     Netty4HttpRequest(FullHttpRequest request, Exception inboundException) {
         this(request, new HttpHeadersMap(request.headers()), new AtomicBoolean(false), true,
-            Netty4Utils.toBytesReference(request.content()), inboundException);
+            Netty4Utils.toBytesReference(request.content()), inboundException, null);
     }
 
-    private Netty4HttpRequest(FullHttpRequest request, HttpHeadersMap headers, AtomicBoolean released, boolean pooled,
-                              BytesReference content) {
-        this(request, headers, released, pooled, content, null);
+    /**
+     * Creates a request whose body is streamed, the given request only carries the headers.
+     */
+    Netty4HttpRequest(FullHttpRequest request, Netty4HttpRequestBodyStream contentStream) {
+        this(request, new HttpHeadersMap(request.headers()), new AtomicBoolean(false), true,
+            Netty4Utils.toBytesReference(request.content()), null, contentStream);
     }
 
     private Netty4HttpRequest(FullHttpRequest request, HttpHeadersMap headers, AtomicBoolean released, boolean pooled,
-                              BytesReference content, Exception inboundException) {
+                              BytesReference content, Exception inboundException, Netty4HttpRequestBodyStream contentStream) {
         this.request = request;
         this.headers = headers;
         this.content = content;
         this.pooled = pooled;
         this.released = released;
         this.inboundException = inboundException;
+        this.contentStream = contentStream;
     }
 
     @Override
     public RestRequest.Method method() {
-        HttpMethod httpMethod = request.method();
+        return translateRequestMethod(request.method());
+    }
+
+    static RestRequest.Method translateRequestMethod(HttpMethod httpMethod) {
         if (httpMethod == HttpMethod.GET)
             return RestRequest.Method.GET;
 
@@ -117,8 +129,21 @@ public class Netty4HttpRequest implements HttpRequest {
         return content;
     }
 
+    @Override
+    public HttpRequestBodyStream contentStream() {
+        return contentStream;
+    }
+
     @Override
     public void release() {
+        if (contentStream != null) {
+            // the response was sent, so the rest of the body is not needed anymore
+            contentStream.discard();
+        }
+        releaseRequest();
+    }
+
+    private void releaseRequest() {
         if (pooled && released.compareAndSet(false, true)) {
             request.release();
         }
@@ -135,9 +160,10 @@ public class Netty4HttpRequest implements HttpRequest {
             return new Netty4HttpRequest(
                 new DefaultFullHttpRequest(request.protocolVersion(), request.method(), request.uri(), copiedContent, request.headers(),
                     request.trailingHeaders()),
-                headers, new AtomicBoolean(false), false, Netty4Utils.toBytesReference(copiedContent));
+                headers, new AtomicBoolean(false), false, Netty4Utils.toBytesReference(copiedContent), null, contentStream);
         } finally {
-            release();
+            // the copy takes over the content stream, if any
+            releaseRequest();
         }
     }
 
@@ -180,7 +206,7 @@ public class Netty4HttpRequest implements HttpRequest {
         FullHttpRequest requestWithoutHeader = new DefaultFullHttpRequest(request.protocolVersion(), request.method(), request.uri(),
             request.content(), headersWithoutContentTypeHeader, trailingHeaders);
         return new Netty4HttpRequest(requestWithoutHeader, new HttpHeadersMap(requestWithoutHeader.headers()), released,
-            pooled, content);
+            pooled, content, null, contentStream);
     }
 
     @Override
@@ -188,6 +214,11 @@ public class Netty4HttpRequest implements HttpRequest {
         return new Netty4HttpResponse(request.headers(), request.protocolVersion(), status, content);
     }
 
+    @Override
+    public Netty4ChunkedHttpResponse createResponse(RestStatus status, ChunkedRestResponseBody content) {
+        return new Netty4ChunkedHttpResponse(request.headers(), request.protocolVersion(), status, content);
+    }
+
     @Override
     public Exception getInboundException() {
         return inboundException;
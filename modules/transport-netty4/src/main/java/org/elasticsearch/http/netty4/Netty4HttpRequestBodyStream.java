@@ -0,0 +1,137 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.http.HttpException;
+import org.elasticsearch.http.HttpRequestBodyStream;
+import org.elasticsearch.transport.netty4.Netty4Utils;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+
+/**
+ * The body of a request that is streamed to the rest layer, see {@link Netty4HttpAggregator}. The channel does not read on its own while
+ * the body is streamed: it only reads once the consumer asked for the next chunk and none was received yet. A single read may yield
+ * several chunks, which are queued until they are asked for. All state is only accessed on the event loop of the channel.
+ */
+class Netty4HttpRequestBodyStream implements HttpRequestBodyStream {
+
+    private final Channel channel;
+    private final ArrayDeque<HttpContent> received = new ArrayDeque<>();
+    private ChunkHandler handler;
+    // whether the handler asked for a chunk that it did not receive yet
+    private boolean requested;
+    // whether the last chunk of the body was received from the channel
+    private boolean complete;
+    // whether the handler received the last chunk or a failure, or the body was discarded
+    private boolean done;
+    private Exception failure;
+
+    Netty4HttpRequestBodyStream(Channel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void setHandler(ChunkHandler handler) {
+        assert this.handler == null : "handler is already set";
+        this.handler = handler;
+    }
+
+    @Override
+    public void next() {
+        assert handler != null : "handler must be set before asking for chunks";
+        channel.eventLoop().execute(() -> {
+            assert requested == false : "the next chunk was already requested";
+            requested = true;
+            deliver();
+            if (requested && done == false && failure == null) {
+                channel.read();
+            }
+        });
+    }
+
+    /**
+     * Called by the aggregator with each chunk of the body that was read from the channel.
+     */
+    void onContent(HttpContent content) {
+        assert channel.eventLoop().inEventLoop();
+        if (content instanceof LastHttpContent) {
+            complete = true;
+        }
+        if (done || failure != null) {
+            content.release();
+        } else if (content.decoderResult().isFailure()) {
+            content.release();
+            onFailure(new HttpException("failed to decode the request body", content.decoderResult().cause()));
+        } else {
+            received.add(content);
+            deliver();
+        }
+    }
+
+    /**
+     * Called by the aggregator if the channel was closed before the last chunk of the body was read.
+     */
+    void onChannelClosed() {
+        assert channel.eventLoop().inEventLoop();
+        onFailure(new ClosedChannelException());
+    }
+
+    /**
+     * Stops streaming the body once the response to the request was sent. The chunks that were not handed out yet are released and the
+     * channel reads the rest of the body, which is dropped, so that the next request on the channel can be read.
+     */
+    void discard() {
+        channel.eventLoop().execute(() -> {
+            if (done == false) {
+                done = true;
+                releaseReceived();
+                if (complete == false) {
+                    channel.config().setAutoRead(true);
+                }
+            }
+        });
+    }
+
+    private void onFailure(Exception e) {
+        if (failure == null) {
+            failure = e;
+            releaseReceived();
+            deliver();
+        }
+    }
+
+    private void deliver() {
+        if (requested == false || done) {
+            return;
+        }
+        final HttpContent content = received.poll();
+        if (content != null) {
+            requested = false;
+            final boolean isLast = content instanceof LastHttpContent;
+            done = isLast;
+            handler.onChunk(new ReleasableBytesReference(Netty4Utils.toBytesReference(content.content()), content::release), isLast);
+        } else if (failure != null) {
+            requested = false;
+            done = true;
+            handler.onFailure(failure);
+        }
+    }
+
+    private void releaseReceived() {
+        HttpContent content;
+        while ((content = received.poll()) != null) {
+            content.release();
+        }
+    }
+}
@@ -9,24 +9,29 @@
 package org.elasticsearch.http.netty4;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.MessageToMessageEncoder;
 import io.netty.handler.codec.compression.JdkZlibEncoder;
 import io.netty.handler.codec.http.DefaultHttpContent;
 import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.DefaultLastHttpContent;
 import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import org.elasticsearch.core.Booleans;
 import org.elasticsearch.transport.netty4.NettyAllocator;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
- * Split up large responses to prevent batch compression {@link JdkZlibEncoder} down the pipeline.
+ * Split up large responses to prevent batch compression {@link JdkZlibEncoder} down the pipeline, and follow each
+ * {@link Netty4ChunkedHttpResponse} with the chunks of its body. The channel is closed if the body of such a response fails.
  */
 @ChannelHandler.Sharable
-class Netty4HttpResponseCreator extends MessageToMessageEncoder<Netty4HttpResponse> {
+class Netty4HttpResponseCreator extends MessageToMessageEncoder<org.elasticsearch.http.HttpResponse> {
 
     private static final String DO_NOT_SPLIT = "es.unsafe.do_not_split_http_responses";
 
@@ -39,8 +44,33 @@ class Netty4HttpResponseCreator extends MessageToMessageEncoder<Netty4HttpRespon
         SPLIT_THRESHOLD = (int) (NettyAllocator.suggestedMaxAllocationSize() * 0.99);
     }
 
+    private final Executor executor;
+
+    /**
+     * @param executor the executor to serialize the bodies of {@link Netty4ChunkedHttpResponse}s on, off the event loop
+     */
+    Netty4HttpResponseCreator(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof Netty4ChunkedHttpResponse) {
+            final Netty4ChunkedHttpResponse chunkedResponse = (Netty4ChunkedHttpResponse) msg;
+            // Once the headers are sent the status of the response can't change, so if the body fails the client can only tell that the
+            // response is incomplete from the channel closing before the last chunk.
+            ctx.write(chunkedResponse).addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+            promise.addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+            ctx.write(chunkedResponse.bodyInput(executor, ctx.pipeline().get(ChunkedWriteHandler.class)), promise);
+        } else {
+            super.write(ctx, msg, promise);
+        }
+    }
+
     @Override
-    protected void encode(ChannelHandlerContext ctx, Netty4HttpResponse msg, List<Object> out) {
+    protected void encode(ChannelHandlerContext ctx, org.elasticsearch.http.HttpResponse httpResponse, List<Object> out) {
+        assert httpResponse instanceof Netty4HttpResponse : "unexpected response type " + httpResponse.getClass();
+        final Netty4HttpResponse msg = (Netty4HttpResponse) httpResponse;
         if (DO_NOT_SPLIT_HTTP_RESPONSES || msg.content().readableBytes() <= SPLIT_THRESHOLD) {
             out.add(msg.retain());
         } else {
@@ -0,0 +1,127 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport.netty4;
+
+import io.netty.buffer.ByteBuf;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
+import org.elasticsearch.common.bytes.AbstractBytesReference;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.util.PageCacheRecycler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * A {@link BytesReference} that wraps a region of a {@link ByteBuf} without copying it, used for buffers that are not backed by a heap
+ * array such as pooled direct buffers. Regions backed by heap arrays are exposed as views, and bytes in direct memory are only copied onto
+ * the heap when they are accessed as {@link BytesRef}s, one page at a time. This reference does not manage
+ * the lifecycle of the underlying buffer: the caller must keep it retained for as long as this reference, or any slice of it, is in use.
+ */
+final class ByteBufBytesReference extends AbstractBytesReference {
+
+    private final ByteBuf buffer;
+    private final int offset;
+    private final int length;
+
+    ByteBufBytesReference(ByteBuf buffer, int offset, int length) {
+        assert offset >= 0 && length >= 0 && offset + length <= buffer.capacity()
+            : "invalid region [" + offset + "][" + length + "] of buffer with capacity [" + buffer.capacity() + "]";
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public byte get(int index) {
+        return buffer.getByte(offset + index);
+    }
+
+    @Override
+    public int getInt(int index) {
+        return buffer.getInt(offset + index);
+    }
+
+    @Override
+    public int indexOf(byte marker, int from) {
+        if (from >= length) {
+            return -1;
+        }
+        final int index = buffer.indexOf(offset + from, offset + length, marker);
+        return index < 0 ? -1 : index - offset;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public BytesReference slice(int from, int length) {
+        Objects.checkFromIndexSize(from, length, this.length);
+        if (length == 0) {
+            return BytesArray.EMPTY;
+        }
+        return new ByteBufBytesReference(buffer, offset + from, length);
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        // only account for the referenced region, the buffer is shared by all the slices and released by its owner
+        return length;
+    }
+
+    @Override
+    public BytesRef toBytesRef() {
+        if (buffer.hasArray()) {
+            return new BytesRef(buffer.array(), buffer.arrayOffset() + offset, length);
+        }
+        final byte[] bytes = new byte[length];
+        buffer.getBytes(offset, bytes);
+        return new BytesRef(bytes);
+    }
+
+    @Override
+    public void writeTo(OutputStream os) throws IOException {
+        buffer.getBytes(offset, os, length);
+    }
+
+    @Override
+    public BytesRefIterator iterator() {
+        if (buffer.hasArray()) {
+            return super.iterator();
+        }
+        // a composite buffer may mix heap and direct components, only the direct ones are copied
+        final ByteBuffer[] components = buffer.nioBuffers(offset, length);
+        return new BytesRefIterator() {
+            int component = 0;
+
+            @Override
+            public BytesRef next() {
+                while (component < components.length && components[component].hasRemaining() == false) {
+                    component++;
+                }
+                if (component == components.length) {
+                    return null;
+                }
+                final ByteBuffer byteBuffer = components[component];
+                if (byteBuffer.hasArray()) {
+                    component++;
+                    return new BytesRef(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), byteBuffer.remaining());
+                }
+                final byte[] page = new byte[Math.min(byteBuffer.remaining(), PageCacheRecycler.BYTE_PAGE_SIZE)];
+                byteBuffer.get(page);
+                return new BytesRef(page);
+            }
+        };
+    }
+}
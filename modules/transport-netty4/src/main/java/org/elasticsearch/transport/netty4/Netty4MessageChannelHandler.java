@@ -9,6 +9,7 @@
 package org.elasticsearch.transport.netty4;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelFuture;
@@ -39,6 +40,9 @@ final class Netty4MessageChannelHandler extends ChannelDuplexHandler {
 
     private final Queue<WriteOperation> queuedWrites = new ArrayDeque<>();
 
+    // writes of latency sensitive messages, which are started before any of the writes in queuedWrites
+    private final Queue<WriteOperation> queuedLatencySensitiveWrites = new ArrayDeque<>();
+
     private WriteOperation currentWrite;
     private final InboundPipeline pipeline;
 
@@ -80,9 +84,14 @@ final class Netty4MessageChannelHandler extends ChannelDuplexHandler {
 
     @Override
     public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
-        assert msg instanceof ByteBuf;
+        assert msg instanceof ByteBuf || msg instanceof LatencySensitiveMessage;
         assert Transports.assertDefaultThreadContext(transport.getThreadPool().getThreadContext());
-        final boolean queued = queuedWrites.offer(new WriteOperation((ByteBuf) msg, promise));
+        final boolean queued;
+        if (msg instanceof LatencySensitiveMessage) {
+            queued = queuedLatencySensitiveWrites.offer(new WriteOperation(((LatencySensitiveMessage) msg).content(), promise));
+        } else {
+            queued = queuedWrites.offer(new WriteOperation((ByteBuf) msg, promise));
+        }
         assert queued;
         assert Transports.assertDefaultThreadContext(transport.getThreadPool().getThreadContext());
     }
@@ -121,6 +130,9 @@ final class Netty4MessageChannelHandler extends ChannelDuplexHandler {
         }
         boolean needsFlush = true;
         while (channel.isWritable()) {
+            if (currentWrite == null) {
+                currentWrite = queuedLatencySensitiveWrites.poll();
+            }
             if (currentWrite == null) {
                 currentWrite = queuedWrites.poll();
             }
@@ -181,11 +193,25 @@ final class Netty4MessageChannelHandler extends ChannelDuplexHandler {
             current.failAsClosedChannel();
         }
         WriteOperation queuedWrite;
+        while ((queuedWrite = queuedLatencySensitiveWrites.poll()) != null) {
+            queuedWrite.failAsClosedChannel();
+        }
         while ((queuedWrite = queuedWrites.poll()) != null) {
             queuedWrite.failAsClosedChannel();
         }
     }
 
+    /**
+     * A message that this handler writes ahead of any plain {@link ByteBuf} messages that are waiting to be written. Messages are never
+     * interleaved on the wire so a latency sensitive message still waits for the message that is currently being written.
+     */
+    static final class LatencySensitiveMessage extends DefaultByteBufHolder {
+
+        LatencySensitiveMessage(ByteBuf message) {
+            super(message);
+        }
+    }
+
     private static final class WriteOperation {
 
         private final ByteBuf buf;
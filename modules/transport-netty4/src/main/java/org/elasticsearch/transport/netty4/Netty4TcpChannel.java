@@ -8,6 +8,7 @@
 
 package org.elasticsearch.transport.netty4;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelPromise;
@@ -132,7 +133,15 @@ public class Netty4TcpChannel implements TcpChannel {
 
     @Override
     public void sendMessage(BytesReference reference, ActionListener<Void> listener) {
-        channel.writeAndFlush(Netty4Utils.toByteBuf(reference), addPromise(listener, channel));
+        sendMessage(reference, false, listener);
+    }
+
+    @Override
+    public void sendMessage(BytesReference reference, boolean latencySensitive, ActionListener<Void> listener) {
+        final ByteBuf message = Netty4Utils.toByteBuf(reference);
+        channel.writeAndFlush(
+            latencySensitive ? new Netty4MessageChannelHandler.LatencySensitiveMessage(message) : message,
+            addPromise(listener, channel));
 
         if (channel.eventLoop().isShutdown()) {
             listener.onFailure(new TransportException("Cannot send message, event loop is shutting down."));
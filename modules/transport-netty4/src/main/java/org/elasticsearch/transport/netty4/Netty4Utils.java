@@ -92,7 +92,7 @@ public class Netty4Utils {
     }
 
     /**
-     * Wraps the given ChannelBuffer with a BytesReference
+     * Wraps the given ChannelBuffer with a BytesReference. Buffers that are (partly) backed by direct memory are wrapped without copying.
      */
     public static BytesReference toBytesReference(final ByteBuf buffer) {
         final int readableBytes = buffer.readableBytes();
@@ -102,6 +102,11 @@ public class Netty4Utils {
             return new BytesArray(buffer.array(), buffer.arrayOffset() + buffer.readerIndex(), readableBytes);
         } else {
             final ByteBuffer[] byteBuffers = buffer.nioBuffers();
+            for (ByteBuffer byteBuffer : byteBuffers) {
+                if (byteBuffer.hasArray() == false) {
+                    return new ByteBufBytesReference(buffer, buffer.readerIndex(), readableBytes);
+                }
+            }
             return BytesReference.fromByteBuffers(byteBuffers);
         }
     }
@@ -36,6 +36,7 @@ public class NettyAllocator {
     private static final String USE_UNPOOLED = "es.use_unpooled_allocator";
     private static final String USE_NETTY_DEFAULT = "es.unsafe.use_netty_default_allocator";
     private static final String USE_NETTY_DEFAULT_CHUNK = "es.unsafe.use_netty_default_chunk_and_page_size";
+    private static final String USE_DIRECT_BUFFERS = "es.unsafe.use_netty_direct_buffers";
 
     static {
         if (Booleans.parseBoolean(System.getProperty(USE_NETTY_DEFAULT), false)) {
@@ -63,6 +64,7 @@ public class NettyAllocator {
                 }
                 DESCRIPTION = "[name=unpooled, suggested_max_allocation_size=" + new ByteSizeValue(SUGGESTED_MAX_ALLOCATION_SIZE)
                     + ", factors={es.unsafe.use_unpooled_allocator=" + System.getProperty(USE_UNPOOLED)
+                    + ", es.unsafe.use_netty_direct_buffers=" + useDirectBuffers()
                     + ", g1gc_enabled=" + g1gcEnabled
                     + ", g1gc_region_size=" + g1gcRegionSize
                     + ", heap_size=" + heapSize + "}]";
@@ -90,7 +92,9 @@ public class NettyAllocator {
                 int smallCacheSize = PooledByteBufAllocator.defaultSmallCacheSize();
                 int normalCacheSize = PooledByteBufAllocator.defaultNormalCacheSize();
                 boolean useCacheForAllThreads = PooledByteBufAllocator.defaultUseCacheForAllThreads();
-                delegate = new PooledByteBufAllocator(false, nHeapArena, 0, pageSize, maxOrder, tinyCacheSize,
+                // direct arenas are only needed if we read from and write to the network through pooled direct buffers
+                int nDirectArena = useDirectBuffers() ? PooledByteBufAllocator.defaultNumDirectArena() : 0;
+                delegate = new PooledByteBufAllocator(useDirectBuffers(), nHeapArena, nDirectArena, pageSize, maxOrder, tinyCacheSize,
                     smallCacheSize, normalCacheSize, useCacheForAllThreads);
                 int chunkSizeInBytes = pageSize << maxOrder;
                 ByteSizeValue chunkSize = new ByteSizeValue(chunkSizeInBytes);
@@ -98,10 +102,17 @@ public class NettyAllocator {
                 DESCRIPTION = "[name=elasticsearch_configured, chunk_size=" + chunkSize
                     + ", suggested_max_allocation_size=" + new ByteSizeValue(SUGGESTED_MAX_ALLOCATION_SIZE)
                     + ", factors={es.unsafe.use_netty_default_chunk_and_page_size=" + useDefaultChunkAndPageSize()
+                    + ", es.unsafe.use_netty_direct_buffers=" + useDirectBuffers()
                     + ", g1gc_enabled=" + g1gcEnabled
                     + ", g1gc_region_size=" + g1gcRegionSize + "}]";
             }
-            ALLOCATOR = new NoDirectBuffers(delegate);
+            if (useDirectBuffers()) {
+                // bytes are read from the socket straight into (pooled) direct buffers, which are then passed on to the inbound pipeline
+                // without copying them onto the heap, at the cost of retaining direct memory while the messages are being handled
+                ALLOCATOR = delegate;
+            } else {
+                ALLOCATOR = new NoDirectBuffers(delegate);
+            }
         }
     }
 
@@ -172,6 +183,14 @@ public class NettyAllocator {
         }
     }
 
+    private static boolean useDirectBuffers() {
+        if (System.getProperty(USE_DIRECT_BUFFERS) != null) {
+            return Booleans.parseBoolean(System.getProperty(USE_DIRECT_BUFFERS));
+        } else {
+            return false;
+        }
+    }
+
     private static boolean useDefaultChunkAndPageSize() {
         if (System.getProperty(USE_NETTY_DEFAULT_CHUNK) != null) {
             return Booleans.parseBoolean(System.getProperty(USE_NETTY_DEFAULT_CHUNK));
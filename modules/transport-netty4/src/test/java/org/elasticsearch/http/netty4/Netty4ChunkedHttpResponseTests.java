@@ -0,0 +1,188 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseDecoder;
+import io.netty.handler.codec.http.HttpResponseEncoder;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+public class Netty4ChunkedHttpResponseTests extends ESTestCase {
+
+    private final Queue<Runnable> workerTasks = new ArrayDeque<>();
+
+    public void testSendsBodyInChunks() throws IOException {
+        final List<String> chunks = randomChunks();
+        final TestBody body = new TestBody(chunks);
+        final EmbeddedChannel channel = newChannel();
+
+        final ChannelFuture future = channel.writeAndFlush(newResponse(body));
+        runAllTasks(channel);
+
+        assertTrue(future.isSuccess());
+        assertTrue(body.isDone());
+        assertThat(decodeBody(channel), equalTo(String.join("", chunks)));
+    }
+
+    public void testSerializesChunksOnlyWhileWritable() throws IOException {
+        final List<String> chunks = randomChunks();
+        final TestBody body = new TestBody(chunks);
+        final EmbeddedChannel channel = newChannel();
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+
+        final ChannelFuture future = channel.writeAndFlush(newResponse(body));
+        channel.runPendingTasks();
+        assertTrue(workerTasks.isEmpty());
+        assertThat(body.encodedChunks, equalTo(0));
+        assertNull(channel.readOutbound());
+
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(1, true);
+        // each chunk is serialized on the worker and only once the previous one was handed to the channel
+        while (body.isDone() == false) {
+            channel.runPendingTasks();
+            assertThat(workerTasks.size(), equalTo(1));
+            final int encodedChunks = body.encodedChunks;
+            workerTasks.poll().run();
+            assertThat(body.encodedChunks, equalTo(encodedChunks + 1));
+        }
+        runAllTasks(channel);
+
+        assertTrue(future.isSuccess());
+        assertThat(decodeBody(channel), equalTo(String.join("", chunks)));
+    }
+
+    public void testClosesChannelIfBodyFails() {
+        final List<String> chunks = randomChunks();
+        final int failingChunk = between(0, chunks.size() - 1);
+        final TestBody body = new TestBody(chunks) {
+            @Override
+            public void encodeChunk(int sizeHint, OutputStream outputStream) throws IOException {
+                if (encodedChunks == failingChunk) {
+                    throw new IOException("simulated");
+                }
+                super.encodeChunk(sizeHint, outputStream);
+            }
+        };
+        final EmbeddedChannel channel = newChannel();
+
+        final ChannelFuture future = channel.writeAndFlush(newResponse(body));
+        runAllTasks(channel);
+
+        assertTrue(future.isDone());
+        assertFalse(future.isSuccess());
+        assertThat(future.cause(), instanceOf(IOException.class));
+        assertThat(body.encodedChunks, equalTo(failingChunk));
+        // the headers went out before the body failed, so the client can only tell that the response is incomplete from the channel closing
+        assertFalse(channel.isOpen());
+        channel.finishAndReleaseAll();
+    }
+
+    private EmbeddedChannel newChannel() {
+        return new EmbeddedChannel(new HttpResponseEncoder(), new ChunkedWriteHandler(), new Netty4HttpResponseCreator(workerTasks::add));
+    }
+
+    private static Netty4ChunkedHttpResponse newResponse(ChunkedRestResponseBody body) {
+        return new Netty4ChunkedHttpResponse(new DefaultHttpHeaders(), HttpVersion.HTTP_1_1, RestStatus.OK, body);
+    }
+
+    private void runAllTasks(EmbeddedChannel channel) {
+        channel.runPendingTasks();
+        Runnable task;
+        while ((task = workerTasks.poll()) != null) {
+            task.run();
+            channel.runPendingTasks();
+        }
+    }
+
+    private static String decodeBody(EmbeddedChannel channel) {
+        final EmbeddedChannel client = new EmbeddedChannel(new HttpResponseDecoder());
+        ByteBuf sent;
+        while ((sent = channel.readOutbound()) != null) {
+            client.writeInbound(sent);
+        }
+        final HttpResponse response = client.readInbound();
+        assertTrue(response.decoderResult().isSuccess());
+        assertThat(response.headers().get(HttpHeaderNames.TRANSFER_ENCODING), equalTo(HttpHeaderValues.CHUNKED.toString()));
+        assertFalse(response.headers().contains(HttpHeaderNames.CONTENT_LENGTH));
+        final StringBuilder content = new StringBuilder();
+        Object message;
+        while ((message = client.readInbound()) != null) {
+            assertThat(message, instanceOf(HttpContent.class));
+            final HttpContent httpContent = (HttpContent) message;
+            try {
+                content.append(httpContent.content().toString(StandardCharsets.UTF_8));
+                if (httpContent instanceof LastHttpContent) {
+                    assertNull(client.readInbound());
+                    return content.toString();
+                }
+            } finally {
+                httpContent.release();
+            }
+        }
+        throw new AssertionError("response was not terminated by a last chunk");
+    }
+
+    private static List<String> randomChunks() {
+        final List<String> chunks = new ArrayList<>();
+        for (int i = between(1, 10); i > 0; i--) {
+            chunks.add(randomAlphaOfLengthBetween(1, 1024));
+        }
+        return chunks;
+    }
+
+    private static class TestBody implements ChunkedRestResponseBody {
+
+        private final Iterator<String> iterator;
+        int encodedChunks;
+
+        TestBody(List<String> chunks) {
+            this.iterator = chunks.iterator();
+        }
+
+        @Override
+        public boolean isDone() {
+            return iterator.hasNext() == false;
+        }
+
+        @Override
+        public void encodeChunk(int sizeHint, OutputStream outputStream) throws IOException {
+            outputStream.write(iterator.next().getBytes(StandardCharsets.UTF_8));
+            encodedChunks++;
+        }
+
+        @Override
+        public String getResponseContentTypeString() {
+            return "text/plain; charset=UTF-8";
+        }
+    }
+}
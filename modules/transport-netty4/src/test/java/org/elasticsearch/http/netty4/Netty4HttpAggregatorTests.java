@@ -0,0 +1,194 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.http.HttpRequestBodyStream;
+import org.elasticsearch.test.ESTestCase;
+
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+public class Netty4HttpAggregatorTests extends ESTestCase {
+
+    public void testAggregatesBodiesThatAreNotStreamed() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new Netty4HttpAggregator(1024, request -> false));
+
+        channel.writeInbound(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/_bulk"));
+        channel.writeInbound(content("foo"));
+        channel.writeInbound(new DefaultLastHttpContent(Unpooled.copiedBuffer("bar", StandardCharsets.UTF_8)));
+
+        final FullHttpRequest request = channel.readInbound();
+        assertThat(request.content().toString(StandardCharsets.UTF_8), equalTo("foobar"));
+        assertTrue(channel.config().isAutoRead());
+        request.release();
+        assertFalse(channel.finishAndReleaseAll());
+    }
+
+    public void testStreamsBodyChunkByChunkOnDemand() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new Netty4HttpAggregator(1, request -> request.uri().equals("/_bulk")));
+
+        channel.writeInbound(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/_bulk"));
+        final Netty4HttpRequest request = channel.readInbound();
+        assertThat(request.content().length(), equalTo(0));
+        assertFalse("the channel only reads once the handler asks for the body", channel.config().isAutoRead());
+        final TestChunkHandler handler = new TestChunkHandler();
+        final HttpRequestBodyStream stream = request.contentStream();
+        stream.setHandler(handler);
+
+        // the chunks are larger than the maximum content length, which does not apply to streamed bodies
+        final List<HttpContent> contents = new ArrayList<>();
+        final List<String> expectedChunks = new ArrayList<>();
+        for (int i = between(1, 5); i > 0; i--) {
+            final String chunk = randomAlphaOfLengthBetween(2, 10);
+            expectedChunks.add(chunk);
+            contents.add(content(chunk));
+        }
+        expectedChunks.add("");
+        contents.add(new DefaultLastHttpContent());
+        for (HttpContent content : contents) {
+            channel.writeInbound(content);
+        }
+        assertTrue(channel.config().isAutoRead());
+        assertNull(channel.readInbound());
+        assertTrue("nothing is handed out before it was asked for", handler.chunks.isEmpty());
+
+        for (int i = 0; i < expectedChunks.size(); i++) {
+            stream.next();
+            channel.runPendingTasks();
+            assertThat(handler.chunks.size(), equalTo(i + 1));
+            assertThat(handler.chunks.get(i), equalTo(expectedChunks.get(i)));
+            assertThat(handler.last, equalTo(i == expectedChunks.size() - 1));
+        }
+        for (HttpContent content : contents) {
+            assertThat(content.refCnt(), equalTo(0));
+        }
+        assertNull(handler.failure);
+        request.release();
+        channel.runPendingTasks();
+        assertTrue(channel.config().isAutoRead());
+        assertFalse(channel.finishAndReleaseAll());
+    }
+
+    public void testAnswersExpectContinueForStreamedBodies() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new Netty4HttpAggregator(1024, request -> true));
+
+        final DefaultHttpRequest httpRequest = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/_bulk");
+        httpRequest.headers().set(HttpHeaderNames.EXPECT, HttpHeaderValues.CONTINUE);
+        channel.writeInbound(httpRequest);
+
+        final FullHttpResponse response = channel.readOutbound();
+        assertThat(response.status(), equalTo(HttpResponseStatus.CONTINUE));
+        response.release();
+        final Netty4HttpRequest request = channel.readInbound();
+        assertNull(request.header(HttpHeaderNames.EXPECT.toString()));
+        request.release();
+        channel.runPendingTasks();
+        assertFalse(channel.finishAndReleaseAll());
+    }
+
+    public void testFailsStreamIfChannelCloses() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new Netty4HttpAggregator(1024, request -> true));
+
+        channel.writeInbound(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/_bulk"));
+        final Netty4HttpRequest request = channel.readInbound();
+        final TestChunkHandler handler = new TestChunkHandler();
+        request.contentStream().setHandler(handler);
+        final HttpContent content = content("foo");
+        channel.writeInbound(content);
+        request.contentStream().next();
+        channel.runPendingTasks();
+        assertThat(handler.chunks, equalTo(List.of("foo")));
+
+        request.contentStream().next();
+        channel.close();
+        channel.runPendingTasks();
+        assertThat(handler.failure, instanceOf(ClosedChannelException.class));
+        assertThat(content.refCnt(), equalTo(0));
+        request.release();
+        assertFalse(channel.finishAndReleaseAll());
+    }
+
+    public void testDropsRestOfBodyOnceResponseWasSent() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new Netty4HttpAggregator(1024, request -> true));
+
+        channel.writeInbound(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/_bulk"));
+        final Netty4HttpRequest request = channel.readInbound();
+        final TestChunkHandler handler = new TestChunkHandler();
+        request.contentStream().setHandler(handler);
+        final HttpContent received = content("foo");
+        channel.writeInbound(received);
+
+        // releasing the request is what sending the response does
+        request.release();
+        channel.runPendingTasks();
+        assertTrue("the rest of the body is read to get to the next request", channel.config().isAutoRead());
+        assertThat(received.refCnt(), equalTo(0));
+
+        final HttpContent remaining = content("bar");
+        final HttpContent last = new DefaultLastHttpContent(Unpooled.copiedBuffer("baz", StandardCharsets.UTF_8));
+        channel.writeInbound(remaining);
+        channel.writeInbound(last);
+        assertThat(remaining.refCnt(), equalTo(0));
+        assertThat(last.refCnt(), equalTo(0));
+        assertTrue(handler.chunks.isEmpty());
+        assertNull(handler.failure);
+
+        // the next request on the channel is handled as usual
+        channel.writeInbound(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/_bulk"));
+        final Netty4HttpRequest next = channel.readInbound();
+        assertNotNull(next.contentStream());
+        next.release();
+        channel.runPendingTasks();
+        assertFalse(channel.finishAndReleaseAll());
+    }
+
+    private static HttpContent content(String content) {
+        return new DefaultHttpContent(Unpooled.copiedBuffer(content, StandardCharsets.UTF_8));
+    }
+
+    private static class TestChunkHandler implements HttpRequestBodyStream.ChunkHandler {
+
+        private final List<String> chunks = new ArrayList<>();
+        private boolean last;
+        private Exception failure;
+
+        @Override
+        public void onChunk(ReleasableBytesReference chunk, boolean isLast) {
+            assertFalse("no chunks after the last one", last);
+            chunks.add(chunk.utf8ToString());
+            last = isLast;
+            chunk.close();
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            assertNull("at most one failure", failure);
+            failure = e;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport.netty4;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.network.NetworkService;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class Netty4MessageChannelHandlerTests extends ESTestCase {
+
+    // the user defined writability bit that the tests use to stop the channel from writing
+    private static final int WRITABILITY_INDEX = 1;
+
+    private final Settings settings = Settings.builder().put("node.name", "Netty4MessageChannelHandlerTests").build();
+
+    private ThreadPool threadPool;
+    private Netty4Transport nettyTransport;
+
+    @Before
+    public void createTransport() {
+        threadPool = new ThreadPool(settings);
+        nettyTransport = new Netty4Transport(settings, Version.CURRENT, threadPool, new NetworkService(Collections.emptyList()),
+            PageCacheRecycler.NON_RECYCLING_INSTANCE, new NamedWriteableRegistry(Collections.emptyList()),
+            new NoneCircuitBreakerService(), new SharedGroupFactory(settings));
+    }
+
+    @After
+    public void terminateThreadPool() throws InterruptedException {
+        terminate(threadPool);
+        threadPool = null;
+    }
+
+    public void testFlushesLatencySensitiveWritesFirst() {
+        final EmbeddedChannel channel = new EmbeddedChannel(newHandler());
+        setWritable(channel, false);
+
+        final List<String> expectedLatencySensitive = new ArrayList<>();
+        final List<String> expectedOthers = new ArrayList<>();
+        final List<ChannelFuture> futures = new ArrayList<>();
+        for (int i = between(1, 20); i > 0; i--) {
+            final String message = "message-" + i;
+            final boolean latencySensitive = randomBoolean();
+            (latencySensitive ? expectedLatencySensitive : expectedOthers).add(message);
+            futures.add(channel.write(newMessage(message, latencySensitive)));
+        }
+        channel.flush();
+        assertNull("nothing is written while the channel is not writable", channel.readOutbound());
+
+        setWritable(channel, true);
+
+        final List<String> expected = new ArrayList<>(expectedLatencySensitive);
+        expected.addAll(expectedOthers);
+        assertThat(readOutbound(channel), equalTo(expected));
+        for (ChannelFuture future : futures) {
+            assertTrue(future.isSuccess());
+        }
+        assertFalse(channel.finishAndReleaseAll());
+    }
+
+    public void testLatencySensitiveWriteWaitsForCurrentWrite() {
+        // stops the channel from writing after the first slice of the large message went out
+        final EmbeddedChannel channel = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                setWritable(ctx.channel(), false);
+                ctx.write(msg, promise);
+            }
+        }, newHandler());
+
+        final String large = randomAlphaOfLength(between(1 << 18, 1 << 19) + 1);
+        final ChannelFuture largeFuture = channel.writeAndFlush(newMessage(large, false));
+        final ByteBuf firstSlice = channel.readOutbound();
+        assertThat(firstSlice.readableBytes(), equalTo(1 << 18));
+        assertNull(channel.readOutbound());
+        assertFalse(largeFuture.isDone());
+
+        final String other = randomAlphaOfLength(between(1, 100));
+        final ChannelFuture otherFuture = channel.write(newMessage(other, false));
+        final String latencySensitive = randomAlphaOfLength(between(1, 100));
+        final ChannelFuture latencySensitiveFuture = channel.writeAndFlush(newMessage(latencySensitive, true));
+        assertNull(channel.readOutbound());
+
+        // the rest of the large message goes out before the latency sensitive message, which is still written ahead of the other one
+        final StringBuilder largeWritten = new StringBuilder(firstSlice.toString(StandardCharsets.UTF_8));
+        firstSlice.release();
+        final List<String> written = new ArrayList<>();
+        while (largeWritten.length() < large.length() || written.size() < 2) {
+            setWritable(channel, true);
+            final ByteBuf buf = channel.readOutbound();
+            assertNotNull(buf);
+            if (largeWritten.length() < large.length()) {
+                largeWritten.append(buf.toString(StandardCharsets.UTF_8));
+            } else {
+                written.add(buf.toString(StandardCharsets.UTF_8));
+            }
+            buf.release();
+            assertNull(channel.readOutbound());
+        }
+        assertThat(largeWritten.toString(), equalTo(large));
+        assertThat(written, equalTo(List.of(latencySensitive, other)));
+        assertTrue(largeFuture.isSuccess());
+        assertTrue(latencySensitiveFuture.isSuccess());
+        assertTrue(otherFuture.isSuccess());
+        assertFalse(channel.finishAndReleaseAll());
+    }
+
+    private Netty4MessageChannelHandler newHandler() {
+        return new Netty4MessageChannelHandler(PageCacheRecycler.NON_RECYCLING_INSTANCE, nettyTransport);
+    }
+
+    private static Object newMessage(String content, boolean latencySensitive) {
+        final ByteBuf buf = Unpooled.copiedBuffer(content, StandardCharsets.UTF_8);
+        return latencySensitive ? new Netty4MessageChannelHandler.LatencySensitiveMessage(buf) : buf;
+    }
+
+    private static void setWritable(Channel channel, boolean writable) {
+        channel.unsafe().outboundBuffer().setUserDefinedWritability(WRITABILITY_INDEX, writable);
+    }
+
+    private static List<String> readOutbound(EmbeddedChannel channel) {
+        final List<String> written = new ArrayList<>();
+        ByteBuf buf;
+        while ((buf = channel.readOutbound()) != null) {
+            written.add(buf.toString(StandardCharsets.UTF_8));
+            buf.release();
+        }
+        return written;
+    }
+}
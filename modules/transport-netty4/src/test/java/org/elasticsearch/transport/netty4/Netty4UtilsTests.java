@@ -24,6 +24,8 @@ import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
 
+import static org.hamcrest.Matchers.instanceOf;
+
 public class Netty4UtilsTests extends ESTestCase {
 
     private static final int PAGE_SIZE = PageCacheRecycler.BYTE_PAGE_SIZE;
@@ -64,6 +66,83 @@ public class Netty4UtilsTests extends ESTestCase {
         assertArrayEquals(BytesReference.toBytes(ref), BytesReference.toBytes(bytesReference));
     }
 
+    public void testToBytesReferenceWithDirectBuffer() throws IOException {
+        final byte[] bytes = BytesReference.toBytes(getRandomizedBytesReference(randomIntBetween(1, 3 * PAGE_SIZE)));
+        final int readerIndex = randomIntBetween(0, 10);
+        final ByteBuf buffer = Unpooled.directBuffer(readerIndex + bytes.length);
+        try {
+            buffer.writerIndex(readerIndex);
+            buffer.readerIndex(readerIndex);
+            buffer.writeBytes(bytes);
+
+            final BytesReference bytesReference = Netty4Utils.toBytesReference(buffer);
+            assertThat(bytesReference, instanceOf(ByteBufBytesReference.class));
+            assertEquals(bytes.length, bytesReference.length());
+            assertArrayEquals(bytes, BytesReference.toBytes(bytesReference));
+            assertEquals(new BytesArray(bytes), bytesReference);
+
+            final byte[] streamed = new byte[bytes.length];
+            bytesReference.streamInput().readBytes(streamed, 0, streamed.length);
+            assertArrayEquals(bytes, streamed);
+
+            final int sliceOffset = randomIntBetween(0, bytes.length);
+            final int sliceLength = randomIntBetween(0, bytes.length - sliceOffset);
+            assertEquals(new BytesArray(bytes, sliceOffset, sliceLength), bytesReference.slice(sliceOffset, sliceLength));
+
+            final int markerIndex = randomIntBetween(0, bytes.length - 1);
+            final byte marker = bytes[markerIndex];
+            int expectedIndex = markerIndex;
+            for (int i = 0; i < markerIndex; i++) {
+                if (bytes[i] == marker) {
+                    expectedIndex = i;
+                    break;
+                }
+            }
+            assertEquals(expectedIndex, bytesReference.indexOf(marker, 0));
+            assertEquals(-1, bytesReference.indexOf(marker, bytes.length));
+
+            if (bytes.length >= 4) {
+                final int intIndex = randomIntBetween(0, bytes.length - 4);
+                assertEquals(new BytesArray(bytes).getInt(intIndex), bytesReference.getInt(intIndex));
+            }
+        } finally {
+            buffer.release();
+        }
+    }
+
+    public void testByteBufBytesReferenceViews() throws IOException {
+        final byte[] heapBytes = randomByteArrayOfLength(randomIntBetween(1, 2 * PAGE_SIZE));
+        final byte[] directBytes = randomByteArrayOfLength(randomIntBetween(1, 2 * PAGE_SIZE));
+        final ByteBuf direct = Unpooled.directBuffer(directBytes.length).writeBytes(directBytes);
+        final CompositeByteBuf composite = Unpooled.compositeBuffer().addComponents(true, Unpooled.wrappedBuffer(heapBytes), direct);
+        try {
+            final byte[] expected = new byte[heapBytes.length + directBytes.length];
+            System.arraycopy(heapBytes, 0, expected, 0, heapBytes.length);
+            System.arraycopy(directBytes, 0, expected, heapBytes.length, directBytes.length);
+
+            final BytesReference bytesReference = Netty4Utils.toBytesReference(composite);
+            assertThat(bytesReference, instanceOf(ByteBufBytesReference.class));
+            assertEquals(new BytesArray(expected), bytesReference);
+            assertEquals(expected.length, bytesReference.ramBytesUsed());
+            final int sliceLength = randomIntBetween(1, expected.length);
+            assertEquals(sliceLength, bytesReference.slice(0, sliceLength).ramBytesUsed());
+
+            // the heap component is returned as a view of its array, the direct one is copied
+            final BytesRef first = bytesReference.iterator().next();
+            assertSame(heapBytes, first.bytes);
+            assertEquals(0, first.offset);
+            assertEquals(heapBytes.length, first.length);
+
+            final ByteBuf heap = Unpooled.wrappedBuffer(heapBytes);
+            final int offset = randomIntBetween(0, heapBytes.length - 1);
+            final BytesRef view = new ByteBufBytesReference(heap, offset, heapBytes.length - offset).toBytesRef();
+            assertSame(heapBytes, view.bytes);
+            assertEquals(offset, view.offset);
+        } finally {
+            composite.release();
+        }
+    }
+
     private BytesReference getRandomizedBytesReference(int length) throws IOException {
         // we know bytes stream output always creates a paged bytes reference, we use it to create randomized content
         ReleasableBytesStreamOutput out = new ReleasableBytesStreamOutput(length, bigarrays);
@@ -7,6 +7,7 @@
  */
 package org.elasticsearch.snapshots;
 
+import org.elasticsearch.action.ActionRunnable;
 import org.elasticsearch.action.DocWriteResponse;
 import org.elasticsearch.action.admin.cluster.snapshots.restore.RestoreSnapshotResponse;
 import org.elasticsearch.action.admin.cluster.snapshots.status.SnapshotStats;
@@ -19,30 +20,56 @@ import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.routing.UnassignedInfo;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.CollectionUtils;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.MergePolicyConfig;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.ContentChunk;
+import org.elasticsearch.index.store.Store;
+import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.plugins.Plugin;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.test.ESIntegTestCase;
 import org.elasticsearch.test.InternalSettingsPlugin;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertNoFailures;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
 
 @ESIntegTestCase.ClusterScope(scope = ESIntegTestCase.Scope.TEST, numDataNodes = 0)
 public class BlobStoreIncrementalityIT extends AbstractSnapshotIntegTestCase {
@@ -251,6 +278,147 @@ public class BlobStoreIncrementalityIT extends AbstractSnapshotIntegTestCase {
         assertEquals(beforeSegmentCount, afterIndexDetails.getMaxSegmentsPerShard());
     }
 
+    public void testContentDefinedChunksAreSharedAcrossSnapshotsAndCleanedUp() throws Exception {
+        internalCluster().startMasterOnlyNode();
+        final String dataNode = internalCluster().startDataOnlyNode();
+        final String indexName = "test-index";
+        createIndex(
+            indexName,
+            Settings.builder()
+                .put(indexSettingsNoReplicas(1).build())
+                .put(IndexSettings.INDEX_REFRESH_INTERVAL_SETTING.getKey(), TimeValue.MINUS_ONE)
+                .put(MergePolicyConfig.INDEX_MERGE_ENABLED, false)
+                .build()
+        );
+        ensureGreen(indexName);
+
+        final String repo = "test-repo";
+        final Path repoPath = randomRepoPath();
+        // a small chunk size results in chunks of a fixed size, so that the chunks of files with the same contents at the same offsets
+        // are the same
+        createRepository(
+            repo,
+            "fs",
+            Settings.builder()
+                .put("location", repoPath)
+                .put("chunk_size", "1kb")
+                .put(BlobStoreRepository.CONTENT_DEFINED_CHUNKING_SETTING.getKey(), true)
+        );
+
+        final Map<String, String> sources = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            sources.put(Integer.toString(i), "{\"field\":\"" + randomAlphaOfLength(between(100, 200)) + "\"}");
+        }
+        indexDocuments(indexName, sources);
+
+        final String snapshot1 = "snap-1";
+        final SnapshotInfo snapshotInfo1 = createSnapshot(repo, snapshot1, Collections.singletonList(indexName));
+        final IndexId indexId = getRepositoryData(repo).resolveIndexId(indexName);
+        final Path shardPath = repoPath.resolve("indices").resolve(indexId.getId()).resolve("0");
+        final Set<String> chunksAfterSnapshot1 = listChunkBlobs(shardPath);
+        assertThat(chunksAfterSnapshot1, not(empty()));
+        final BlobStoreIndexShardSnapshot shardSnapshot1 = readShardSnapshot(repo, indexId, snapshotInfo1);
+        assertThat(chunkBlobNames(shardSnapshot1.indexFiles().stream()), equalTo(chunksAfterSnapshot1));
+
+        logger.info("--> indexing the same documents again into a new segment whose stored fields only differ in their header and footer");
+        indexDocuments(indexName, sources);
+
+        final String snapshot2 = "snap-2";
+        final SnapshotInfo snapshotInfo2 = createSnapshot(repo, snapshot2, Collections.singletonList(indexName));
+        final BlobStoreIndexShardSnapshot shardSnapshot2 = readShardSnapshot(repo, indexId, snapshotInfo2);
+        final Set<String> filesOfSnapshot1 = shardSnapshot1.indexFiles()
+            .stream()
+            .map(BlobStoreIndexShardSnapshot.FileInfo::physicalName)
+            .collect(Collectors.toSet());
+        final Set<String> chunksOfNewFiles = chunkBlobNames(
+            shardSnapshot2.indexFiles().stream().filter(fileInfo -> filesOfSnapshot1.contains(fileInfo.physicalName()) == false)
+        );
+        assertThat(chunksOfNewFiles, not(empty()));
+        final Set<String> sharedChunks = new HashSet<>(chunksOfNewFiles);
+        sharedChunks.retainAll(chunksAfterSnapshot1);
+        assertThat("new files of the second snapshot share chunks with files of the first one", sharedChunks, not(empty()));
+
+        final Set<String> chunksOfSnapshot2 = chunkBlobNames(shardSnapshot2.indexFiles().stream());
+        final Set<String> chunksOnlyInSnapshot1 = new HashSet<>(chunksAfterSnapshot1);
+        chunksOnlyInSnapshot1.removeAll(chunksOfSnapshot2);
+        assertThat("the segments file of the first snapshot is not in the second one", chunksOnlyInSnapshot1, not(empty()));
+        final Set<String> allChunks = new HashSet<>(chunksAfterSnapshot1);
+        allChunks.addAll(chunksOfSnapshot2);
+        assertThat(listChunkBlobs(shardPath), equalTo(allChunks));
+
+        logger.info("--> deleting the first snapshot");
+        assertAcked(startDeleteSnapshot(repo, snapshot1).get());
+        final Set<String> chunksAfterDelete = listChunkBlobs(shardPath);
+        assertThat(chunksAfterDelete, equalTo(chunksOfSnapshot2));
+        assertTrue("chunks that the second snapshot shares with the first one are kept", chunksAfterDelete.containsAll(sharedChunks));
+        for (String chunk : chunksOnlyInSnapshot1) {
+            assertFalse("chunk [" + chunk + "] is only referenced by the deleted snapshot", chunksAfterDelete.contains(chunk));
+        }
+
+        final String restoredIndexName = indexName + "-restored";
+        ensureRestoreSingleShardSuccessfully(repo, indexName, snapshot2, "-restored");
+        ensureGreen(restoredIndexName);
+        logger.info("--> asserting that the restored files match the files of the second snapshot");
+        final Store.MetadataSnapshot restoredFiles = internalCluster().getInstance(IndicesService.class, dataNode)
+            .indexServiceSafe(resolveIndex(restoredIndexName))
+            .getShard(0)
+            .snapshotStoreMetadata();
+        for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : shardSnapshot2.indexFiles()) {
+            if (fileInfo.physicalName().startsWith("segments_")) {
+                // restoring writes a new commit
+                continue;
+            }
+            final StoreFileMetadata restoredFile = restoredFiles.get(fileInfo.physicalName());
+            assertThat(fileInfo.physicalName(), restoredFile, notNullValue());
+            assertTrue(fileInfo + " vs " + restoredFile, fileInfo.metadata().isSame(restoredFile));
+        }
+        final SearchResponse searchResponse = client().prepareSearch(restoredIndexName).setSize(sources.size()).get();
+        assertHitCount(searchResponse, sources.size());
+        for (SearchHit hit : searchResponse.getHits()) {
+            assertThat(hit.getSourceAsString(), equalTo(sources.get(hit.getId())));
+        }
+    }
+
+    private void indexDocuments(String indexName, Map<String, String> sources) {
+        final BulkRequestBuilder bulkRequest = client().prepareBulk();
+        sources.entrySet()
+            .stream()
+            .sorted(Map.Entry.comparingByKey())
+            .map(source -> new IndexRequest(indexName).id(source.getKey()).source(source.getValue(), XContentType.JSON))
+            .forEach(bulkRequest::add);
+        assertNoFailures(bulkRequest.get());
+        flushAndRefresh(indexName);
+    }
+
+    private static Set<String> listChunkBlobs(Path shardPath) throws IOException {
+        try (Stream<Path> files = Files.list(shardPath)) {
+            return files.map(file -> file.getFileName().toString())
+                .filter(blob -> blob.startsWith(ContentChunk.BLOB_NAME_PREFIX))
+                .collect(Collectors.toSet());
+        }
+    }
+
+    private static Set<String> chunkBlobNames(Stream<BlobStoreIndexShardSnapshot.FileInfo> fileInfos) {
+        return fileInfos.filter(fileInfo -> fileInfo.contentChunks() != null)
+            .flatMap(fileInfo -> fileInfo.contentChunks().stream())
+            .map(ContentChunk::blobName)
+            .collect(Collectors.toSet());
+    }
+
+    private static BlobStoreIndexShardSnapshot readShardSnapshot(String repo, IndexId indexId, SnapshotInfo snapshotInfo) {
+        final BlobStoreRepository repository = getRepositoryOnMaster(repo);
+        return PlainActionFuture.get(
+            f -> repository.threadPool()
+                .generic()
+                .execute(
+                    ActionRunnable.supply(
+                        f,
+                        () -> repository.loadShardSnapshot(repository.shardContainer(indexId, 0), snapshotInfo.snapshotId())
+                    )
+                )
+        );
+    }
+
     private void assertCountInIndexThenDelete(String index, long expectedCount) {
         logger.info("--> asserting that index [{}] contains [{}] documents", index, expectedCount);
         assertDocCount(index, expectedCount);
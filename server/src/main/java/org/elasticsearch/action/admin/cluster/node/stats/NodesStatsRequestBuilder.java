@@ -151,6 +151,14 @@ public class NodesStatsRequestBuilder
         return this;
     }
 
+    /**
+     * Should the statistics of the admission control of the search thread pool be returned
+     */
+    public NodesStatsRequestBuilder setSearchAdmission(boolean searchAdmission) {
+        addOrRemoveMetric(searchAdmission, NodesStatsRequest.Metric.SEARCH_ADMISSION);
+        return this;
+    }
+
     /**
      * Helper method for adding metrics to a request
      */
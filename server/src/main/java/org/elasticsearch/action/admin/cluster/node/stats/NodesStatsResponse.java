@@ -12,13 +12,16 @@ import org.elasticsearch.action.FailedNodeException;
 import org.elasticsearch.action.support.nodes.BaseNodesResponse;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 
 public class NodesStatsResponse extends BaseNodesResponse<NodeStats> implements ToXContentFragment {
@@ -45,17 +48,31 @@ public class NodesStatsResponse extends BaseNodesResponse<NodeStats> implements
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("nodes");
         for (NodeStats nodeStats : getNodes()) {
-            builder.startObject(nodeStats.getNode().getId());
-            builder.field("timestamp", nodeStats.getTimestamp());
-            nodeStats.toXContent(builder, params);
-
-            builder.endObject();
+            nodeToXContent(nodeStats, builder, params);
         }
         builder.endObject();
 
         return builder;
     }
 
+    /**
+     * @return the same content as {@link #toXContent} as a sequence of fragments with one fragment for each node, so that the content can
+     * be serialized one node at a time.
+     */
+    public Iterator<ToXContent> toXContentChunks() {
+        return Iterators.concat(
+            Iterators.<ToXContent>single((builder, params) -> builder.startObject("nodes")),
+            getNodes().stream().map(nodeStats -> (ToXContent) (builder, params) -> nodeToXContent(nodeStats, builder, params)).iterator(),
+            Iterators.<ToXContent>single((builder, params) -> builder.endObject()));
+    }
+
+    private static XContentBuilder nodeToXContent(NodeStats nodeStats, XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(nodeStats.getNode().getId());
+        builder.field("timestamp", nodeStats.getTimestamp());
+        nodeStats.toXContent(builder, params);
+        return builder.endObject();
+    }
+
     @Override
     public String toString() {
         try {
@@ -87,7 +87,8 @@ public class SnapshotIndexShardStatus extends BroadcastShardResponse implements
             indexShardStatus.getProcessedFileCount(),
             indexShardStatus.getIncrementalSize(),
             indexShardStatus.getTotalSize(),
-            indexShardStatus.getProcessedSize()
+            indexShardStatus.getProcessedSize(),
+            indexShardStatus.getDeduplicatedSize()
         );
         this.failure = indexShardStatus.getFailure();
         this.nodeId = nodeId;
@@ -8,6 +8,7 @@
 
 package org.elasticsearch.action.admin.cluster.snapshots.status;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -32,6 +33,7 @@ public class SnapshotStats implements Writeable, ToXContentObject {
     private long incrementalSize;
     private long totalSize;
     private long processedSize;
+    private long deduplicatedSize;
 
     SnapshotStats() {}
 
@@ -47,6 +49,10 @@ public class SnapshotStats implements Writeable, ToXContentObject {
 
         totalFileCount = in.readVInt();
         totalSize = in.readVLong();
+
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            deduplicatedSize = in.readVLong();
+        }
     }
 
     SnapshotStats(
@@ -57,7 +63,8 @@ public class SnapshotStats implements Writeable, ToXContentObject {
         int processedFileCount,
         long incrementalSize,
         long totalSize,
-        long processedSize
+        long processedSize,
+        long deduplicatedSize
     ) {
         this.startTime = startTime;
         this.time = time;
@@ -68,6 +75,7 @@ public class SnapshotStats implements Writeable, ToXContentObject {
         this.incrementalSize = incrementalSize;
         this.totalSize = totalSize;
         this.processedSize = processedSize;
+        this.deduplicatedSize = deduplicatedSize;
     }
 
     /**
@@ -126,6 +134,14 @@ public class SnapshotStats implements Writeable, ToXContentObject {
         return processedSize;
     }
 
+    /**
+     * Returns the size of the incremental files in the snapshot whose contents did not need uploading because the repository already
+     * held them, which is only tracked while the snapshot is running
+     */
+    public long getDeduplicatedSize() {
+        return deduplicatedSize;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(startTime);
@@ -139,6 +155,10 @@ public class SnapshotStats implements Writeable, ToXContentObject {
 
         out.writeVInt(totalFileCount);
         out.writeVLong(totalSize);
+
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeVLong(deduplicatedSize);
+        }
     }
 
     static final class Fields {
@@ -147,6 +167,7 @@ public class SnapshotStats implements Writeable, ToXContentObject {
         static final String INCREMENTAL = "incremental";
         static final String PROCESSED = "processed";
         static final String TOTAL = "total";
+        static final String DEDUPLICATED = "deduplicated";
 
         static final String FILE_COUNT = "file_count";
         static final String SIZE = "size";
@@ -184,6 +205,14 @@ public class SnapshotStats implements Writeable, ToXContentObject {
             }
             builder.endObject();
 
+            if (getDeduplicatedSize() > 0) {
+                builder.startObject(Fields.DEDUPLICATED);
+                {
+                    builder.humanReadableField(Fields.SIZE_IN_BYTES, Fields.SIZE, new ByteSizeValue(getDeduplicatedSize()));
+                }
+                builder.endObject();
+            }
+
             // timings stats
             builder.field(Fields.START_TIME_IN_MILLIS, getStartTime());
             builder.humanReadableField(Fields.TIME_IN_MILLIS, Fields.TIME, new TimeValue(getTime()));
@@ -207,6 +236,7 @@ public class SnapshotStats implements Writeable, ToXContentObject {
         long incrementalSize = 0;
         long totalSize = 0;
         long processedSize = 0;
+        long deduplicatedSize = 0;
         while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
             XContentParserUtils.ensureExpectedToken(XContentParser.Token.FIELD_NAME, token, parser);
             String currentName = parser.currentName();
@@ -268,6 +298,22 @@ public class SnapshotStats implements Writeable, ToXContentObject {
                         }
                     }
                 }
+            } else if (currentName.equals(Fields.DEDUPLICATED)) {
+                XContentParserUtils.ensureExpectedToken(XContentParser.Token.START_OBJECT, token, parser);
+                while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+                    XContentParserUtils.ensureExpectedToken(XContentParser.Token.FIELD_NAME, token, parser);
+                    String innerName = parser.currentName();
+                    token = parser.nextToken();
+                    if (innerName.equals(Fields.SIZE_IN_BYTES)) {
+                        XContentParserUtils.ensureExpectedToken(XContentParser.Token.VALUE_NUMBER, token, parser);
+                        deduplicatedSize = parser.longValue();
+                    } else {
+                        // Unknown sub field, skip
+                        if (token == XContentParser.Token.START_OBJECT || token == XContentParser.Token.START_ARRAY) {
+                            parser.skipChildren();
+                        }
+                    }
+                }
             } else if (currentName.equals(Fields.START_TIME_IN_MILLIS)) {
                 XContentParserUtils.ensureExpectedToken(XContentParser.Token.VALUE_NUMBER, token, parser);
                 startTime = parser.longValue();
@@ -289,7 +335,8 @@ public class SnapshotStats implements Writeable, ToXContentObject {
             processedFileCount,
             incrementalSize,
             totalSize,
-            processedSize
+            processedSize,
+            deduplicatedSize
         );
     }
 
@@ -306,6 +353,7 @@ public class SnapshotStats implements Writeable, ToXContentObject {
         incrementalSize += stats.incrementalSize;
         totalSize += stats.totalSize;
         processedSize += stats.processedSize;
+        deduplicatedSize += stats.deduplicatedSize;
 
         if (startTime == 0) {
             // First time here
@@ -339,7 +387,8 @@ public class SnapshotStats implements Writeable, ToXContentObject {
         if (processedFileCount != that.processedFileCount) return false;
         if (incrementalSize != that.incrementalSize) return false;
         if (totalSize != that.totalSize) return false;
-        return processedSize == that.processedSize;
+        if (processedSize != that.processedSize) return false;
+        return deduplicatedSize == that.deduplicatedSize;
     }
 
     @Override
@@ -352,6 +401,7 @@ public class SnapshotStats implements Writeable, ToXContentObject {
         result = 31 * result + (int) (incrementalSize ^ (incrementalSize >>> 32));
         result = 31 * result + (int) (totalSize ^ (totalSize >>> 32));
         result = 31 * result + (int) (processedSize ^ (processedSize >>> 32));
+        result = 31 * result + (int) (deduplicatedSize ^ (deduplicatedSize >>> 32));
         return result;
     }
 }
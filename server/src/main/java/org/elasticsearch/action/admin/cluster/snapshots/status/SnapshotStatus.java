@@ -271,7 +271,7 @@ public class SnapshotStatus implements ToXContentObject, Writeable {
     }
 
     private void updateShardStats(long startTime, long time) {
-        stats = new SnapshotStats(startTime, time, 0, 0, 0, 0, 0, 0);
+        stats = new SnapshotStats(startTime, time, 0, 0, 0, 0, 0, 0, 0);
         shardsStats = new SnapshotShardsStats(shards);
         for (SnapshotIndexShardStatus shard : shards) {
             // BWC: only update timestamps when we did not get a start time from an old node
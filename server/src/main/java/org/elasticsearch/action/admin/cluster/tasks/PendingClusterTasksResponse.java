@@ -8,7 +8,9 @@
 
 package org.elasticsearch.action.admin.cluster.tasks;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.cluster.service.ClusterStateTaskExecutorStats;
 import org.elasticsearch.cluster.service.PendingClusterTask;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -16,20 +18,28 @@ import org.elasticsearch.common.xcontent.ToXContentObject;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
 public class PendingClusterTasksResponse extends ActionResponse implements Iterable<PendingClusterTask>, ToXContentObject {
 
     private final List<PendingClusterTask> pendingTasks;
+    private final List<ClusterStateTaskExecutorStats> executorStats;
 
     public PendingClusterTasksResponse(StreamInput in) throws IOException {
         super(in);
         pendingTasks = in.readList(PendingClusterTask::new);
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            executorStats = in.readList(ClusterStateTaskExecutorStats::new);
+        } else {
+            executorStats = Collections.emptyList();
+        }
     }
 
-    PendingClusterTasksResponse(List<PendingClusterTask> pendingTasks) {
+    PendingClusterTasksResponse(List<PendingClusterTask> pendingTasks, List<ClusterStateTaskExecutorStats> executorStats) {
         this.pendingTasks = pendingTasks;
+        this.executorStats = executorStats;
     }
 
     public List<PendingClusterTask> pendingTasks() {
@@ -43,6 +53,13 @@ public class PendingClusterTasksResponse extends ActionResponse implements Itera
         return pendingTasks();
     }
 
+    /**
+     * The queueing and computation statistics of each executor that has run a batch of tasks on the elected master
+     */
+    public List<ClusterStateTaskExecutorStats> getExecutorStats() {
+        return executorStats;
+    }
+
     @Override
     public Iterator<PendingClusterTask> iterator() {
         return pendingTasks.iterator();
@@ -74,6 +91,11 @@ public class PendingClusterTasksResponse extends ActionResponse implements Itera
             builder.endObject();
         }
         builder.endArray();
+        builder.startArray(Fields.EXECUTORS);
+        for (ClusterStateTaskExecutorStats stats : executorStats) {
+            stats.toXContent(builder, params);
+        }
+        builder.endArray();
         builder.endObject();
         return builder;
     }
@@ -81,6 +103,7 @@ public class PendingClusterTasksResponse extends ActionResponse implements Itera
     static final class Fields {
 
         static final String TASKS = "tasks";
+        static final String EXECUTORS = "executors";
         static final String EXECUTING = "executing";
         static final String INSERT_ORDER = "insert_order";
         static final String PRIORITY = "priority";
@@ -93,6 +116,9 @@ public class PendingClusterTasksResponse extends ActionResponse implements Itera
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeList(pendingTasks);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeList(executorStats);
+        }
     }
 
 }
@@ -254,6 +254,25 @@ public class BulkRequest extends ActionRequest
         return this;
     }
 
+    /**
+     * Adds the complete items at the start of the provided data, which may be followed by an incomplete item if the rest of the bulk
+     * body has not been received yet, see {@link BulkRequestParser#incrementalParse}.
+     *
+     * @param lastData whether the data extends to the end of the bulk body, in which case it must end with a complete item
+     * @return the number of bytes at the start of the data that were consumed
+     */
+    public int addIncrementally(BytesReference data, @Nullable String defaultIndex,
+                                @Nullable String defaultRouting, @Nullable FetchSourceContext defaultFetchSourceContext,
+                                @Nullable String defaultPipeline, @Nullable Boolean defaultRequireAlias, boolean allowExplicitIndex,
+                                XContentType xContentType, RestApiVersion restApiVersion, boolean lastData) throws IOException {
+        String routing = valueOrDefault(defaultRouting, globalRouting);
+        String pipeline = valueOrDefault(defaultPipeline, globalPipeline);
+        Boolean requireAlias = valueOrDefault(defaultRequireAlias, globalRequireAlias);
+        return new BulkRequestParser(true, restApiVersion).incrementalParse(data, defaultIndex, routing, defaultFetchSourceContext,
+            pipeline, requireAlias, allowExplicitIndex, xContentType, (indexRequest, type) -> internalAdd(indexRequest),
+            this::internalAdd, this::add, lastData);
+    }
+
     /**
      * Sets the number of shard copies that must be active before proceeding with the write.
      * See {@link ReplicationRequest#waitForActiveShards(ActiveShardCount)} for details.
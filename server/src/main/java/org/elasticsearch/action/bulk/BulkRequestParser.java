@@ -74,13 +74,13 @@ public final class BulkRequestParser {
         this.restApiVersion = restApiVersion;
     }
 
-    private static int findNextMarker(byte marker, int from, BytesReference data) {
+    private static int findNextMarker(byte marker, int from, BytesReference data, boolean lastData) {
         final int res = data.indexOf(marker, from);
         if (res != -1) {
             assert res >= 0;
             return res;
         }
-        if (from != data.length()) {
+        if (lastData && from != data.length()) {
             throw new IllegalArgumentException("The bulk request must be terminated by a newline [\\n]");
         }
         return res;
@@ -114,6 +114,29 @@ public final class BulkRequestParser {
             BiConsumer<IndexRequest, String> indexRequestConsumer,
             Consumer<UpdateRequest> updateRequestConsumer,
             Consumer<DeleteRequest> deleteRequestConsumer) throws IOException {
+        incrementalParse(data, defaultIndex, defaultRouting, defaultFetchSourceContext, defaultPipeline, defaultRequireAlias,
+            allowExplicitIndex, xContentType, indexRequestConsumer, updateRequestConsumer, deleteRequestConsumer, true);
+    }
+
+    /**
+     * Parse the complete items at the start of the provided {@code data}, which may be followed by an incomplete item if the rest of the
+     * bulk body has not been received yet, and pass them to the consumers as in {@link #parse}. This allows a bulk body to be parsed
+     * chunk by chunk as it arrives: the caller discards the returned number of bytes and passes the remaining bytes, followed by the next
+     * chunk, to the next call. Line numbers in error messages are relative to the start of {@code data}.
+     *
+     * @param lastData whether {@code data} extends to the end of the bulk body, in which case it must end with a complete item
+     * @return the number of bytes at the start of {@code data} that were consumed, which is {@code data.length()} if {@code lastData} is
+     * set and otherwise the start of the first incomplete item
+     */
+    public int incrementalParse(
+            BytesReference data, @Nullable String defaultIndex,
+            @Nullable String defaultRouting, @Nullable FetchSourceContext defaultFetchSourceContext,
+            @Nullable String defaultPipeline, @Nullable Boolean defaultRequireAlias, boolean allowExplicitIndex,
+            XContentType xContentType,
+            BiConsumer<IndexRequest, String> indexRequestConsumer,
+            Consumer<UpdateRequest> updateRequestConsumer,
+            Consumer<DeleteRequest> deleteRequestConsumer,
+            boolean lastData) throws IOException {
         XContent xContent = xContentType.xContent();
         int line = 0;
         int from = 0;
@@ -125,10 +148,11 @@ public final class BulkRequestParser {
         boolean typesDeprecationLogged = false;
 
         while (true) {
-            int nextMarker = findNextMarker(marker, from, data);
+            int nextMarker = findNextMarker(marker, from, data, lastData);
             if (nextMarker == -1) {
                 break;
             }
+            final int itemStart = from;
             line++;
 
             // now parse the action
@@ -250,8 +274,12 @@ public final class BulkRequestParser {
                     deleteRequestConsumer.accept(new DeleteRequest(index).id(id).routing(routing)
                             .version(version).versionType(versionType).setIfSeqNo(ifSeqNo).setIfPrimaryTerm(ifPrimaryTerm));
                 } else {
-                    nextMarker = findNextMarker(marker, from, data);
+                    nextMarker = findNextMarker(marker, from, data, lastData);
                     if (nextMarker == -1) {
+                        if (lastData == false) {
+                            // the source of this item has not been received yet, so it must be parsed again with the next chunk
+                            return itemStart;
+                        }
                         break;
                     }
                     line++;
@@ -315,6 +343,7 @@ public final class BulkRequestParser {
                 }
             }
         }
+        return lastData ? data.length() : from;
     }
 
     private static XContentParser createParser(BytesReference data, XContent xContent, RestApiVersion restApiVersion) throws IOException {
@@ -0,0 +1,181 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.cluster.service;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.xcontent.ToXContentObject;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.core.TimeValue;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Queueing and computation statistics for the batches of cluster state update tasks that were run through a single
+ * {@link org.elasticsearch.cluster.ClusterStateTaskExecutor} by the {@link MasterService} on this node.
+ */
+public class ClusterStateTaskExecutorStats implements Writeable, ToXContentObject {
+
+    private final String executor;
+    private final long batchCount;
+    private final long taskCount;
+    private final long totalQueueTimeMillis;
+    private final long maxQueueTimeMillis;
+    private final long totalComputationTimeMillis;
+    private final long maxComputationTimeMillis;
+
+    public ClusterStateTaskExecutorStats(
+        String executor,
+        long batchCount,
+        long taskCount,
+        long totalQueueTimeMillis,
+        long maxQueueTimeMillis,
+        long totalComputationTimeMillis,
+        long maxComputationTimeMillis
+    ) {
+        this.executor = Objects.requireNonNull(executor);
+        this.batchCount = batchCount;
+        this.taskCount = taskCount;
+        this.totalQueueTimeMillis = totalQueueTimeMillis;
+        this.maxQueueTimeMillis = maxQueueTimeMillis;
+        this.totalComputationTimeMillis = totalComputationTimeMillis;
+        this.maxComputationTimeMillis = maxComputationTimeMillis;
+    }
+
+    public ClusterStateTaskExecutorStats(StreamInput in) throws IOException {
+        this.executor = in.readString();
+        this.batchCount = in.readVLong();
+        this.taskCount = in.readVLong();
+        this.totalQueueTimeMillis = in.readVLong();
+        this.maxQueueTimeMillis = in.readVLong();
+        this.totalComputationTimeMillis = in.readVLong();
+        this.maxComputationTimeMillis = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeString(executor);
+        out.writeVLong(batchCount);
+        out.writeVLong(taskCount);
+        out.writeVLong(totalQueueTimeMillis);
+        out.writeVLong(maxQueueTimeMillis);
+        out.writeVLong(totalComputationTimeMillis);
+        out.writeVLong(maxComputationTimeMillis);
+    }
+
+    /**
+     * The name of the executor, derived from its class.
+     */
+    public String getExecutor() {
+        return executor;
+    }
+
+    /**
+     * The number of batches that were executed.
+     */
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * The total number of tasks across all executed batches.
+     */
+    public long getTaskCount() {
+        return taskCount;
+    }
+
+    /**
+     * The sum of the times that each task spent waiting in the queue before its batch started executing.
+     */
+    public long getTotalQueueTimeMillis() {
+        return totalQueueTimeMillis;
+    }
+
+    /**
+     * The longest time that any single task spent waiting in the queue before its batch started executing.
+     */
+    public long getMaxQueueTimeMillis() {
+        return maxQueueTimeMillis;
+    }
+
+    /**
+     * The sum of the times spent computing the new cluster state of each batch.
+     */
+    public long getTotalComputationTimeMillis() {
+        return totalComputationTimeMillis;
+    }
+
+    /**
+     * The longest time spent computing the new cluster state of a single batch.
+     */
+    public long getMaxComputationTimeMillis() {
+        return maxComputationTimeMillis;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject();
+        builder.field("executor", executor);
+        builder.field("batch_count", batchCount);
+        builder.field("task_count", taskCount);
+        builder.humanReadableField("total_queue_time_millis", "total_queue_time", TimeValue.timeValueMillis(totalQueueTimeMillis));
+        builder.humanReadableField("max_queue_time_millis", "max_queue_time", TimeValue.timeValueMillis(maxQueueTimeMillis));
+        builder.humanReadableField(
+            "total_computation_time_millis",
+            "total_computation_time",
+            TimeValue.timeValueMillis(totalComputationTimeMillis));
+        builder.humanReadableField(
+            "max_computation_time_millis",
+            "max_computation_time",
+            TimeValue.timeValueMillis(maxComputationTimeMillis));
+        builder.endObject();
+        return builder;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ClusterStateTaskExecutorStats that = (ClusterStateTaskExecutorStats) o;
+        return executor.equals(that.executor)
+            && batchCount == that.batchCount
+            && taskCount == that.taskCount
+            && totalQueueTimeMillis == that.totalQueueTimeMillis
+            && maxQueueTimeMillis == that.maxQueueTimeMillis
+            && totalComputationTimeMillis == that.totalComputationTimeMillis
+            && maxComputationTimeMillis == that.maxComputationTimeMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+            executor,
+            batchCount,
+            taskCount,
+            totalQueueTimeMillis,
+            maxQueueTimeMillis,
+            totalComputationTimeMillis,
+            maxComputationTimeMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterStateTaskExecutorStats{" +
+            "executor='" + executor + '\'' +
+            ", batchCount=" + batchCount +
+            ", taskCount=" + taskCount +
+            ", totalQueueTimeMillis=" + totalQueueTimeMillis +
+            ", maxQueueTimeMillis=" + maxQueueTimeMillis +
+            ", totalComputationTimeMillis=" + totalComputationTimeMillis +
+            ", maxComputationTimeMillis=" + maxComputationTimeMillis +
+            '}';
+    }
+}
@@ -48,6 +48,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -90,6 +91,7 @@ public class MasterService extends AbstractLifecycleComponent {
     private volatile Batcher taskBatcher;
 
     private final ClusterStateUpdateStatsTracker clusterStateUpdateStatsTracker = new ClusterStateUpdateStatsTracker();
+    private final ExecutorStatsTracker executorStatsTracker = new ExecutorStatsTracker();
 
     public MasterService(Settings settings, ClusterSettings clusterSettings, ThreadPool threadPool) {
         this.nodeName = Objects.requireNonNull(Node.NODE_NAME_SETTING.get(settings));
@@ -138,6 +140,14 @@ public class MasterService extends AbstractLifecycleComponent {
         return clusterStateUpdateStatsTracker.getStatistics();
     }
 
+    /**
+     * Returns the queueing and computation statistics of each {@link ClusterStateTaskExecutor} that has executed a batch of tasks
+     * on this node, sorted by executor name.
+     */
+    public List<ClusterStateTaskExecutorStats> getExecutorStats() {
+        return executorStatsTracker.getStatistics();
+    }
+
     @SuppressWarnings("unchecked")
     class Batcher extends TaskBatcher {
 
@@ -219,11 +229,25 @@ public class MasterService extends AbstractLifecycleComponent {
             return;
         }
 
+        long totalQueueTimeMillis = 0L;
+        long maxQueueTimeMillis = 0L;
+        for (Batcher.UpdateTask updateTask : taskInputs.updateTasks) {
+            final long queueTimeMillis = Math.max(0L, updateTask.getAgeInMillis());
+            totalQueueTimeMillis += queueTimeMillis;
+            maxQueueTimeMillis = Math.max(maxQueueTimeMillis, queueTimeMillis);
+        }
+
         final long computationStartTime = threadPool.rawRelativeTimeInMillis();
         final TaskOutputs taskOutputs = calculateTaskOutputs(taskInputs, previousClusterState);
         taskOutputs.notifyFailedTasks();
         final TimeValue computationTime = getTimeSince(computationStartTime);
         logExecutionTime(computationTime, "compute cluster state update", summary);
+        executorStatsTracker.onBatchComputed(
+            taskInputs.executor,
+            taskInputs.updateTasks.size(),
+            totalQueueTimeMillis,
+            maxQueueTimeMillis,
+            computationTime.millis());
 
         if (taskOutputs.clusterStateUnchanged()) {
             final long notificationStartTime = threadPool.rawRelativeTimeInMillis();
@@ -991,5 +1015,55 @@ public class MasterService extends AbstractLifecycleComponent {
         }
     }
 
+    /**
+     * Tracks the queueing and computation time of the batches run by each executor, keyed by the executor's class name. Lambdas are
+     * reported under their defining class since the names of their generated classes are not stable.
+     */
+    static class ExecutorStatsTracker {
+
+        private final Map<String, long[]> statsByExecutor = new HashMap<>();
 
+        private static final int BATCH_COUNT = 0;
+        private static final int TASK_COUNT = 1;
+        private static final int TOTAL_QUEUE_TIME = 2;
+        private static final int MAX_QUEUE_TIME = 3;
+        private static final int TOTAL_COMPUTATION_TIME = 4;
+        private static final int MAX_COMPUTATION_TIME = 5;
+
+        static String executorName(ClusterStateTaskExecutor<?> executor) {
+            final String className = executor.getClass().getName();
+            final int lambdaIndex = className.indexOf("$$Lambda");
+            return lambdaIndex < 0 ? className : className.substring(0, lambdaIndex);
+        }
+
+        synchronized void onBatchComputed(
+            ClusterStateTaskExecutor<?> executor,
+            int taskCount,
+            long totalQueueTimeMillis,
+            long maxQueueTimeMillis,
+            long computationTimeMillis
+        ) {
+            final long[] stats = statsByExecutor.computeIfAbsent(executorName(executor), k -> new long[6]);
+            stats[BATCH_COUNT] += 1;
+            stats[TASK_COUNT] += taskCount;
+            stats[TOTAL_QUEUE_TIME] += totalQueueTimeMillis;
+            stats[MAX_QUEUE_TIME] = Math.max(stats[MAX_QUEUE_TIME], maxQueueTimeMillis);
+            stats[TOTAL_COMPUTATION_TIME] += computationTimeMillis;
+            stats[MAX_COMPUTATION_TIME] = Math.max(stats[MAX_COMPUTATION_TIME], computationTimeMillis);
+        }
+
+        synchronized List<ClusterStateTaskExecutorStats> getStatistics() {
+            return statsByExecutor.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> new ClusterStateTaskExecutorStats(
+                    e.getKey(),
+                    e.getValue()[BATCH_COUNT],
+                    e.getValue()[TASK_COUNT],
+                    e.getValue()[TOTAL_QUEUE_TIME],
+                    e.getValue()[MAX_QUEUE_TIME],
+                    e.getValue()[TOTAL_COMPUTATION_TIME],
+                    e.getValue()[MAX_COMPUTATION_TIME]))
+                .collect(Collectors.toList());
+        }
+    }
 }
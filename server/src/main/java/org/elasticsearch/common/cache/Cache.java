@@ -12,6 +12,8 @@ import org.elasticsearch.core.Tuple;
 import org.elasticsearch.common.util.concurrent.ReleasableLock;
 
 import java.lang.reflect.Array;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -41,14 +43,15 @@ import java.util.function.ToLongBiFunction;
  * if they are reading a segment that a writer is writing to).
  * <p>
  * The LRU functionality is backed by a single doubly-linked list chaining the entries in order of insertion. This
- * LRU list is protected by a lock that serializes all writes to it. There are opportunities for improvements
- * here if write throughput is a concern.
- * <ol>
- * <li>LRU list mutations could be inserted into a blocking queue that a single thread is reading from
- * and applying to the LRU list.</li>
- * <li>Promotions could be deferred for entries that were "recently" promoted.</li>
- * <li>Locks on the list could be taken per node being modified instead of globally.</li>
- * </ol>
+ * LRU list is protected by a lock that serializes all writes to it. Cache hits do not take this lock: they record the
+ * entry in one of several small read buffers, striped by thread, and the promotions are applied in batches by the next
+ * thread that takes the lock, or by a reader whose buffer is full. If a reader's buffer is full while another thread
+ * holds the lock then its promotion is dropped, so the LRU order is approximate under heavy concurrent reads.
+ * <p>
+ * Optionally, a cache with a maximum weight can use frequency-based admission (TinyLFU): the cache keeps an approximate
+ * count of recent accesses to each key, and a new entry that would push the cache over its maximum weight is only
+ * admitted if its key has been accessed more often than that of the least-recently-used entry, otherwise the new entry
+ * is evicted instead. This protects frequently-used entries from being flushed out by one-off entries.
  * <p>
  * Evictions only occur after a mutation to the cache (meaning an entry promotion, a cache insertion, or a manual
  * invalidation) or an explicit call to {@link #refresh()}.
@@ -92,6 +95,9 @@ public class Cache<K, V> {
     private RemovalListener<K, V> removalListener = notification -> {
     };
 
+    // the recent access frequencies of keys if new entries are admitted based on frequency, otherwise null
+    private FrequencySketch frequencySketch;
+
     // use CacheBuilder to construct
     Cache() {
     }
@@ -139,6 +145,10 @@ public class Cache<K, V> {
         this.removalListener = removalListener;
     }
 
+    void setFrequencyBasedAdmission(boolean frequencyBasedAdmission) {
+        this.frequencySketch = frequencyBasedAdmission ? new FrequencySketch() : null;
+    }
+
     /**
      * The relative time used to track time-based evictions.
      *
@@ -335,6 +345,13 @@ public class Cache<K, V> {
     // lock protecting mutations to the LRU list
     private final ReleasableLock lruLock = new ReleasableLock(new ReentrantLock());
 
+    private static final int READ_BUFFER_STRIPES = Integer.highestOneBit(
+        Math.min(64, Math.max(1, Runtime.getRuntime().availableProcessors())) * 2 - 1
+    );
+
+    // hits whose promotion has not been applied to the LRU list yet, striped by thread; stripes are created on first use
+    private final AtomicReferenceArray<ReadBuffer<K, V>> readBuffers = new AtomicReferenceArray<>(READ_BUFFER_STRIPES);
+
     /**
      * Returns the value to which the specified key is mapped, or null if this map contains no mapping for the key.
      *
@@ -351,11 +368,100 @@ public class Cache<K, V> {
         if (entry == null) {
             return null;
         } else {
-            promote(entry, now);
+            afterRead(entry, now);
             return entry.value;
         }
     }
 
+    /**
+     * Records a hit on the given entry in the read buffer of the current thread instead of promoting it right away. If the buffer is full
+     * then all buffered promotions are applied now, unless another thread holds the LRU lock in which case this promotion is dropped.
+     */
+    private void afterRead(Entry<K, V> entry, long now) {
+        if (readBuffer().offer(entry)) {
+            return;
+        }
+        try (ReleasableLock locked = lruLock.tryAcquire()) {
+            if (locked != null) {
+                drainReadBuffers();
+                if (promoteLocked(entry)) {
+                    evict(now, null);
+                }
+            }
+        }
+    }
+
+    private ReadBuffer<K, V> readBuffer() {
+        final int stripe = Long.hashCode(Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) & (READ_BUFFER_STRIPES - 1);
+        ReadBuffer<K, V> readBuffer = readBuffers.get(stripe);
+        if (readBuffer == null) {
+            readBuffers.compareAndSet(stripe, null, new ReadBuffer<>());
+            readBuffer = readBuffers.get(stripe);
+        }
+        return readBuffer;
+    }
+
+    private void drainReadBuffers() {
+        assert lruLock.isHeldByCurrentThread();
+
+        for (int i = 0; i < READ_BUFFER_STRIPES; i++) {
+            final ReadBuffer<K, V> readBuffer = readBuffers.get(i);
+            if (readBuffer != null) {
+                readBuffer.drainTo(entry -> {
+                    if (promoteLocked(entry) && frequencySketch != null) {
+                        frequencySketch.increment(entry.key.hashCode());
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * A bounded buffer of entries that were read, written to by any number of threads without locking and drained by the thread that
+     * holds the LRU lock. Offers fail rather than wait if the buffer is full or if another thread is offering an entry at the same time.
+     */
+    private static final class ReadBuffer<K, V> {
+
+        private static final int SIZE = 16;
+
+        private final AtomicReferenceArray<Entry<K, V>> entries = new AtomicReferenceArray<>(SIZE);
+
+        // the number of entries offered to the buffer so far
+        private final AtomicLong writeCount = new AtomicLong();
+
+        // the number of entries drained from the buffer so far, only written while holding the LRU lock
+        private volatile long readCount;
+
+        boolean offer(Entry<K, V> entry) {
+            final long writes = writeCount.get();
+            if (writes - readCount >= SIZE) {
+                return false;
+            }
+            if (writeCount.compareAndSet(writes, writes + 1)) {
+                entries.lazySet((int) (writes & (SIZE - 1)), entry);
+                return true;
+            }
+            return false;
+        }
+
+        void drainTo(Consumer<Entry<K, V>> consumer) {
+            final long writes = writeCount.get();
+            long reads = readCount;
+            while (reads < writes) {
+                final int index = (int) (reads & (SIZE - 1));
+                final Entry<K, V> entry = entries.get(index);
+                if (entry == null) {
+                    // the writer has claimed this slot but not filled it yet, pick it up on the next drain
+                    break;
+                }
+                entries.lazySet(index, null);
+                consumer.accept(entry);
+                reads++;
+            }
+            readCount = reads;
+        }
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null), attempts to compute its
      * value using the given mapping function and enters it into this map unless null. The load method for a given key
@@ -558,7 +664,8 @@ public class Cache<K, V> {
     public void refresh() {
         long now = now();
         try (ReleasableLock ignored = lruLock.acquire()) {
-            evict(now);
+            drainReadBuffers();
+            evict(now, null);
         }
     }
 
@@ -734,30 +841,59 @@ public class Cache<K, V> {
     }
 
     private void promote(Entry<K, V> entry, long now) {
-        boolean promoted = true;
         try (ReleasableLock ignored = lruLock.acquire()) {
-            switch (entry.state) {
-                case DELETED:
-                    promoted = false;
-                    break;
-                case EXISTING:
-                    relinkAtHead(entry);
-                    break;
-                case NEW:
-                    linkAtHead(entry);
-                    break;
-            }
-            if (promoted) {
-                evict(now);
+            drainReadBuffers();
+            final boolean isNew = entry.state == State.NEW;
+            if (promoteLocked(entry)) {
+                Entry<K, V> candidate = null;
+                if (isNew && frequencySketch != null) {
+                    frequencySketch.ensureCapacity(count);
+                    frequencySketch.increment(entry.key.hashCode());
+                    candidate = entry;
+                }
+                evict(now, candidate);
             }
         }
     }
 
-    private void evict(long now) {
+    /**
+     * Moves the given entry to the head of the LRU list, or links it there if it is new.
+     *
+     * @return whether the entry was promoted, i.e. it is still in the cache
+     */
+    private boolean promoteLocked(Entry<K, V> entry) {
+        assert lruLock.isHeldByCurrentThread();
+
+        switch (entry.state) {
+            case EXISTING:
+                relinkAtHead(entry);
+                return true;
+            case NEW:
+                linkAtHead(entry);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Evicts entries from the tail of the LRU list while the cache exceeds its maximum weight or the tail has expired.
+     *
+     * @param candidate a new entry that is subject to frequency-based admission, or null: if evicting the tail to make room for the
+     *                  candidate would evict a key that was accessed at least as often as the candidate's, the candidate is evicted instead
+     */
+    private void evict(long now, Entry<K, V> candidate) {
         assert lruLock.isHeldByCurrentThread();
 
         while (tail != null && shouldPrune(tail, now)) {
-            evictEntry(tail);
+            if (candidate != null && tail != candidate && candidate.state == State.EXISTING
+                && exceedsWeight() && isExpired(tail, now) == false
+                && frequencySketch.frequency(candidate.key.hashCode()) <= frequencySketch.frequency(tail.key.hashCode())) {
+                evictEntry(candidate);
+                candidate = null;
+            } else {
+                evictEntry(tail);
+            }
         }
     }
 
@@ -0,0 +1,114 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.cache;
+
+/**
+ * An approximate count of how often each key was accessed recently, used by {@link Cache} to decide whether a new entry is worth evicting
+ * an older one for (TinyLFU admission). This is a count-min sketch with four rows of 4-bit counters packed sixteen to a {@code long}, so
+ * frequencies saturate at 15. All counters are halved once the number of increments reaches ten times the number of entries the sketch
+ * was sized for, so that keys that were popular a long time ago are eventually forgotten.
+ * <p>
+ * Not thread-safe: the cache only uses it while holding its LRU lock.
+ */
+final class FrequencySketch {
+
+    static final int MAX_FREQUENCY = 15;
+
+    private static final int MIN_TABLE_LENGTH = 16;
+    private static final int MAX_TABLE_LENGTH = 1 << 26;
+
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private long[] table = new long[MIN_TABLE_LENGTH];
+    private int sampleSize = 10 * MIN_TABLE_LENGTH;
+    private int additions;
+
+    /**
+     * Grows the sketch so that it can tell apart the frequencies of the given number of entries. The frequencies recorded so far are
+     * kept: the table length is a power of two and the index of a counter is its hash masked by the table length, so after growing the
+     * table a counter lives at its old index or at its old index plus a multiple of the old length, and copying the old table into each
+     * of these positions gives every key the same estimate as before.
+     */
+    void ensureCapacity(long expectedEntries) {
+        if (expectedEntries <= table.length || table.length >= MAX_TABLE_LENGTH) {
+            return;
+        }
+        final int length = (int) Math.min(MAX_TABLE_LENGTH, Long.highestOneBit(expectedEntries - 1) << 1);
+        final long[] grown = new long[length];
+        for (int i = 0; i < length; i += table.length) {
+            System.arraycopy(table, 0, grown, i, table.length);
+        }
+        table = grown;
+        sampleSize = 10 * length;
+    }
+
+    /**
+     * The estimated number of recent accesses to the key with the given hash code, at most {@link #MAX_FREQUENCY}.
+     */
+    int frequency(int hashCode) {
+        final int hash = spread(hashCode);
+        final int start = (hash & 3) << 2;
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < SEEDS.length; i++) {
+            final int index = indexOf(hash, i);
+            final int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an access to the key with the given hash code.
+     */
+    void increment(int hashCode) {
+        final int hash = spread(hashCode);
+        final int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        final int offset = counter << 2;
+        final long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        // each counter that was odd lost half an increment to rounding, and there are four counters per increment
+        additions = (additions >>> 1) - (odd >>> 2);
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return ((int) h) & (table.length - 1);
+    }
+
+    private static int spread(int hashCode) {
+        int h = ((hashCode >>> 16) ^ hashCode) * 0x45d9f3b;
+        h = ((h >>> 16) ^ h) * 0x45d9f3b;
+        return (h >>> 16) ^ h;
+    }
+}
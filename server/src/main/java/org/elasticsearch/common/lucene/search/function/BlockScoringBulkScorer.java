@@ -0,0 +1,112 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.lucene.search.function;
+
+import org.apache.lucene.search.BulkScorer;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.util.Bits;
+
+import java.io.IOException;
+
+/**
+ * A {@link BulkScorer} that buffers the documents that the {@link BulkScorer} of a sub-query collects into blocks, and scores each
+ * block at once before passing its documents on to the collector. This lets scripts that don't need scores compute the scores of a
+ * whole block of documents at once, see {@link org.elasticsearch.script.ScoreScript#executeBlock}.
+ */
+abstract class BlockScoringBulkScorer extends BulkScorer {
+
+    static final int BLOCK_SIZE = 64;
+
+    private final BulkScorer subQueryBulkScorer;
+    private final boolean needsSubQueryScores;
+    private final int[] docs = new int[BLOCK_SIZE];
+    private final float[] subQueryScores = new float[BLOCK_SIZE];
+    private final float[] scores = new float[BLOCK_SIZE];
+
+    BlockScoringBulkScorer(BulkScorer subQueryBulkScorer, boolean needsSubQueryScores) {
+        this.subQueryBulkScorer = subQueryBulkScorer;
+        this.needsSubQueryScores = needsSubQueryScores;
+    }
+
+    /**
+     * Computes the scores of the first {@code count} documents of {@code docs}, which are in increasing order, into {@code scores}.
+     * {@code subQueryScores} holds the scores of the sub-query for these documents if they are needed.
+     */
+    protected abstract void scoreBlock(int[] docs, float[] subQueryScores, int count, float[] scores) throws IOException;
+
+    @Override
+    public int score(LeafCollector collector, Bits acceptDocs, int min, int max) throws IOException {
+        final BlockCollector blockCollector = new BlockCollector(collector);
+        final int next = subQueryBulkScorer.score(blockCollector, acceptDocs, min, max);
+        // the collector may change between calls, so the documents of a call are all passed on before it returns
+        blockCollector.flush();
+        return next;
+    }
+
+    @Override
+    public long cost() {
+        return subQueryBulkScorer.cost();
+    }
+
+    private class BlockCollector implements LeafCollector {
+        private final LeafCollector in;
+        private final BlockScorable scorable = new BlockScorable();
+        private Scorable subQueryScorer;
+        private int count;
+
+        BlockCollector(LeafCollector in) {
+            this.in = in;
+        }
+
+        @Override
+        public void setScorer(Scorable scorer) throws IOException {
+            subQueryScorer = scorer;
+            in.setScorer(scorable);
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+            docs[count] = doc;
+            if (needsSubQueryScores) {
+                subQueryScores[count] = subQueryScorer.score();
+            }
+            if (++count == BLOCK_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            final int size = count;
+            count = 0;
+            if (size == 0) {
+                return;
+            }
+            scoreBlock(docs, subQueryScores, size, scores);
+            for (int i = 0; i < size; i++) {
+                scorable.index = i;
+                in.collect(docs[i]);
+            }
+        }
+    }
+
+    private class BlockScorable extends Scorable {
+        private int index;
+
+        @Override
+        public float score() {
+            return scores[index];
+        }
+
+        @Override
+        public int docID() {
+            return docs[index];
+        }
+    }
+}
@@ -11,6 +11,7 @@ package org.elasticsearch.common.lucene.search.function;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BulkScorer;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.FilterScorer;
 import org.apache.lucene.search.IndexSearcher;
@@ -268,6 +269,35 @@ public class FunctionScoreQuery extends Query {
                 docSets, combineFunction, needsScores);
         }
 
+        @Override
+        public BulkScorer bulkScorer(LeafReaderContext context) throws IOException {
+            if (minScore != null || functions.length != 1 || filterWeights[0] != null || functions[0].needsScores()) {
+                return super.bulkScorer(context);
+            }
+            final BulkScorer subQueryBulkScorer = subQueryWeight.bulkScorer(context);
+            if (subQueryBulkScorer == null) {
+                return null;
+            }
+            // a single function without a filter that doesn't need scores can score the documents of the sub-query in blocks
+            final LeafScoreFunction leafFunction = functions[0].getLeafScoreFunction(context);
+            final BlockLeafScoreFunction blockFunction = new BlockLeafScoreFunction();
+            final LeafScoreFunction[] leafFunctions = new LeafScoreFunction[] { blockFunction };
+            final Bits[] docSets = new Bits[] { new Bits.MatchAllBits(context.reader().maxDoc()) };
+            return new BlockScoringBulkScorer(subQueryBulkScorer, needsScores) {
+                @Override
+                protected void scoreBlock(int[] docs, float[] subQueryScores, int count, float[] scores) throws IOException {
+                    leafFunction.scoreBlock(docs, count, blockFunction.scores);
+                    for (int i = 0; i < count; i++) {
+                        final float subQueryScore = needsScores ? subQueryScores[i] : 0f;
+                        blockFunction.index = i;
+                        final double factor = FunctionFactorScorer.computeScore(scoreMode, functions, leafFunctions, docSets, docs[i],
+                            subQueryScore);
+                        scores[i] = FunctionFactorScorer.combine(combineFunction, subQueryScore, factor, maxBoost, docs[i]);
+                    }
+                }
+            };
+        }
+
         @Override
         public Scorer scorer(LeafReaderContext context) throws IOException {
             Scorer scorer = functionScorer(context);
@@ -338,6 +368,24 @@ public class FunctionScoreQuery extends Query {
         }
     }
 
+    /**
+     * The scores of a block of documents that a function computed with {@link LeafScoreFunction#scoreBlock}.
+     */
+    private static class BlockLeafScoreFunction extends LeafScoreFunction {
+        private final double[] scores = new double[BlockScoringBulkScorer.BLOCK_SIZE];
+        private int index;
+
+        @Override
+        public double score(int docId, float subQueryScore) {
+            return scores[index];
+        }
+
+        @Override
+        public Explanation explainScore(int docId, Explanation subQueryScore) {
+            throw new UnsupportedOperationException("the scores of a block are not explained");
+        }
+    }
+
     static class FunctionFactorScorer extends FilterScorer {
         private final ScoreFunction[] functions;
         private final ScoreMode scoreMode;
@@ -370,7 +418,10 @@ public class FunctionScoreQuery extends Query {
             if (leafFunctions.length == 0) {
                 return subQueryScore;
             }
-            double factor = computeScore(docId, subQueryScore);
+            return combine(scoreCombiner, subQueryScore, computeScore(docId, subQueryScore), maxBoost, docId);
+        }
+
+        static float combine(CombineFunction scoreCombiner, float subQueryScore, double factor, float maxBoost, int docId) {
             float finalScore = scoreCombiner.combine(subQueryScore, factor, maxBoost);
             if (finalScore < 0f || Float.isNaN(finalScore)) {
                 /*
@@ -383,6 +434,11 @@ public class FunctionScoreQuery extends Query {
         }
 
         protected double computeScore(int docId, float subQueryScore) throws IOException {
+            return computeScore(scoreMode, functions, leafFunctions, docSets, docId, subQueryScore);
+        }
+
+        static double computeScore(ScoreMode scoreMode, ScoreFunction[] functions, LeafScoreFunction[] leafFunctions, Bits[] docSets,
+                                   int docId, float subQueryScore) throws IOException {
             double factor = 1d;
             switch(scoreMode) {
                 case FIRST:
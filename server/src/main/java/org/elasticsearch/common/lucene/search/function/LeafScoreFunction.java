@@ -17,6 +17,17 @@ public abstract class LeafScoreFunction {
 
     public abstract double score(int docId, float subQueryScore) throws IOException;
 
+    /**
+     * Computes the scores of the first {@code count} documents of {@code docs} into {@code scores}, for functions that don't
+     * {@link ScoreFunction#needsScores() need scores}. Documents must be passed in increasing order. By default the documents are
+     * scored one at a time.
+     */
+    public void scoreBlock(int[] docs, int count, double[] scores) throws IOException {
+        for (int i = 0; i < count; i++) {
+            scores[i] = score(docs[i], 0f);
+        }
+    }
+
     public abstract Explanation explainScore(int docId, Explanation subQueryScore) throws IOException;
 
 }
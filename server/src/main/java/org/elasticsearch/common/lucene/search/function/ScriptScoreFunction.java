@@ -74,6 +74,17 @@ public class ScriptScoreFunction extends ScoreFunction {
                 return result;
             }
 
+            @Override
+            public void scoreBlock(int[] docs, int count, double[] scores) {
+                leafScript.executeBlock(docs, count, scores);
+                for (int i = 0; i < count; i++) {
+                    if (scores[i] < 0f) {
+                        throw new IllegalArgumentException(
+                            "script score function must not produce negative scores, but got: [" + scores[i] + "]");
+                    }
+                }
+            }
+
             @Override
             public Explanation explainScore(int docId, Explanation subQueryScore) throws IOException {
                 Explanation exp;
@@ -85,6 +85,9 @@ public class ScriptScoreQuery extends Query {
                     if (subQueryBulkScorer == null) {
                         return null;
                     }
+                    if (needsScore == false) {
+                        return new ScriptScoreBlockBulkScorer(subQueryBulkScorer, makeScoreScript(context), boost);
+                    }
                     return new ScriptScoreBulkScorer(subQueryBulkScorer, subQueryScoreMode, makeScoreScript(context), boost);
                 } else {
                     return super.bulkScorer(context);
@@ -306,4 +309,32 @@ public class ScriptScoreQuery extends Query {
 
     }
 
+    /**
+     * Scores the documents of the sub-query in blocks with {@link ScoreScript#executeBlock}, for scripts that don't need scores.
+     */
+    private static class ScriptScoreBlockBulkScorer extends BlockScoringBulkScorer {
+        private final ScoreScript scoreScript;
+        private final float boost;
+        private final double[] scriptScores = new double[BLOCK_SIZE];
+
+        ScriptScoreBlockBulkScorer(BulkScorer subQueryBulkScorer, ScoreScript scoreScript, float boost) {
+            super(subQueryBulkScorer, false);
+            this.scoreScript = scoreScript;
+            this.boost = boost;
+        }
+
+        @Override
+        protected void scoreBlock(int[] docs, float[] subQueryScores, int count, float[] scores) {
+            scoreScript.executeBlock(docs, count, scriptScores);
+            for (int i = 0; i < count; i++) {
+                float score = (float) scriptScores[i];
+                if (score < 0f || Float.isNaN(score)) {
+                    throw new IllegalArgumentException("script_score script returned an invalid score [" + score + "] " +
+                        "for doc [" + docs[i] + "]. Must be a non-negative score!");
+                }
+                scores[i] = score * boost;
+            }
+        }
+    }
+
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative {@code long} observations (e.g. latencies) with buckets whose widths grow exponentially: bucket {@code 0}
+ * holds observations of {@code 0} and bucket {@code i > 0} holds observations in {@code [2^(i-1), 2^i)}. Recording an observation is
+ * lock-free and does not allocate, so it is suitable for hot paths. Percentiles are approximated by the upper bound of the bucket that
+ * contains them, so they are accurate to within a factor of two.
+ */
+public final class ExponentialBucketHistogram {
+
+    public static final int BUCKET_COUNT = Long.SIZE;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a single observation. Negative values are recorded as {@code 0}.
+     */
+    public void addObservation(long value) {
+        final long nonNegativeValue = Math.max(0L, value);
+        buckets.incrementAndGet(bucketIndex(nonNegativeValue));
+        if (max.get() < nonNegativeValue) {
+            max.accumulateAndGet(nonNegativeValue, Math::max);
+        }
+    }
+
+    /**
+     * @return a copy of the current bucket counts, suitable for computing a consistent set of percentiles with
+     * {@link #getPercentile(double, long[])}.
+     */
+    public long[] getSnapshot() {
+        final long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the largest observation recorded so far, or {@code 0} if there have been no observations.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return the total number of observations in the given snapshot.
+     */
+    public static long getCount(long[] snapshot) {
+        long count = 0L;
+        for (long bucketCount : snapshot) {
+            count += bucketCount;
+        }
+        return count;
+    }
+
+    /**
+     * @return the upper bound of the bucket containing the given percentile of the observations in the given snapshot, or {@code 0} if the
+     * snapshot is empty.
+     */
+    public static long getPercentile(double percentile, long[] snapshot) {
+        assert percentile >= 0 && percentile <= 1 : percentile;
+        final long count = getCount(snapshot);
+        if (count == 0) {
+            return 0L;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(percentile * count));
+        long seen = 0L;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return getBucketUpperBound(i);
+            }
+        }
+        return getBucketUpperBound(snapshot.length - 1);
+    }
+
+    /**
+     * @return the index of the bucket that holds the given non-negative observation.
+     */
+    static int bucketIndex(long value) {
+        assert value >= 0 : value;
+        return Long.SIZE - Long.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * @return the largest observation that is held in the bucket with the given index.
+     */
+    public static long getBucketUpperBound(int bucketIndex) {
+        assert 0 <= bucketIndex && bucketIndex < BUCKET_COUNT : bucketIndex;
+        return bucketIndex == BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << bucketIndex) - 1;
+    }
+}
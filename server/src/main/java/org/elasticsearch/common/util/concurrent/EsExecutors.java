@@ -213,6 +213,57 @@ public class EsExecutors {
         return new EsThreadFactory(namePrefix);
     }
 
+    /**
+     * Returns a factory of virtual threads, named like the threads created by {@link #daemonThreadFactory(String)}, or {@code null} if
+     * this JVM does not support virtual threads.
+     */
+    public static ThreadFactory virtualThreadFactory(String namePrefix) {
+        return VirtualThreads.FACTORY == null ? null : new EsVirtualThreadFactory(namePrefix, VirtualThreads.FACTORY);
+    }
+
+    /**
+     * @return whether this JVM supports virtual threads.
+     */
+    public static boolean virtualThreadsSupported() {
+        return VirtualThreads.FACTORY != null;
+    }
+
+    private static final class VirtualThreads {
+        // Thread.ofVirtual().factory(), looked up reflectively since virtual threads are not available on all supported JDKs
+        static final ThreadFactory FACTORY = lookupFactory();
+
+        private static ThreadFactory lookupFactory() {
+            try {
+                final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // not supported on this JDK, or still a preview feature which is not enabled
+                return null;
+            }
+        }
+    }
+
+    static class EsVirtualThreadFactory implements ThreadFactory {
+
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        final String namePrefix;
+        final ThreadFactory delegate;
+
+        EsVirtualThreadFactory(String namePrefix, ThreadFactory delegate) {
+            this.namePrefix = namePrefix;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            // virtual threads are always daemon threads
+            final Thread t = delegate.newThread(r);
+            t.setName(namePrefix + "[VT#" + threadNumber.getAndIncrement() + "]");
+            return t;
+        }
+
+    }
+
     static class EsThreadFactory implements ThreadFactory {
 
         final ThreadGroup group;
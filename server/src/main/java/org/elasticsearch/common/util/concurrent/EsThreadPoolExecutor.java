@@ -8,6 +8,7 @@
 
 package org.elasticsearch.common.util.concurrent;
 
+import org.elasticsearch.common.metrics.ExponentialBucketHistogram;
 import org.elasticsearch.core.SuppressForbidden;
 
 import java.util.concurrent.BlockingQueue;
@@ -21,9 +22,15 @@ import java.util.stream.Stream;
  */
 public class EsThreadPoolExecutor extends ThreadPoolExecutor {
 
+    // the time at which the current thread started to execute its current task, if it is a thread of an EsThreadPoolExecutor
+    private static final ThreadLocal<long[]> TASK_START_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
     private final ThreadContext contextHolder;
     private volatile ShutdownListener listener;
 
+    private final ExponentialBucketHistogram queueWaitNanos = new ExponentialBucketHistogram();
+    private final ExponentialBucketHistogram executionNanos = new ExponentialBucketHistogram();
+
     private final Object monitor = new Object();
     /**
      * Name used in error reporting.
@@ -69,6 +76,9 @@ public class EsThreadPoolExecutor extends ThreadPoolExecutor {
     @Override
     public void execute(Runnable command) {
         command = wrapRunnable(command);
+        // measure the queue wait from here rather than from when the command was wrapped, which may be much earlier if the command was
+        // scheduled or held back before it was submitted, or if it is submitted again
+        setEnqueueTimeNanos(command, System.nanoTime());
         try {
             super.execute(command);
         } catch (EsRejectedExecutionException ex) {
@@ -87,13 +97,39 @@ public class EsThreadPoolExecutor extends ThreadPoolExecutor {
         }
     }
 
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        final long startNanos = System.nanoTime();
+        TASK_START_NANOS.get()[0] = startNanos;
+        final long enqueueTimeNanos = getEnqueueTimeNanos(r);
+        if (enqueueTimeNanos != -1L) {
+            queueWaitNanos.addObservation(startNanos - enqueueTimeNanos);
+        }
+    }
+
     @Override
     protected void afterExecute(Runnable r, Throwable t) {
         super.afterExecute(r, t);
+        executionNanos.addObservation(System.nanoTime() - TASK_START_NANOS.get()[0]);
         EsExecutors.rethrowErrors(unwrap(r));
         assert assertDefaultContext(r);
     }
 
+    /**
+     * @return the distribution of the times in nanoseconds between tasks being submitted to this executor and starting to run.
+     */
+    public ExponentialBucketHistogram getQueueWaitNanos() {
+        return queueWaitNanos;
+    }
+
+    /**
+     * @return the distribution of the times in nanoseconds that tasks took to run on this executor.
+     */
+    public ExponentialBucketHistogram getExecutionNanos() {
+        return executionNanos;
+    }
+
     private boolean assertDefaultContext(Runnable r) {
         assert contextHolder.isDefaultContext() : "the thread context is not the default context and the thread [" +
             Thread.currentThread().getName() + "] is being returned to the pool after executing [" + r + "]";
@@ -144,4 +180,18 @@ public class EsThreadPoolExecutor extends ThreadPoolExecutor {
     protected Runnable unwrap(Runnable runnable) {
         return contextHolder.unwrap(runnable);
     }
+
+    /**
+     * Records the value of {@link System#nanoTime()} at which the given command, as returned by {@link #wrapRunnable}, was submitted.
+     */
+    protected void setEnqueueTimeNanos(Runnable command, long enqueueTimeNanos) {
+        ThreadContext.setEnqueueTimeNanos(command, enqueueTimeNanos);
+    }
+
+    /**
+     * @return the time recorded by {@link #setEnqueueTimeNanos} for the given command, or {@code -1} if none was recorded.
+     */
+    protected long getEnqueueTimeNanos(Runnable command) {
+        return ThreadContext.getEnqueueTimeNanos(command);
+    }
 }
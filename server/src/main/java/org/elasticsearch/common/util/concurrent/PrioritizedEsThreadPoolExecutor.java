@@ -110,6 +110,7 @@ public class PrioritizedEsThreadPoolExecutor extends EsThreadPoolExecutor {
 
     @Override
     protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
         current.add(r);
         if (getQueue().isEmpty()) {
             starvationWatcher.onEmptyQueue();
@@ -156,6 +157,28 @@ public class PrioritizedEsThreadPoolExecutor extends EsThreadPoolExecutor {
         }
     }
 
+    @Override
+    protected void setEnqueueTimeNanos(Runnable command, long enqueueTimeNanos) {
+        if (command instanceof TieBreakingPrioritizedRunnable) {
+            ((TieBreakingPrioritizedRunnable) command).enqueueTimeNanos = enqueueTimeNanos;
+        } else if (command instanceof PrioritizedFutureTask) {
+            ((PrioritizedFutureTask<?>) command).enqueueTimeNanos = enqueueTimeNanos;
+        } else {
+            super.setEnqueueTimeNanos(command, enqueueTimeNanos);
+        }
+    }
+
+    @Override
+    protected long getEnqueueTimeNanos(Runnable command) {
+        if (command instanceof TieBreakingPrioritizedRunnable) {
+            return ((TieBreakingPrioritizedRunnable) command).enqueueTimeNanos;
+        } else if (command instanceof PrioritizedFutureTask) {
+            return ((PrioritizedFutureTask<?>) command).enqueueTimeNanos;
+        } else {
+            return super.getEnqueueTimeNanos(command);
+        }
+    }
+
     @Override
     protected Runnable unwrap(Runnable runnable) {
         if (runnable instanceof WrappedRunnable) {
@@ -200,6 +223,7 @@ public class PrioritizedEsThreadPoolExecutor extends EsThreadPoolExecutor {
 
         private Runnable runnable;
         private final long insertionOrder;
+        private long enqueueTimeNanos = -1L;
 
         // these two variables are protected by 'this'
         private ScheduledFuture<?> timeoutFuture;
@@ -275,6 +299,7 @@ public class PrioritizedEsThreadPoolExecutor extends EsThreadPoolExecutor {
         final Object task;
         final Priority priority;
         final long insertionOrder;
+        long enqueueTimeNanos = -1L;
 
         PrioritizedFutureTask(Runnable runnable, Priority priority, T value, long insertionOrder) {
             super(runnable, value);
@@ -430,6 +430,32 @@ public final class ThreadContext implements Writeable {
         return new ContextPreservingRunnable(command);
     }
 
+    /**
+     * Records the value of {@link System#nanoTime()} at which the given command, if it was wrapped by {@link #preserveContext(Runnable)},
+     * was submitted to an executor, see {@link EsThreadPoolExecutor#execute}.
+     */
+    static void setEnqueueTimeNanos(Runnable command, long enqueueTimeNanos) {
+        if (command instanceof ContextPreservingRunnable) {
+            ((ContextPreservingRunnable) command).enqueueTimeNanos = enqueueTimeNanos;
+        } else if (command instanceof ContextPreservingAbstractRunnable) {
+            ((ContextPreservingAbstractRunnable) command).enqueueTimeNanos = enqueueTimeNanos;
+        }
+    }
+
+    /**
+     * @return the time recorded by {@link #setEnqueueTimeNanos}, or {@code -1} if the given command was not wrapped by
+     * {@link #preserveContext(Runnable)} or was not submitted to an executor.
+     */
+    static long getEnqueueTimeNanos(Runnable command) {
+        if (command instanceof ContextPreservingRunnable) {
+            return ((ContextPreservingRunnable) command).enqueueTimeNanos;
+        }
+        if (command instanceof ContextPreservingAbstractRunnable) {
+            return ((ContextPreservingAbstractRunnable) command).enqueueTimeNanos;
+        }
+        return -1L;
+    }
+
     /**
      * Unwraps a command that was previously wrapped by {@link #preserveContext(Runnable)}.
      */
@@ -665,6 +691,8 @@ public final class ThreadContext implements Writeable {
     private class ContextPreservingRunnable implements WrappedRunnable {
         private final Runnable in;
         private final ThreadContext.StoredContext ctx;
+        // written by the submitting thread before the command is queued, so it is visible to the thread that runs it
+        private long enqueueTimeNanos = -1L;
 
         private ContextPreservingRunnable(Runnable in) {
             ctx = newStoredContext(false);
@@ -696,6 +724,8 @@ public final class ThreadContext implements Writeable {
     private class ContextPreservingAbstractRunnable extends AbstractRunnable implements WrappedRunnable {
         private final AbstractRunnable in;
         private final ThreadContext.StoredContext creatorsContext;
+        // written by the submitting thread before the command is queued, so it is visible to the thread that runs it
+        private long enqueueTimeNanos = -1L;
 
         private ThreadContext.StoredContext threadsOriginalContext = null;
 
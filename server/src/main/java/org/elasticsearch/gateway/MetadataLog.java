@@ -0,0 +1,268 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.gateway;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.OutputStreamDataOutput;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.Channels;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.internal.io.IOUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of the cluster states that a {@link PersistedClusterStateService.Writer} accepted since the last commit of its
+ * Lucene index, which lets it accept a cluster state with a sequential append and a fsync instead of a Lucene commit. Each log belongs to
+ * the commit that records its generation and only holds the changes made on top of that commit. A new log is created before the commit
+ * that refers to it, and the older logs are only deleted once that commit succeeded, so that a crash at any point leaves either the old
+ * commit with its complete log or the new commit with its empty log.
+ *
+ * A log consists of a header that records its generation followed by one entry per accepted state, each framed as follows:
+ *
+ * +----------------------+---------------------------------+--------------------------+
+ * | length (int)         | entry (length bytes)            | CRC32 of the entry (int) |
+ * +----------------------+---------------------------------+--------------------------+
+ *
+ * An entry is only acknowledged once it was fsynced, so a crash while appending leaves at most one incomplete entry at the end of the log,
+ * which is ignored when replaying the log. A damaged entry that is followed by further entries means that the log was changed after it
+ * was written, which fails the replay.
+ */
+final class MetadataLog {
+
+    private static final String CODEC = "metadata_log";
+    private static final int VERSION_START = 0;
+    private static final int VERSION_CURRENT = VERSION_START;
+    private static final String FILE_PREFIX = "metadata-";
+    private static final String FILE_SUFFIX = ".log";
+    private static final int HEADER_SIZE = CodecUtil.headerLength(CODEC) + Long.BYTES;
+    private static final int FRAME_OVERHEAD = Integer.BYTES + Integer.BYTES;
+    // every entry holds at least the current term and the last-accepted version
+    private static final int MIN_ENTRY_SIZE = Long.BYTES + Long.BYTES;
+
+    private MetadataLog() {
+    }
+
+    static String fileName(long generation) {
+        return FILE_PREFIX + generation + FILE_SUFFIX;
+    }
+
+    /**
+     * Returns the highest generation of the logs in the given directory, or {@code 0} if there are none.
+     */
+    static long maxGeneration(Path directory) throws IOException {
+        long maxGeneration = 0L;
+        for (long generation : findGenerations(directory)) {
+            maxGeneration = Math.max(maxGeneration, generation);
+        }
+        return maxGeneration;
+    }
+
+    /**
+     * Deletes all the logs in the given directory except the one with the given generation.
+     */
+    static void deleteAllExcept(Path directory, long generation) throws IOException {
+        for (long staleGeneration : findGenerations(directory)) {
+            if (staleGeneration != generation) {
+                Files.deleteIfExists(directory.resolve(fileName(staleGeneration)));
+            }
+        }
+    }
+
+    private static List<Long> findGenerations(Path directory) throws IOException {
+        final List<Long> generations = new ArrayList<>();
+        if (Files.exists(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+                for (Path path : stream) {
+                    final String fileName = path.getFileName().toString();
+                    final String generation = fileName.substring(FILE_PREFIX.length(), fileName.length() - FILE_SUFFIX.length());
+                    try {
+                        generations.add(Long.parseLong(generation));
+                    } catch (NumberFormatException e) {
+                        // not one of our logs, leave it alone
+                    }
+                }
+            }
+        }
+        return generations;
+    }
+
+    /**
+     * Reads the acknowledged entries of the log with the given generation in the given directory, in the order in which they were
+     * appended.
+     */
+    static List<Entry> read(Path directory, long generation) throws IOException {
+        final Path path = directory.resolve(fileName(generation));
+        if (Files.exists(path) == false) {
+            throw new CorruptStateException("metadata log [" + path + "] is missing");
+        }
+        final byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length < HEADER_SIZE) {
+            throw new CorruptStateException("metadata log [" + path + "] is truncated");
+        }
+        CodecUtil.checkHeader(new ByteArrayDataInput(bytes, 0, HEADER_SIZE), CODEC, VERSION_START, VERSION_CURRENT);
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        final long headerGeneration = buffer.getLong(HEADER_SIZE - Long.BYTES);
+        if (headerGeneration != generation) {
+            throw new CorruptStateException("metadata log [" + path + "] has generation [" + headerGeneration + "] but expected ["
+                + generation + "]");
+        }
+
+        final List<Entry> entries = new ArrayList<>();
+        int position = HEADER_SIZE;
+        while (position < bytes.length) {
+            final int remaining = bytes.length - position;
+            final int length = remaining < Integer.BYTES ? -1 : buffer.getInt(position);
+            if (length < MIN_ENTRY_SIZE || length > remaining - FRAME_OVERHEAD) {
+                // the writer crashed while appending the last entry, which was therefore never acknowledged, and either only a prefix
+                // of the entry reached the disk or the file was extended without its contents reaching the disk
+                break;
+            }
+            final int entryStart = position + Integer.BYTES;
+            final int entryEnd = entryStart + length;
+            final CRC32 crc32 = new CRC32();
+            crc32.update(bytes, entryStart, length);
+            if ((int) crc32.getValue() != buffer.getInt(entryEnd)) {
+                if (entryEnd + Integer.BYTES == bytes.length) {
+                    // the last entry is incomplete, as above
+                    break;
+                }
+                throw new CorruptStateException("metadata log [" + path + "] has a corrupt entry at position [" + position + "]");
+            }
+            try (StreamInput in = StreamInput.wrap(bytes, entryStart, length)) {
+                entries.add(new Entry(in));
+            }
+            position = entryEnd + Integer.BYTES;
+        }
+        return entries;
+    }
+
+    /**
+     * Serializes the given entry into a frame that is ready to be appended to a log.
+     */
+    static byte[] frame(Entry entry) throws IOException {
+        final byte[] bytes;
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            entry.writeTo(out);
+            bytes = BytesReference.toBytes(out.bytes());
+        }
+        final CRC32 crc32 = new CRC32();
+        crc32.update(bytes, 0, bytes.length);
+        return ByteBuffer.allocate(bytes.length + FRAME_OVERHEAD).putInt(bytes.length).put(bytes).putInt((int) crc32.getValue()).array();
+    }
+
+    /**
+     * The changes made by a single accepted cluster state: the current term and the version of the state, and the metadata documents
+     * that it added, updated or removed. The metadata is held in the same SMILE format as the documents in the Lucene index.
+     */
+    static final class Entry implements Writeable {
+
+        final long currentTerm;
+        final long lastAcceptedVersion;
+        @Nullable // if the global metadata did not change
+        final BytesReference globalMetadata;
+        final List<BytesReference> indexMetadata;
+        final List<String> deletedIndexUUIDs;
+
+        Entry(long currentTerm, long lastAcceptedVersion, @Nullable BytesReference globalMetadata, List<BytesReference> indexMetadata,
+              List<String> deletedIndexUUIDs) {
+            this.currentTerm = currentTerm;
+            this.lastAcceptedVersion = lastAcceptedVersion;
+            this.globalMetadata = globalMetadata;
+            this.indexMetadata = indexMetadata;
+            this.deletedIndexUUIDs = deletedIndexUUIDs;
+        }
+
+        Entry(StreamInput in) throws IOException {
+            currentTerm = in.readLong();
+            lastAcceptedVersion = in.readLong();
+            globalMetadata = in.readOptionalBytesReference();
+            indexMetadata = in.readList(StreamInput::readBytesReference);
+            deletedIndexUUIDs = in.readStringList();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeLong(currentTerm);
+            out.writeLong(lastAcceptedVersion);
+            out.writeOptionalBytesReference(globalMetadata);
+            out.writeCollection(indexMetadata, StreamOutput::writeBytesReference);
+            out.writeStringCollection(deletedIndexUUIDs);
+        }
+    }
+
+    /**
+     * Appends entries to a new log. Only a single writer ever appends to a log, from its creation onwards.
+     */
+    static final class Writer implements Closeable {
+
+        private final FileChannel channel;
+        private long sizeInBytes;
+
+        private Writer(FileChannel channel, long sizeInBytes) {
+            this.channel = channel;
+            this.sizeInBytes = sizeInBytes;
+        }
+
+        /**
+         * Creates the log with the given generation in the given directory, which must not exist yet.
+         */
+        static Writer create(Path directory, long generation) throws IOException {
+            final FileChannel channel = FileChannel.open(directory.resolve(fileName(generation)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            boolean success = false;
+            try (BytesStreamOutput header = new BytesStreamOutput(HEADER_SIZE)) {
+                CodecUtil.writeHeader(new OutputStreamDataOutput(header), CODEC, VERSION_CURRENT);
+                header.writeLong(generation);
+                assert header.size() == HEADER_SIZE : header.size();
+                Channels.writeToChannel(BytesReference.toBytes(header.bytes()), channel);
+                channel.force(false);
+                IOUtils.fsync(directory, true);
+                success = true;
+            } finally {
+                if (success == false) {
+                    IOUtils.closeWhileHandlingException(channel);
+                }
+            }
+            return new Writer(channel, HEADER_SIZE);
+        }
+
+        /**
+         * Appends the given frame, see {@link #frame}, and fsyncs it. If this fails then it is unknown whether the entry is on disk.
+         */
+        void append(byte[] frame) throws IOException {
+            Channels.writeToChannel(frame, channel);
+            channel.force(false);
+            sizeInBytes += frame.length;
+        }
+
+        long sizeInBytes() {
+            return sizeInBytes;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -43,14 +43,17 @@ import org.elasticsearch.Version;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.RecyclingBytesStreamOutput;
 import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.metrics.ExponentialBucketHistogram;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.ByteArray;
 import org.elasticsearch.common.util.PageCacheRecycler;
@@ -79,10 +82,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.IntPredicate;
 import java.util.function.LongSupplier;
@@ -112,6 +114,20 @@ import java.util.function.Supplier;
  * +---------------------------+-------------------------+-------------------------------------------------------------------------------+
  *
  * (the last-accepted term is recorded in Metadata → CoordinationMetadata so does not need repeating here)
+ *
+ * If {@link #METADATA_LOG_ENABLED} is set then incremental writes do not commit the index but append the changes to a {@link MetadataLog}
+ * next to it instead, and each commit records the generation of the log that holds the changes made since then:
+ *
+ * +-----------------------------+---------------------------+---------------------------------------------------------------------------+
+ * |         Key symbol          |        Key literal        |                                   Value                                   |
+ * +-----------------------------+---------------------------+---------------------------------------------------------------------------+
+ * | METADATA_LOG_GENERATION_KEY | "metadata_log_generation" | The generation of the metadata log to replay on top of this commit        |
+ * +-----------------------------+---------------------------+---------------------------------------------------------------------------+
+ *
+ * Once the log grows beyond {@link #METADATA_LOG_COMPACTION_THRESHOLD} the next incremental write compacts it by writing the changes into
+ * the index and committing it with the generation of a new, empty, log. The current term, the last-accepted version and the metadata of
+ * the commit are only up to date once the log was replayed on top of it, which happens when loading the on-disk state regardless of the
+ * setting.
  */
 public class PersistedClusterStateService {
     private static final Logger logger = LogManager.getLogger(PersistedClusterStateService.class);
@@ -124,20 +140,34 @@ public class PersistedClusterStateService {
     private static final String GLOBAL_TYPE_NAME = "global";
     private static final String INDEX_TYPE_NAME = "index";
     private static final String INDEX_UUID_FIELD_NAME = "index_uuid";
+    private static final String METADATA_LOG_GENERATION_KEY = "metadata_log_generation";
     private static final int COMMIT_DATA_SIZE = 4;
+    private static final long NO_METADATA_LOG_GENERATION = -1L;
 
     public static final String METADATA_DIRECTORY_NAME = MetadataStateFormat.STATE_DIR_NAME;
 
     public static final Setting<TimeValue> SLOW_WRITE_LOGGING_THRESHOLD = Setting.timeSetting("gateway.slow_write_logging_threshold",
         TimeValue.timeValueSeconds(10), TimeValue.ZERO, Setting.Property.NodeScope, Setting.Property.Dynamic);
 
+    public static final Setting<Boolean> METADATA_LOG_ENABLED = Setting.boolSetting("gateway.metadata_log.enabled", false,
+        Setting.Property.NodeScope);
+
+    public static final Setting<ByteSizeValue> METADATA_LOG_COMPACTION_THRESHOLD = Setting.byteSizeSetting(
+        "gateway.metadata_log.compaction_threshold", ByteSizeValue.ofMb(16), ByteSizeValue.ZERO, ByteSizeValue.ofBytes(Long.MAX_VALUE),
+        Setting.Property.NodeScope, Setting.Property.Dynamic);
+
     private final Path[] dataPaths;
     private final String nodeId;
     private final NamedXContentRegistry namedXContentRegistry;
     private final BigArrays bigArrays;
     private final LongSupplier relativeTimeMillisSupplier;
+    private final boolean metadataLogEnabled;
 
     private volatile TimeValue slowWriteLoggingThreshold;
+    private volatile ByteSizeValue metadataLogCompactionThreshold;
+
+    // latencies of all the writes made by this service, shared across writers so that it covers the whole lifetime of the node
+    private final ExponentialBucketHistogram writeLatencyHistogram = new ExponentialBucketHistogram();
 
     public PersistedClusterStateService(NodeEnvironment nodeEnvironment, NamedXContentRegistry namedXContentRegistry, BigArrays bigArrays,
                                         ClusterSettings clusterSettings, LongSupplier relativeTimeMillisSupplier) {
@@ -154,12 +184,19 @@ public class PersistedClusterStateService {
         this.relativeTimeMillisSupplier = relativeTimeMillisSupplier;
         this.slowWriteLoggingThreshold = clusterSettings.get(SLOW_WRITE_LOGGING_THRESHOLD);
         clusterSettings.addSettingsUpdateConsumer(SLOW_WRITE_LOGGING_THRESHOLD, this::setSlowWriteLoggingThreshold);
+        this.metadataLogEnabled = clusterSettings.get(METADATA_LOG_ENABLED);
+        this.metadataLogCompactionThreshold = clusterSettings.get(METADATA_LOG_COMPACTION_THRESHOLD);
+        clusterSettings.addSettingsUpdateConsumer(METADATA_LOG_COMPACTION_THRESHOLD, this::setMetadataLogCompactionThreshold);
     }
 
     private void setSlowWriteLoggingThreshold(TimeValue slowWriteLoggingThreshold) {
         this.slowWriteLoggingThreshold = slowWriteLoggingThreshold;
     }
 
+    private void setMetadataLogCompactionThreshold(ByteSizeValue metadataLogCompactionThreshold) {
+        this.metadataLogCompactionThreshold = metadataLogCompactionThreshold;
+    }
+
     public String getNodeId() {
         return nodeId;
     }
@@ -173,12 +210,13 @@ public class PersistedClusterStateService {
         boolean success = false;
         try {
             for (final Path path : dataPaths) {
-                final Directory directory = createDirectory(path.resolve(METADATA_DIRECTORY_NAME));
+                final Path indexPath = path.resolve(METADATA_DIRECTORY_NAME);
+                final Directory directory = createDirectory(indexPath);
                 closeables.add(directory);
 
                 final IndexWriter indexWriter = createIndexWriter(directory, false);
                 closeables.add(indexWriter);
-                metadataIndexWriters.add(new MetadataIndexWriter(directory, indexWriter));
+                metadataIndexWriters.add(new MetadataIndexWriter(indexPath, directory, indexWriter));
             }
             success = true;
         } finally {
@@ -186,7 +224,8 @@ public class PersistedClusterStateService {
                 IOUtils.closeWhileHandlingException(closeables);
             }
         }
-        return new Writer(metadataIndexWriters, nodeId, bigArrays, relativeTimeMillisSupplier, () -> slowWriteLoggingThreshold);
+        return new Writer(metadataIndexWriters, nodeId, bigArrays, relativeTimeMillisSupplier, () -> slowWriteLoggingThreshold,
+            writeLatencyHistogram, metadataLogEnabled, () -> metadataLogCompactionThreshold.getBytes());
     }
 
     private static IndexWriter createIndexWriter(Directory directory, boolean openExisting) throws IOException {
@@ -210,6 +249,7 @@ public class PersistedClusterStateService {
     public static void deleteAll(Path... dataPaths) throws IOException {
         for (Path dataPath : dataPaths) {
             Lucene.cleanLuceneIndex(new NIOFSDirectory(dataPath.resolve(METADATA_DIRECTORY_NAME)));
+            MetadataLog.deleteAllExcept(dataPath.resolve(METADATA_DIRECTORY_NAME), NO_METADATA_LOG_GENERATION);
         }
     }
 
@@ -407,46 +447,82 @@ public class PersistedClusterStateService {
         final IndexSearcher searcher = new IndexSearcher(reader);
         searcher.setQueryCache(null);
 
-        final SetOnce<Metadata.Builder> builderReference = new SetOnce<>();
+        final SetOnce<Metadata> globalMetadataReference = new SetOnce<>();
         consumeFromType(searcher, GLOBAL_TYPE_NAME, bytes ->
         {
-            final Metadata metadata = Metadata.Builder.fromXContent(XContentFactory.xContent(XContentType.SMILE)
-                .createParser(namedXContentRegistry, LoggingDeprecationHandler.INSTANCE, bytes.bytes, bytes.offset, bytes.length));
+            final Metadata metadata = readGlobalMetadata(bytes);
             logger.trace("found global metadata with last-accepted term [{}]", metadata.coordinationMetadata().term());
-            if (builderReference.get() != null) {
+            if (globalMetadataReference.get() != null) {
                 throw new IllegalStateException("duplicate global metadata found in [" + dataPath + "]");
             }
-            builderReference.set(Metadata.builder(metadata));
+            globalMetadataReference.set(metadata);
         });
 
-        final Metadata.Builder builder = builderReference.get();
-        if (builder == null) {
+        Metadata globalMetadata = globalMetadataReference.get();
+        if (globalMetadata == null) {
             throw new IllegalStateException("no global metadata found in [" + dataPath + "]");
         }
 
         logger.trace("got global metadata, now reading index metadata");
 
-        final Set<String> indexUUIDs = new HashSet<>();
+        final Map<String, IndexMetadata> indexMetadataByUUID = new LinkedHashMap<>();
         consumeFromType(searcher, INDEX_TYPE_NAME, bytes ->
         {
-            final IndexMetadata indexMetadata = IndexMetadata.fromXContent(XContentFactory.xContent(XContentType.SMILE)
-                .createParser(namedXContentRegistry, LoggingDeprecationHandler.INSTANCE, bytes.bytes, bytes.offset, bytes.length));
+            final IndexMetadata indexMetadata = readIndexMetadata(bytes);
             logger.trace("found index metadata for {}", indexMetadata.getIndex());
-            if (indexUUIDs.add(indexMetadata.getIndexUUID()) == false) {
+            if (indexMetadataByUUID.putIfAbsent(indexMetadata.getIndexUUID(), indexMetadata) != null) {
                 throw new IllegalStateException("duplicate metadata found for " + indexMetadata.getIndex() + " in [" + dataPath + "]");
             }
-            builder.put(indexMetadata, false);
         });
 
         final Map<String, String> userData = reader.getIndexCommit().getUserData();
         logger.trace("loaded metadata [{}] from [{}]", userData, reader.directory());
-        assert userData.size() == COMMIT_DATA_SIZE : userData;
+        assert userData.size() == COMMIT_DATA_SIZE
+            || (userData.size() == COMMIT_DATA_SIZE + 1 && userData.containsKey(METADATA_LOG_GENERATION_KEY)) : userData;
         assert userData.get(CURRENT_TERM_KEY) != null;
         assert userData.get(LAST_ACCEPTED_VERSION_KEY) != null;
         assert userData.get(NODE_ID_KEY) != null;
         assert userData.get(NODE_VERSION_KEY) != null;
-        return new OnDiskState(userData.get(NODE_ID_KEY), dataPath, Long.parseLong(userData.get(CURRENT_TERM_KEY)),
-            Long.parseLong(userData.get(LAST_ACCEPTED_VERSION_KEY)), builder.build());
+        long currentTerm = Long.parseLong(userData.get(CURRENT_TERM_KEY));
+        long lastAcceptedVersion = Long.parseLong(userData.get(LAST_ACCEPTED_VERSION_KEY));
+
+        // the log is replayed even if it is now disabled, because the commit does not hold the changes that were appended to it
+        final String metadataLogGeneration = userData.get(METADATA_LOG_GENERATION_KEY);
+        if (metadataLogGeneration != null) {
+            final List<MetadataLog.Entry> entries
+                = MetadataLog.read(dataPath.resolve(METADATA_DIRECTORY_NAME), Long.parseLong(metadataLogGeneration));
+            logger.trace("replaying [{}] entries of metadata log generation [{}]", entries.size(), metadataLogGeneration);
+            for (MetadataLog.Entry entry : entries) {
+                currentTerm = entry.currentTerm;
+                lastAcceptedVersion = entry.lastAcceptedVersion;
+                if (entry.globalMetadata != null) {
+                    globalMetadata = readGlobalMetadata(entry.globalMetadata.toBytesRef());
+                }
+                for (BytesReference bytes : entry.indexMetadata) {
+                    final IndexMetadata indexMetadata = readIndexMetadata(bytes.toBytesRef());
+                    indexMetadataByUUID.put(indexMetadata.getIndexUUID(), indexMetadata);
+                }
+                for (String deletedIndexUUID : entry.deletedIndexUUIDs) {
+                    indexMetadataByUUID.remove(deletedIndexUUID);
+                }
+            }
+        }
+
+        final Metadata.Builder builder = Metadata.builder(globalMetadata);
+        for (IndexMetadata indexMetadata : indexMetadataByUUID.values()) {
+            builder.put(indexMetadata, false);
+        }
+        return new OnDiskState(userData.get(NODE_ID_KEY), dataPath, currentTerm, lastAcceptedVersion, builder.build());
+    }
+
+    private Metadata readGlobalMetadata(BytesRef bytes) throws IOException {
+        return Metadata.Builder.fromXContent(XContentFactory.xContent(XContentType.SMILE)
+            .createParser(namedXContentRegistry, LoggingDeprecationHandler.INSTANCE, bytes.bytes, bytes.offset, bytes.length));
+    }
+
+    private IndexMetadata readIndexMetadata(BytesRef bytes) throws IOException {
+        return IndexMetadata.fromXContent(XContentFactory.xContent(XContentType.SMILE)
+            .createParser(namedXContentRegistry, LoggingDeprecationHandler.INSTANCE, bytes.bytes, bytes.offset, bytes.length));
     }
 
     private static void consumeFromType(IndexSearcher indexSearcher, String type,
@@ -484,16 +560,22 @@ public class PersistedClusterStateService {
     }
 
     /**
-     * Encapsulates a single {@link IndexWriter} with its {@link Directory} for ease of closing, and a {@link Logger}. There is one of these
-     * for each data path.
+     * Encapsulates a single {@link IndexWriter} with its {@link Directory} and {@link MetadataLog} for ease of closing, and a
+     * {@link Logger}. There is one of these for each data path.
      */
     private static class MetadataIndexWriter implements Closeable {
 
         private final Logger logger;
+        private final Path path;
         private final Directory directory;
         private final IndexWriter indexWriter;
+        @Nullable // if the metadata log is disabled
+        private MetadataLog.Writer metadataLog;
+        @Nullable // unless committing with a new metadata log
+        private MetadataLog.Writer nextMetadataLog;
 
-        MetadataIndexWriter(Directory directory, IndexWriter indexWriter) {
+        MetadataIndexWriter(Path path, Directory directory, IndexWriter indexWriter) {
+            this.path = path;
             this.directory = directory;
             this.indexWriter = indexWriter;
             this.logger = Loggers.getLogger(MetadataIndexWriter.class, directory.toString());
@@ -524,12 +606,15 @@ public class PersistedClusterStateService {
             this.indexWriter.flush();
         }
 
-        void prepareCommit(String nodeId, long currentTerm, long lastAcceptedVersion) throws IOException {
-            final Map<String, String> commitData = new HashMap<>(COMMIT_DATA_SIZE);
+        void prepareCommit(String nodeId, long currentTerm, long lastAcceptedVersion, long metadataLogGeneration) throws IOException {
+            final Map<String, String> commitData = new HashMap<>(COMMIT_DATA_SIZE + 1);
             commitData.put(CURRENT_TERM_KEY, Long.toString(currentTerm));
             commitData.put(LAST_ACCEPTED_VERSION_KEY, Long.toString(lastAcceptedVersion));
             commitData.put(NODE_VERSION_KEY, Integer.toString(Version.CURRENT.id));
             commitData.put(NODE_ID_KEY, nodeId);
+            if (metadataLogGeneration != NO_METADATA_LOG_GENERATION) {
+                commitData.put(METADATA_LOG_GENERATION_KEY, Long.toString(metadataLogGeneration));
+            }
             indexWriter.setLiveCommitData(commitData.entrySet());
             indexWriter.prepareCommit();
         }
@@ -538,9 +623,40 @@ public class PersistedClusterStateService {
             indexWriter.commit();
         }
 
+        long maxMetadataLogGeneration() throws IOException {
+            return MetadataLog.maxGeneration(path);
+        }
+
+        void createMetadataLog(long metadataLogGeneration) throws IOException {
+            assert nextMetadataLog == null : "already created the next metadata log";
+            this.logger.trace("creating metadata log generation [{}]", metadataLogGeneration);
+            nextMetadataLog = MetadataLog.Writer.create(path, metadataLogGeneration);
+        }
+
+        /**
+         * Switches to the metadata log with the given generation, if any, once a commit that refers to it succeeded, and deletes all
+         * other logs since that commit no longer needs them.
+         */
+        void startMetadataLog(long metadataLogGeneration) throws IOException {
+            IOUtils.close(metadataLog);
+            metadataLog = nextMetadataLog;
+            nextMetadataLog = null;
+            MetadataLog.deleteAllExcept(path, metadataLogGeneration);
+        }
+
+        void appendToMetadataLog(byte[] frame) throws IOException {
+            assert metadataLog != null : "metadata log not started";
+            metadataLog.append(frame);
+        }
+
+        long metadataLogSizeInBytes() {
+            assert metadataLog != null : "metadata log not started";
+            return metadataLog.sizeInBytes();
+        }
+
         @Override
         public void close() throws IOException {
-            IOUtils.close(indexWriter, directory);
+            IOUtils.close(metadataLog, nextMetadataLog, indexWriter, directory);
         }
     }
 
@@ -551,21 +667,35 @@ public class PersistedClusterStateService {
         private final BigArrays bigArrays;
         private final LongSupplier relativeTimeMillisSupplier;
         private final Supplier<TimeValue> slowWriteLoggingThresholdSupplier;
+        private final ExponentialBucketHistogram writeLatencyHistogram;
+        private final boolean metadataLogEnabled;
+        private final LongSupplier metadataLogCompactionThresholdSupplier;
 
         boolean fullStateWritten = false;
         private final AtomicBoolean closed = new AtomicBoolean();
 
+        // The generation of the metadata log that the last commit refers to, and the metadata in that commit, which lacks the changes
+        // in the log. Only tracked if the metadata log is enabled.
+        private long metadataLogGeneration = NO_METADATA_LOG_GENERATION;
+        @Nullable
+        private Metadata committedMetadata;
+
         // The size of the document buffer that was used for the last write operation, used as a hint for allocating the buffer for the
         // next one.
         private int documentBufferUsed;
 
         private Writer(List<MetadataIndexWriter> metadataIndexWriters, String nodeId, BigArrays bigArrays,
-                       LongSupplier relativeTimeMillisSupplier, Supplier<TimeValue> slowWriteLoggingThresholdSupplier) {
+                       LongSupplier relativeTimeMillisSupplier, Supplier<TimeValue> slowWriteLoggingThresholdSupplier,
+                       ExponentialBucketHistogram writeLatencyHistogram, boolean metadataLogEnabled,
+                       LongSupplier metadataLogCompactionThresholdSupplier) {
             this.metadataIndexWriters = metadataIndexWriters;
             this.nodeId = nodeId;
             this.bigArrays = bigArrays;
             this.relativeTimeMillisSupplier = relativeTimeMillisSupplier;
             this.slowWriteLoggingThresholdSupplier = slowWriteLoggingThresholdSupplier;
+            this.writeLatencyHistogram = writeLatencyHistogram;
+            this.metadataLogEnabled = metadataLogEnabled;
+            this.metadataLogCompactionThresholdSupplier = metadataLogCompactionThresholdSupplier;
         }
 
         private void ensureOpen() {
@@ -597,14 +727,17 @@ public class PersistedClusterStateService {
             try {
                 final long startTimeMillis = relativeTimeMillisSupplier.getAsLong();
                 final WriterStats stats = overwriteMetadata(clusterState.metadata());
-                commit(currentTerm, clusterState.version());
+                final long metadataLogGeneration = metadataLogEnabled ? createMetadataLog() : NO_METADATA_LOG_GENERATION;
+                commit(currentTerm, clusterState.version(), metadataLogGeneration);
+                startMetadataLog(metadataLogGeneration, clusterState.metadata());
                 fullStateWritten = true;
                 final long durationMillis = relativeTimeMillisSupplier.getAsLong() - startTimeMillis;
+                writeLatencyHistogram.addObservation(durationMillis);
                 final TimeValue finalSlowWriteLoggingThreshold = slowWriteLoggingThresholdSupplier.get();
                 if (durationMillis >= finalSlowWriteLoggingThreshold.getMillis()) {
                     logger.warn("writing cluster state took [{}ms] which is above the warn threshold of [{}]; " +
-                            "wrote full state with [{}] indices",
-                        durationMillis, finalSlowWriteLoggingThreshold, stats.numIndicesUpdated);
+                            "wrote full state with [{}] indices; {}",
+                        durationMillis, finalSlowWriteLoggingThreshold, stats.numIndicesUpdated, describeWriteLatencies());
                 } else {
                     logger.debug("writing cluster state took [{}ms]; " +
                             "wrote full state with [{}] indices",
@@ -625,15 +758,24 @@ public class PersistedClusterStateService {
 
             try {
                 final long startTimeMillis = relativeTimeMillisSupplier.getAsLong();
-                final WriterStats stats = updateMetadata(previousClusterState.metadata(), clusterState.metadata());
-                commit(currentTerm, clusterState.version());
+                final WriterStats stats;
+                if (metadataLogEnabled == false) {
+                    stats = updateMetadata(previousClusterState.metadata(), clusterState.metadata());
+                    commit(currentTerm, clusterState.version());
+                } else if (metadataLogSizeInBytes() < metadataLogCompactionThresholdSupplier.getAsLong()) {
+                    stats = appendMetadataChanges(currentTerm, clusterState.version(), previousClusterState.metadata(),
+                        clusterState.metadata());
+                } else {
+                    stats = compactMetadataLog(currentTerm, clusterState);
+                }
                 final long durationMillis = relativeTimeMillisSupplier.getAsLong() - startTimeMillis;
+                writeLatencyHistogram.addObservation(durationMillis);
                 final TimeValue finalSlowWriteLoggingThreshold = slowWriteLoggingThresholdSupplier.get();
                 if (durationMillis >= finalSlowWriteLoggingThreshold.getMillis()) {
                     logger.warn("writing cluster state took [{}ms] which is above the warn threshold of [{}]; " +
-                            "wrote global metadata [{}] and metadata for [{}] indices and skipped [{}] unchanged indices",
+                            "wrote global metadata [{}] and metadata for [{}] indices and skipped [{}] unchanged indices; {}",
                         durationMillis, finalSlowWriteLoggingThreshold, stats.globalMetaUpdated, stats.numIndicesUpdated,
-                        stats.numIndicesUnchanged);
+                        stats.numIndicesUnchanged, describeWriteLatencies());
                 } else {
                     logger.debug("writing cluster state took [{}ms]; " +
                             "wrote global metadata [{}] and metadata for [{}] indices and skipped [{}] unchanged indices",
@@ -644,6 +786,20 @@ public class PersistedClusterStateService {
             }
         }
 
+        /**
+         * Describes the distribution of the latencies of all the writes so far, to put a slow write into context: a single outlier
+         * suggests a transient problem whereas a high median indicates that the disk cannot keep up with the rate of cluster state updates.
+         */
+        private String describeWriteLatencies() {
+            final long[] snapshot = writeLatencyHistogram.getSnapshot();
+            final long maxMillis = writeLatencyHistogram.getMax();
+            return "write latencies since startup: count [" + ExponentialBucketHistogram.getCount(snapshot)
+                + "], p50 [" + Math.min(maxMillis, ExponentialBucketHistogram.getPercentile(0.5, snapshot))
+                + "ms], p90 [" + Math.min(maxMillis, ExponentialBucketHistogram.getPercentile(0.9, snapshot))
+                + "ms], p99 [" + Math.min(maxMillis, ExponentialBucketHistogram.getPercentile(0.99, snapshot))
+                + "ms], max [" + maxMillis + "ms]";
+        }
+
         private void ensureFullStateWritten() {
             assert fullStateWritten : "Need to write full state first before doing incremental writes";
             //noinspection ConstantConditions to catch this even if assertions are disabled
@@ -770,14 +926,22 @@ public class PersistedClusterStateService {
         public void writeIncrementalTermUpdateAndCommit(long currentTerm, long lastAcceptedVersion) throws IOException {
             ensureOpen();
             ensureFullStateWritten();
-            commit(currentTerm, lastAcceptedVersion);
+            if (metadataLogEnabled) {
+                appendToMetadataLog(new MetadataLog.Entry(currentTerm, lastAcceptedVersion, null, List.of(), List.of()));
+            } else {
+                commit(currentTerm, lastAcceptedVersion);
+            }
         }
 
         void commit(long currentTerm, long lastAcceptedVersion) throws IOException {
+            commit(currentTerm, lastAcceptedVersion, metadataLogGeneration);
+        }
+
+        private void commit(long currentTerm, long lastAcceptedVersion, long metadataLogGeneration) throws IOException {
             ensureOpen();
             try {
                 for (MetadataIndexWriter metadataIndexWriter : metadataIndexWriters) {
-                    metadataIndexWriter.prepareCommit(nodeId, currentTerm, lastAcceptedVersion);
+                    metadataIndexWriter.prepareCommit(nodeId, currentTerm, lastAcceptedVersion, metadataLogGeneration);
                 }
             } catch (Exception e) {
                 try {
@@ -809,6 +973,131 @@ public class PersistedClusterStateService {
             }
         }
 
+        /**
+         * Appends the changes from the given previously-written metadata to the given metadata to the metadata log, in the form of the
+         * documents that {@link #updateMetadata} would have written to the index.
+         */
+        private WriterStats appendMetadataChanges(long currentTerm, long lastAcceptedVersion, Metadata previouslyWrittenMetadata,
+                                                  Metadata metadata) throws IOException {
+            assert previouslyWrittenMetadata.coordinationMetadata().term() == metadata.coordinationMetadata().term();
+
+            try (DocumentBuffer documentBuffer = allocateBuffer()) {
+
+                final boolean updateGlobalMeta = Metadata.isGlobalStateEquals(previouslyWrittenMetadata, metadata) == false;
+                final BytesReference globalMetadata = updateGlobalMeta ? serializeForMetadataLog(metadata, documentBuffer) : null;
+
+                final Map<String, Long> indexMetadataVersionByUUID = new HashMap<>(previouslyWrittenMetadata.indices().size());
+                for (ObjectCursor<IndexMetadata> cursor : previouslyWrittenMetadata.indices().values()) {
+                    indexMetadataVersionByUUID.put(cursor.value.getIndexUUID(), cursor.value.getVersion());
+                }
+
+                final List<BytesReference> updatedIndexMetadata = new ArrayList<>();
+                int numIndicesUnchanged = 0;
+                for (ObjectCursor<IndexMetadata> cursor : metadata.indices().values()) {
+                    final IndexMetadata indexMetadata = cursor.value;
+                    final Long previousVersion = indexMetadataVersionByUUID.remove(indexMetadata.getIndexUUID());
+                    if (previousVersion == null || indexMetadata.getVersion() != previousVersion) {
+                        logger.trace("logging metadata for [{}], changing version from [{}] to [{}]",
+                            indexMetadata.getIndex(), previousVersion, indexMetadata.getVersion());
+                        updatedIndexMetadata.add(serializeForMetadataLog(indexMetadata, documentBuffer));
+                    } else {
+                        numIndicesUnchanged++;
+                    }
+                }
+
+                documentBufferUsed = documentBuffer.getMaxUsed();
+
+                appendToMetadataLog(new MetadataLog.Entry(currentTerm, lastAcceptedVersion, globalMetadata, updatedIndexMetadata,
+                    new ArrayList<>(indexMetadataVersionByUUID.keySet())));
+                return new WriterStats(updateGlobalMeta, updatedIndexMetadata.size(), numIndicesUnchanged);
+            }
+        }
+
+        private void appendToMetadataLog(MetadataLog.Entry entry) throws IOException {
+            final byte[] frame = MetadataLog.frame(entry);
+            try {
+                for (MetadataIndexWriter metadataIndexWriter : metadataIndexWriters) {
+                    metadataIndexWriter.appendToMetadataLog(frame);
+                }
+            } catch (IOException e) {
+                // As with a failed commit we've no idea whether the entry is now on disk, and a partially-written entry must not be
+                // followed by any more entries, so it's safest to fail the whole node and retry from the beginning.
+                try {
+                    close();
+                } catch (Exception e2) {
+                    e.addSuppressed(e2);
+                }
+                throw new IOError(e);
+            }
+        }
+
+        /**
+         * Writes the changes in the metadata log since the last commit to the index, together with those of the given cluster state, and
+         * commits the index with a new, empty, metadata log.
+         */
+        private WriterStats compactMetadataLog(long currentTerm, ClusterState clusterState) throws IOException {
+            logger.debug("compacting [{}] bytes of metadata log generation [{}]", metadataLogSizeInBytes(), metadataLogGeneration);
+            final WriterStats stats = updateMetadata(committedMetadata, clusterState.metadata());
+            final long nextMetadataLogGeneration = createMetadataLog();
+            commit(currentTerm, clusterState.version(), nextMetadataLogGeneration);
+            startMetadataLog(nextMetadataLogGeneration, clusterState.metadata());
+            return stats;
+        }
+
+        /**
+         * Creates a new, empty, metadata log ahead of the commit that refers to it, so that the log is on disk by the time it is needed,
+         * and returns its generation.
+         */
+        private long createMetadataLog() throws IOException {
+            try {
+                // logs of a previous writer may remain if it failed before deleting them, and we must not reuse their generations
+                long maxMetadataLogGeneration = metadataLogGeneration;
+                for (MetadataIndexWriter metadataIndexWriter : metadataIndexWriters) {
+                    maxMetadataLogGeneration = Math.max(maxMetadataLogGeneration, metadataIndexWriter.maxMetadataLogGeneration());
+                }
+                final long nextMetadataLogGeneration = maxMetadataLogGeneration + 1;
+                for (MetadataIndexWriter metadataIndexWriter : metadataIndexWriters) {
+                    metadataIndexWriter.createMetadataLog(nextMetadataLogGeneration);
+                }
+                return nextMetadataLogGeneration;
+            } catch (IOException e) {
+                try {
+                    close();
+                } catch (Exception e2) {
+                    logger.warn("failed on closing cluster state writer", e2);
+                    e.addSuppressed(e2);
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Switches to the metadata log with the given generation, if any, once the index was committed with the given metadata and a
+         * reference to that log, and deletes all other logs. If this fails then this writer no longer matches the commit so we close it,
+         * and the next write starts over with a new writer.
+         */
+        private void startMetadataLog(long metadataLogGeneration, Metadata committedMetadata) throws IOException {
+            try {
+                for (MetadataIndexWriter metadataIndexWriter : metadataIndexWriters) {
+                    metadataIndexWriter.startMetadataLog(metadataLogGeneration);
+                }
+            } catch (IOException e) {
+                try {
+                    close();
+                } catch (Exception e2) {
+                    logger.warn("failed on closing cluster state writer", e2);
+                    e.addSuppressed(e2);
+                }
+                throw e;
+            }
+            this.metadataLogGeneration = metadataLogGeneration;
+            this.committedMetadata = metadataLogGeneration == NO_METADATA_LOG_GENERATION ? null : committedMetadata;
+        }
+
+        private long metadataLogSizeInBytes() {
+            return metadataIndexWriters.stream().mapToLong(MetadataIndexWriter::metadataLogSizeInBytes).max().orElse(0L);
+        }
+
         @Override
         public void close() throws IOException {
             logger.trace("closing PersistedClusterStateService.Writer");
@@ -846,17 +1135,29 @@ public class PersistedClusterStateService {
             document.add(new StringField(TYPE_FIELD_NAME, typeName, Field.Store.NO));
 
             try (RecyclingBytesStreamOutput streamOutput = documentBuffer.streamOutput()) {
-                try (XContentBuilder xContentBuilder = XContentFactory.contentBuilder(XContentType.SMILE,
-                        Streams.flushOnCloseStream(streamOutput))) {
-                    xContentBuilder.startObject();
-                    metadata.toXContent(xContentBuilder, FORMAT_PARAMS);
-                    xContentBuilder.endObject();
-                }
+                writeMetadata(metadata, streamOutput);
                 document.add(new StoredField(DATA_FIELD_NAME, streamOutput.toBytesRef()));
             }
 
             return document;
         }
+
+        private BytesReference serializeForMetadataLog(ToXContent metadata, DocumentBuffer documentBuffer) throws IOException {
+            try (RecyclingBytesStreamOutput streamOutput = documentBuffer.streamOutput()) {
+                writeMetadata(metadata, streamOutput);
+                // the buffer is reused for the next document so we must copy its contents
+                return new BytesArray(BytesRef.deepCopyOf(streamOutput.toBytesRef()));
+            }
+        }
+
+        private static void writeMetadata(ToXContent metadata, RecyclingBytesStreamOutput streamOutput) throws IOException {
+            try (XContentBuilder xContentBuilder = XContentFactory.contentBuilder(XContentType.SMILE,
+                    Streams.flushOnCloseStream(streamOutput))) {
+                xContentBuilder.startObject();
+                metadata.toXContent(xContentBuilder, FORMAT_PARAMS);
+                xContentBuilder.endObject();
+            }
+        }
     }
 
     /**
@@ -10,9 +10,12 @@ package org.elasticsearch.http;
 
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestStatus;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -43,6 +46,15 @@ public interface HttpRequest {
 
     BytesReference content();
 
+    /**
+     * Returns the body of this request as a stream if it is handed to the rest layer as it arrives, in which case {@link #content()} is
+     * empty, or {@code null} if the body was received in full before the request was dispatched.
+     */
+    @Nullable
+    default HttpRequestBodyStream contentStream() {
+        return null;
+    }
+
     /**
      * Get all of the headers and values associated with the headers. Modifications of this map are not supported.
      */
@@ -75,6 +87,21 @@ public interface HttpRequest {
      */
     HttpResponse createResponse(RestStatus status, BytesReference content);
 
+    /**
+     * Create an http response from this request and the supplied status and chunked content. Implementations that can send the content
+     * while it is still being serialized should override this method, by default the whole content is serialized up front.
+     */
+    default HttpResponse createResponse(RestStatus status, ChunkedRestResponseBody content) {
+        try {
+            final BytesReference bytes = ChunkedRestResponseBody.toBytesReference(content);
+            final HttpResponse response = createResponse(status, bytes);
+            response.addHeader(DefaultRestChannel.CONTENT_LENGTH, String.valueOf(bytes.length()));
+            return response;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Nullable
     Exception getInboundException();
 
@@ -0,0 +1,50 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http;
+
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+
+/**
+ * The body of an http request that is handed to the rest layer chunk by chunk as it arrives instead of after it was received in full.
+ * The stream only reads the next chunk from the network once the consumer asked for it by calling {@link #next()}, so that a consumer
+ * that is slower than the client applies backpressure all the way to the client.
+ */
+public interface HttpRequestBodyStream {
+
+    /**
+     * Sets the handler that receives the chunks of the body. Must be called before the first call to {@link #next()}.
+     */
+    void setHandler(ChunkHandler handler);
+
+    /**
+     * Requests the next chunk of the body, which is passed to the handler once it was received. Must not be called again before the
+     * handler received the requested chunk, nor after it received the last chunk or a failure.
+     */
+    void next();
+
+    /**
+     * Receives the chunks of a {@link HttpRequestBodyStream}. Both methods may be invoked on a network thread and must not block.
+     */
+    interface ChunkHandler {
+
+        /**
+         * Called with the next chunk of the body. The handler takes ownership of the chunk and must release it once it no longer needs
+         * its bytes.
+         *
+         * @param chunk  the next chunk of the body, possibly empty
+         * @param isLast whether this is the last chunk of the body
+         */
+        void onChunk(ReleasableBytesReference chunk, boolean isLast);
+
+        /**
+         * Called instead of {@link #onChunk} if the rest of the body can't be received, for instance because the channel was closed.
+         */
+        void onFailure(Exception e);
+    }
+}
@@ -51,5 +51,17 @@ public interface HttpServerTransport extends LifecycleComponent, ReportingServic
          */
         void dispatchBadRequest(RestChannel channel, ThreadContext threadContext, Throwable cause);
 
+        /**
+         * Returns whether the body of a request with the given method and uri should be handed to the request handler as it arrives
+         * through {@link RestRequest#contentStream()}, see {@link org.elasticsearch.rest.RestHandler#supportsStreamedBody()}. Http
+         * modules that support streamed bodies call this once the headers of a request were received.
+         *
+         * @param method the method of the request
+         * @param uri    the uri of the request, with the query string
+         */
+        default boolean supportsStreamedBody(RestRequest.Method method, String uri) {
+            return false;
+        }
+
     }
 }
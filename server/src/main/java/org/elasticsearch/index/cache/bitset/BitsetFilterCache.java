@@ -42,6 +42,7 @@ import org.elasticsearch.index.mapper.NestedObjectMapper;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardUtils;
+import org.elasticsearch.lucene.util.RoaringBitSet;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.Closeable;
@@ -65,8 +66,12 @@ public final class BitsetFilterCache extends AbstractIndexComponent
 
     public static final Setting<Boolean> INDEX_LOAD_RANDOM_ACCESS_FILTERS_EAGERLY_SETTING =
         Setting.boolSetting("index.load_fixed_bitset_filters_eagerly", true, Property.IndexScope);
+    // whether cached bitsets, e.g. of the parent documents of nested documents, are compressed as {@link RoaringBitSet}s
+    public static final Setting<Boolean> INDEX_COMPRESS_BITSET_FILTERS_SETTING =
+        Setting.boolSetting("index.compress_bitset_filters", false, Property.IndexScope);
 
     private final boolean loadRandomAccessFiltersEagerly;
+    private final boolean compressBitsetFilters;
     private final Cache<IndexReader.CacheKey, Cache<Query, Value>> loadedFilters;
     private final Listener listener;
 
@@ -76,11 +81,19 @@ public final class BitsetFilterCache extends AbstractIndexComponent
             throw new IllegalArgumentException("listener must not be null");
         }
         this.loadRandomAccessFiltersEagerly = this.indexSettings.getValue(INDEX_LOAD_RANDOM_ACCESS_FILTERS_EAGERLY_SETTING);
+        this.compressBitsetFilters = this.indexSettings.getValue(INDEX_COMPRESS_BITSET_FILTERS_SETTING);
         this.loadedFilters = CacheBuilder.<IndexReader.CacheKey, Cache<Query, Value>>builder().removalListener(this).build();
         this.listener = listener;
     }
 
     public static BitSet bitsetFromQuery(Query query, LeafReaderContext context) throws IOException {
+        return bitsetFromQuery(query, context, false);
+    }
+
+    /**
+     * Same as {@link #bitsetFromQuery(Query, LeafReaderContext)} but builds a {@link RoaringBitSet} if {@code compress} is true.
+     */
+    public static BitSet bitsetFromQuery(Query query, LeafReaderContext context, boolean compress) throws IOException {
         final IndexReaderContext topLevelContext = ReaderUtil.getTopLevelContext(context);
         final IndexSearcher searcher = new IndexSearcher(topLevelContext);
         searcher.setQueryCache(null);
@@ -89,7 +102,8 @@ public final class BitsetFilterCache extends AbstractIndexComponent
         if (s == null) {
             return null;
         } else {
-            return BitSet.of(s.iterator(), context.reader().maxDoc());
+            final int maxDoc = context.reader().maxDoc();
+            return compress ? RoaringBitSet.of(s.iterator(), maxDoc) : BitSet.of(s.iterator(), maxDoc);
         }
     }
 
@@ -139,7 +153,7 @@ public final class BitsetFilterCache extends AbstractIndexComponent
         });
 
         return filterToFbs.computeIfAbsent(query, key -> {
-            final BitSet bitSet = bitsetFromQuery(query, context);
+            final BitSet bitSet = bitsetFromQuery(query, context, compressBitsetFilters);
             Value value = new Value(bitSet, shardId);
             listener.onCache(shardId, value.bitset);
             return value;
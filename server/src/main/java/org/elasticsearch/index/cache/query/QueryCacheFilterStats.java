@@ -0,0 +1,160 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.cache.query;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.xcontent.ToXContentObject;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.core.TimeValue;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How often a single filter was used and looked up in the node's query cache, and how long it took to build the cached
+ * {@link org.apache.lucene.search.DocIdSet}s for it.
+ */
+public class QueryCacheFilterStats implements Writeable, ToXContentObject {
+
+    /**
+     * Orders filters by the time that their cache entries saved, that is their number of hits times their average build time, descending.
+     */
+    public static final Comparator<QueryCacheFilterStats> BY_SAVED_TIME =
+        Comparator.comparingDouble(QueryCacheFilterStats::getSavedTimeInNanos).reversed();
+    /**
+     * Orders filters by the number of times they were used, descending.
+     */
+    public static final Comparator<QueryCacheFilterStats> BY_USE_COUNT =
+        Comparator.comparingLong(QueryCacheFilterStats::getUseCount).reversed();
+
+    private final String query;
+    private final long useCount;
+    private final long hitCount;
+    private final long missCount;
+    private final long cacheCount;
+    private final long buildTimeInNanos;
+    private final long buildSizeInBytes;
+
+    public QueryCacheFilterStats(String query, long useCount, long hitCount, long missCount, long cacheCount, long buildTimeInNanos,
+                                 long buildSizeInBytes) {
+        this.query = Objects.requireNonNull(query);
+        this.useCount = useCount;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.cacheCount = cacheCount;
+        this.buildTimeInNanos = buildTimeInNanos;
+        this.buildSizeInBytes = buildSizeInBytes;
+    }
+
+    public QueryCacheFilterStats(StreamInput in) throws IOException {
+        query = in.readString();
+        useCount = in.readVLong();
+        hitCount = in.readVLong();
+        missCount = in.readVLong();
+        cacheCount = in.readVLong();
+        buildTimeInNanos = in.readVLong();
+        buildSizeInBytes = in.readVLong();
+    }
+
+    /**
+     * Sums the stats of the same filter, such as the stats of the filter on different nodes.
+     */
+    public QueryCacheFilterStats add(QueryCacheFilterStats other) {
+        assert query.equals(other.query) : query + " vs " + other.query;
+        return new QueryCacheFilterStats(query, useCount + other.useCount, hitCount + other.hitCount, missCount + other.missCount,
+            cacheCount + other.cacheCount, buildTimeInNanos + other.buildTimeInNanos, buildSizeInBytes + other.buildSizeInBytes);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeString(query);
+        out.writeVLong(useCount);
+        out.writeVLong(hitCount);
+        out.writeVLong(missCount);
+        out.writeVLong(cacheCount);
+        out.writeVLong(buildTimeInNanos);
+        out.writeVLong(buildSizeInBytes);
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * The number of searches that used this filter on a shard.
+     */
+    public long getUseCount() {
+        return useCount;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * The number of {@link org.apache.lucene.search.DocIdSet}s that were built and cached for this filter.
+     */
+    public long getCacheCount() {
+        return cacheCount;
+    }
+
+    public TimeValue getBuildTime() {
+        return new TimeValue(buildTimeInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public ByteSizeValue getBuildSize() {
+        return new ByteSizeValue(buildSizeInBytes);
+    }
+
+    double getSavedTimeInNanos() {
+        return cacheCount == 0 ? 0d : (double) hitCount * buildTimeInNanos / cacheCount;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject();
+        builder.field("query", query);
+        builder.field("use_count", useCount);
+        builder.field("hit_count", hitCount);
+        builder.field("miss_count", missCount);
+        builder.field("cache_count", cacheCount);
+        builder.humanReadableField("build_time_in_millis", "build_time", new TimeValue(TimeUnit.NANOSECONDS.toMillis(buildTimeInNanos)));
+        builder.humanReadableField("build_size_in_bytes", "build_size", getBuildSize());
+        builder.endObject();
+        return builder;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        QueryCacheFilterStats that = (QueryCacheFilterStats) o;
+        return useCount == that.useCount
+            && hitCount == that.hitCount
+            && missCount == that.missCount
+            && cacheCount == that.cacheCount
+            && buildTimeInNanos == that.buildTimeInNanos
+            && buildSizeInBytes == that.buildSizeInBytes
+            && query.equals(that.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(query, useCount, hitCount, missCount, cacheCount, buildTimeInNanos, buildSizeInBytes);
+    }
+}
@@ -11,6 +11,7 @@ package org.elasticsearch.index.cache.query;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.search.DocIdSet;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -18,18 +19,34 @@ import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.core.Nullable;
 
 import java.io.IOException;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 public class QueryCacheStats implements Writeable, ToXContentFragment {
 
     private static final Logger logger = LogManager.getLogger(QueryCacheStats.class);
 
+    /**
+     * The maximum number of filters in each of the lists of top filters.
+     */
+    public static final int MAX_TOP_FILTERS = 10;
+
     private long ramBytesUsed;
     private long hitCount;
     private long missCount;
     private long cacheCount;
     private long cacheSize;
+    // only tracked on the node level
+    @Nullable
+    private List<QueryCacheFilterStats> topCachedFilters;
+    @Nullable
+    private List<QueryCacheFilterStats> topUncachedFilters;
 
     public QueryCacheStats() {
     }
@@ -40,6 +57,10 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         missCount = in.readLong();
         cacheCount = in.readLong();
         cacheSize = in.readLong();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0) && in.readBoolean()) {
+            topCachedFilters = in.readList(QueryCacheFilterStats::new);
+            topUncachedFilters = in.readList(QueryCacheFilterStats::new);
+        }
     }
 
     public QueryCacheStats(long ramBytesUsed, long hitCount, long missCount, long cacheCount, long cacheSize) {
@@ -50,12 +71,48 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         this.cacheSize = cacheSize;
     }
 
+    /**
+     * Creates stats that only hold the filters whose cache entries saved the most time and the filters that were used the most while
+     * not being cached.
+     */
+    public static QueryCacheStats ofTopFilters(List<QueryCacheFilterStats> topCachedFilters,
+                                               List<QueryCacheFilterStats> topUncachedFilters) {
+        final QueryCacheStats stats = new QueryCacheStats();
+        stats.topCachedFilters = List.copyOf(topCachedFilters);
+        stats.topUncachedFilters = List.copyOf(topUncachedFilters);
+        return stats;
+    }
+
     public void add(QueryCacheStats stats) {
         ramBytesUsed += stats.ramBytesUsed;
         hitCount += stats.hitCount;
         missCount += stats.missCount;
         cacheCount += stats.cacheCount;
         cacheSize += stats.cacheSize;
+        if (stats.topCachedFilters != null) {
+            topCachedFilters = mergeTopFilters(topCachedFilters, stats.topCachedFilters, QueryCacheFilterStats.BY_SAVED_TIME);
+            topUncachedFilters = mergeTopFilters(topUncachedFilters, stats.topUncachedFilters, QueryCacheFilterStats.BY_USE_COUNT);
+        }
+    }
+
+    private static List<QueryCacheFilterStats> mergeTopFilters(@Nullable List<QueryCacheFilterStats> filters,
+                                                               List<QueryCacheFilterStats> otherFilters,
+                                                               Comparator<QueryCacheFilterStats> comparator) {
+        if (filters == null) {
+            return otherFilters;
+        }
+        // the same filter is usually used on several nodes, so its stats are summed rather than listed once per node
+        final Map<String, QueryCacheFilterStats> merged = new LinkedHashMap<>();
+        for (QueryCacheFilterStats filter : filters) {
+            merged.merge(filter.getQuery(), filter, QueryCacheFilterStats::add);
+        }
+        for (QueryCacheFilterStats filter : otherFilters) {
+            merged.merge(filter.getQuery(), filter, QueryCacheFilterStats::add);
+        }
+        return merged.values().stream()
+            .sorted(comparator)
+            .limit(MAX_TOP_FILTERS)
+            .collect(Collectors.toUnmodifiableList());
     }
 
     public long getMemorySizeInBytes() {
@@ -108,6 +165,22 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         return cacheCount - cacheSize;
     }
 
+    /**
+     * The filters whose cache entries saved the most time, or {@code null} if filters are not tracked on this level.
+     */
+    @Nullable
+    public List<QueryCacheFilterStats> getTopCachedFilters() {
+        return topCachedFilters;
+    }
+
+    /**
+     * The filters that were used the most while not being cached, or {@code null} if filters are not tracked on this level.
+     */
+    @Nullable
+    public List<QueryCacheFilterStats> getTopUncachedFilters() {
+        return topUncachedFilters;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeLong(ramBytesUsed);
@@ -115,6 +188,15 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         out.writeLong(missCount);
         out.writeLong(cacheCount);
         out.writeLong(cacheSize);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            if (topCachedFilters != null) {
+                out.writeBoolean(true);
+                out.writeList(topCachedFilters);
+                out.writeList(topUncachedFilters);
+            } else {
+                out.writeBoolean(false);
+            }
+        }
     }
 
     @Override
@@ -127,6 +209,12 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         builder.field(Fields.CACHE_SIZE, getCacheSize());
         builder.field(Fields.CACHE_COUNT, getCacheCount());
         builder.field(Fields.EVICTIONS, getEvictions());
+        if (topCachedFilters != null) {
+            builder.startObject(Fields.FILTERS);
+            builder.field(Fields.TOP_CACHED, topCachedFilters);
+            builder.field(Fields.TOP_UNCACHED, topUncachedFilters);
+            builder.endObject();
+        }
         builder.endObject();
         return builder;
     }
@@ -141,6 +229,9 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         static final String CACHE_SIZE = "cache_size";
         static final String CACHE_COUNT = "cache_count";
         static final String EVICTIONS = "evictions";
+        static final String FILTERS = "filters";
+        static final String TOP_CACHED = "top_cached";
+        static final String TOP_UNCACHED = "top_uncached";
     }
 
 }
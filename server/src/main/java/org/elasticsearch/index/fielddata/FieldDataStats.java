@@ -8,6 +8,7 @@
 
 package org.elasticsearch.index.fielddata;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.FieldMemoryStats;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -16,6 +17,7 @@ import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.core.TimeValue;
 
 import java.io.IOException;
 import java.util.Objects;
@@ -25,10 +27,21 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
     private static final String FIELDDATA = "fielddata";
     private static final String MEMORY_SIZE = "memory_size";
     private static final String MEMORY_SIZE_IN_BYTES = "memory_size_in_bytes";
+    private static final String MEMORY_MAPPED_SIZE = "memory_mapped_size";
+    private static final String MEMORY_MAPPED_SIZE_IN_BYTES = "memory_mapped_size_in_bytes";
     private static final String EVICTIONS = "evictions";
     private static final String FIELDS = "fields";
+    private static final String GLOBAL_ORDINALS = "global_ordinals";
+    private static final String BUILDS = "builds";
+    private static final String REUSED = "reused";
+    private static final String BUILD_TIME = "build_time";
+    private static final String BUILD_TIME_IN_MILLIS = "build_time_in_millis";
     private long memorySize;
     private long evictions;
+    private long globalOrdinalsBuilds;
+    private long globalOrdinalsReused;
+    private long globalOrdinalsBuildTimeInMillis;
+    private long memoryMappedSize;
     @Nullable
     private FieldMemoryStats fields;
 
@@ -40,17 +53,36 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
         memorySize = in.readVLong();
         evictions = in.readVLong();
         fields = in.readOptionalWriteable(FieldMemoryStats::new);
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            globalOrdinalsBuilds = in.readVLong();
+            globalOrdinalsReused = in.readVLong();
+            globalOrdinalsBuildTimeInMillis = in.readVLong();
+            memoryMappedSize = in.readVLong();
+        }
     }
 
     public FieldDataStats(long memorySize, long evictions, @Nullable FieldMemoryStats fields) {
+        this(memorySize, evictions, fields, 0L, 0L, 0L, 0L);
+    }
+
+    public FieldDataStats(long memorySize, long evictions, @Nullable FieldMemoryStats fields, long globalOrdinalsBuilds,
+                          long globalOrdinalsReused, long globalOrdinalsBuildTimeInMillis, long memoryMappedSize) {
         this.memorySize = memorySize;
         this.evictions = evictions;
         this.fields = fields;
+        this.globalOrdinalsBuilds = globalOrdinalsBuilds;
+        this.globalOrdinalsReused = globalOrdinalsReused;
+        this.globalOrdinalsBuildTimeInMillis = globalOrdinalsBuildTimeInMillis;
+        this.memoryMappedSize = memoryMappedSize;
     }
 
     public void add(FieldDataStats stats) {
         this.memorySize += stats.memorySize;
         this.evictions += stats.evictions;
+        this.globalOrdinalsBuilds += stats.globalOrdinalsBuilds;
+        this.globalOrdinalsReused += stats.globalOrdinalsReused;
+        this.globalOrdinalsBuildTimeInMillis += stats.globalOrdinalsBuildTimeInMillis;
+        this.memoryMappedSize += stats.memoryMappedSize;
         if (stats.fields != null) {
             if (fields == null) {
                 fields = stats.fields.copy();
@@ -68,6 +100,18 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
         return new ByteSizeValue(memorySize);
     }
 
+    /**
+     * The number of bytes of the terms of field data that are memory-mapped rather than kept on heap, which includes the terms of
+     * field data that was removed from the cache but is still used by open readers.
+     */
+    public long getMemoryMappedSizeInBytes() {
+        return this.memoryMappedSize;
+    }
+
+    public ByteSizeValue getMemoryMappedSize() {
+        return new ByteSizeValue(memoryMappedSize);
+    }
+
     public long getEvictions() {
         return this.evictions;
     }
@@ -77,18 +121,51 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
         return fields;
     }
 
+    /**
+     * The number of times global ordinals were built from the terms of each segment.
+     */
+    public long getGlobalOrdinalsBuilds() {
+        return globalOrdinalsBuilds;
+    }
+
+    /**
+     * The number of times global ordinals were loaded for a new reader by reusing those of an earlier reader with the same segments.
+     */
+    public long getGlobalOrdinalsReused() {
+        return globalOrdinalsReused;
+    }
+
+    /**
+     * The total time spent building global ordinals.
+     */
+    public TimeValue getGlobalOrdinalsBuildTime() {
+        return new TimeValue(globalOrdinalsBuildTimeInMillis);
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(memorySize);
         out.writeVLong(evictions);
         out.writeOptionalWriteable(fields);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeVLong(globalOrdinalsBuilds);
+            out.writeVLong(globalOrdinalsReused);
+            out.writeVLong(globalOrdinalsBuildTimeInMillis);
+            out.writeVLong(memoryMappedSize);
+        }
     }
 
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(FIELDDATA);
         builder.humanReadableField(MEMORY_SIZE_IN_BYTES, MEMORY_SIZE, getMemorySize());
+        builder.humanReadableField(MEMORY_MAPPED_SIZE_IN_BYTES, MEMORY_MAPPED_SIZE, getMemoryMappedSize());
         builder.field(EVICTIONS, getEvictions());
+        builder.startObject(GLOBAL_ORDINALS);
+        builder.field(BUILDS, globalOrdinalsBuilds);
+        builder.field(REUSED, globalOrdinalsReused);
+        builder.humanReadableField(BUILD_TIME_IN_MILLIS, BUILD_TIME, getGlobalOrdinalsBuildTime());
+        builder.endObject();
         if (fields != null) {
             fields.toXContent(builder, FIELDS, MEMORY_SIZE_IN_BYTES, MEMORY_SIZE);
         }
@@ -103,11 +180,16 @@ public class FieldDataStats implements Writeable, ToXContentFragment {
         FieldDataStats that = (FieldDataStats) o;
         return memorySize == that.memorySize &&
             evictions == that.evictions &&
+            globalOrdinalsBuilds == that.globalOrdinalsBuilds &&
+            globalOrdinalsReused == that.globalOrdinalsReused &&
+            globalOrdinalsBuildTimeInMillis == that.globalOrdinalsBuildTimeInMillis &&
+            memoryMappedSize == that.memoryMappedSize &&
             Objects.equals(fields, that.fields);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(memorySize, evictions, fields);
+        return Objects.hash(memorySize, evictions, fields, globalOrdinalsBuilds, globalOrdinalsReused, globalOrdinalsBuildTimeInMillis,
+            memoryMappedSize);
     }
 }
@@ -10,7 +10,9 @@ package org.elasticsearch.index.fielddata;
 
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.Accountable;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.shard.ShardId;
 
 /**
@@ -33,6 +35,15 @@ public interface IndexFieldDataCache {
      */
     void clear(String fieldName);
 
+    /**
+     * Returns the directory that field data may write the bytes of its terms to in order to memory-map them rather than keep them on
+     * heap, or {@code null} if terms should be kept on heap. Files written to this directory may be deleted as soon as they are opened.
+     */
+    @Nullable
+    default Directory getTermsDirectory() {
+        return null;
+    }
+
     interface Listener {
 
         /**
@@ -40,6 +51,11 @@ public interface IndexFieldDataCache {
          */
         default void onCache(ShardId shardId, String fieldName, Accountable ramUsage){}
 
+        /**
+         * Called when global ordinals that are cached for another reader are used for a new reader whose segments have the same terms
+         */
+        default void onReuse(ShardId shardId, String fieldName, Accountable ramUsage){}
+
         /**
          * Called after the fielddata is unloaded
          */
@@ -139,7 +139,7 @@ public abstract class ScriptDocValues<T> extends AbstractList<T> implements Fiel
         }
 
         public long getValue() {
-            return get(0);
+            return getLongValue();
         }
 
         @Override
@@ -303,7 +303,7 @@ public abstract class ScriptDocValues<T> extends AbstractList<T> implements Fiel
         }
 
         public double getValue() {
-            return get(0);
+            return getDoubleValue();
         }
 
         @Override
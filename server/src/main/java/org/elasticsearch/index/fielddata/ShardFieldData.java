@@ -15,16 +15,23 @@ import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.util.CollectionUtils;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
+import org.elasticsearch.index.fielddata.plain.MemoryMappedTermsLeafFieldData;
 import org.elasticsearch.index.shard.ShardId;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 public class ShardFieldData implements IndexFieldDataCache.Listener {
 
     private final CounterMetric evictionsMetric = new CounterMetric();
     private final CounterMetric totalMetric = new CounterMetric();
     private final ConcurrentMap<String, CounterMetric> perFieldTotals = ConcurrentCollections.newConcurrentMap();
+    private final CounterMetric globalOrdinalsBuildsMetric = new CounterMetric();
+    private final CounterMetric globalOrdinalsReusedMetric = new CounterMetric();
+    private final CounterMetric globalOrdinalsBuildTimeMetric = new CounterMetric();
+    private final CounterMetric memoryMappedMetric = new CounterMetric();
 
     public FieldDataStats stats(String... fields) {
         ObjectLongHashMap<String> fieldTotals = null;
@@ -37,11 +44,23 @@ public class ShardFieldData implements IndexFieldDataCache.Listener {
             }
         }
         return new FieldDataStats(totalMetric.count(), evictionsMetric.count(), fieldTotals == null ? null :
-            new FieldMemoryStats(fieldTotals));
+            new FieldMemoryStats(fieldTotals), globalOrdinalsBuildsMetric.count(), globalOrdinalsReusedMetric.count(),
+            TimeUnit.NANOSECONDS.toMillis(globalOrdinalsBuildTimeMetric.count()), memoryMappedMetric.count());
     }
 
     @Override
     public void onCache(ShardId shardId, String fieldName, Accountable ramUsage) {
+        if (ramUsage instanceof GlobalOrdinalsIndexFieldData) {
+            globalOrdinalsBuildsMetric.inc();
+            globalOrdinalsBuildTimeMetric.inc(((GlobalOrdinalsIndexFieldData) ramUsage).getBuildTimeInNanos());
+        }
+        if (ramUsage instanceof MemoryMappedTermsLeafFieldData) {
+            // the terms stay mapped after they are removed from the cache until the readers that use them are closed
+            final MemoryMappedTermsLeafFieldData fieldData = (MemoryMappedTermsLeafFieldData) ramUsage;
+            final long mappedBytes = fieldData.getMappedBytes();
+            memoryMappedMetric.inc(mappedBytes);
+            fieldData.addUnmapListener(() -> memoryMappedMetric.dec(mappedBytes));
+        }
         totalMetric.inc(ramUsage.ramBytesUsed());
         CounterMetric total = perFieldTotals.get(fieldName);
         if (total != null) {
@@ -56,6 +75,11 @@ public class ShardFieldData implements IndexFieldDataCache.Listener {
         }
     }
 
+    @Override
+    public void onReuse(ShardId shardId, String fieldName, Accountable ramUsage) {
+        globalOrdinalsReusedMetric.inc();
+    }
+
     @Override
     public void onRemoval(ShardId shardId, String fieldName, boolean wasEvicted, long sizeInBytes) {
         if (wasEvicted) {
@@ -35,6 +35,13 @@ import java.util.function.Function;
 public enum GlobalOrdinalsBuilder {
     ;
 
+    /**
+     * The number of segments that the ordinal maps of global ordinals have mappings for in addition to the segments of the reader they
+     * are built for. These segments have no values so the ordinal maps can be used by later readers that only add segments without values
+     * for the field, like the segments that only hold the tombstones of deleted documents.
+     */
+    public static final int SPARE_SEGMENTS = 8;
+
     /**
      * Build global ordinals for the provided {@link IndexReader}.
      */
@@ -44,60 +51,63 @@ public enum GlobalOrdinalsBuilder {
         assert indexReader.leaves().size() > 1;
         long startTimeNS = System.nanoTime();
 
-        final LeafOrdinalsFieldData[] atomicFD = new LeafOrdinalsFieldData[indexReader.leaves().size()];
-        final SortedSetDocValues[] subs = new SortedSetDocValues[indexReader.leaves().size()];
+        final SortedSetDocValues[] subs = new SortedSetDocValues[indexReader.leaves().size() + SPARE_SEGMENTS];
         for (int i = 0; i < indexReader.leaves().size(); ++i) {
-            atomicFD[i] = indexFieldData.load(indexReader.leaves().get(i));
-            subs[i] = atomicFD[i].getOrdinalsValues();
+            subs[i] = indexFieldData.load(indexReader.leaves().get(i)).getOrdinalsValues();
+        }
+        for (int i = indexReader.leaves().size(); i < subs.length; ++i) {
+            subs[i] = DocValues.emptySortedSet();
         }
         final OrdinalMap ordinalMap = OrdinalMap.build(null, subs, PackedInts.DEFAULT);
         final long memorySizeInBytes = ordinalMap.ramBytesUsed();
         breakerService.getBreaker(CircuitBreaker.FIELDDATA).addWithoutBreaking(memorySizeInBytes);
 
+        final long tookInNanos = System.nanoTime() - startTimeNS;
         if (logger.isDebugEnabled()) {
             logger.debug(
                     "global-ordinals [{}][{}] took [{}]",
                     indexFieldData.getFieldName(),
                     ordinalMap.getValueCount(),
-                    new TimeValue(System.nanoTime() - startTimeNS, TimeUnit.NANOSECONDS)
+                    new TimeValue(tookInNanos, TimeUnit.NANOSECONDS)
             );
         }
+        // the global ordinals may be shared by readers with the same segments, so they load the field data of each segment from the
+        // reader that uses them rather than holding on to the segments of this reader
         return new GlobalOrdinalsIndexFieldData(indexFieldData.getFieldName(), indexFieldData.getValuesSourceType(),
-                atomicFD, ordinalMap, memorySizeInBytes, scriptFunction
+                indexFieldData::load, indexReader.leaves().size(), ordinalMap, subs.length, memorySizeInBytes, scriptFunction, tookInNanos
         );
     }
 
     public static IndexOrdinalsFieldData buildEmpty(IndexReader indexReader, IndexOrdinalsFieldData indexFieldData) throws IOException {
         assert indexReader.leaves().size() > 1;
 
-        final LeafOrdinalsFieldData[] atomicFD = new LeafOrdinalsFieldData[indexReader.leaves().size()];
-        final SortedSetDocValues[] subs = new SortedSetDocValues[indexReader.leaves().size()];
-        for (int i = 0; i < indexReader.leaves().size(); ++i) {
-            atomicFD[i] = new AbstractLeafOrdinalsFieldData(AbstractLeafOrdinalsFieldData.DEFAULT_SCRIPT_FUNCTION) {
-                @Override
-                public SortedSetDocValues getOrdinalsValues() {
-                    return DocValues.emptySortedSet();
-                }
+        final LeafOrdinalsFieldData emptyFD = new AbstractLeafOrdinalsFieldData(AbstractLeafOrdinalsFieldData.DEFAULT_SCRIPT_FUNCTION) {
+            @Override
+            public SortedSetDocValues getOrdinalsValues() {
+                return DocValues.emptySortedSet();
+            }
 
-                @Override
-                public long ramBytesUsed() {
-                    return 0;
-                }
+            @Override
+            public long ramBytesUsed() {
+                return 0;
+            }
 
-                @Override
-                public Collection<Accountable> getChildResources() {
-                    return Collections.emptyList();
-                }
+            @Override
+            public Collection<Accountable> getChildResources() {
+                return Collections.emptyList();
+            }
 
-                @Override
-                public void close() {
-                }
-            };
-            subs[i] = atomicFD[i].getOrdinalsValues();
+            @Override
+            public void close() {
+            }
+        };
+        final SortedSetDocValues[] subs = new SortedSetDocValues[indexReader.leaves().size()];
+        for (int i = 0; i < indexReader.leaves().size(); ++i) {
+            subs[i] = emptyFD.getOrdinalsValues();
         }
         final OrdinalMap ordinalMap = OrdinalMap.build(null, subs, PackedInts.DEFAULT);
         return new GlobalOrdinalsIndexFieldData(indexFieldData.getFieldName(), indexFieldData.getValuesSourceType(),
-                atomicFD, ordinalMap, 0, AbstractLeafOrdinalsFieldData.DEFAULT_SCRIPT_FUNCTION
+                context -> emptyFD, subs.length, ordinalMap, 0, AbstractLeafOrdinalsFieldData.DEFAULT_SCRIPT_FUNCTION
         );
     }
 
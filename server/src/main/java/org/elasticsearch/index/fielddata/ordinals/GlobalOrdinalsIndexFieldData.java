@@ -8,6 +8,7 @@
 package org.elasticsearch.index.fielddata.ordinals;
 
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedSetDocValues;
@@ -35,8 +36,10 @@ import java.util.function.Function;
 
 /**
  * Concrete implementation of {@link IndexOrdinalsFieldData} for global ordinals.
- * A single instance of this class should be used to cache global ordinals per {@link DirectoryReader}.
- * However {@link #loadGlobal(DirectoryReader)} always creates a new instance of {@link Consumer} from the cached
+ * A single instance of this class should be used to cache global ordinals per set of segments with values for the field, and may
+ * therefore be shared by several {@link DirectoryReader}s. It only holds the {@link OrdinalMap}: the field data of each segment is
+ * loaded from the reader that uses the global ordinals, so that the cached instance does not depend on any reader staying open.
+ * {@link #loadGlobal(DirectoryReader)} always creates a new instance of {@link Consumer} from the cached
  * value in order to reuse the segment's {@link TermsEnum} that are needed to retrieve terms from global ordinals.
  * Each instance of {@link Consumer} uses a new set of {@link TermsEnum} that can be reused during the collection,
  * this is done to avoid creating all segment's {@link TermsEnum} each time we want to access the values of a single
@@ -49,21 +52,62 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
     private final long memorySizeInBytes;
 
     private final OrdinalMap ordinalMap;
-    private final LeafOrdinalsFieldData[] segmentAfd;
+    private final Function<LeafReaderContext, LeafOrdinalsFieldData> segmentLoader;
+    private final int numSegments;
     private final Function<SortedSetDocValues, ScriptDocValues<?>> scriptFunction;
+    private final int maxSegments;
+    private final long buildTimeInNanos;
 
     protected GlobalOrdinalsIndexFieldData(String fieldName,
                                            ValuesSourceType valuesSourceType,
-                                           LeafOrdinalsFieldData[] segmentAfd,
+                                           Function<LeafReaderContext, LeafOrdinalsFieldData> segmentLoader,
+                                           int numSegments,
                                            OrdinalMap ordinalMap,
                                            long memorySizeInBytes,
                                            Function<SortedSetDocValues, ScriptDocValues<?>> scriptFunction) {
+        this(fieldName, valuesSourceType, segmentLoader, numSegments, ordinalMap, numSegments, memorySizeInBytes, scriptFunction, 0L);
+    }
+
+    /**
+     * @param segmentLoader loads the field data of a segment of the reader that uses these global ordinals
+     * @param numSegments   the number of segments that the ordinal map was built from; later segments have no values
+     * @param maxSegments   the number of segments that the ordinal map has mappings for, which may be more than the number of segments
+     *                      it was built from; the other segments have no values
+     */
+    protected GlobalOrdinalsIndexFieldData(String fieldName,
+                                           ValuesSourceType valuesSourceType,
+                                           Function<LeafReaderContext, LeafOrdinalsFieldData> segmentLoader,
+                                           int numSegments,
+                                           OrdinalMap ordinalMap,
+                                           int maxSegments,
+                                           long memorySizeInBytes,
+                                           Function<SortedSetDocValues, ScriptDocValues<?>> scriptFunction,
+                                           long buildTimeInNanos) {
+        assert maxSegments >= numSegments;
         this.fieldName = fieldName;
         this.valuesSourceType = valuesSourceType;
         this.memorySizeInBytes = memorySizeInBytes;
         this.ordinalMap = ordinalMap;
-        this.segmentAfd = segmentAfd;
+        this.segmentLoader = segmentLoader;
+        this.numSegments = numSegments;
         this.scriptFunction = scriptFunction;
+        this.maxSegments = maxSegments;
+        this.buildTimeInNanos = buildTimeInNanos;
+    }
+
+    /**
+     * The time it took to load these global ordinals, in nanoseconds.
+     */
+    public long getBuildTimeInNanos() {
+        return buildTimeInNanos;
+    }
+
+    /**
+     * The maximum number of segments of the readers that these global ordinals can be used for. Such readers must have the segments
+     * with values that these global ordinals were built for first, in the same order, and no values in their other segments.
+     */
+    public int getMaxSegments() {
+        return maxSegments;
     }
 
     public IndexOrdinalsFieldData newConsumer(DirectoryReader source) {
@@ -138,10 +182,25 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
      */
     public class Consumer implements IndexOrdinalsFieldData, Accountable {
         private final DirectoryReader source;
+        private final LeafOrdinalsFieldData[] segmentAfd;
         private TermsEnum[] lookups;
 
         Consumer(DirectoryReader source) {
             this.source = source;
+            this.segmentAfd = new LeafOrdinalsFieldData[Math.min(numSegments, source.leaves().size())];
+        }
+
+        /**
+         * Lazy loading of the field data of a segment of this reader, or {@code null} if the segment has no values
+         */
+        private LeafOrdinalsFieldData getOrLoadSegment(int ord) {
+            if (ord >= segmentAfd.length) {
+                return null;
+            }
+            if (segmentAfd[ord] == null) {
+                segmentAfd[ord] = segmentLoader.apply(source.leaves().get(ord));
+            }
+            return segmentAfd[ord];
         }
 
         /**
@@ -152,7 +211,7 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
                 lookups = new TermsEnum[segmentAfd.length];
                 for (int i = 0; i < lookups.length; i++) {
                     try {
-                        lookups[i] = segmentAfd[i].getOrdinalsValues().termsEnum();
+                        lookups[i] = getOrLoadSegment(i).getOrdinalsValues().termsEnum();
                     } catch (IOException e) {
                         throw new UncheckedIOException("Failed to load terms enum", e);
                     }
@@ -213,7 +272,8 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
             return new AbstractLeafOrdinalsFieldData(scriptFunction) {
                 @Override
                 public SortedSetDocValues getOrdinalsValues() {
-                    final SortedSetDocValues values = segmentAfd[context.ord].getOrdinalsValues();
+                    final LeafOrdinalsFieldData segment = getOrLoadSegment(context.ord);
+                    final SortedSetDocValues values = segment != null ? segment.getOrdinalsValues() : DocValues.emptySortedSet();
                     if (values.getValueCount() == ordinalMap.getValueCount()) {
                         // segment ordinals match global ordinals
                         return values;
@@ -230,13 +290,15 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
 
                 @Override
                 public long ramBytesUsed() {
-                    return segmentAfd[context.ord].ramBytesUsed();
+                    final LeafOrdinalsFieldData segment = getOrLoadSegment(context.ord);
+                    return segment != null ? segment.ramBytesUsed() : 0;
                 }
 
 
                 @Override
                 public Collection<Accountable> getChildResources() {
-                    return segmentAfd[context.ord].getChildResources();
+                    final LeafOrdinalsFieldData segment = getOrLoadSegment(context.ord);
+                    return segment != null ? segment.getChildResources() : Collections.emptyList();
                 }
 
                 @Override
@@ -0,0 +1,160 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.index.fielddata.plain;
+
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.packed.PackedLongValues;
+import org.elasticsearch.core.AbstractRefCounted;
+import org.elasticsearch.core.RefCounted;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.index.fielddata.ordinals.Ordinals;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Same as {@link PagedBytesLeafFieldData} except that the bytes of the terms are read from a memory-mapped file rather than from the
+ * heap. Only the ordinals and the offsets of the terms in the file count towards {@link #ramBytesUsed()}.
+ * <p>
+ * The terms are unmapped once this field data is released by {@link #close()} and by every holder of a reference that was acquired
+ * with {@link #tryIncRef()}. The field data cache closes it when it is removed from the cache and takes a reference for each top-level
+ * reader that loads it, so that readers that are still open can keep using it after it was evicted.
+ */
+public class MemoryMappedTermsLeafFieldData extends AbstractLeafOrdinalsFieldData implements RefCounted {
+
+    private final IndexInput terms;
+    private final PackedLongValues termOrdToBytesOffset;
+    protected final Ordinals ordinals;
+    private final AbstractRefCounted refCounted = AbstractRefCounted.of(this::unmap);
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final List<Runnable> unmapListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param terms the memory-mapped terms, each prefixed with its length as a vInt. It is closed, which unmaps it, once this field data
+     *              is released.
+     */
+    public MemoryMappedTermsLeafFieldData(IndexInput terms, PackedLongValues termOrdToBytesOffset, Ordinals ordinals) {
+        super(DEFAULT_SCRIPT_FUNCTION);
+        this.terms = terms;
+        this.termOrdToBytesOffset = termOrdToBytesOffset;
+        this.ordinals = ordinals;
+    }
+
+    /**
+     * Releases the reference that was held since this field data was loaded. The terms are unmapped once all other references are
+     * released too.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            decRef();
+        }
+    }
+
+    @Override
+    public void incRef() {
+        refCounted.incRef();
+    }
+
+    @Override
+    public boolean tryIncRef() {
+        return refCounted.tryIncRef();
+    }
+
+    @Override
+    public boolean decRef() {
+        return refCounted.decRef();
+    }
+
+    @Override
+    public boolean hasReferences() {
+        return refCounted.hasReferences();
+    }
+
+    /**
+     * The number of bytes of the memory-mapped terms.
+     */
+    public long getMappedBytes() {
+        return terms.length();
+    }
+
+    /**
+     * Runs the given listener once the terms are unmapped, or right away if they already are.
+     */
+    public void addUnmapListener(Runnable listener) {
+        unmapListeners.add(listener);
+        if (hasReferences() == false && unmapListeners.remove(listener)) {
+            listener.run();
+        }
+    }
+
+    private void unmap() {
+        try {
+            IOUtils.closeWhileHandlingException(terms);
+        } finally {
+            for (Runnable listener : unmapListeners) {
+                if (unmapListeners.remove(listener)) {
+                    listener.run();
+                }
+            }
+        }
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        return ordinals.ramBytesUsed() + termOrdToBytesOffset.ramBytesUsed();
+    }
+
+    @Override
+    public Collection<Accountable> getChildResources() {
+        return List.of(
+                Accountables.namedAccountable("ordinals", ordinals),
+                Accountables.namedAccountable("term offsets", termOrdToBytesOffset));
+    }
+
+    @Override
+    public SortedSetDocValues getOrdinalsValues() {
+        return ordinals.ordinals(new ValuesHolder(terms.clone(), termOrdToBytesOffset));
+    }
+
+    private static class ValuesHolder implements Ordinals.ValuesHolder {
+
+        private final BytesRef scratch = new BytesRef();
+        private final IndexInput terms;
+        private final PackedLongValues termOrdToBytesOffset;
+
+        ValuesHolder(IndexInput terms, PackedLongValues termOrdToBytesOffset) {
+            this.terms = terms;
+            this.termOrdToBytesOffset = termOrdToBytesOffset;
+        }
+
+        @Override
+        public BytesRef lookupOrd(long ord) {
+            assert ord >= 0;
+            try {
+                terms.seek(termOrdToBytesOffset.get(ord));
+                final int length = terms.readVInt();
+                scratch.bytes = ArrayUtil.grow(scratch.bytes, length);
+                terms.readBytes(scratch.bytes, 0, length);
+                scratch.length = length;
+                return scratch;
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to read term for ordinal [" + ord + "]", e);
+            }
+        }
+    }
+}
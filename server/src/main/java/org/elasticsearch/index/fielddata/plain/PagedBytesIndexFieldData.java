@@ -15,6 +15,12 @@ import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.SortField;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.PagedBytes;
 import org.apache.lucene.util.packed.PackedInts;
@@ -22,6 +28,7 @@ import org.apache.lucene.util.packed.PackedLongValues;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldData.XFieldComparatorSource.Nested;
 import org.elasticsearch.index.fielddata.IndexFieldDataCache;
@@ -39,11 +46,14 @@ import org.elasticsearch.search.sort.BucketedSort;
 import org.elasticsearch.search.sort.SortOrder;
 
 import java.io.IOException;
+import java.nio.file.Files;
 
 public class PagedBytesIndexFieldData extends AbstractIndexOrdinalsFieldData {
 
     private final double minFrequency, maxFrequency;
     private final int minSegmentSize;
+    @Nullable
+    private final Directory termsDirectory;
 
     public static class Builder implements IndexFieldData.Builder {
         private final String name;
@@ -79,6 +89,7 @@ public class PagedBytesIndexFieldData extends AbstractIndexOrdinalsFieldData {
         this.minFrequency = minFrequency;
         this.maxFrequency = maxFrequency;
         this.minSegmentSize = minSegmentSize;
+        this.termsDirectory = cache.getTermsDirectory();
     }
 
     @Override
@@ -118,6 +129,10 @@ public class PagedBytesIndexFieldData extends AbstractIndexOrdinalsFieldData {
         // per-term
 
         TermsEnum termsEnum = estimator.beforeLoad(terms);
+        // the terms are written to a memory-mapped file instead of the paged bytes if the cache provides a directory for them
+        final IndexOutput termsOutput = termsDirectory == null
+            ? null
+            : termsDirectory.createTempOutput("fielddata", "terms", IOContext.DEFAULT);
         boolean success = false;
 
         try (OrdinalsBuilder builder = new OrdinalsBuilder(reader.maxDoc(), acceptableTransientOverheadRatio)) {
@@ -125,22 +140,45 @@ public class PagedBytesIndexFieldData extends AbstractIndexOrdinalsFieldData {
             for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
                 final long termOrd = builder.nextOrdinal();
                 assert termOrd == termOrdToBytesOffset.size();
-                termOrdToBytesOffset.add(bytes.copyUsingLengthPrefix(term));
+                if (termsOutput == null) {
+                    termOrdToBytesOffset.add(bytes.copyUsingLengthPrefix(term));
+                } else {
+                    termOrdToBytesOffset.add(termsOutput.getFilePointer());
+                    termsOutput.writeVInt(term.length);
+                    termsOutput.writeBytes(term.bytes, term.offset, term.length);
+                }
                 docsEnum = termsEnum.postings(docsEnum, PostingsEnum.NONE);
                 for (int docId = docsEnum.nextDoc(); docId != DocIdSetIterator.NO_MORE_DOCS; docId = docsEnum.nextDoc()) {
                     builder.addDoc(docId);
                 }
             }
-            PagedBytes.Reader bytesReader = bytes.freeze(true);
             final Ordinals ordinals = builder.build();
 
-            data = new PagedBytesLeafFieldData(bytesReader, termOrdToBytesOffset.build(), ordinals);
+            if (termsOutput == null) {
+                PagedBytes.Reader bytesReader = bytes.freeze(true);
+                data = new PagedBytesLeafFieldData(bytesReader, termOrdToBytesOffset.build(), ordinals);
+            } else {
+                termsOutput.close();
+                final String termsFileName = termsOutput.getName();
+                final IndexInput termsInput = termsDirectory.openInput(termsFileName, IOContext.READ);
+                final MemoryMappedTermsLeafFieldData mappedData =
+                    new MemoryMappedTermsLeafFieldData(termsInput, termOrdToBytesOffset.build(), ordinals);
+                // the mapping outlives the file, which is deleted right away on filesystems that allow it. Otherwise, like on Windows,
+                // the directory only retries on its next write, so the file is deleted again once it is unmapped.
+                deleteTermsFileIgnoringExceptions(termsFileName);
+                mappedData.addUnmapListener(() -> deleteUnmappedTermsFileIgnoringExceptions(termsFileName));
+                data = mappedData;
+            }
             success = true;
             return data;
         } finally {
             if (success == false) {
                 // If something went wrong, unwind any current estimations we've made
                 estimator.afterLoad(termsEnum, 0);
+                if (termsOutput != null) {
+                    IOUtils.closeWhileHandlingException(termsOutput);
+                    deleteTermsFileIgnoringExceptions(termsOutput.getName());
+                }
             } else {
                 // Call .afterLoad() to adjust the breaker now that we have an exact size
                 estimator.afterLoad(termsEnum, data.ramBytesUsed());
@@ -149,6 +187,26 @@ public class PagedBytesIndexFieldData extends AbstractIndexOrdinalsFieldData {
         }
     }
 
+    private void deleteTermsFileIgnoringExceptions(String name) {
+        try {
+            termsDirectory.deleteFile(name);
+        } catch (IOException e) {
+            // ignore, the directory is cleaned up when the node starts
+        }
+    }
+
+    private void deleteUnmappedTermsFileIgnoringExceptions(String name) {
+        final Directory directory = FilterDirectory.unwrap(termsDirectory);
+        if (directory instanceof FSDirectory) {
+            try {
+                // bypasses the directory, which refuses to delete a file that it failed to delete before
+                Files.deleteIfExists(((FSDirectory) directory).getDirectory().resolve(name));
+            } catch (IOException e) {
+                // ignore, the directory is cleaned up when the node starts
+            }
+        }
+    }
+
     /**
      * Estimator that wraps string field data by either using
      * BlockTreeTermsReader, or wrapping the data in a RamAccountingTermsEnum
@@ -7,9 +7,11 @@
  */
 package org.elasticsearch.index.recovery;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -27,6 +29,8 @@ public class RecoveryStats implements ToXContentFragment, Writeable {
     private final AtomicInteger currentAsSource = new AtomicInteger();
     private final AtomicInteger currentAsTarget = new AtomicInteger();
     private final AtomicLong throttleTimeInNanos = new AtomicLong();
+    private final AtomicLong restoredBytes = new AtomicLong();
+    private final AtomicLong restoreTimeInNanos = new AtomicLong();
 
     public RecoveryStats() {
     }
@@ -35,6 +39,10 @@ public class RecoveryStats implements ToXContentFragment, Writeable {
         currentAsSource.set(in.readVInt());
         currentAsTarget.set(in.readVInt());
         throttleTimeInNanos.set(in.readLong());
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            restoredBytes.set(in.readVLong());
+            restoreTimeInNanos.set(in.readVLong());
+        }
     }
 
     public void add(RecoveryStats recoveryStats) {
@@ -48,6 +56,8 @@ public class RecoveryStats implements ToXContentFragment, Writeable {
     public void addTotals(RecoveryStats recoveryStats) {
         if (recoveryStats != null) {
             this.throttleTimeInNanos.addAndGet(recoveryStats.throttleTime().nanos());
+            this.restoredBytes.addAndGet(recoveryStats.restoredBytes());
+            this.restoreTimeInNanos.addAndGet(recoveryStats.restoreTime().nanos());
         }
     }
 
@@ -72,6 +82,20 @@ public class RecoveryStats implements ToXContentFragment, Writeable {
         return TimeValue.timeValueNanos(throttleTimeInNanos.get());
     }
 
+    /**
+     * Total number of bytes copied from snapshot repositories by completed restores
+     */
+    public long restoredBytes() {
+        return restoredBytes.get();
+    }
+
+    /**
+     * Total time spent by completed restores copying files from snapshot repositories, summed over all restored shards
+     */
+    public TimeValue restoreTime() {
+        return TimeValue.timeValueNanos(restoreTimeInNanos.get());
+    }
+
     public void incCurrentAsTarget() {
         currentAsTarget.incrementAndGet();
     }
@@ -92,12 +116,19 @@ public class RecoveryStats implements ToXContentFragment, Writeable {
         throttleTimeInNanos.addAndGet(nanos);
     }
 
+    public void addRestore(long bytes, long nanos) {
+        restoredBytes.addAndGet(bytes);
+        restoreTimeInNanos.addAndGet(nanos);
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(Fields.RECOVERY);
         builder.field(Fields.CURRENT_AS_SOURCE, currentAsSource());
         builder.field(Fields.CURRENT_AS_TARGET, currentAsTarget());
         builder.humanReadableField(Fields.THROTTLE_TIME_IN_MILLIS, Fields.THROTTLE_TIME, throttleTime());
+        builder.humanReadableField(Fields.RESTORED_SIZE_IN_BYTES, Fields.RESTORED_SIZE, new ByteSizeValue(restoredBytes()));
+        builder.humanReadableField(Fields.RESTORE_TIME_IN_MILLIS, Fields.RESTORE_TIME, restoreTime());
         builder.endObject();
         return builder;
     }
@@ -108,6 +139,10 @@ public class RecoveryStats implements ToXContentFragment, Writeable {
         static final String CURRENT_AS_TARGET = "current_as_target";
         static final String THROTTLE_TIME = "throttle_time";
         static final String THROTTLE_TIME_IN_MILLIS = "throttle_time_in_millis";
+        static final String RESTORED_SIZE = "restored_size";
+        static final String RESTORED_SIZE_IN_BYTES = "restored_size_in_bytes";
+        static final String RESTORE_TIME = "restore_time";
+        static final String RESTORE_TIME_IN_MILLIS = "restore_time_in_millis";
     }
 
     @Override
@@ -115,11 +150,16 @@ public class RecoveryStats implements ToXContentFragment, Writeable {
         out.writeVInt(currentAsSource.get());
         out.writeVInt(currentAsTarget.get());
         out.writeLong(throttleTimeInNanos.get());
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeVLong(restoredBytes.get());
+            out.writeVLong(restoreTimeInNanos.get());
+        }
     }
 
     @Override
     public String toString() {
         return "recoveryStats, currentAsSource [" + currentAsSource() + "],currentAsTarget ["
-                + currentAsTarget() + "], throttle [" + throttleTime() + "]";
+                + currentAsTarget() + "], throttle [" + throttleTime() + "], restored [" + restoredBytes() + "b] in ["
+                + restoreTime() + "]";
     }
 }
@@ -447,8 +447,11 @@ final class StoreRecovery {
         if (logger.isTraceEnabled()) {
             logger.trace("[{}] restoring shard [{}]", restoreSource.snapshot(), shardId);
         }
+        final long restoreStartNanos = System.nanoTime();
         final ActionListener<Void> restoreListener = ActionListener.wrap(
             v -> {
+                indexShard.recoveryStats().addRestore(indexShard.recoveryState().getIndex().recoveredBytes(),
+                    System.nanoTime() - restoreStartNanos);
                 final Store store = indexShard.store();
                 bootstrap(indexShard, store);
                 assert indexShard.shardRouting.primary() : "only primary shards can recover from store";
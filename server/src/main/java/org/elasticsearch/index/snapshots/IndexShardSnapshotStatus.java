@@ -61,6 +61,7 @@ public class IndexShardSnapshotStatus {
     private long totalSize;
     private long incrementalSize;
     private long processedSize;
+    private long deduplicatedSize;
     private long indexVersion;
     private String failure;
 
@@ -178,6 +179,13 @@ public class IndexShardSnapshotStatus {
         processedSize += size;
     }
 
+    /**
+     * Adds to the number of bytes of new files that did not need uploading because the repository already held them
+     */
+    public synchronized void addDeduplicatedSize(long size) {
+        deduplicatedSize += size;
+    }
+
     /**
      * Returns a copy of the current {@link IndexShardSnapshotStatus}. This method is
      * intended to be used when a coherent state of {@link IndexShardSnapshotStatus} is needed.
@@ -195,6 +203,7 @@ public class IndexShardSnapshotStatus {
             incrementalSize,
             totalSize,
             processedSize,
+            deduplicatedSize,
             indexVersion,
             failure
         );
@@ -251,6 +260,7 @@ public class IndexShardSnapshotStatus {
         private final long totalSize;
         private final long processedSize;
         private final long incrementalSize;
+        private final long deduplicatedSize;
         private final long indexVersion;
         private final String failure;
 
@@ -264,6 +274,7 @@ public class IndexShardSnapshotStatus {
             final long incrementalSize,
             final long totalSize,
             final long processedSize,
+            final long deduplicatedSize,
             final long indexVersion,
             final String failure
         ) {
@@ -276,6 +287,7 @@ public class IndexShardSnapshotStatus {
             this.totalSize = totalSize;
             this.processedSize = processedSize;
             this.incrementalSize = incrementalSize;
+            this.deduplicatedSize = deduplicatedSize;
             this.indexVersion = indexVersion;
             this.failure = failure;
         }
@@ -316,6 +328,13 @@ public class IndexShardSnapshotStatus {
             return processedSize;
         }
 
+        /**
+         * @return the number of bytes of new files whose contents did not need uploading because the repository already held them
+         */
+        public long getDeduplicatedSize() {
+            return deduplicatedSize;
+        }
+
         public long getIndexVersion() {
             return indexVersion;
         }
@@ -345,6 +364,8 @@ public class IndexShardSnapshotStatus {
                 + totalSize
                 + ", processedSize="
                 + processedSize
+                + ", deduplicatedSize="
+                + deduplicatedSize
                 + ", indexVersion="
                 + indexVersion
                 + ", failure='"
@@ -10,6 +10,7 @@ package org.elasticsearch.index.snapshots.blobstore;
 
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.ElasticsearchParseException;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -20,9 +21,11 @@ import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentParserUtils;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.store.StoreFileMetadata;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.IntStream;
@@ -34,17 +37,85 @@ import static org.elasticsearch.index.store.StoreFileMetadata.UNAVAILABLE_WRITER
  */
 public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
 
+    /**
+     * A chunk of a snapshotted file whose boundaries were chosen by content-defined chunking. It is stored in a blob named after the
+     * SHA-256 digest of its contents, so that every file in the shard's snapshots with the same chunk shares the same blob.
+     */
+    public static final class ContentChunk implements Writeable {
+
+        public static final String BLOB_NAME_PREFIX = "__chunk-";
+
+        private final String hash;
+        private final long length;
+
+        /**
+         * @param hash   hex-encoded SHA-256 digest of the contents of the chunk
+         * @param length length of the chunk in bytes
+         */
+        public ContentChunk(String hash, long length) {
+            this.hash = Objects.requireNonNull(hash);
+            this.length = length;
+        }
+
+        public ContentChunk(StreamInput in) throws IOException {
+            this(in.readString(), in.readVLong());
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(hash);
+            out.writeVLong(length);
+        }
+
+        public String hash() {
+            return hash;
+        }
+
+        public long length() {
+            return length;
+        }
+
+        /**
+         * @return the name of the blob that holds the contents of this chunk
+         */
+        public String blobName() {
+            return BLOB_NAME_PREFIX + hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ContentChunk that = (ContentChunk) o;
+            return length == that.length && hash.equals(that.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hash, length);
+        }
+
+        @Override
+        public String toString() {
+            return "[hash: " + hash + ", length: " + length + "]";
+        }
+    }
+
     /**
      * Information about snapshotted file
      */
     public static class FileInfo implements Writeable {
         public static final String SERIALIZE_WRITER_UUID = "serialize_writer_uuid";
 
+        public static final Version CONTENT_CHUNKS_VERSION = Version.V_8_0_0;
+
         private final String name;
         private final ByteSizeValue partSize;
         private final long partBytes;
         private final int numberOfParts;
         private final StoreFileMetadata metadata;
+        @Nullable
+        private final List<ContentChunk> contentChunks;
 
         /**
          * Constructs a new instance of file info
@@ -54,6 +125,21 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
          * @param partSize     size of the single chunk
          */
         public FileInfo(String name, StoreFileMetadata metadata, ByteSizeValue partSize) {
+            this(name, metadata, partSize, null);
+        }
+
+        /**
+         * Constructs a new instance of file info for a file that is stored as content-defined chunks rather than as parts of a fixed size
+         *
+         * @param name          file name as stored in the blob store
+         * @param metadata      the files meta data
+         * @param contentChunks the chunks of the file, in order
+         */
+        public FileInfo(String name, StoreFileMetadata metadata, List<ContentChunk> contentChunks) {
+            this(name, metadata, null, Objects.requireNonNull(contentChunks));
+        }
+
+        private FileInfo(String name, StoreFileMetadata metadata, ByteSizeValue partSize, @Nullable List<ContentChunk> contentChunks) {
             this.name = Objects.requireNonNull(name);
             this.metadata = metadata;
 
@@ -62,7 +148,12 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
                 partBytes = partSize.getBytes();
             }
 
-            if (metadata.length() == 0) {
+            if (contentChunks != null) {
+                if (contentChunks.isEmpty() || contentChunks.stream().mapToLong(ContentChunk::length).sum() != metadata.length()) {
+                    throw new IllegalArgumentException("content chunks " + contentChunks + " do not cover file [" + metadata + "]");
+                }
+                numberOfParts = contentChunks.size();
+            } else if (metadata.length() == 0) {
                 numberOfParts = 1;
             } else {
                 long longNumberOfParts = 1L + (metadata.length() - 1L) / partBytes; // ceil(len/partBytes), but beware of long overflow
@@ -74,11 +165,17 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
 
             this.partSize = partSize;
             this.partBytes = partBytes;
+            this.contentChunks = contentChunks == null ? null : List.copyOf(contentChunks);
             assert IntStream.range(0, numberOfParts).mapToLong(this::partBytes).sum() == metadata.length();
         }
 
         public FileInfo(StreamInput in) throws IOException {
-            this(in.readString(), new StoreFileMetadata(in), in.readOptionalWriteable(ByteSizeValue::new));
+            this(
+                in.readString(),
+                new StoreFileMetadata(in),
+                in.readOptionalWriteable(ByteSizeValue::new),
+                in.getVersion().onOrAfter(CONTENT_CHUNKS_VERSION) && in.readBoolean() ? in.readList(ContentChunk::new) : null
+            );
         }
 
         @Override
@@ -86,6 +183,18 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             out.writeString(name);
             metadata.writeTo(out);
             out.writeOptionalWriteable(partSize);
+            if (out.getVersion().onOrAfter(CONTENT_CHUNKS_VERSION)) {
+                if (contentChunks == null) {
+                    out.writeBoolean(false);
+                } else {
+                    out.writeBoolean(true);
+                    out.writeList(contentChunks);
+                }
+            } else if (contentChunks != null) {
+                throw new IllegalArgumentException(
+                    "file [" + name + "] is stored as content chunks which are not supported before [" + CONTENT_CHUNKS_VERSION + "]"
+                );
+            }
         }
 
         /**
@@ -104,7 +213,9 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
          * @return part name
          */
         public String partName(int part) {
-            if (numberOfParts > 1) {
+            if (contentChunks != null) {
+                return contentChunks.get(part).blobName();
+            } else if (numberOfParts > 1) {
                 return name + ".part" + part;
             } else {
                 return name;
@@ -158,6 +269,9 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
          */
         public long partBytes(int part) {
             assert 0 <= part && part < numberOfParts : part + " vs " + numberOfParts;
+            if (contentChunks != null) {
+                return contentChunks.get(part).length();
+            }
             if (numberOfParts == 1) {
                 return length();
             }
@@ -180,6 +294,15 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             return numberOfParts;
         }
 
+        /**
+         * Returns the content-defined chunks that make up this file, or {@code null} if the file is stored as parts of a fixed size. If
+         * not {@code null} then each part of the file is a chunk.
+         */
+        @Nullable
+        public List<ContentChunk> contentChunks() {
+            return contentChunks;
+        }
+
         /**
          * Returns file md5 checksum provided by {@link org.elasticsearch.index.store.Store}
          *
@@ -222,6 +345,9 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             if (name.equals(fileInfo.name) == false) {
                 return false;
             }
+            if (Objects.equals(contentChunks, fileInfo.contentChunks) == false) {
+                return false;
+            }
             if (partSize != null) {
                 if (partSize.equals(fileInfo.partSize) == false) {
                     return false;
@@ -242,6 +368,9 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
         static final String WRITTEN_BY = "written_by";
         static final String META_HASH = "meta_hash";
         static final String WRITER_UUID = "writer_uuid";
+        static final String CONTENT_CHUNKS = "content_chunks";
+        static final String CONTENT_CHUNK_HASH = "hash";
+        static final String CONTENT_CHUNK_LENGTH = "length";
 
         /**
          * Serializes file info into JSON
@@ -258,6 +387,18 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             if (file.partSize != null) {
                 builder.field(PART_SIZE, file.partSize.getBytes());
             }
+            // files are only stored as content chunks in repositories whose metadata version is on or after CONTENT_CHUNKS_VERSION,
+            // since older versions reject the field
+            if (file.contentChunks != null) {
+                builder.startArray(CONTENT_CHUNKS);
+                for (ContentChunk contentChunk : file.contentChunks) {
+                    builder.startObject();
+                    builder.field(CONTENT_CHUNK_HASH, contentChunk.hash());
+                    builder.field(CONTENT_CHUNK_LENGTH, contentChunk.length());
+                    builder.endObject();
+                }
+                builder.endArray();
+            }
 
             if (file.metadata.writtenBy() != null) {
                 builder.field(WRITTEN_BY, file.metadata.writtenBy());
@@ -295,6 +436,7 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             String writtenBy = null;
             BytesRef metaHash = new BytesRef();
             BytesRef writerUuid = UNAVAILABLE_WRITER_UUID;
+            List<ContentChunk> contentChunks = null;
             XContentParserUtils.ensureExpectedToken(token, XContentParser.Token.START_OBJECT, parser);
             while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
                 if (token == XContentParser.Token.FIELD_NAME) {
@@ -323,6 +465,11 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
                         } else {
                             XContentParserUtils.throwUnknownField(currentFieldName, parser.getTokenLocation());
                         }
+                    } else if (token == XContentParser.Token.START_ARRAY && CONTENT_CHUNKS.equals(currentFieldName)) {
+                        contentChunks = new ArrayList<>();
+                        while (parser.nextToken() != XContentParser.Token.END_ARRAY) {
+                            contentChunks.add(contentChunkFromXContent(parser));
+                        }
                     } else {
                         XContentParserUtils.throwUnknownToken(token, parser.getTokenLocation());
                     }
@@ -343,7 +490,35 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             } else if (checksum == null) {
                 throw new ElasticsearchParseException("missing checksum for name [" + name + "]");
             }
-            return new FileInfo(name, new StoreFileMetadata(physicalName, length, checksum, writtenBy, metaHash, writerUuid), partSize);
+            return new FileInfo(
+                name,
+                new StoreFileMetadata(physicalName, length, checksum, writtenBy, metaHash, writerUuid),
+                partSize,
+                contentChunks
+            );
+        }
+
+        private static ContentChunk contentChunkFromXContent(XContentParser parser) throws IOException {
+            XContentParserUtils.ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.currentToken(), parser);
+            String hash = null;
+            long length = -1;
+            XContentParser.Token token;
+            while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+                XContentParserUtils.ensureExpectedToken(XContentParser.Token.FIELD_NAME, token, parser);
+                final String currentFieldName = parser.currentName();
+                parser.nextToken();
+                if (CONTENT_CHUNK_HASH.equals(currentFieldName)) {
+                    hash = parser.text();
+                } else if (CONTENT_CHUNK_LENGTH.equals(currentFieldName)) {
+                    length = parser.longValue();
+                } else {
+                    XContentParserUtils.throwUnknownField(currentFieldName, parser.getTokenLocation());
+                }
+            }
+            if (hash == null || length <= 0) {
+                throw new ElasticsearchParseException("missing or invalid content chunk hash [" + hash + "] or length [" + length + "]");
+            }
+            return new ContentChunk(hash, length);
         }
 
         @Override
@@ -356,6 +531,7 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
                 + partSize
                 + ", partBytes: "
                 + partBytes
+                + (contentChunks == null ? "" : ", contentChunks: " + contentChunks)
                 + ", metadata: "
                 + metadata
                 + "]";
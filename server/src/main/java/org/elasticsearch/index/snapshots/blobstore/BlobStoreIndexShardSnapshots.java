@@ -20,9 +20,11 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static java.util.Collections.unmodifiableMap;
 
@@ -135,6 +137,23 @@ public class BlobStoreIndexShardSnapshots implements Iterable<SnapshotFiles>, To
         return files.get(name);
     }
 
+    /**
+     * Returns the names of the blobs of all content-defined chunks of the files in any of the snapshots
+     *
+     * @return set of chunk blob names, empty if no file was snapshotted with content-defined chunking
+     */
+    public Set<String> contentChunkBlobNames() {
+        final Set<String> blobNames = new HashSet<>();
+        for (FileInfo fileInfo : files.values()) {
+            if (fileInfo.contentChunks() != null) {
+                for (BlobStoreIndexShardSnapshot.ContentChunk contentChunk : fileInfo.contentChunks()) {
+                    blobNames.add(contentChunk.blobName());
+                }
+            }
+        }
+        return blobNames;
+    }
+
     @Override
     public Iterator<SnapshotFiles> iterator() {
         return shardSnapshots.iterator();
@@ -0,0 +1,102 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.index.snapshots.blobstore;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRunnable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.util.concurrent.ListenableFuture;
+import org.elasticsearch.core.internal.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link SlicedInputStream} that starts opening the next few slices on another thread while the current slice is being read, which hides
+ * the latency of opening a slice when that means sending a request to a blob store. Slices that were opened ahead of time but not read are
+ * closed when this stream is closed.
+ */
+public abstract class PrefetchingSlicedInputStream extends SlicedInputStream {
+
+    private final int numSlices;
+    private final int prefetchSlices;
+    private final Executor executor;
+    // only accessed by the thread reading this stream
+    private final List<ListenableFuture<InputStream>> prefetchedSlices;
+
+    /**
+     * @param numSlices      the number of slices to consume
+     * @param prefetchSlices the number of slices after the current one to open ahead of time
+     * @param executor       the executor on which to open slices ahead of time
+     */
+    protected PrefetchingSlicedInputStream(int numSlices, int prefetchSlices, Executor executor) {
+        super(numSlices);
+        this.numSlices = numSlices;
+        this.prefetchSlices = prefetchSlices;
+        this.executor = executor;
+        this.prefetchedSlices = new ArrayList<>(Collections.nCopies(numSlices, null));
+    }
+
+    /**
+     * Called for each logical slice given a zero based slice ordinal, possibly on a thread of the executor and ahead of time.
+     */
+    protected abstract InputStream openSliceAsync(int slice) throws IOException;
+
+    @Override
+    protected final InputStream openSlice(int slice) throws IOException {
+        for (int i = slice + 1; i < numSlices && i <= slice + prefetchSlices; i++) {
+            if (prefetchedSlices.get(i) == null) {
+                final int sliceToPrefetch = i;
+                final ListenableFuture<InputStream> future = new ListenableFuture<>();
+                prefetchedSlices.set(i, future);
+                try {
+                    executor.execute(ActionRunnable.supply(future, () -> openSliceAsync(sliceToPrefetch)));
+                } catch (EsRejectedExecutionException e) {
+                    future.onFailure(e);
+                }
+            }
+        }
+        final ListenableFuture<InputStream> future = prefetchedSlices.set(slice, null);
+        if (future == null) {
+            return openSliceAsync(slice);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while opening slice [" + slice + "]");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof EsRejectedExecutionException) {
+                // the executor is busy or shutting down, so open the slice on this thread instead
+                return openSliceAsync(slice);
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("failed to open slice [" + slice + "]", cause);
+        }
+    }
+
+    @Override
+    protected void onClose() {
+        for (int i = 0; i < numSlices; i++) {
+            final ListenableFuture<InputStream> future = prefetchedSlices.set(i, null);
+            if (future != null) {
+                future.addListener(ActionListener.wrap(IOUtils::closeWhileHandlingException, e -> {}));
+            }
+        }
+    }
+}
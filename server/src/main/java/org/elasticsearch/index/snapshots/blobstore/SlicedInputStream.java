@@ -88,11 +88,20 @@ public abstract class SlicedInputStream extends InputStream {
 
     @Override
     public final void close() throws IOException {
-        IOUtils.close(currentStream);
-        initialized = true;
-        currentStream = null;
+        try {
+            IOUtils.close(currentStream);
+        } finally {
+            initialized = true;
+            currentStream = null;
+            onClose();
+        }
     }
 
+    /**
+     * Called when this stream is closed, after the current slice has been closed.
+     */
+    protected void onClose() throws IOException {}
+
     @Override
     public final int available() throws IOException {
         InputStream stream = currentStream();
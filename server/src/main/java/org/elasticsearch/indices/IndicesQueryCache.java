@@ -20,22 +20,35 @@ import org.apache.lucene.search.QueryCachingPolicy;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.ScorerSupplier;
 import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
 import org.elasticsearch.common.lucene.ShardCoreKeyMap;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.Tuple;
+import org.elasticsearch.index.cache.query.QueryCacheFilterStats;
 import org.elasticsearch.index.cache.query.QueryCacheStats;
 import org.elasticsearch.index.shard.ShardId;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Predicate;
 
 public class IndicesQueryCache implements QueryCache, Closeable {
@@ -51,8 +64,31 @@ public class IndicesQueryCache implements QueryCache, Closeable {
     // enables caching on all segments instead of only the larger ones, for testing only
     public static final Setting<Boolean> INDICES_QUERIES_CACHE_ALL_SEGMENTS_SETTING =
             Setting.boolSetting("indices.queries.cache.all_segments", false, Property.NodeScope);
+    // whether filters are admitted based on how long their cache entries took to build, how large they are and how often they were
+    // reused, in addition to how often they are used
+    public static final Setting<Boolean> INDICES_QUERIES_CACHE_COST_AWARE_SETTING =
+            Setting.boolSetting("indices.queries.cache.cost_aware", false, Property.NodeScope);
+
+    // the memory that the filters whose usage is tracked may take, the least recently used ones are forgotten first
+    static final long MAX_TRACKED_FILTERS_RAM_BYTES = 1024 * 1024;
+    // the memory a filter that doesn't report it is assumed to take, like LRUQueryCache does
+    static final long QUERY_DEFAULT_RAM_BYTES_USED = 1024;
+    // the longest description of a filter that is reported in stats
+    static final int MAX_FILTER_DESCRIPTION_LENGTH = 1000;
+    // a filter whose cache entries saved at least this much build time per byte they take is worth caching
+    static final double MIN_SAVED_NANOS_PER_BYTE = 1d;
+    // how often a filter whose cache entries did not save enough build time must be used before it may be cached and measured again
+    static final long USES_BEFORE_REMEASURING = 32;
 
     private final LRUQueryCache cache;
+    private final boolean costAware;
+    private final Cache<Query, FilterUsage> filterUsages = CacheBuilder.<Query, FilterUsage>builder()
+        .setMaximumWeight(MAX_TRACKED_FILTERS_RAM_BYTES)
+        .weigher((query, usage) -> FilterUsage.SHALLOW_RAM_BYTES_USED
+            + (query instanceof Accountable ? ((Accountable) query).ramBytesUsed() : QUERY_DEFAULT_RAM_BYTES_USED))
+        .build();
+    // the filter that is currently looked up in the cache or whose cache entry may currently be built by this thread, if any
+    private final ThreadLocal<FilterBuild> currentBuild = new ThreadLocal<>();
     private final ShardCoreKeyMap shardKeyMap = new ShardCoreKeyMap();
     private final Map<ShardId, Stats> shardStats = new ConcurrentHashMap<>();
     private volatile long sharedRamBytesUsed;
@@ -72,9 +108,68 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         } else {
             cache = new ElasticsearchLRUQueryCache(count, size.getBytes());
         }
+        costAware = INDICES_QUERIES_CACHE_COST_AWARE_SETTING.get(settings);
         sharedRamBytesUsed = 0;
     }
 
+    /**
+     * Get the filters of the node whose cache entries saved the most time and the ones that were used the most while not being cached.
+     */
+    public QueryCacheStats getFilterStats() {
+        final Set<Query> cachedQueries = new HashSet<>(cache.cachedQueries());
+        final List<Tuple<Query, QueryCacheFilterStats>> cached = new ArrayList<>();
+        final List<Tuple<Query, QueryCacheFilterStats>> uncached = new ArrayList<>();
+        for (FilterUsage usage : filterUsages.values()) {
+            // the counts are taken once so that the filters are sorted consistently, the filters are only described for the top ones
+            final Tuple<Query, QueryCacheFilterStats> stats = Tuple.tuple(usage.query, usage.toStats(""));
+            if (cachedQueries.contains(usage.query)) {
+                cached.add(stats);
+            } else {
+                uncached.add(stats);
+            }
+        }
+        return QueryCacheStats.ofTopFilters(
+            topFilters(cached, QueryCacheFilterStats.BY_SAVED_TIME),
+            topFilters(uncached, QueryCacheFilterStats.BY_USE_COUNT)
+        );
+    }
+
+    private static List<QueryCacheFilterStats> topFilters(List<Tuple<Query, QueryCacheFilterStats>> filters,
+                                                          Comparator<QueryCacheFilterStats> comparator) {
+        filters.sort((a, b) -> comparator.compare(a.v2(), b.v2()));
+        final List<QueryCacheFilterStats> topFilters = new ArrayList<>();
+        for (Tuple<Query, QueryCacheFilterStats> filter : filters.subList(0, Math.min(filters.size(), QueryCacheStats.MAX_TOP_FILTERS))) {
+            final QueryCacheFilterStats stats = filter.v2();
+            String description = filter.v1().toString();
+            if (description.length() > MAX_FILTER_DESCRIPTION_LENGTH) {
+                description = description.substring(0, MAX_FILTER_DESCRIPTION_LENGTH) + "...";
+            }
+            topFilters.add(new QueryCacheFilterStats(description, stats.getUseCount(), stats.getHitCount(), stats.getMissCount(),
+                stats.getCacheCount(), stats.getBuildTime().nanos(), stats.getBuildSize().getBytes()));
+        }
+        return topFilters;
+    }
+
+    private FilterUsage getOrCreateUsage(Query query) {
+        try {
+            return filterUsages.computeIfAbsent(query, FilterUsage::new);
+        } catch (ExecutionException e) {
+            throw new AssertionError("creating a filter usage does not throw", e);
+        }
+    }
+
+    /**
+     * Get the usage of a filter that is looked up in the cache, which is usually the filter of the weight that this thread currently
+     * uses so that it doesn't need to be looked up again for every segment.
+     */
+    private FilterUsage getUsage(Query query) {
+        final FilterBuild build = currentBuild.get();
+        if (build != null && (build.usage.query == query || build.usage.query.equals(query))) {
+            return build.usage;
+        }
+        return getOrCreateUsage(query);
+    }
+
     /** Get usage statistics for the given shard. */
     public QueryCacheStats getStats(ShardId shard) {
         final Map<ShardId, QueryCacheStats> stats = new HashMap<>();
@@ -112,19 +207,79 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         while (weight instanceof CachingWeightWrapper) {
             weight = ((CachingWeightWrapper) weight).in;
         }
-        final Weight in = cache.doCache(weight, policy);
+        final FilterUsageCachingPolicy usagePolicy = new FilterUsageCachingPolicy(policy);
+        final Weight in = cache.doCache(weight, usagePolicy);
         // We wrap the weight to track the readers it sees and map them with
         // the shards they belong to
-        return new CachingWeightWrapper(in);
+        return new CachingWeightWrapper(in, usagePolicy);
+    }
+
+    /**
+     * Runs the given action, which may look up and build a cache entry for the given filter, so that the hits, misses and the time
+     * it took can be attributed to it.
+     */
+    private <T> T build(FilterUsage usage, CheckedSupplier<T, IOException> action) throws IOException {
+        final FilterBuild previous = currentBuild.get();
+        currentBuild.set(new FilterBuild(usage, System.nanoTime()));
+        try {
+            return action.get();
+        } finally {
+            currentBuild.set(previous);
+        }
+    }
+
+    /**
+     * Records how often filters are used, and with {@link #INDICES_QUERIES_CACHE_COST_AWARE_SETTING} also admits filters into the cache
+     * based on how much build time their earlier cache entries saved per byte.
+     */
+    private class FilterUsageCachingPolicy implements QueryCachingPolicy {
+
+        private final QueryCachingPolicy in;
+        // the usage of the filter of the weight that this policy is used for, looked up once rather than for every segment
+        private FilterUsage usage;
+
+        FilterUsageCachingPolicy(QueryCachingPolicy in) {
+            this.in = in;
+        }
+
+        FilterUsage usage(Query query) {
+            FilterUsage usage = this.usage;
+            if (usage == null) {
+                usage = getOrCreateUsage(query);
+                this.usage = usage;
+            }
+            return usage;
+        }
+
+        @Override
+        public void onUse(Query query) {
+            in.onUse(query);
+            usage(query).uses.increment();
+        }
+
+        @Override
+        public boolean shouldCache(Query query) throws IOException {
+            final boolean shouldCache = in.shouldCache(query);
+            if (costAware == false) {
+                return shouldCache;
+            }
+            return usage(query).shouldCache(shouldCache);
+        }
     }
 
     private class CachingWeightWrapper extends Weight {
 
         private final Weight in;
+        private final FilterUsageCachingPolicy policy;
 
-        protected CachingWeightWrapper(Weight in) {
+        protected CachingWeightWrapper(Weight in, FilterUsageCachingPolicy policy) {
             super(in.getQuery());
             this.in = in;
+            this.policy = policy;
+        }
+
+        private <T> T build(CheckedSupplier<T, IOException> action) throws IOException {
+            return IndicesQueryCache.this.build(policy.usage(getQuery()), action);
         }
 
         @Override
@@ -136,19 +291,34 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         @Override
         public Scorer scorer(LeafReaderContext context) throws IOException {
             shardKeyMap.add(context.reader());
-            return in.scorer(context);
+            return build(() -> in.scorer(context));
         }
 
         @Override
         public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
             shardKeyMap.add(context.reader());
-            return in.scorerSupplier(context);
+            final ScorerSupplier supplier = build(() -> in.scorerSupplier(context));
+            if (supplier == null) {
+                return null;
+            }
+            // the cache entry may only be built once the scorer is pulled
+            return new ScorerSupplier() {
+                @Override
+                public Scorer get(long leadCost) throws IOException {
+                    return build(() -> supplier.get(leadCost));
+                }
+
+                @Override
+                public long cost() {
+                    return supplier.cost();
+                }
+            };
         }
 
         @Override
         public BulkScorer bulkScorer(LeafReaderContext context) throws IOException {
             shardKeyMap.add(context.reader());
-            return in.bulkScorer(context);
+            return build(() -> in.bulkScorer(context));
         }
 
         @Override
@@ -170,6 +340,7 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         // probably means that the user wanted to remove everything.
         if (cache.getCacheSize() == 0) {
             cache.clear();
+            filterUsages.invalidateAll();
         }
     }
 
@@ -183,6 +354,83 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         // we only know that there are no more doc id sets, but we still track
         // recently used queries, which we want to reclaim.
         cache.clear();
+        filterUsages.invalidateAll();
+    }
+
+    /**
+     * How often a filter was used and looked up in the cache, and how long it took to build its cache entries.
+     */
+    // package private for testing
+    static class FilterUsage {
+        static final long SHALLOW_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(FilterUsage.class)
+            + 6 * RamUsageEstimator.shallowSizeOfInstance(LongAdder.class);
+
+        final Query query;
+        final LongAdder uses = new LongAdder();
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder cacheCount = new LongAdder();
+        final LongAdder buildTimeInNanos = new LongAdder();
+        final LongAdder buildSizeInBytes = new LongAdder();
+        // the number of uses when the last cache entry of this filter was built
+        volatile long usesAtLastCache;
+
+        FilterUsage(Query query) {
+            this.query = query;
+        }
+
+        void onCache(long tookInNanos, long ramBytesUsed) {
+            cacheCount.increment();
+            buildTimeInNanos.add(tookInNanos);
+            buildSizeInBytes.add(ramBytesUsed);
+            usesAtLastCache = uses.sum();
+        }
+
+        /**
+         * The build time that cache entries of this filter saved so far per byte that they took, assuming that each hit on a segment
+         * would otherwise have built an entry for that segment as long as the average one.
+         */
+        double savedNanosPerByte() {
+            final long cacheCount = this.cacheCount.sum();
+            if (cacheCount == 0) {
+                return 0d;
+            }
+            final double averageBuildTimeInNanos = (double) buildTimeInNanos.sum() / cacheCount;
+            return averageBuildTimeInNanos * hits.sum() / Math.max(1L, buildSizeInBytes.sum());
+        }
+
+        /**
+         * Whether to cache this filter on a segment, given whether the wrapped policy would cache it because it is used frequently.
+         */
+        boolean shouldCache(boolean frequentlyUsed) {
+            if (cacheCount.sum() == 0) {
+                // nothing measured yet
+                return frequentlyUsed;
+            }
+            // a filter that is cheap to build but takes a lot of space is not cached even if it is frequently used, and a filter that
+            // is expensive to build is cached again after being evicted even if it is not used frequently enough
+            if (savedNanosPerByte() >= MIN_SAVED_NANOS_PER_BYTE) {
+                return true;
+            }
+            // hits are only counted while the filter is cached, so the measurements of a filter that is no longer cached never improve:
+            // once it has been used frequently again since its last cache entry was built, it is cached and measured again
+            return frequentlyUsed && uses.sum() - usesAtLastCache >= USES_BEFORE_REMEASURING;
+        }
+
+        QueryCacheFilterStats toStats(String description) {
+            return new QueryCacheFilterStats(description, uses.sum(), hits.sum(), misses.sum(), cacheCount.sum(),
+                buildTimeInNanos.sum(), buildSizeInBytes.sum());
+        }
+    }
+
+    private static class FilterBuild {
+        final FilterUsage usage;
+        final long startTimeInNanos;
+
+        FilterBuild(FilterUsage usage, long startTimeInNanos) {
+            this.usage = usage;
+            this.startTimeInNanos = startTimeInNanos;
+        }
     }
 
     private static class Stats implements Cloneable {
@@ -293,6 +541,11 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         @Override
         protected void onDocIdSetCache(Object readerCoreKey, long ramBytesUsed) {
             super.onDocIdSetCache(readerCoreKey, ramBytesUsed);
+            // the doc id set is cached by the thread that built it, right after building it
+            final FilterBuild build = currentBuild.get();
+            if (build != null) {
+                build.usage.onCache(System.nanoTime() - build.startTimeInNanos, ramBytesUsed);
+            }
             final Stats shardStats = getOrCreateStats(readerCoreKey);
             shardStats.cacheSize += 1;
             shardStats.cacheCount += 1;
@@ -334,6 +587,7 @@ public class IndicesQueryCache implements QueryCache, Closeable {
             super.onHit(readerCoreKey, filter);
             final Stats shardStats = getStats(readerCoreKey);
             shardStats.hitCount += 1;
+            getUsage(filter).hits.increment();
         }
 
         @Override
@@ -341,6 +595,7 @@ public class IndicesQueryCache implements QueryCache, Closeable {
             super.onMiss(readerCoreKey, filter);
             final Stats shardStats = getOrCreateStats(readerCoreKey);
             shardStats.missCount += 1;
+            getUsage(filter).misses.increment();
         }
     }
 }
@@ -186,6 +186,8 @@ public class IndicesService extends AbstractLifecycleComponent
         Setting.Property.NodeScope
     );
 
+    private static final String FIELDDATA_TERMS_FOLDER = "fielddata";
+
     /**
      * The node's settings.
      */
@@ -285,7 +287,7 @@ public class IndicesService extends AbstractLifecycleComponent
                     "equal to 0 and not [" + sizeInBytes + "]";
                 circuitBreakerService.getBreaker(CircuitBreaker.FIELDDATA).addWithoutBreaking(-sizeInBytes);
             }
-        });
+        }, nodeEnv.hasNodeFile() ? nodeEnv.nodeDataPath().resolve(FIELDDATA_TERMS_FOLDER) : null);
         this.cleanInterval = INDICES_CACHE_CLEAN_INTERVAL_SETTING.get(settings);
         this.cacheCleaner = new CacheCleaner(indicesFieldDataCache, indicesRequestCache,  logger, threadPool, this.cleanInterval);
         this.metaStateService = metaStateService;
@@ -424,6 +426,10 @@ public class IndicesService extends AbstractLifecycleComponent
                 case Bulk:
                     commonStats.bulk.add(oldShardsStats.bulkStats);
                     break;
+                case QueryCache:
+                    // the usage of filters is only tracked for the node as a whole
+                    commonStats.queryCache.add(indicesQueryCache.getFilterStats());
+                    break;
             }
         }
 
@@ -14,28 +14,43 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexReader.CacheKey;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.util.Accountable;
 import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.RefCounted;
 import org.elasticsearch.common.cache.Cache;
 import org.elasticsearch.common.cache.CacheBuilder;
 import org.elasticsearch.common.cache.RemovalListener;
 import org.elasticsearch.common.cache.RemovalNotification;
 import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.fielddata.LeafFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fielddata.IndexOrdinalsFieldData;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.ToLongBiFunction;
 
 public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCache.Key, Accountable>, Releasable{
@@ -44,11 +59,39 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
 
     public static final Setting<ByteSizeValue> INDICES_FIELDDATA_CACHE_SIZE_KEY =
         Setting.memorySizeSetting("indices.fielddata.cache.size", new ByteSizeValue(-1), Property.NodeScope);
+    /**
+     * Whether the bytes of the terms of {@code text} field data are written to memory-mapped files in the node's data path rather than
+     * kept on heap. The ordinals of each document and the offsets of the terms remain on heap and are still accounted to the fielddata
+     * circuit breaker, but the terms themselves are bounded by the filesystem cache instead.
+     */
+    public static final Setting<Boolean> INDICES_FIELDDATA_MEMORY_MAPPED_TERMS_SETTING =
+        Setting.boolSetting("indices.fielddata.memory_mapped_terms", false, Property.NodeScope);
     private final IndexFieldDataCache.Listener indicesFieldDataCacheListener;
     private final Cache<Key, Accountable> cache;
+    @Nullable
+    private final Directory termsDirectory;
 
     public IndicesFieldDataCache(Settings settings, IndexFieldDataCache.Listener indicesFieldDataCacheListener) {
+        this(settings, indicesFieldDataCacheListener, null);
+    }
+
+    /**
+     * @param termsPath the directory to write the terms of field data to if {@link #INDICES_FIELDDATA_MEMORY_MAPPED_TERMS_SETTING} is
+     *                  enabled, or {@code null} to always keep them on heap. Its contents are deleted since they are only valid for the
+     *                  lifetime of a node.
+     */
+    public IndicesFieldDataCache(Settings settings, IndexFieldDataCache.Listener indicesFieldDataCacheListener, @Nullable Path termsPath) {
         this.indicesFieldDataCacheListener = indicesFieldDataCacheListener;
+        if (termsPath != null && INDICES_FIELDDATA_MEMORY_MAPPED_TERMS_SETTING.get(settings)) {
+            try {
+                IOUtils.rm(termsPath);
+                this.termsDirectory = new MMapDirectory(Files.createDirectories(termsPath));
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to create field data terms directory [" + termsPath + "]", e);
+            }
+        } else {
+            this.termsDirectory = null;
+        }
         final long sizeInBytes = INDICES_FIELDDATA_CACHE_SIZE_KEY.get(settings).getBytes();
         CacheBuilder<Key, Accountable> cacheBuilder = CacheBuilder.<Key, Accountable>builder()
                 .removalListener(this);
@@ -61,10 +104,15 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
     @Override
     public void close() {
         cache.invalidateAll();
+        try {
+            IOUtils.close(termsDirectory);
+        } catch (IOException e) {
+            logger.warn("failed to close field data terms directory", e);
+        }
     }
 
     public IndexFieldDataCache buildIndexFieldDataCache(IndexFieldDataCache.Listener listener, Index index, String fieldName) {
-        return new IndexFieldCache(logger, cache, index, fieldName, indicesFieldDataCacheListener, listener);
+        return new IndexFieldCache(logger, cache, index, fieldName, termsDirectory, indicesFieldDataCacheListener, listener);
     }
 
     public Cache<Key, Accountable> getCache() {
@@ -88,6 +136,10 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
                 logger.error("Failed to call listener on field data cache unloading", e);
             }
         }
+        if (value instanceof RefCounted) {
+            // releases the reference of the cache, the field data is only closed once the readers that loaded it are closed too
+            ((LeafFieldData) value).close();
+        }
     }
 
     public static class FieldDataWeigher implements ToLongBiFunction<Key, Accountable> {
@@ -106,14 +158,34 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
         final Index index;
         final String fieldName;
         private final Cache<Key, Accountable> cache;
+        @Nullable
+        private final Directory termsDirectory;
         private final Listener[] listeners;
+        /**
+         * The keys of the cached global field data that the open readers use, by the cache key of the reader. Global ordinals are
+         * shared by the readers that have the same segments with values for the field, so they are only invalidated once all of these
+         * readers are closed.
+         */
+        private final ConcurrentMap<CacheKey, Key> readerGlobalKeys = ConcurrentCollections.newConcurrentMap();
+        /**
+         * The reference counted field data that the open readers hold a reference to, by the cache key of the reader. This field data
+         * stays usable by these readers if it is evicted from the cache, and is released once all of them are closed.
+         */
+        private final ConcurrentMap<CacheKey, Set<RefCounted>> readerRetainedFieldData = ConcurrentCollections.newConcurrentMap();
 
-        IndexFieldCache(Logger logger,final Cache<Key, Accountable> cache, Index index, String fieldName, Listener... listeners) {
+        IndexFieldCache(Logger logger, final Cache<Key, Accountable> cache, Index index, String fieldName,
+                        @Nullable Directory termsDirectory, Listener... listeners) {
             this.logger = logger;
             this.listeners = listeners;
             this.index = index;
             this.fieldName = fieldName;
             this.cache = cache;
+            this.termsDirectory = termsDirectory;
+        }
+
+        @Override
+        public Directory getTermsDirectory() {
+            return termsDirectory;
         }
 
         @Override
@@ -125,14 +197,25 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
             if (cacheHelper == null) {
                 throw new IllegalArgumentException("Reader " + context.reader() + " does not support caching");
             }
-            final Key key = new Key(this, cacheHelper.getKey(), shardId);
-            final Accountable accountable = cache.computeIfAbsent(key, k -> {
+            while (true) {
+                final Key key = new Key(this, cacheHelper.getKey(), shardId);
+                final Accountable accountable = loadLeaf(key, context, cacheHelper, indexFieldData);
+                if (accountable instanceof RefCounted == false || retain(context, cacheHelper, (RefCounted) accountable)) {
+                    return (FD) accountable;
+                }
+                // the field data was evicted and released concurrently, load it again
+            }
+        }
+
+        private <FD extends LeafFieldData, IFD extends IndexFieldData<FD>> Accountable loadLeaf(Key key, LeafReaderContext context,
+                IndexReader.CacheHelper cacheHelper, IFD indexFieldData) throws Exception {
+            return cache.computeIfAbsent(key, k -> {
                 cacheHelper.addClosedListener(IndexFieldCache.this);
                 Collections.addAll(k.listeners, this.listeners);
                 final LeafFieldData fieldData = indexFieldData.loadDirect(context);
                 for (Listener listener : k.listeners) {
                     try {
-                        listener.onCache(shardId, fieldName, fieldData);
+                        listener.onCache(k.shardId, fieldName, fieldData);
                     } catch (Exception e) {
                         // load anyway since listeners should not throw exceptions
                         logger.error("Failed to call listener on atomic field data loading", e);
@@ -140,7 +223,35 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
                 }
                 return fieldData;
             });
-            return (FD) accountable;
+        }
+
+        /**
+         * Acquires a reference to the given field data on behalf of the top-level reader of the given context, unless it already holds
+         * one, which is released once the reader is closed. Readers that do not support caching hold their reference until the
+         * segment is closed instead.
+         *
+         * @return whether the reader holds a reference, which is not the case if the field data was released already
+         */
+        private boolean retain(LeafReaderContext context, IndexReader.CacheHelper coreCacheHelper, RefCounted fieldData) {
+            IndexReader.CacheHelper readerCacheHelper = ReaderUtil.getTopLevelContext(context).reader().getReaderCacheHelper();
+            if (readerCacheHelper == null) {
+                readerCacheHelper = coreCacheHelper;
+            }
+            final IndexReader.CacheHelper finalReaderCacheHelper = readerCacheHelper;
+            final Set<RefCounted> retained = readerRetainedFieldData.computeIfAbsent(readerCacheHelper.getKey(), k -> {
+                finalReaderCacheHelper.addClosedListener(IndexFieldCache.this);
+                return ConcurrentCollections.newConcurrentSet();
+            });
+            if (retained.contains(fieldData)) {
+                return true;
+            }
+            if (fieldData.tryIncRef() == false) {
+                return false;
+            }
+            if (retained.add(fieldData) == false) {
+                fieldData.decRef();
+            }
+            return true;
         }
 
         @Override
@@ -152,14 +263,41 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
             if (cacheHelper == null) {
                 throw new IllegalArgumentException("Reader " + indexReader + " does not support caching");
             }
-            final Key key = new Key(this, cacheHelper.getKey(), shardId);
-            final Accountable accountable = cache.computeIfAbsent(key, k -> {
+            final Key key = new Key(this, globalReaderKey(indexReader, indexFieldData), shardId);
+            final boolean newReader = readerGlobalKeys.putIfAbsent(cacheHelper.getKey(), key) == null;
+            if (newReader) {
                 ElasticsearchDirectoryReader.addReaderCloseListener(indexReader, IndexFieldCache.this);
+            }
+            final boolean[] loaded = new boolean[1];
+            Accountable accountable = loadGlobal(key, indexReader, indexFieldData, loaded);
+            if (accountable instanceof GlobalOrdinalsIndexFieldData
+                    && ((GlobalOrdinalsIndexFieldData) accountable).getMaxSegments() < indexReader.leaves().size()) {
+                // the cached global ordinals were built for fewer segments than this reader has, build them again for this reader
+                cache.invalidate(key, accountable);
+                accountable = loadGlobal(key, indexReader, indexFieldData, loaded);
+            }
+            if (newReader && loaded[0] == false) {
+                for (Listener listener : listeners) {
+                    try {
+                        listener.onReuse(shardId, fieldName, accountable);
+                    } catch (Exception e) {
+                        // load anyway since listeners should not throw exceptions
+                        logger.error("Failed to call listener on global ordinals reuse", e);
+                    }
+                }
+            }
+            return (IFD) accountable;
+        }
+
+        private <FD extends LeafFieldData, IFD extends IndexFieldData.Global<FD>> Accountable loadGlobal(Key key,
+                DirectoryReader indexReader, IFD indexFieldData, boolean[] loaded) throws Exception {
+            return cache.computeIfAbsent(key, k -> {
+                loaded[0] = true;
                 Collections.addAll(k.listeners, this.listeners);
                 final Accountable ifd = (Accountable) indexFieldData.loadGlobalDirect(indexReader);
                 for (Listener listener : k.listeners) {
                     try {
-                        listener.onCache(shardId, fieldName, ifd);
+                        listener.onCache(k.shardId, fieldName, ifd);
                     } catch (Exception e) {
                         // load anyway since listeners should not throw exceptions
                         logger.error("Failed to call listener on global ordinals loading", e);
@@ -167,12 +305,47 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
                 }
                 return ifd;
             });
-            return (IFD) accountable;
+        }
+
+        /**
+         * The key to cache the global field data of a reader under. Global ordinals only depend on the segments that have values for
+         * the field, so they are cached by the core keys of the segments up to the last one that has the field. Readers that only
+         * differ by the segments after it, like a refresh that only adds the tombstones of deleted documents, share them.
+         */
+        private static Object globalReaderKey(DirectoryReader indexReader, IndexFieldData.Global<?> indexFieldData) {
+            final CacheKey readerKey = indexReader.getReaderCacheHelper().getKey();
+            if (indexFieldData instanceof IndexOrdinalsFieldData == false) {
+                return readerKey;
+            }
+            final List<LeafReaderContext> leaves = indexReader.leaves();
+            int numberOfSegments = 0;
+            for (int i = 0; i < leaves.size(); i++) {
+                if (leaves.get(i).reader().getFieldInfos().fieldInfo(indexFieldData.getFieldName()) != null) {
+                    numberOfSegments = i + 1;
+                }
+            }
+            final CacheKey[] coreKeys = new CacheKey[numberOfSegments];
+            for (int i = 0; i < coreKeys.length; i++) {
+                final IndexReader.CacheHelper cacheHelper = leaves.get(i).reader().getCoreCacheHelper();
+                if (cacheHelper == null) {
+                    return readerKey;
+                }
+                coreKeys[i] = cacheHelper.getKey();
+            }
+            return new SegmentsKey(coreKeys);
         }
 
         @Override
         public void onClose(CacheKey key) {
             cache.invalidate(new Key(this, key, null));
+            final Set<RefCounted> retained = readerRetainedFieldData.remove(key);
+            if (retained != null) {
+                retained.forEach(RefCounted::decRef);
+            }
+            final Key globalKey = readerGlobalKeys.remove(key);
+            if (globalKey != null && readerGlobalKeys.containsValue(globalKey) == false) {
+                cache.invalidate(globalKey);
+            }
             // don't call cache.cleanUp here as it would have bad performance implications
         }
 
@@ -203,14 +376,40 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
         }
     }
 
+    /**
+     * The cache keys of the cores of segments, in order.
+     */
+    private static final class SegmentsKey {
+        private final CacheKey[] coreKeys;
+
+        SegmentsKey(CacheKey[] coreKeys) {
+            this.coreKeys = coreKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            return Arrays.equals(coreKeys, ((SegmentsKey) o).coreKeys);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(coreKeys);
+        }
+    }
+
     public static class Key {
         public final IndexFieldCache indexCache;
-        public final IndexReader.CacheKey readerKey;
+        /**
+         * The {@link IndexReader.CacheKey} of the reader, or the keys of the segments that global ordinals are cached for.
+         */
+        public final Object readerKey;
         public final ShardId shardId;
 
         public final List<IndexFieldDataCache.Listener> listeners = new ArrayList<>();
 
-        Key(IndexFieldCache indexCache, IndexReader.CacheKey readerKey, @Nullable ShardId shardId) {
+        Key(IndexFieldCache indexCache, Object readerKey, @Nullable ShardId shardId) {
             this.indexCache = indexCache;
             this.readerKey = readerKey;
             this.shardId = shardId;
@@ -0,0 +1,101 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.common.unit.ByteSizeUnit;
+
+/**
+ * Adapts the size and the number of in-flight file chunks of a peer recovery to the round-trip times of the chunks, in the style of TCP
+ * congestion control. The target only acknowledges a chunk once it has written it to disk, so the round-trip time covers both the network
+ * and the disk of the target.
+ * <p>
+ * The round-trip time of each full-sized chunk is compared with the smallest round-trip time seen so far, scaled to the current chunk size.
+ * Once per window of acknowledgements the window is adjusted: if any chunk in the window took more than {@link #CONGESTION_RTT_FACTOR}
+ * times the minimum round-trip time then the window is halved, or the chunk size is halved if the window is already a single chunk.
+ * Otherwise the window grows by one chunk, or the chunk size doubles if the window is already at its maximum. The chunk size stays between
+ * {@link #MIN_CHUNK_SIZE_IN_BYTES} (or the initial chunk size if smaller) and the given maximum, so the memory used for in-flight chunks on
+ * both nodes stays bounded. Throttling with {@code indices.recovery.max_bytes_per_sec} still applies on top of this.
+ */
+final class FileChunkCongestionControl {
+
+    static final int MIN_CHUNK_SIZE_IN_BYTES = Math.toIntExact(ByteSizeUnit.KB.toBytes(64));
+
+    static final int CONGESTION_RTT_FACTOR = 2;
+
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final int maxWindow;
+
+    private int chunkSize;
+    private int window;
+    private long minRttNanos = Long.MAX_VALUE;
+    private int acknowledgedInWindow;
+    private boolean congestedInWindow;
+
+    FileChunkCongestionControl(int initialChunkSize, int maxChunkSize, int maxWindow) {
+        assert 0 < initialChunkSize && initialChunkSize <= maxChunkSize : initialChunkSize + " vs " + maxChunkSize;
+        assert maxWindow > 0 : maxWindow;
+        this.minChunkSize = Math.min(MIN_CHUNK_SIZE_IN_BYTES, initialChunkSize);
+        this.maxChunkSize = maxChunkSize;
+        this.maxWindow = maxWindow;
+        this.chunkSize = initialChunkSize;
+        this.window = maxWindow;
+    }
+
+    /**
+     * @return the number of bytes to send in each chunk that is not the last chunk of its file.
+     */
+    synchronized int chunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return the number of chunks that may be in flight at once.
+     */
+    synchronized int window() {
+        return window;
+    }
+
+    /**
+     * Records the acknowledgement of a chunk of the given size that was sent the given number of nanoseconds ago.
+     */
+    synchronized void onChunkAcknowledged(int chunkLength, long rttNanos) {
+        if (chunkLength != chunkSize) {
+            // the last chunk of a file, or a chunk sent before the last resize, which says little about the current chunk size
+            return;
+        }
+        minRttNanos = Math.min(minRttNanos, rttNanos);
+        if (rttNanos > minRttNanos * CONGESTION_RTT_FACTOR) {
+            congestedInWindow = true;
+        }
+        if (++acknowledgedInWindow < window) {
+            return;
+        }
+
+        final int previousChunkSize = chunkSize;
+        if (congestedInWindow) {
+            if (window > 1) {
+                window = Math.max(1, window / 2);
+            } else {
+                chunkSize = Math.max(minChunkSize, chunkSize / 2);
+            }
+        } else if (window < maxWindow) {
+            window += 1;
+        } else {
+            chunkSize = (int) Math.min(maxChunkSize, 2L * chunkSize);
+        }
+        if (chunkSize != previousChunkSize) {
+            // scale the minimum round-trip time with the chunk size; this underestimates it for smaller chunks, which have relatively more
+            // fixed overhead, but never by enough to mistake that overhead for congestion
+            minRttNanos = minRttNanos * chunkSize / previousChunkSize;
+        }
+        acknowledgedInWindow = 0;
+        congestedInWindow = false;
+    }
+}
@@ -98,7 +98,7 @@ public abstract class MultiChunkTransfer<Source, Request extends MultiChunkTrans
                     throw resp.failure;
                 }
             }
-            while (requestSeqIdTracker.getMaxSeqNo() - requestSeqIdTracker.getProcessedCheckpoint() < maxConcurrentChunks) {
+            while (requestSeqIdTracker.getMaxSeqNo() - requestSeqIdTracker.getProcessedCheckpoint() < maxConcurrentChunks()) {
                 final Tuple<Source, Request> request = readAheadRequest != null ? readAheadRequest : getNextRequest();
                 readAheadRequest = null;
                 if (request == null) {
@@ -123,6 +123,14 @@ public abstract class MultiChunkTransfer<Source, Request extends MultiChunkTrans
         }
     }
 
+    /**
+     * @return the number of chunk requests that may currently be outstanding. Subclasses may override this to adapt the number of
+     * outstanding requests as the transfer progresses, but it must always be between 1 and the limit given to the constructor.
+     */
+    protected int maxConcurrentChunks() {
+        return maxConcurrentChunks;
+    }
+
     protected boolean assertOnSuccess() {
         return true;
     }
@@ -105,6 +105,9 @@ import static org.elasticsearch.common.util.CollectionUtils.concatLists;
  */
 public class RecoverySourceHandler {
 
+    // With adaptive chunking, file chunks may grow up to this many times the configured chunk size
+    static final int ADAPTIVE_MAX_CHUNK_SIZE_FACTOR = 4;
+
     protected final Logger logger;
     // Shard that is going to be recovered (the "source")
     private final IndexShard shard;
@@ -114,6 +117,7 @@ public class RecoverySourceHandler {
     private final int chunkSizeInBytes;
     private final RecoveryTargetHandler recoveryTarget;
     private final int maxConcurrentFileChunks;
+    private final boolean adaptiveChunking;
     private final int maxConcurrentOperations;
     private final int maxConcurrentSnapshotFileDownloads;
     private final boolean useSnapshots;
@@ -127,6 +131,18 @@ public class RecoverySourceHandler {
                                  StartRecoveryRequest request, int fileChunkSizeInBytes, int maxConcurrentFileChunks,
                                  int maxConcurrentOperations, int maxConcurrentSnapshotFileDownloads, boolean useSnapshots,
                                  RecoveryPlannerService recoveryPlannerService) {
+        this(shard, recoveryTarget, threadPool, request, fileChunkSizeInBytes, maxConcurrentFileChunks, false, maxConcurrentOperations,
+            maxConcurrentSnapshotFileDownloads, useSnapshots, recoveryPlannerService);
+    }
+
+    /**
+     * @param adaptiveChunking whether to adapt the size and number of in-flight file chunks to the observed round-trip times, starting
+     *                         from {@code fileChunkSizeInBytes} and never exceeding {@code maxConcurrentFileChunks} in-flight chunks.
+     */
+    public RecoverySourceHandler(IndexShard shard, RecoveryTargetHandler recoveryTarget, ThreadPool threadPool,
+                                 StartRecoveryRequest request, int fileChunkSizeInBytes, int maxConcurrentFileChunks,
+                                 boolean adaptiveChunking, int maxConcurrentOperations, int maxConcurrentSnapshotFileDownloads,
+                                 boolean useSnapshots, RecoveryPlannerService recoveryPlannerService) {
         this.shard = shard;
         this.recoveryTarget = recoveryTarget;
         this.threadPool = threadPool;
@@ -136,6 +152,7 @@ public class RecoverySourceHandler {
         this.logger = Loggers.getLogger(getClass(), request.shardId(), "recover to " + request.targetNode().getName());
         this.chunkSizeInBytes = fileChunkSizeInBytes;
         this.maxConcurrentFileChunks = maxConcurrentFileChunks;
+        this.adaptiveChunking = adaptiveChunking;
         this.maxConcurrentOperations = maxConcurrentOperations;
         this.maxConcurrentSnapshotFileDownloads = maxConcurrentSnapshotFileDownloads;
         this.useSnapshots = useSnapshots;
@@ -1093,8 +1110,12 @@ public class RecoverySourceHandler {
 
     void sendFiles(Store store, StoreFileMetadata[] files, IntSupplier translogOps, ActionListener<Void> listener) {
         ArrayUtil.timSort(files, Comparator.comparingLong(StoreFileMetadata::length)); // send smallest first
+        final int maxChunkSizeInBytes = adaptiveChunking ? ADAPTIVE_MAX_CHUNK_SIZE_FACTOR * chunkSizeInBytes : chunkSizeInBytes;
+        final FileChunkCongestionControl congestionControl = adaptiveChunking
+            ? new FileChunkCongestionControl(chunkSizeInBytes, maxChunkSizeInBytes, maxConcurrentFileChunks)
+            : null;
         // use a smaller buffer than the configured chunk size if we only have files smaller than the chunk size
-        final int bufferSize = files.length == 0 ? 0 : (int) Math.min(chunkSizeInBytes, files[files.length - 1].length());
+        final int bufferSize = files.length == 0 ? 0 : (int) Math.min(maxChunkSizeInBytes, files[files.length - 1].length());
         Releasable temporaryStoreRef = acquireStore(store);
         try {
             final Releasable storeRef = temporaryStoreRef;
@@ -1129,7 +1150,8 @@ public class RecoverySourceHandler {
                         }
                         final byte[] buffer = Objects.requireNonNullElseGet(buffers.pollFirst(), () -> new byte[bufferSize]);
                         assert liveBufferCount.incrementAndGet() > 0;
-                        final int toRead = Math.toIntExact(Math.min(md.length() - offset, buffer.length));
+                        final int chunkSize = congestionControl == null ? buffer.length : congestionControl.chunkSize();
+                        final int toRead = Math.toIntExact(Math.min(md.length() - offset, Math.min(buffer.length, chunkSize)));
                         currentInput.readBytes(buffer, 0, toRead, false);
                         final boolean lastChunk = offset + toRead == md.length();
                         final FileChunk chunk = new FileChunk(md, new BytesArray(buffer, 0, toRead), offset, lastChunk,
@@ -1145,9 +1167,22 @@ public class RecoverySourceHandler {
                     protected void executeChunkRequest(FileChunk request, ActionListener<Void> listener) {
                         cancellableThreads.checkForCancel();
                         final ReleasableBytesReference content = new ReleasableBytesReference(request.content, request);
+                        ActionListener<Void> chunkListener = ActionListener.runBefore(listener, content::close);
+                        if (congestionControl != null) {
+                            final int chunkLength = request.content.length();
+                            final long startNanos = System.nanoTime();
+                            chunkListener = chunkListener.map(r -> {
+                                congestionControl.onChunkAcknowledged(chunkLength, System.nanoTime() - startNanos);
+                                return r;
+                            });
+                        }
                         recoveryTarget.writeFileChunk(
-                            request.md, request.position, content, request.lastChunk,
-                                translogOps.getAsInt(), ActionListener.runBefore(listener, content::close));
+                            request.md, request.position, content, request.lastChunk, translogOps.getAsInt(), chunkListener);
+                    }
+
+                    @Override
+                    protected int maxConcurrentChunks() {
+                        return congestionControl == null ? maxConcurrentFileChunks : congestionControl.window();
                     }
 
                     @Override
@@ -361,6 +361,7 @@ public class RecoveryState implements ToXContentFragment, Writeable {
         static final String SOURCE_THROTTLE_TIME_IN_MILLIS = "source_throttle_time_in_millis";
         static final String TARGET_THROTTLE_TIME = "target_throttle_time";
         static final String TARGET_THROTTLE_TIME_IN_MILLIS = "target_throttle_time_in_millis";
+        static final String THROUGHPUT_IN_BYTES_PER_SECOND = "throughput_in_bytes_per_second";
     }
 
     public static class Timer implements Writeable {
@@ -926,6 +927,14 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             return TimeValue.timeValueNanos(targetThrottleTimeInNanos);
         }
 
+        /**
+         * average number of bytes recovered per second since this stage started, or {@code 0} if no time has passed yet
+         */
+        public synchronized long recoveredBytesPerSecond() {
+            final long timeInMillis = time();
+            return timeInMillis <= 0 ? 0 : recoveredBytes() * 1000 / timeInMillis;
+        }
+
         /**
          * total number of files that are part of this recovery, both re-used and recovered
          */
@@ -1110,6 +1119,7 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             builder.humanReadableField(Fields.TOTAL_TIME_IN_MILLIS, Fields.TOTAL_TIME, new TimeValue(time()));
             builder.humanReadableField(Fields.SOURCE_THROTTLE_TIME_IN_MILLIS, Fields.SOURCE_THROTTLE_TIME, sourceThrottling());
             builder.humanReadableField(Fields.TARGET_THROTTLE_TIME_IN_MILLIS, Fields.TARGET_THROTTLE_TIME, targetThrottling());
+            builder.field(Fields.THROUGHPUT_IN_BYTES_PER_SECOND, recoveredBytesPerSecond());
             return builder;
         }
 
@@ -0,0 +1,379 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.lucene.util;
+
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.BitSet;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A read-only {@link BitSet} that is compressed the way roaring bitmaps are: the bits are split into blocks of 65536 and the set
+ * bits of each block are stored either as a sorted array, as a bitmap or as runs of consecutive bits, whichever takes the least
+ * memory. Sets whose bits are sparse or clustered, such as the parent documents of nested documents, take much less memory than
+ * with a {@link FixedBitSet}, while {@link #nextSetBit(int)} and {@link #prevSetBit(int)} only need to look at the block of the
+ * given index and skip empty blocks.
+ */
+public final class RoaringBitSet extends BitSet {
+
+    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(RoaringBitSet.class);
+
+    static final int BLOCK_SHIFT = 16;
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    // the number of longs of a bitmap, beyond 4096 set bits a bitmap takes less memory than an array
+    static final int BITMAP_WORDS = BLOCK_SIZE / Long.SIZE;
+
+    private final Container[] containers;
+    private final int length;
+    private final int cardinality;
+
+    private RoaringBitSet(Container[] containers, int length, int cardinality) {
+        this.containers = containers;
+        this.length = length;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * Build a {@link RoaringBitSet} with the documents of the given iterator.
+     */
+    public static RoaringBitSet of(DocIdSetIterator it, int maxDoc) throws IOException {
+        final Container[] containers = new Container[(maxDoc + BLOCK_MASK) >>> BLOCK_SHIFT];
+        final ContainerBuilder builder = new ContainerBuilder();
+        int cardinality = 0;
+        int currentBlock = -1;
+        for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
+            final int block = doc >>> BLOCK_SHIFT;
+            if (block != currentBlock) {
+                if (currentBlock != -1) {
+                    containers[currentBlock] = builder.build();
+                }
+                currentBlock = block;
+            }
+            builder.add(doc & BLOCK_MASK);
+            cardinality++;
+        }
+        if (currentBlock != -1) {
+            containers[currentBlock] = builder.build();
+        }
+        return new RoaringBitSet(containers, maxDoc, cardinality);
+    }
+
+    @Override
+    public boolean get(int index) {
+        assert index >= 0 && index < length : "index=" + index + ", numBits=" + length;
+        final Container container = containers[index >>> BLOCK_SHIFT];
+        return container != null && container.get(index & BLOCK_MASK);
+    }
+
+    @Override
+    public int nextSetBit(int index) {
+        assert index >= 0 && index < length : "index=" + index + ", numBits=" + length;
+        int block = index >>> BLOCK_SHIFT;
+        final Container container = containers[block];
+        if (container != null) {
+            final int next = container.nextSetBit(index & BLOCK_MASK);
+            if (next != -1) {
+                return (block << BLOCK_SHIFT) | next;
+            }
+        }
+        while (++block < containers.length) {
+            if (containers[block] != null) {
+                return (block << BLOCK_SHIFT) | containers[block].nextSetBit(0);
+            }
+        }
+        return DocIdSetIterator.NO_MORE_DOCS;
+    }
+
+    @Override
+    public int prevSetBit(int index) {
+        assert index >= 0 && index < length : "index=" + index + ", numBits=" + length;
+        int block = index >>> BLOCK_SHIFT;
+        final Container container = containers[block];
+        if (container != null) {
+            final int prev = container.prevSetBit(index & BLOCK_MASK);
+            if (prev != -1) {
+                return (block << BLOCK_SHIFT) | prev;
+            }
+        }
+        while (--block >= 0) {
+            if (containers[block] != null) {
+                return (block << BLOCK_SHIFT) | containers[block].prevSetBit(BLOCK_MASK);
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    public int approximateCardinality() {
+        return cardinality;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        long ramBytesUsed = BASE_RAM_BYTES_USED + RamUsageEstimator.shallowSizeOf(containers);
+        for (Container container : containers) {
+            if (container != null) {
+                ramBytesUsed += container.ramBytesUsed();
+            }
+        }
+        return ramBytesUsed;
+    }
+
+    @Override
+    public void set(int i) {
+        throw new UnsupportedOperationException("RoaringBitSet is read-only");
+    }
+
+    @Override
+    public void clear(int i) {
+        throw new UnsupportedOperationException("RoaringBitSet is read-only");
+    }
+
+    @Override
+    public void clear(int startIndex, int endIndex) {
+        throw new UnsupportedOperationException("RoaringBitSet is read-only");
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(length=" + length + ",cardinality=" + cardinality + ")";
+    }
+
+    /**
+     * The set bits of a single block, indexed from {@code 0} to {@link #BLOCK_MASK}.
+     */
+    private abstract static class Container {
+
+        abstract boolean get(int index);
+
+        /**
+         * The first set bit at or after the given index, or {@code -1} if there is none.
+         */
+        abstract int nextSetBit(int index);
+
+        /**
+         * The last set bit at or before the given index, or {@code -1} if there is none.
+         */
+        abstract int prevSetBit(int index);
+
+        abstract long ramBytesUsed();
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(ArrayContainer.class);
+
+        private final char[] values;
+
+        ArrayContainer(char[] values) {
+            this.values = values;
+        }
+
+        @Override
+        boolean get(int index) {
+            return Arrays.binarySearch(values, (char) index) >= 0;
+        }
+
+        @Override
+        int nextSetBit(int index) {
+            final int i = Arrays.binarySearch(values, (char) index);
+            if (i >= 0) {
+                return index;
+            }
+            final int insertionPoint = -1 - i;
+            return insertionPoint < values.length ? values[insertionPoint] : -1;
+        }
+
+        @Override
+        int prevSetBit(int index) {
+            final int i = Arrays.binarySearch(values, (char) index);
+            if (i >= 0) {
+                return index;
+            }
+            final int insertionPoint = -1 - i;
+            return insertionPoint > 0 ? values[insertionPoint - 1] : -1;
+        }
+
+        @Override
+        long ramBytesUsed() {
+            return BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(values);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(BitmapContainer.class);
+
+        private final long[] words;
+
+        BitmapContainer(long[] words) {
+            assert words.length == BITMAP_WORDS;
+            this.words = words;
+        }
+
+        @Override
+        boolean get(int index) {
+            return (words[index >> 6] & (1L << index)) != 0;
+        }
+
+        @Override
+        int nextSetBit(int index) {
+            int i = index >> 6;
+            // shifts only use the 6 lowest bits of the index
+            final long word = words[i] >> index;
+            if (word != 0) {
+                return index + Long.numberOfTrailingZeros(word);
+            }
+            while (++i < words.length) {
+                if (words[i] != 0) {
+                    return (i << 6) + Long.numberOfTrailingZeros(words[i]);
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        int prevSetBit(int index) {
+            int i = index >> 6;
+            final long word = words[i] << (63 - (index & 63));
+            if (word != 0) {
+                return index - Long.numberOfLeadingZeros(word);
+            }
+            while (--i >= 0) {
+                if (words[i] != 0) {
+                    return (i << 6) + 63 - Long.numberOfLeadingZeros(words[i]);
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        long ramBytesUsed() {
+            return BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(words);
+        }
+    }
+
+    private static final class RunContainer extends Container {
+
+        private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(RunContainer.class);
+
+        // the first and the last bit of each run, inclusive
+        private final char[] starts;
+        private final char[] ends;
+
+        RunContainer(char[] starts, char[] ends) {
+            assert starts.length == ends.length;
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        @Override
+        boolean get(int index) {
+            final int i = Arrays.binarySearch(starts, (char) index);
+            if (i >= 0) {
+                return true;
+            }
+            final int insertionPoint = -1 - i;
+            return insertionPoint > 0 && index <= ends[insertionPoint - 1];
+        }
+
+        @Override
+        int nextSetBit(int index) {
+            final int i = Arrays.binarySearch(starts, (char) index);
+            if (i >= 0) {
+                return index;
+            }
+            final int insertionPoint = -1 - i;
+            if (insertionPoint > 0 && index <= ends[insertionPoint - 1]) {
+                return index;
+            }
+            return insertionPoint < starts.length ? starts[insertionPoint] : -1;
+        }
+
+        @Override
+        int prevSetBit(int index) {
+            final int i = Arrays.binarySearch(starts, (char) index);
+            if (i >= 0) {
+                return index;
+            }
+            final int insertionPoint = -1 - i;
+            if (insertionPoint == 0) {
+                return -1;
+            }
+            return Math.min(index, ends[insertionPoint - 1]);
+        }
+
+        @Override
+        long ramBytesUsed() {
+            return BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(starts) + RamUsageEstimator.sizeOf(ends);
+        }
+    }
+
+    /**
+     * Collects the set bits of a block in order and builds the smallest container for them.
+     */
+    private static final class ContainerBuilder {
+
+        private final char[] values = new char[BLOCK_SIZE];
+        private int cardinality;
+        private int numRuns;
+
+        void add(int index) {
+            assert cardinality == 0 || index > values[cardinality - 1];
+            if (cardinality == 0 || index != values[cardinality - 1] + 1) {
+                numRuns++;
+            }
+            values[cardinality++] = (char) index;
+        }
+
+        Container build() {
+            final long arrayBytes = (long) Character.BYTES * cardinality;
+            final long bitmapBytes = (long) Long.BYTES * BITMAP_WORDS;
+            final long runBytes = 2L * Character.BYTES * numRuns;
+            final Container container;
+            if (runBytes < Math.min(arrayBytes, bitmapBytes)) {
+                final char[] starts = new char[numRuns];
+                final char[] ends = new char[numRuns];
+                int run = -1;
+                for (int i = 0; i < cardinality; i++) {
+                    if (i == 0 || values[i] != values[i - 1] + 1) {
+                        starts[++run] = values[i];
+                    }
+                    ends[run] = values[i];
+                }
+                container = new RunContainer(starts, ends);
+            } else if (arrayBytes <= bitmapBytes) {
+                container = new ArrayContainer(Arrays.copyOf(values, cardinality));
+            } else {
+                final long[] words = new long[BITMAP_WORDS];
+                for (int i = 0; i < cardinality; i++) {
+                    words[values[i] >> 6] |= 1L << values[i];
+                }
+                container = new BitmapContainer(words);
+            }
+            cardinality = 0;
+            numRuns = 0;
+            return container;
+        }
+    }
+}
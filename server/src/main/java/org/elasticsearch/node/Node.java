@@ -627,15 +627,15 @@ public class Node implements Closeable {
                 rerouteService,
                 fsHealthService
             );
-            this.nodeService = new NodeService(settings, threadPool, monitorService, discoveryModule.getCoordinator(),
-                transportService, indicesService, pluginsService, circuitBreakerService, scriptService,
-                httpServerTransport, ingestService, clusterService, settingsModule.getSettingsFilter(), responseCollectorService,
-                searchTransportService, indexingLimits, searchModule.getValuesSourceRegistry().getUsageService());
-
             final SearchService searchService = newSearchService(clusterService, indicesService,
                 threadPool, scriptService, bigArrays, searchModule.getFetchPhase(),
                 responseCollectorService, circuitBreakerService, executorSelector);
 
+            this.nodeService = new NodeService(settings, threadPool, monitorService, discoveryModule.getCoordinator(),
+                transportService, indicesService, pluginsService, circuitBreakerService, scriptService,
+                httpServerTransport, ingestService, clusterService, settingsModule.getSettingsFilter(), responseCollectorService,
+                searchTransportService, indexingLimits, searchModule.getValuesSourceRegistry().getUsageService(), searchService);
+
             final List<PersistentTasksExecutor<?>> tasksExecutors = pluginsService
                 .filterPlugins(PersistentTaskPlugin.class).stream()
                 .map(p -> p.getPersistentTasksExecutor(clusterService, threadPool, client, settingsModule,
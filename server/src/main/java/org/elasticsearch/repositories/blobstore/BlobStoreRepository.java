@@ -84,9 +84,10 @@ import org.elasticsearch.index.snapshots.IndexShardRestoreFailedException;
 import org.elasticsearch.index.snapshots.IndexShardSnapshotFailedException;
 import org.elasticsearch.index.snapshots.IndexShardSnapshotStatus;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.ContentChunk;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshots;
 import org.elasticsearch.index.snapshots.blobstore.RateLimitingInputStream;
-import org.elasticsearch.index.snapshots.blobstore.SlicedInputStream;
+import org.elasticsearch.index.snapshots.blobstore.PrefetchingSlicedInputStream;
 import org.elasticsearch.index.snapshots.blobstore.SnapshotFiles;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
@@ -127,6 +128,7 @@ import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -138,7 +140,10 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -210,6 +215,20 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
      */
     public static final Setting<Boolean> COMPRESS_SETTING = Setting.boolSetting("compress", true, Setting.Property.NodeScope);
 
+    /**
+     * When set to true, new data files are split into chunks at content-defined boundaries and each chunk is stored in a blob named after
+     * its hash, so that chunks which are already stored in the shard's directory, for instance by an earlier snapshot of a file that has
+     * since been merged into a larger file or by a snapshot taken from another copy of the shard, are not uploaded again. Files are read
+     * twice when snapshotting with this setting, once to chunk them and once to upload the new chunks. Changing the setting does not
+     * affect existing snapshots. Files are only stored as chunks if the repository metadata version is on or after
+     * {@link BlobStoreIndexShardSnapshot.FileInfo#CONTENT_CHUNKS_VERSION}, see {@link SnapshotsService#useContentChunks}.
+     */
+    public static final Setting<Boolean> CONTENT_DEFINED_CHUNKING_SETTING = Setting.boolSetting(
+        "content_defined_chunking",
+        false,
+        Setting.Property.NodeScope
+    );
+
     /**
      * Setting to disable caching of the latest repository data.
      */
@@ -230,6 +249,26 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         Setting.Property.NodeScope
     );
 
+    /**
+     * When set to a positive size, parts of data files that are larger than this size are downloaded as ranges of this size during
+     * restores, and the next few ranges of a file are requested while the current one is being written so that a single large file is
+     * downloaded over several concurrent requests. Disabled by default since not every repository implementation supports reading ranges
+     * of blobs.
+     */
+    public static final Setting<ByteSizeValue> RESTORE_RANGE_SIZE_SETTING = Setting.byteSizeSetting(
+        "restore_range_size",
+        ByteSizeValue.ZERO,
+        ByteSizeValue.ZERO,
+        ByteSizeValue.ofBytes(Long.MAX_VALUE),
+        Setting.Property.NodeScope
+    );
+
+    /**
+     * Number of slices of a data file, either whole parts or ranges of parts if {@link #RESTORE_RANGE_SIZE_SETTING} is set, that are
+     * requested from the blob store ahead of the slice that is currently being restored.
+     */
+    private static final int RESTORE_PREFETCH_SLICES = 2;
+
     /**
      * Setting to disable writing the {@code index.latest} blob which enables the contents of this repository to be used with a
      * url-repository.
@@ -256,8 +295,12 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
 
     private final boolean compress;
 
+    private final boolean contentDefinedChunking;
+
     private final boolean cacheRepositoryData;
 
+    private final long restoreRangeSize;
+
     private volatile RateLimiter snapshotRateLimiter;
 
     private volatile RateLimiter restoreRateLimiter;
@@ -392,12 +435,14 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         this.bigArrays = bigArrays;
         this.recoverySettings = recoverySettings;
         this.compress = COMPRESS_SETTING.get(metadata.settings());
+        this.contentDefinedChunking = CONTENT_DEFINED_CHUNKING_SETTING.get(metadata.settings());
         this.supportURLRepo = SUPPORT_URL_REPO.get(metadata.settings());
         snapshotRateLimiter = getRateLimiter(metadata.settings(), MAX_SNAPSHOT_BYTES_PER_SEC);
         restoreRateLimiter = getRateLimiter(metadata.settings(), MAX_RESTORE_BYTES_PER_SEC);
         readOnly = metadata.settings().getAsBoolean(READONLY_SETTING_KEY, false);
         cacheRepositoryData = CACHE_REPOSITORY_DATA.get(metadata.settings());
         bufferSize = Math.toIntExact(BUFFER_SIZE_SETTING.get(metadata.settings()).getBytes());
+        restoreRangeSize = RESTORE_RANGE_SIZE_SETTING.get(metadata.settings()).getBytes();
         this.namedXContentRegistry = namedXContentRegistry;
         this.basePath = basePath;
         this.maxSnapshotCount = MAX_SNAPSHOTS_SETTING.get(metadata.settings());
@@ -439,6 +484,15 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
     // Set of shard ids that this repository is currently restoring
     private final Set<ShardId> ongoingRestores = new HashSet<>();
 
+    // Files of all ongoing restores that remain to be restored, largest first so that the longest downloads start as early as possible
+    private final PriorityBlockingQueue<RestoreFileTask> restoreFileQueue = new PriorityBlockingQueue<>(
+        11,
+        Comparator.comparingLong(RestoreFileTask::length).reversed()
+    );
+
+    // Number of workers taking files from restoreFileQueue, each either running on or queued for the snapshot pool
+    private final AtomicInteger restoreWorkers = new AtomicInteger();
+
     @Override
     public void awaitIdle() {
         assert lifecycle.stoppedOrClosed();
@@ -1184,7 +1238,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         if (foundIndices.keySet().equals(survivingIndexIds)) {
             groupedListener.onResponse(DeleteResult.ZERO);
         } else {
-            executor.execute(ActionRunnable.supply(groupedListener, () -> cleanupStaleIndices(foundIndices, survivingIndexIds)));
+            cleanupStaleIndices(foundIndices, survivingIndexIds, groupedListener);
         }
     }
 
@@ -1313,28 +1367,59 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         return Collections.emptyList();
     }
 
-    private DeleteResult cleanupStaleIndices(Map<String, BlobContainer> foundIndices, Set<String> survivingIndexIds) {
-        DeleteResult deleteResult = DeleteResult.ZERO;
-        for (Map.Entry<String, BlobContainer> indexEntry : foundIndices.entrySet()) {
+    /**
+     * Deletes the folders of all the given indices that are not in {@code survivingIndexIds}. The folders are deleted concurrently on the
+     * snapshot pool, since deleting a folder involves listing and deleting every blob in it.
+     */
+    // package private for testing
+    void cleanupStaleIndices(
+        Map<String, BlobContainer> foundIndices,
+        Set<String> survivingIndexIds,
+        ActionListener<DeleteResult> listener
+    ) {
+        final List<Map.Entry<String, BlobContainer>> staleIndices = foundIndices.entrySet()
+            .stream()
+            .filter(indexEntry -> survivingIndexIds.contains(indexEntry.getKey()) == false)
+            .collect(Collectors.toList());
+        if (staleIndices.isEmpty()) {
+            listener.onResponse(DeleteResult.ZERO);
+            return;
+        }
+        final ActionListener<DeleteResult> staleIndicesListener = new GroupedActionListener<>(listener.map(deleteResults -> {
+            DeleteResult deleteResult = DeleteResult.ZERO;
+            for (DeleteResult result : deleteResults) {
+                deleteResult = deleteResult.add(result);
+            }
+            return deleteResult;
+        }), staleIndices.size());
+        final List<AbstractRunnable> deletes = new ArrayList<>(staleIndices.size());
+        for (Map.Entry<String, BlobContainer> indexEntry : staleIndices) {
             final String indexSnId = indexEntry.getKey();
-            try {
-                if (survivingIndexIds.contains(indexSnId) == false) {
+            deletes.add(ActionRunnable.supply(staleIndicesListener, () -> {
+                try {
                     logger.debug("[{}] Found stale index [{}]. Cleaning it up", metadata.name(), indexSnId);
-                    deleteResult = deleteResult.add(indexEntry.getValue().delete());
+                    final DeleteResult deleteResult = indexEntry.getValue().delete();
                     logger.debug("[{}] Cleaned up stale index [{}]", metadata.name(), indexSnId);
+                    return deleteResult;
+                } catch (Exception e) {
+                    logger.warn(
+                        () -> new ParameterizedMessage(
+                            "[{}] index {} is no longer part of any snapshot in the repository, "
+                                + "but failed to clean up its index folder",
+                            metadata.name(),
+                            indexSnId
+                        ),
+                        e
+                    );
+                    return DeleteResult.ZERO;
                 }
-            } catch (Exception e) {
-                logger.warn(
-                    () -> new ParameterizedMessage(
-                        "[{}] index {} is no longer part of any snapshot in the repository, " + "but failed to clean up its index folder",
-                        metadata.name(),
-                        indexSnId
-                    ),
-                    e
-                );
-            }
+            }));
         }
-        return deleteResult;
+        executeWithBoundedConcurrency(
+            threadPool.executor(ThreadPool.Names.SNAPSHOT),
+            threadPool.info(ThreadPool.Names.SNAPSHOT).getMax(),
+            deletes
+        );
     }
 
     @Override
@@ -1356,8 +1441,6 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             new SnapshotException(metadata.name(), snapshotId, "failed to update snapshot in repository", e)
         );
 
-        final Executor executor = threadPool.executor(ThreadPool.Names.SNAPSHOT);
-
         final boolean writeIndexGens = SnapshotsService.useIndexGenerations(repositoryMetaVersion);
 
         final StepListener<RepositoryData> repoDataListener = new StepListener<>();
@@ -1389,26 +1472,37 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 indexMetaIdentifiers = null;
             }
 
-            final ActionListener<Void> allMetaListener = new GroupedActionListener<>(ActionListener.wrap(v -> {
-                final SnapshotDetails snapshotDetails = new SnapshotDetails(
-                    snapshotInfo.state(),
-                    Version.CURRENT,
-                    snapshotInfo.startTime(),
-                    snapshotInfo.endTime()
-                );
-                writeIndexGen(
-                    existingRepositoryData.addSnapshot(snapshotId, snapshotDetails, shardGenerations, indexMetas, indexMetaIdentifiers),
-                    repositoryStateId,
-                    repositoryMetaVersion,
-                    finalizeSnapshotContext::updatedClusterState,
-                    ActionListener.wrap(newRepoData -> {
-                        if (writeShardGens) {
-                            cleanupOldShardGens(existingRepositoryData, newRepoData, finalizeSnapshotContext);
-                        }
-                        finalizeSnapshotContext.onResponse(Tuple.tuple(newRepoData, snapshotInfo));
-                    }, onUpdateFailure)
-                );
-            }, onUpdateFailure), 2 + indices.size());
+            // The metadata blobs are written on the snapshot_meta pool which has many more threads than the snapshot pool, since writing
+            // them is dominated by the latency of the repository rather than by bandwidth. The rest of the finalization runs on the
+            // snapshot pool again.
+            final ActionListener<Collection<Void>> allMetaWrittenListener = new ThreadedActionListener<>(
+                logger,
+                threadPool,
+                ThreadPool.Names.SNAPSHOT,
+                ActionListener.wrap(v -> {
+                    final SnapshotDetails snapshotDetails = new SnapshotDetails(
+                        snapshotInfo.state(),
+                        Version.CURRENT,
+                        snapshotInfo.startTime(),
+                        snapshotInfo.endTime()
+                    );
+                    writeIndexGen(
+                        existingRepositoryData.addSnapshot(snapshotId, snapshotDetails, shardGenerations, indexMetas, indexMetaIdentifiers),
+                        repositoryStateId,
+                        repositoryMetaVersion,
+                        finalizeSnapshotContext::updatedClusterState,
+                        ActionListener.wrap(newRepoData -> {
+                            if (writeShardGens) {
+                                cleanupOldShardGens(existingRepositoryData, newRepoData, finalizeSnapshotContext);
+                            }
+                            finalizeSnapshotContext.onResponse(Tuple.tuple(newRepoData, snapshotInfo));
+                        }, onUpdateFailure)
+                    );
+                }, onUpdateFailure),
+                false
+            );
+            final ActionListener<Void> allMetaListener = new GroupedActionListener<>(allMetaWrittenListener, 2 + indices.size());
+            final List<AbstractRunnable> metadataWrites = new ArrayList<>(2 + indices.size());
 
             // We ignore all FileAlreadyExistsException when writing metadata since otherwise a master failover while in this method will
             // mean that no snap-${uuid}.dat blob is ever written for this snapshot. This is safe because any updated version of the
@@ -1417,16 +1511,16 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             // that decrements the generation it points at
             final Metadata clusterMetadata = finalizeSnapshotContext.clusterMetadata();
             // Write Global MetaData
-            executor.execute(
+            metadataWrites.add(
                 ActionRunnable.run(
                     allMetaListener,
                     () -> GLOBAL_METADATA_FORMAT.write(clusterMetadata, blobContainer(), snapshotId.getUUID(), compress)
                 )
             );
 
-            // write the index metadata for each index in the snapshot
+            // write the index metadata for each index in the snapshot, skipping indices whose metadata the repository already holds
             for (IndexId index : indices) {
-                executor.execute(ActionRunnable.run(allMetaListener, () -> {
+                metadataWrites.add(ActionRunnable.run(allMetaListener, () -> {
                     final IndexMetadata indexMetaData = clusterMetadata.index(index.getName());
                     if (writeIndexGens) {
                         final String identifiers = IndexMetaDataGenerations.buildUniqueIdentifier(indexMetaData);
@@ -1448,15 +1542,66 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                     }
                 }));
             }
-            executor.execute(
+            metadataWrites.add(
                 ActionRunnable.run(
                     allMetaListener,
                     () -> SNAPSHOT_FORMAT.write(snapshotInfo, blobContainer(), snapshotId.getUUID(), compress)
                 )
             );
+            executeWithBoundedConcurrency(
+                threadPool.executor(ThreadPool.Names.SNAPSHOT_META),
+                threadPool.info(ThreadPool.Names.SNAPSHOT_META).getMax(),
+                metadataWrites
+            );
         }, onUpdateFailure);
     }
 
+    /**
+     * Runs the given tasks on the given executor such that at most {@code maxConcurrency} of them are running or queued at once, so that a
+     * large batch of small blob operations does not monopolize the executor's queue. The tasks run in the order given.
+     */
+    // package private for testing
+    static void executeWithBoundedConcurrency(Executor executor, int maxConcurrency, Collection<AbstractRunnable> tasks) {
+        final BlockingQueue<AbstractRunnable> queue = new LinkedBlockingQueue<>(tasks);
+        final int workers = Math.min(maxConcurrency, tasks.size());
+        for (int i = 0; i < workers; i++) {
+            executeNextTask(executor, queue);
+        }
+    }
+
+    private static void executeNextTask(Executor executor, BlockingQueue<AbstractRunnable> queue) {
+        final AbstractRunnable task = queue.poll();
+        if (task == null) {
+            return;
+        }
+        executor.execute(new AbstractRunnable() {
+            @Override
+            protected void doRun() {
+                task.run();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                task.onFailure(e);
+            }
+
+            @Override
+            public void onRejection(Exception e) {
+                // the executor is shutting down, so fail all remaining tasks rather than trying to run them one by one
+                task.onRejection(e);
+                AbstractRunnable remaining;
+                while ((remaining = queue.poll()) != null) {
+                    remaining.onRejection(e);
+                }
+            }
+
+            @Override
+            public void onAfter() {
+                executeNextTask(executor, queue);
+            }
+        });
+    }
+
     // Delete all old shard gen blobs that aren't referenced any longer as a result from moving to updated repository data
     private void cleanupOldShardGens(
         RepositoryData existingRepositoryData,
@@ -2656,6 +2801,11 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             long indexIncrementalSize = 0;
             long indexTotalFileSize = 0;
             final BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> filesToSnapshot = new LinkedBlockingQueue<>();
+            // Content chunks are only written to repositories whose metadata can be read by all the nodes that may read the snapshot
+            final ShardContentChunks contentChunks = contentDefinedChunking
+                && SnapshotsService.useContentChunks(context.getRepositoryMetaVersion())
+                    ? new ShardContentChunks(snapshots.contentChunkBlobNames())
+                    : null;
             // If we did not find a set of files that is equal to the current commit we determine the files to upload by comparing files
             // in the commit with files already in the repository
             if (filesFromSegmentInfos == null) {
@@ -2702,7 +2852,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                     if (existingFileInfo == null) {
                         indexIncrementalFileCount++;
                         indexIncrementalSize += md.length();
-                        // create a new FileInfo
+                        // create a new FileInfo; the upload replaces it with one that lists the file's chunks if content chunks are used
                         BlobStoreIndexShardSnapshot.FileInfo snapshotFileInfo = new BlobStoreIndexShardSnapshot.FileInfo(
                             (needsWrite ? UPLOADED_DATA_BLOB_PREFIX : VIRTUAL_DATA_BLOB_PREFIX) + UUIDs.randomBase64UUID(),
                             md,
@@ -2736,43 +2886,57 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             final ShardGeneration indexGeneration;
             final boolean writeShardGens = SnapshotsService.useShardGenerations(context.getRepositoryMetaVersion());
             final boolean writeFileInfoWriterUUID = SnapshotsService.includeFileInfoWriterUUID(context.getRepositoryMetaVersion());
+            // with content chunks the chunks of the uploaded files are only known once all uploads completed
+            final Supplier<List<BlobStoreIndexShardSnapshot.FileInfo>> snapshotFiles = contentChunks == null
+                ? () -> indexCommitPointFiles
+                : () -> contentChunks.uploadedFiles(indexCommitPointFiles);
             // build a new BlobStoreIndexShardSnapshot, that includes this one and all the saved ones
-            List<SnapshotFiles> newSnapshotsList = new ArrayList<>();
-            newSnapshotsList.add(new SnapshotFiles(snapshotId.getName(), indexCommitPointFiles, context.stateIdentifier()));
-            for (SnapshotFiles point : snapshots) {
-                newSnapshotsList.add(point);
-            }
-            final BlobStoreIndexShardSnapshots updatedBlobStoreIndexShardSnapshots = new BlobStoreIndexShardSnapshots(newSnapshotsList);
+            final Supplier<BlobStoreIndexShardSnapshots> updatedBlobStoreIndexShardSnapshots = () -> {
+                List<SnapshotFiles> newSnapshotsList = new ArrayList<>();
+                newSnapshotsList.add(new SnapshotFiles(snapshotId.getName(), snapshotFiles.get(), context.stateIdentifier()));
+                for (SnapshotFiles point : snapshots) {
+                    newSnapshotsList.add(point);
+                }
+                return new BlobStoreIndexShardSnapshots(newSnapshotsList);
+            };
             final Runnable afterWriteSnapBlob;
             if (writeShardGens) {
                 // When using shard generations we can safely write the index-${uuid} blob before writing out any of the actual data
                 // for this shard since the uuid named blob will simply not be referenced in case of error and thus we will never
                 // reference a generation that has not had all its files fully upload.
                 indexGeneration = ShardGeneration.newGeneration();
-                try {
-                    final Map<String, String> serializationParams = Collections.singletonMap(
-                        BlobStoreIndexShardSnapshot.FileInfo.SERIALIZE_WRITER_UUID,
-                        Boolean.toString(writeFileInfoWriterUUID)
-                    );
-                    INDEX_SHARD_SNAPSHOTS_FORMAT.write(
-                        updatedBlobStoreIndexShardSnapshots,
-                        shardContainer,
-                        indexGeneration.toBlobNamePart(),
-                        compress,
-                        serializationParams
-                    );
-                } catch (IOException e) {
-                    throw new IndexShardSnapshotFailedException(
-                        shardId,
-                        "Failed to write shard level snapshot metadata for ["
-                            + snapshotId
-                            + "] to ["
-                            + INDEX_SHARD_SNAPSHOTS_FORMAT.blobName(indexGeneration.toBlobNamePart())
-                            + "]",
-                        e
-                    );
+                final Runnable writeShardGenBlob = () -> {
+                    try {
+                        final Map<String, String> serializationParams = Collections.singletonMap(
+                            BlobStoreIndexShardSnapshot.FileInfo.SERIALIZE_WRITER_UUID,
+                            Boolean.toString(writeFileInfoWriterUUID)
+                        );
+                        INDEX_SHARD_SNAPSHOTS_FORMAT.write(
+                            updatedBlobStoreIndexShardSnapshots.get(),
+                            shardContainer,
+                            indexGeneration.toBlobNamePart(),
+                            compress,
+                            serializationParams
+                        );
+                    } catch (IOException e) {
+                        throw new IndexShardSnapshotFailedException(
+                            shardId,
+                            "Failed to write shard level snapshot metadata for ["
+                                + snapshotId
+                                + "] to ["
+                                + INDEX_SHARD_SNAPSHOTS_FORMAT.blobName(indexGeneration.toBlobNamePart())
+                                + "]",
+                            e
+                        );
+                    }
+                };
+                if (contentChunks == null || filesToSnapshot.isEmpty()) {
+                    writeShardGenBlob.run();
+                    afterWriteSnapBlob = () -> {};
+                } else {
+                    // the uuid named blob is not referenced before the shard snapshot completes either way
+                    afterWriteSnapBlob = writeShardGenBlob;
                 }
-                afterWriteSnapBlob = () -> {};
             } else {
                 // When not using shard generations we can only write the index-${N} blob after all other work for this shard has
                 // completed.
@@ -2797,7 +2961,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                             BlobStoreIndexShardSnapshot.FileInfo.SERIALIZE_WRITER_UUID,
                             Boolean.toString(writeFileInfoWriterUUID)
                         );
-                        writeShardIndexBlobAtomic(shardContainer, newGen, updatedBlobStoreIndexShardSnapshots, serializationParams);
+                        writeShardIndexBlobAtomic(shardContainer, newGen, updatedBlobStoreIndexShardSnapshots.get(), serializationParams);
                     } catch (IOException e) {
                         throw new IndexShardSnapshotFailedException(
                             shardId,
@@ -2833,7 +2997,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 final BlobStoreIndexShardSnapshot blobStoreIndexShardSnapshot = new BlobStoreIndexShardSnapshot(
                     snapshotId.getName(),
                     lastSnapshotStatus.getIndexVersion(),
-                    indexCommitPointFiles,
+                    snapshotFiles.get(),
                     lastSnapshotStatus.getStartTime(),
                     threadPool.absoluteTimeInMillis() - lastSnapshotStatus.getStartTime(),
                     lastSnapshotStatus.getIncrementalFileCount(),
@@ -2873,7 +3037,16 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             final int workers = Math.min(threadPool.info(ThreadPool.Names.SNAPSHOT).getMax(), indexIncrementalFileCount);
             final ActionListener<Void> filesListener = fileQueueListener(filesToSnapshot, workers, allFilesUploadedListener);
             for (int i = 0; i < workers; ++i) {
-                executeOneFileSnapshot(store, snapshotId, context.indexId(), snapshotStatus, filesToSnapshot, executor, filesListener);
+                executeOneFileSnapshot(
+                    store,
+                    snapshotId,
+                    context.indexId(),
+                    snapshotStatus,
+                    filesToSnapshot,
+                    contentChunks,
+                    executor,
+                    filesListener
+                );
             }
         } catch (Exception e) {
             context.onFailure(e);
@@ -2886,6 +3059,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         IndexId indexId,
         IndexShardSnapshotStatus snapshotStatus,
         BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> filesToSnapshot,
+        @Nullable ShardContentChunks contentChunks,
         Executor executor,
         ActionListener<Void> listener
     ) throws InterruptedException {
@@ -2896,8 +3070,27 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         } else {
             executor.execute(ActionRunnable.wrap(listener, l -> {
                 try (Releasable ignored = incrementStoreRef(store, snapshotStatus, shardId)) {
-                    snapshotFile(snapshotFileInfo, indexId, shardId, snapshotId, snapshotStatus, store);
-                    executeOneFileSnapshot(store, snapshotId, indexId, snapshotStatus, filesToSnapshot, executor, l);
+                    if (contentChunks == null || snapshotFileInfo.length() == 0) {
+                        snapshotFile(snapshotFileInfo, indexId, shardId, snapshotId, snapshotStatus, store, null);
+                    } else {
+                        final BlobStoreIndexShardSnapshot.FileInfo chunkedFileInfo = new BlobStoreIndexShardSnapshot.FileInfo(
+                            snapshotFileInfo.name(),
+                            snapshotFileInfo.metadata(),
+                            chunkFile(store, snapshotStatus, shardId, snapshotFileInfo.metadata())
+                        );
+                        snapshotFile(chunkedFileInfo, indexId, shardId, snapshotId, snapshotStatus, store, contentChunks);
+                        contentChunks.onFileUploaded(chunkedFileInfo);
+                    }
+                    executeOneFileSnapshot(
+                        store,
+                        snapshotId,
+                        indexId,
+                        snapshotStatus,
+                        filesToSnapshot,
+                        contentChunks,
+                        executor,
+                        l
+                    );
                 }
             }));
         }
@@ -2915,6 +3108,75 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         return store::decRef;
     }
 
+    /**
+     * The content chunks of a shard snapshot that stores the files it uploads as content-defined chunks.
+     */
+    private static final class ShardContentChunks {
+
+        // names of the chunk blobs that earlier snapshots of the shard reference
+        private final Set<String> existingChunks;
+
+        // names of the chunk blobs that an upload of this snapshot writes
+        private final Set<String> uploadedChunks = ConcurrentCollections.newConcurrentSet();
+
+        // file infos listing the chunks of the uploaded files by the name of the file info without chunks they replace
+        private final Map<String, BlobStoreIndexShardSnapshot.FileInfo> uploadedFiles = ConcurrentCollections.newConcurrentMap();
+
+        ShardContentChunks(Set<String> existingChunks) {
+            this.existingChunks = existingChunks;
+        }
+
+        /**
+         * @return whether the given chunk needs to be written, which is only the case for the first upload of this snapshot that
+         *         asks for a chunk that earlier snapshots of the shard do not reference
+         */
+        boolean needsUpload(String chunkBlobName) {
+            return existingChunks.contains(chunkBlobName) == false && uploadedChunks.add(chunkBlobName);
+        }
+
+        void onFileUploaded(BlobStoreIndexShardSnapshot.FileInfo fileInfo) {
+            uploadedFiles.put(fileInfo.name(), fileInfo);
+        }
+
+        List<BlobStoreIndexShardSnapshot.FileInfo> uploadedFiles(List<BlobStoreIndexShardSnapshot.FileInfo> files) {
+            return files.stream().map(fileInfo -> uploadedFiles.getOrDefault(fileInfo.name(), fileInfo)).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Splits the given file into content-defined chunks, verifying its checksum along the way. Must be called while holding a reference
+     * to the store.
+     */
+    private List<ContentChunk> chunkFile(Store store, IndexShardSnapshotStatus snapshotStatus, ShardId shardId, StoreFileMetadata md) {
+        final long maxChunkSize = chunkSize() == null
+            ? ContentDefinedChunker.DEFAULT_MAX_CHUNK_SIZE
+            : Math.min(ContentDefinedChunker.DEFAULT_MAX_CHUNK_SIZE, chunkSize().getBytes());
+        final int averageChunkSize = (int) Math.min(ContentDefinedChunker.DEFAULT_AVERAGE_CHUNK_SIZE, Long.highestOneBit(maxChunkSize));
+        final ContentDefinedChunker chunker = new ContentDefinedChunker(
+            Math.min(ContentDefinedChunker.DEFAULT_MIN_CHUNK_SIZE, averageChunkSize),
+            averageChunkSize,
+            maxChunkSize,
+            bufferSize
+        );
+        try (IndexInput indexInput = store.openVerifyingInput(md.name(), IOContext.READONCE, md)) {
+            final List<ContentChunk> contentChunks = chunker.chunk(new InputStreamIndexInput(indexInput, md.length()) {
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (snapshotStatus.isAborted()) {
+                        logger.debug("[{}] Aborted on the file [{}], exiting", shardId, md.name());
+                        throw new AbortedSnapshotException();
+                    }
+                    return super.read(b, off, len);
+                }
+            });
+            Store.verify(indexInput);
+            return contentChunks;
+        } catch (IOException e) {
+            failStoreIfCorrupted(store, e);
+            throw new IndexShardSnapshotFailedException(shardId, "Failed to chunk file [" + md.name() + "]", e);
+        }
+    }
+
     private static boolean assertFileContentsMatchHash(
         IndexShardSnapshotStatus snapshotStatus,
         BlobStoreIndexShardSnapshot.FileInfo fileInfo,
@@ -2986,43 +3248,39 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 ) {
                     if (filesToRecover.isEmpty()) {
                         listener.onResponse(null);
-                    } else {
-                        // Start as many workers as fit into the snapshot pool at once at the most
-                        final int workers = Math.min(
-                            threadPool.info(ThreadPool.Names.SNAPSHOT).getMax(),
-                            snapshotFiles.indexFiles().size()
-                        );
-                        final BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> files = new LinkedBlockingQueue<>(filesToRecover);
-                        final ActionListener<Void> allFilesListener = fileQueueListener(files, workers, listener.map(v -> null));
-                        // restore the files from the snapshot to the Lucene store
-                        for (int i = 0; i < workers; ++i) {
-                            try {
-                                executeOneFileRestore(files, allFilesListener);
-                            } catch (Exception e) {
-                                allFilesListener.onFailure(e);
-                            }
-                        }
+                        return;
                     }
-                }
+                    // Queue the files together with those of all other shards being restored from this repository, so that they are
+                    // downloaded largest first by as many workers as fit into the snapshot pool at once at the most
+                    final AtomicBoolean failed = new AtomicBoolean();
+                    final ActionListener<Void> allFilesListener = new GroupedActionListener<>(
+                        listener.map(v -> null),
+                        filesToRecover.size()
+                    );
+                    for (BlobStoreIndexShardSnapshot.FileInfo fileToRecover : filesToRecover) {
+                        restoreFileQueue.add(new RestoreFileTask(fileToRecover.length(), new AbstractRunnable() {
+                            @Override
+                            protected void doRun() throws Exception {
+                                if (failed.get() == false) {
+                                    // Skip the remaining files if we ran into any exception
+                                    store.incRef();
+                                    try {
+                                        restoreFile(fileToRecover, store);
+                                    } finally {
+                                        store.decRef();
+                                    }
+                                }
+                                allFilesListener.onResponse(null);
+                            }
 
-                private void executeOneFileRestore(
-                    BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> files,
-                    ActionListener<Void> allFilesListener
-                ) throws InterruptedException {
-                    final BlobStoreIndexShardSnapshot.FileInfo fileToRecover = files.poll(0L, TimeUnit.MILLISECONDS);
-                    if (fileToRecover == null) {
-                        allFilesListener.onResponse(null);
-                    } else {
-                        executor.execute(ActionRunnable.wrap(allFilesListener, filesListener -> {
-                            store.incRef();
-                            try {
-                                restoreFile(fileToRecover, store);
-                            } finally {
-                                store.decRef();
+                            @Override
+                            public void onFailure(Exception e) {
+                                failed.set(true);
+                                allFilesListener.onFailure(e);
                             }
-                            executeOneFileRestore(files, filesListener);
                         }));
                     }
+                    startRestoreWorkers();
                 }
 
                 private void restoreFile(BlobStoreIndexShardSnapshot.FileInfo fileInfo, Store store) throws IOException {
@@ -3041,13 +3299,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                             indexOutput.writeBytes(hash.bytes, hash.offset, hash.length);
                             recoveryState.getIndex().addRecoveredBytesToFile(fileInfo.physicalName(), hash.length);
                         } else {
-                            try (InputStream stream = maybeRateLimitRestores(new SlicedInputStream(fileInfo.numberOfParts()) {
-                                @Override
-                                protected InputStream openSlice(int slice) throws IOException {
-                                    ensureNotClosing(store);
-                                    return container.readBlob(fileInfo.partName(slice));
-                                }
-                            })) {
+                            ensureNotClosing(store);
+                            try (InputStream stream = maybeRateLimitRestores(openRestoreStream(container, fileInfo))) {
                                 final byte[] buffer = new byte[Math.toIntExact(Math.min(bufferSize, fileInfo.length()))];
                                 int length;
                                 while ((length = stream.read(buffer)) > 0) {
@@ -3089,6 +3342,113 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }));
     }
 
+    /**
+     * Starts workers taking files from {@link #restoreFileQueue} until the queue is empty or the snapshot pool is fully used.
+     */
+    private void startRestoreWorkers() {
+        final int maxWorkers = threadPool.info(ThreadPool.Names.SNAPSHOT).getMax();
+        while (restoreFileQueue.isEmpty() == false) {
+            final int workers = restoreWorkers.get();
+            if (workers >= maxWorkers) {
+                return;
+            }
+            if (restoreWorkers.compareAndSet(workers, workers + 1)) {
+                restoreNextFile();
+            }
+        }
+    }
+
+    private void restoreNextFile() {
+        final RestoreFileTask task = restoreFileQueue.poll();
+        if (task == null) {
+            restoreWorkers.decrementAndGet();
+            // a file may have been queued after the poll above but before this worker stopped, in which case no worker was started for it
+            startRestoreWorkers();
+            return;
+        }
+        threadPool.executor(ThreadPool.Names.SNAPSHOT).execute(new AbstractRunnable() {
+            @Override
+            protected void doRun() {
+                task.runnable.run();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                task.runnable.onFailure(e);
+            }
+
+            @Override
+            public void onAfter() {
+                restoreNextFile();
+            }
+        });
+    }
+
+    /**
+     * Opens a stream over the contents of the given data file that requests the next few parts of the file, or ranges of its parts if
+     * {@link #RESTORE_RANGE_SIZE_SETTING} is set, from the blob store while the current one is being read.
+     */
+    private InputStream openRestoreStream(BlobContainer container, BlobStoreIndexShardSnapshot.FileInfo fileInfo) {
+        final Executor executor = threadPool.executor(ThreadPool.Names.GENERIC);
+        final int numberOfParts = fileInfo.numberOfParts();
+        if (restoreRangeSize <= 0) {
+            return new PrefetchingSlicedInputStream(numberOfParts, RESTORE_PREFETCH_SLICES, executor) {
+                @Override
+                protected InputStream openSliceAsync(int slice) throws IOException {
+                    return container.readBlob(fileInfo.partName(slice));
+                }
+            };
+        }
+        // slice i reads sliceLengths[i] bytes from offset sliceOffsets[i] of part sliceParts[i], or the whole part if the length is -1
+        final List<Integer> sliceParts = new ArrayList<>();
+        final List<Long> sliceOffsets = new ArrayList<>();
+        final List<Long> sliceLengths = new ArrayList<>();
+        for (int part = 0; part < numberOfParts; part++) {
+            final long partBytes = fileInfo.partBytes(part);
+            if (partBytes <= restoreRangeSize) {
+                sliceParts.add(part);
+                sliceOffsets.add(0L);
+                sliceLengths.add(-1L);
+            } else {
+                for (long offset = 0; offset < partBytes; offset += restoreRangeSize) {
+                    sliceParts.add(part);
+                    sliceOffsets.add(offset);
+                    sliceLengths.add(Math.min(restoreRangeSize, partBytes - offset));
+                }
+            }
+        }
+        return new PrefetchingSlicedInputStream(sliceParts.size(), RESTORE_PREFETCH_SLICES, executor) {
+            @Override
+            protected InputStream openSliceAsync(int slice) throws IOException {
+                final String partName = fileInfo.partName(sliceParts.get(slice));
+                final long length = sliceLengths.get(slice);
+                if (length < 0) {
+                    return container.readBlob(partName);
+                }
+                return container.readBlob(partName, sliceOffsets.get(slice), length);
+            }
+        };
+    }
+
+    /**
+     * A data file to restore, queued in {@link #restoreFileQueue}.
+     */
+    private static final class RestoreFileTask {
+
+        private final long length;
+
+        private final AbstractRunnable runnable;
+
+        RestoreFileTask(long length, AbstractRunnable runnable) {
+            this.length = length;
+            this.runnable = runnable;
+        }
+
+        long length() {
+            return length;
+        }
+    }
+
     private static ActionListener<Void> fileQueueListener(
         BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> files,
         int workers,
@@ -3306,6 +3666,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         Set<String> survivingSnapshotUUIDs,
         BlobStoreIndexShardSnapshots updatedSnapshots
     ) {
+        final Set<String> referencedContentChunks = updatedSnapshots.contentChunkBlobNames();
         return blobs.stream()
             .filter(
                 blob -> blob.startsWith(SNAPSHOT_INDEX_PREFIX)
@@ -3314,7 +3675,10 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                         && survivingSnapshotUUIDs.contains(
                             blob.substring(SNAPSHOT_PREFIX.length(), blob.length() - ".dat".length())
                         ) == false)
-                    || (blob.startsWith(UPLOADED_DATA_BLOB_PREFIX) && updatedSnapshots.findNameFile(canonicalName(blob)) == null)
+                    || (blob.startsWith(ContentChunk.BLOB_NAME_PREFIX) && referencedContentChunks.contains(blob) == false)
+                    || (blob.startsWith(UPLOADED_DATA_BLOB_PREFIX)
+                        && blob.startsWith(ContentChunk.BLOB_NAME_PREFIX) == false
+                        && updatedSnapshots.findNameFile(canonicalName(blob)) == null)
                     || FsBlobContainer.isTempBlobName(blob)
             )
             .collect(Collectors.toList());
@@ -3411,6 +3775,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
     /**
      * Snapshot individual file
      * @param fileInfo file to be snapshotted
+     * @param contentChunks the content chunks of the shard snapshot if the file is stored as content chunks, which decide whether each
+     *                      chunk of the file is written or just read to verify the file
      */
     private void snapshotFile(
         BlobStoreIndexShardSnapshot.FileInfo fileInfo,
@@ -3418,13 +3784,20 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         ShardId shardId,
         SnapshotId snapshotId,
         IndexShardSnapshotStatus snapshotStatus,
-        Store store
+        Store store,
+        @Nullable ShardContentChunks contentChunks
     ) throws IOException {
         final BlobContainer shardContainer = shardContainer(indexId, shardId);
         final String file = fileInfo.physicalName();
         try (IndexInput indexInput = store.openVerifyingInput(file, IOContext.READONCE, fileInfo.metadata())) {
             for (int i = 0; i < fileInfo.numberOfParts(); i++) {
                 final long partBytes = fileInfo.partBytes(i);
+                if (fileInfo.contentChunks() != null && contentChunks.needsUpload(fileInfo.partName(i)) == false) {
+                    // already in the repository or written by another file of this snapshot, but still read to verify the checksum
+                    indexInput.seek(indexInput.getFilePointer() + partBytes);
+                    snapshotStatus.addDeduplicatedSize(partBytes);
+                    continue;
+                }
 
                 // Make reads abortable by mutating the snapshotStatus object
                 final InputStream inputStream = new FilterInputStream(
@@ -0,0 +1,101 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.common.hash.MessageDigests;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.ContentChunk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a stream into chunks whose boundaries depend on the content of the stream rather than on offsets within it, so that inserting or
+ * removing bytes only changes the chunks around the edit. Uses a gear rolling hash: each byte shifts the hash left by one bit and adds a
+ * pseudo-random value for the byte, so the hash only depends on the last 64 bytes. A chunk ends where the top bits of the hash are all
+ * zero, which happens once every {@code averageChunkSize} bytes on average, subject to the given minimum and maximum chunk sizes. Each
+ * chunk is identified by the SHA-256 digest of its contents.
+ */
+final class ContentDefinedChunker {
+
+    static final int DEFAULT_MIN_CHUNK_SIZE = Math.toIntExact(ByteSizeUnit.MB.toBytes(1));
+    static final int DEFAULT_AVERAGE_CHUNK_SIZE = Math.toIntExact(ByteSizeUnit.MB.toBytes(4));
+    static final long DEFAULT_MAX_CHUNK_SIZE = ByteSizeUnit.MB.toBytes(16);
+
+    private static final long[] GEAR = new long[256];
+
+    static {
+        // fixed seed: chunk boundaries must be the same on every node and across versions for chunks to be shared
+        long state = 0x5DEECE66DL;
+        for (int i = 0; i < GEAR.length; i++) {
+            // splitmix64
+            state += 0x9E3779B97F4A7C15L;
+            long z = state;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            GEAR[i] = z ^ (z >>> 31);
+        }
+    }
+
+    private final int minChunkSize;
+    private final long maxChunkSize;
+    private final long boundaryMask;
+    private final int bufferSize;
+
+    ContentDefinedChunker(int minChunkSize, int averageChunkSize, long maxChunkSize, int bufferSize) {
+        if (Integer.bitCount(averageChunkSize) != 1) {
+            throw new IllegalArgumentException("average chunk size [" + averageChunkSize + "] must be a power of two");
+        }
+        if (minChunkSize <= 0 || minChunkSize > averageChunkSize || averageChunkSize > maxChunkSize) {
+            throw new IllegalArgumentException(
+                "chunk sizes must satisfy 0 < min [" + minChunkSize + "] <= average [" + averageChunkSize + "] <= max [" + maxChunkSize
+                    + "]"
+            );
+        }
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        final int bits = Integer.numberOfTrailingZeros(averageChunkSize);
+        this.boundaryMask = ((1L << bits) - 1) << (Long.SIZE - bits);
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Reads the given stream to its end and returns its chunks in order. An empty stream has no chunks.
+     */
+    List<ContentChunk> chunk(InputStream inputStream) throws IOException {
+        final List<ContentChunk> chunks = new ArrayList<>();
+        final MessageDigest digest = MessageDigests.sha256();
+        final byte[] buffer = new byte[bufferSize];
+        long hash = 0;
+        long chunkLength = 0;
+        int read;
+        while ((read = inputStream.read(buffer)) >= 0) {
+            int chunkStart = 0;
+            for (int i = 0; i < read; i++) {
+                hash = (hash << 1) + GEAR[buffer[i] & 0xff];
+                chunkLength++;
+                if ((chunkLength >= minChunkSize && (hash & boundaryMask) == 0) || chunkLength >= maxChunkSize) {
+                    digest.update(buffer, chunkStart, i + 1 - chunkStart);
+                    chunks.add(new ContentChunk(MessageDigests.toHexString(digest.digest()), chunkLength));
+                    chunkStart = i + 1;
+                    hash = 0;
+                    chunkLength = 0;
+                }
+            }
+            digest.update(buffer, chunkStart, read - chunkStart);
+        }
+        if (chunkLength > 0) {
+            chunks.add(new ContentChunk(MessageDigests.toHexString(digest.digest()), chunkLength));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.rest;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.xcontent.ToXContent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * The body of a {@link RestResponse} which is serialized lazily, one chunk at a time, while it is being sent, so that the whole serialized
+ * body never needs to be held in memory at once.
+ */
+public interface ChunkedRestResponseBody {
+
+    /**
+     * @return whether the whole body has been serialized.
+     */
+    boolean isDone();
+
+    /**
+     * Serializes the next chunk of the body to the given stream. A chunk is usually around {@code sizeHint} bytes long but may be
+     * larger if the body cannot be split more finely.
+     */
+    void encodeChunk(int sizeHint, OutputStream outputStream) throws IOException;
+
+    /**
+     * @return the content type of the body.
+     */
+    String getResponseContentTypeString();
+
+    /**
+     * Serializes the whole of the remaining body at once, for channels which do not support sending bodies in chunks.
+     */
+    static BytesReference toBytesReference(ChunkedRestResponseBody body) throws IOException {
+        final BytesStreamOutput out = new BytesStreamOutput();
+        while (body.isDone() == false) {
+            body.encodeChunk(Integer.MAX_VALUE, out);
+        }
+        return out.bytes();
+    }
+
+    /**
+     * Creates a body which is the concatenation of the given fragments, serialized with a builder from {@link RestChannel#newBuilder} so
+     * that it honours the output format and {@code filter_path} of the request. Each chunk consists of whole fragments, so a fragment
+     * should be small enough to serialize in memory but large enough to be worth writing on its own.
+     *
+     * @param fragments the fragments of the body, which together must form a single complete object.
+     */
+    static ChunkedRestResponseBody fromXContent(Iterator<? extends ToXContent> fragments, ToXContent.Params params, RestChannel channel)
+        throws IOException {
+        return new XContentChunkedRestResponseBody(fragments, params, channel);
+    }
+}
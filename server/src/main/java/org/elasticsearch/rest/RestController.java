@@ -35,6 +35,7 @@ import org.elasticsearch.usage.UsageService;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -249,11 +250,33 @@ public class RestController implements HttpServerTransport.Dispatcher {
         }
     }
 
+    @Override
+    public boolean supportsStreamedBody(RestRequest.Method method, String uri) {
+        final int pathEndPos = uri.indexOf('?');
+        final String rawPath = pathEndPos < 0 ? uri : uri.substring(0, pathEndPos);
+        // resolves the handler like tryAllHandlers does, for the current version since the headers aren't parsed yet
+        final Iterator<MethodHandlers> allHandlers = getAllHandlers(null, rawPath);
+        while (allHandlers.hasNext()) {
+            final MethodHandlers handlers = allHandlers.next();
+            final RestHandler handler = handlers == null ? null : handlers.getHandler(method, RestApiVersion.current());
+            if (handler != null) {
+                return handler.supportsStreamedBody();
+            }
+        }
+        return false;
+    }
+
     private void dispatchRequest(RestRequest request, RestChannel channel, RestHandler handler,
                                  ThreadContext threadContext)
         throws Exception {
         final int contentLength = request.contentLength();
-        if (contentLength > 0) {
+        final boolean streamedBody = request.getHttpRequest().contentStream() != null;
+        if (streamedBody && handler.supportsStreamedBody() == false) {
+            channel.sendResponse(BytesRestResponse.createSimpleErrorResponse(channel, BAD_REQUEST,
+                "request body was streamed to a handler that does not support streamed bodies"));
+            return;
+        }
+        if (contentLength > 0 || streamedBody) {
             final XContentType xContentType = request.getXContentType();
             if (xContentType == null) {
                 sendContentTypeErrorMessage(request.getAllHeaderValues("Content-Type"), channel);
@@ -541,6 +564,12 @@ public class RestController implements HttpServerTransport.Dispatcher {
             return delegate.newBuilder(xContentType, responseContentType, useFiltering);
         }
 
+        @Override
+        public XContentBuilder newBuilder(XContentType xContentType, XContentType responseContentType, boolean useFiltering,
+                                          OutputStream outputStream) throws IOException {
+            return delegate.newBuilder(xContentType, responseContentType, useFiltering, outputStream);
+        }
+
         @Override
         public BytesStreamOutput bytesOutput() {
             return delegate.bytesOutput();
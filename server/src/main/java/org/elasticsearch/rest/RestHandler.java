@@ -47,6 +47,15 @@ public interface RestHandler {
         return false;
     }
 
+    /**
+     * Indicates if the RestHandler consumes the request body through {@link RestRequest#contentStream()} as it arrives instead of
+     * through {@link RestRequest#content()} once it was received in full. Http modules that support it then hand the body of the
+     * requests for this handler to it chunk by chunk, and these bodies are not limited by {@code http.max_content_length}.
+     */
+    default boolean supportsStreamedBody() {
+        return false;
+    }
+
     /**
      * Indicates if the RestHandler supports working with pooled buffers. If the request handler will not escape the return
      * {@link RestRequest#content()} or any buffers extracted from it then there is no need to make a copies of any pooled buffers in the
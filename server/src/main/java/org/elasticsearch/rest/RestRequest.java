@@ -29,6 +29,7 @@ import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.http.HttpChannel;
 import org.elasticsearch.http.HttpRequest;
+import org.elasticsearch.http.HttpRequestBodyStream;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -237,6 +238,19 @@ public class RestRequest implements ToXContent.Params {
         return httpRequest.content();
     }
 
+    /**
+     * @return the body of this request as a stream, or {@code null} if the body was received in full and is available through
+     * {@link #content()}; see {@link RestHandler#supportsStreamedBody()}
+     */
+    @Nullable
+    public HttpRequestBodyStream contentStream() {
+        final HttpRequestBodyStream contentStream = httpRequest.contentStream();
+        if (contentStream != null) {
+            this.contentConsumed = true;
+        }
+        return contentStream;
+    }
+
     /**
      * @return content of the request body or throw an exception if the body or content type is missing
      */
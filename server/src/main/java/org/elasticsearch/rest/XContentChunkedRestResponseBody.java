@@ -0,0 +1,93 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.rest;
+
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * A {@link ChunkedRestResponseBody} made of a sequence of {@link ToXContent} fragments, see
+ * {@link ChunkedRestResponseBody#fromXContent}. A single builder serializes all the fragments, writing each chunk to the stream passed
+ * to {@link #encodeChunk}.
+ */
+final class XContentChunkedRestResponseBody implements ChunkedRestResponseBody {
+
+    private final Iterator<? extends ToXContent> fragments;
+    private final ToXContent.Params params;
+    private final ChunkOutputStream chunkOutputStream = new ChunkOutputStream();
+    private final XContentBuilder builder;
+    private boolean done;
+
+    XContentChunkedRestResponseBody(Iterator<? extends ToXContent> fragments, ToXContent.Params params, RestChannel channel)
+        throws IOException {
+        this.fragments = fragments;
+        this.params = params;
+        this.builder = channel.newBuilder(channel.request().getXContentType(), null, true, chunkOutputStream);
+    }
+
+    @Override
+    public boolean isDone() {
+        return done;
+    }
+
+    @Override
+    public void encodeChunk(int sizeHint, OutputStream outputStream) throws IOException {
+        assert done == false : "body is already fully encoded";
+        chunkOutputStream.target = outputStream;
+        chunkOutputStream.bytesWritten = 0L;
+        try {
+            while (fragments.hasNext() && chunkOutputStream.bytesWritten < sizeHint) {
+                fragments.next().toXContent(builder, params);
+                builder.flush();
+            }
+            if (fragments.hasNext() == false) {
+                builder.close();
+                done = true;
+            }
+        } finally {
+            chunkOutputStream.target = null;
+        }
+    }
+
+    @Override
+    public String getResponseContentTypeString() {
+        return builder.getResponseContentTypeString();
+    }
+
+    private static final class ChunkOutputStream extends OutputStream {
+        private OutputStream target;
+        private long bytesWritten;
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            bytesWritten++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            bytesWritten += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        @Override
+        public void close() {
+            // the stream passed to encodeChunk belongs to its caller
+        }
+    }
+}
@@ -9,16 +9,24 @@
 package org.elasticsearch.rest.action.admin.cluster;
 
 import org.elasticsearch.action.admin.cluster.node.stats.NodesStatsRequest;
+import org.elasticsearch.action.admin.cluster.node.stats.NodesStatsResponse;
 import org.elasticsearch.action.admin.indices.stats.CommonStatsFlags;
 import org.elasticsearch.action.admin.indices.stats.CommonStatsFlags.Flag;
 import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.common.logging.DeprecationLogger;
+import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.core.RestApiVersion;
 import org.elasticsearch.rest.BaseRestHandler;
+import org.elasticsearch.rest.ChunkedRestResponse;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestRequest;
-import org.elasticsearch.rest.action.RestActions.NodesResponseRestListener;
+import org.elasticsearch.rest.RestResponse;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.rest.action.RestActions;
 import org.elasticsearch.rest.action.RestCancellableNodeClient;
+import org.elasticsearch.rest.action.RestResponseListener;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -173,8 +181,21 @@ public class RestNodesStatsAction extends BaseRestHandler {
             nodesStatsRequest.indices().includeUnloadedSegments(request.paramAsBoolean("include_unloaded_segments", false));
         }
 
+        // the stats of a large cluster are big, so they are serialized one node at a time while they are being sent
         return channel -> new RestCancellableNodeClient(client, request.getHttpChannel())
-            .admin().cluster().nodesStats(nodesStatsRequest, new NodesResponseRestListener<>(channel));
+            .admin().cluster().nodesStats(nodesStatsRequest, new RestResponseListener<>(channel) {
+                @Override
+                public RestResponse buildResponse(NodesStatsResponse response) throws Exception {
+                    return new ChunkedRestResponse(RestStatus.OK, ChunkedRestResponseBody.fromXContent(Iterators.concat(
+                        Iterators.<ToXContent>single((builder, params) -> {
+                            builder.startObject();
+                            RestActions.buildNodesHeader(builder, params, response);
+                            return builder.field("cluster_name", response.getClusterName().value());
+                        }),
+                        response.toXContentChunks(),
+                        Iterators.<ToXContent>single((builder, params) -> builder.endObject())), request, channel));
+                }
+            });
     }
 
     private final Set<String> RESPONSE_PARAMS = Collections.singleton("level");
@@ -11,25 +11,29 @@ package org.elasticsearch.rest.action.cat;
 import org.elasticsearch.core.Booleans;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.Table;
-import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.common.io.UTF8StreamWriter;
-import org.elasticsearch.common.io.stream.BytesStream;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.SizeValue;
 import org.elasticsearch.core.TimeValue;
-import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.rest.BytesRestResponse;
+import org.elasticsearch.rest.ChunkedRestResponse;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestResponse;
 import org.elasticsearch.rest.RestStatus;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
@@ -59,20 +63,24 @@ public class RestTable {
 
     public static RestResponse buildXContentBuilder(Table table, RestChannel channel) throws Exception {
         RestRequest request = channel.request();
-        XContentBuilder builder = channel.newBuilder();
         List<DisplayHeader> displayHeaders = buildDisplayHeaders(table, request);
-
-        builder.startArray();
         List<Integer> rowOrder = getRowOrder(table, request);
-        for (Integer row : rowOrder) {
+
+        // a table can have many rows, so they are serialized one at a time while the response is being sent
+        Iterator<ToXContent> rows = rowOrder.stream().map(row -> (ToXContent) (builder, params) -> {
             builder.startObject();
             for (DisplayHeader header : displayHeaders) {
                 builder.field(header.display, renderValue(request, table.getAsMap().get(header.name).get(row).value));
             }
-            builder.endObject();
-        }
-        builder.endArray();
-        return new BytesRestResponse(RestStatus.OK, builder);
+            return builder.endObject();
+        }).iterator();
+        return new ChunkedRestResponse(RestStatus.OK, ChunkedRestResponseBody.fromXContent(
+            Iterators.concat(
+                Iterators.<ToXContent>single((builder, params) -> builder.startArray()),
+                rows,
+                Iterators.<ToXContent>single((builder, params) -> builder.endArray())),
+            ToXContent.EMPTY_PARAMS,
+            channel));
     }
 
     public static RestResponse buildTextPlainResponse(Table table, RestChannel channel) throws IOException {
@@ -81,37 +89,74 @@ public class RestTable {
 
         List<DisplayHeader> headers = buildDisplayHeaders(table, request);
         int[] width = buildWidths(table, request, verbose, headers);
+        List<Integer> rowOrder = getRowOrder(table, request);
+        return new ChunkedRestResponse(RestStatus.OK, new TextPlainBody(table, request, verbose, headers, width, rowOrder.iterator()));
+    }
 
-        BytesStream bytesOut = Streams.flushOnCloseStream(channel.bytesOutput());
-        UTF8StreamWriter out = new UTF8StreamWriter().setOutput(bytesOut);
-        int lastHeader = headers.size() - 1;
-        if (verbose) {
-            for (int col = 0; col < headers.size(); col++) {
-                DisplayHeader header = headers.get(col);
-                boolean isLastColumn = col == lastHeader;
-                pad(new Table.Cell(header.display, table.findHeaderByName(header.name)), width[col], request, out, isLastColumn);
-                if (isLastColumn == false) {
-                    out.append(" ");
-                }
-            }
-            out.append("\n");
+    /**
+     * Writes the rows of a table as plain text, as many rows per chunk as fit in the size hint.
+     */
+    private static final class TextPlainBody implements ChunkedRestResponseBody {
+
+        private final Table table;
+        private final RestRequest request;
+        private final List<DisplayHeader> headers;
+        private final int[] width;
+        private final Iterator<Integer> rows;
+        private boolean headerPending;
+
+        TextPlainBody(Table table, RestRequest request, boolean verbose, List<DisplayHeader> headers, int[] width, Iterator<Integer> rows) {
+            this.table = table;
+            this.request = request;
+            this.headers = headers;
+            this.width = width;
+            this.rows = rows;
+            this.headerPending = verbose;
         }
 
-        List<Integer> rowOrder = getRowOrder(table, request);
+        @Override
+        public boolean isDone() {
+            return headerPending == false && rows.hasNext() == false;
+        }
 
-        for (Integer row: rowOrder) {
-            for (int col = 0; col < headers.size(); col++) {
-                DisplayHeader header = headers.get(col);
-                boolean isLastColumn = col == lastHeader;
-                pad(table.getAsMap().get(header.name).get(row), width[col], request, out, isLastColumn);
-                if (isLastColumn == false) {
-                    out.append(" ");
+        @Override
+        public void encodeChunk(int sizeHint, OutputStream outputStream) throws IOException {
+            BytesStreamOutput bytesOut = new BytesStreamOutput();
+            UTF8StreamWriter out = new UTF8StreamWriter().setOutput(bytesOut);
+            int lastHeader = headers.size() - 1;
+            if (headerPending) {
+                for (int col = 0; col < headers.size(); col++) {
+                    DisplayHeader header = headers.get(col);
+                    boolean isLastColumn = col == lastHeader;
+                    pad(new Table.Cell(header.display, table.findHeaderByName(header.name)), width[col], request, out, isLastColumn);
+                    if (isLastColumn == false) {
+                        out.append(" ");
+                    }
                 }
+                out.append("\n");
+                headerPending = false;
             }
-            out.append("\n");
+            while (rows.hasNext() && bytesOut.size() < sizeHint) {
+                int row = rows.next();
+                for (int col = 0; col < headers.size(); col++) {
+                    DisplayHeader header = headers.get(col);
+                    boolean isLastColumn = col == lastHeader;
+                    pad(table.getAsMap().get(header.name).get(row), width[col], request, out, isLastColumn);
+                    if (isLastColumn == false) {
+                        out.append(" ");
+                    }
+                }
+                out.append("\n");
+                out.flush();
+            }
+            out.close();
+            bytesOut.bytes().writeTo(outputStream);
+        }
+
+        @Override
+        public String getResponseContentTypeString() {
+            return BytesRestResponse.TEXT_CONTENT_TYPE;
         }
-        out.close();
-        return new BytesRestResponse(RestStatus.OK, BytesRestResponse.TEXT_CONTENT_TYPE, bytesOut.bytes());
     }
 
     static List<Integer> getRowOrder(Table table, RestRequest request) {
@@ -130,6 +130,12 @@ public class RestThreadPoolAction extends AbstractCatAction {
         table.addCell("max", "alias:mx;default:false;text-align:right;desc:maximum number of threads in a scaling thread pool");
         table.addCell("size", "alias:sz;default:false;text-align:right;desc:number of threads in a fixed thread pool");
         table.addCell("keep_alive", "alias:ka;default:false;text-align:right;desc:thread keep alive time");
+        table.addCell("queue_wait_p50", "alias:qw50;default:false;text-align:right;desc:median time that tasks waited in queue");
+        table.addCell("queue_wait_p99", "alias:qw99;default:false;text-align:right;desc:99th percentile of time tasks waited in queue");
+        table.addCell("queue_wait_max", "alias:qwmx;default:false;text-align:right;desc:maximum time that a task waited in queue");
+        table.addCell("execution_p50", "alias:ex50;default:false;text-align:right;desc:median time that tasks took to run");
+        table.addCell("execution_p99", "alias:ex99;default:false;text-align:right;desc:99th percentile of time that tasks took to run");
+        table.addCell("execution_max", "alias:exmx;default:false;text-align:right;desc:maximum time that a task took to run");
         table.endHeaders();
         return table;
     }
@@ -236,6 +242,8 @@ public class RestThreadPoolAction extends AbstractCatAction {
                 table.addCell(max);
                 table.addCell(size);
                 table.addCell(keepAlive);
+                addTaskTimeCells(table, poolStats == null ? null : poolStats.getQueueWaitTime());
+                addTaskTimeCells(table, poolStats == null ? null : poolStats.getExecutionTime());
 
                 table.endRow();
             }
@@ -243,4 +251,16 @@ public class RestThreadPoolAction extends AbstractCatAction {
 
         return table;
     }
+
+    private static void addTaskTimeCells(Table table, ThreadPoolStats.TaskTimeStats taskTimeStats) {
+        if (taskTimeStats == null) {
+            table.addCell(null);
+            table.addCell(null);
+            table.addCell(null);
+        } else {
+            table.addCell(TimeValue.timeValueNanos(taskTimeStats.getP50Nanos()));
+            table.addCell(TimeValue.timeValueNanos(taskTimeStats.getP99Nanos()));
+            table.addCell(TimeValue.timeValueNanos(taskTimeStats.getMaxNanos()));
+        }
+    }
 }
@@ -8,21 +8,37 @@
 
 package org.elasticsearch.rest.action.document;
 
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.bulk.BulkShardRequest;
 import org.elasticsearch.action.support.ActiveShardCount;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.core.RestApiVersion;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.http.HttpRequestBodyStream;
+import org.elasticsearch.http.HttpTransportSettings;
 import org.elasticsearch.rest.BaseRestHandler;
+import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.action.RestStatusToXContentListener;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static org.elasticsearch.rest.RestRequest.Method.POST;
 import static org.elasticsearch.rest.RestRequest.Method.PUT;
@@ -41,9 +57,13 @@ public class RestBulkAction extends BaseRestHandler {
         " Specifying types in bulk requests is deprecated.";
 
     private final boolean allowExplicitIndex;
+    private final boolean streamingEnabled;
+    private final long streamingBatchSizeInBytes;
 
     public RestBulkAction(Settings settings) {
         this.allowExplicitIndex = MULTI_ALLOW_EXPLICIT_INDEX.get(settings);
+        this.streamingEnabled = HttpTransportSettings.SETTING_HTTP_BULK_STREAMING_ENABLED.get(settings);
+        this.streamingBatchSizeInBytes = HttpTransportSettings.SETTING_HTTP_BULK_STREAMING_BATCH_SIZE.get(settings).getBytes();
     }
 
     @Override
@@ -83,6 +103,12 @@ public class RestBulkAction extends BaseRestHandler {
         Boolean defaultRequireAlias = request.paramAsBoolean(DocWriteRequest.REQUIRE_ALIAS, null);
         bulkRequest.timeout(request.paramAsTime("timeout", BulkShardRequest.DEFAULT_TIMEOUT));
         bulkRequest.setRefreshPolicy(request.param("refresh"));
+        final HttpRequestBodyStream contentStream = request.contentStream();
+        if (contentStream != null) {
+            final StreamedBulk streamedBulk = new StreamedBulk(client, contentStream, bulkRequest, defaultIndex, defaultRouting,
+                defaultFetchSourceContext, defaultPipeline, defaultRequireAlias, request.getXContentType(), request.getRestApiVersion());
+            return streamedBulk::start;
+        }
         bulkRequest.add(request.requiredContent(), defaultIndex, defaultRouting,
             defaultFetchSourceContext, defaultPipeline, defaultRequireAlias, allowExplicitIndex, request.getXContentType(),
             request.getRestApiVersion());
@@ -95,8 +121,145 @@ public class RestBulkAction extends BaseRestHandler {
         return true;
     }
 
+    @Override
+    public boolean supportsStreamedBody() {
+        return streamingEnabled;
+    }
+
     @Override
     public boolean allowsUnsafeBuffers() {
         return true;
     }
+
+    /**
+     * Executes a bulk request whose body is streamed. The items are parsed as the body arrives and executed in batches of about
+     * {@code http.bulk.streaming.batch_size} bytes, one batch at a time, and the next chunk of the body is only requested once the batch
+     * before it completed. This bounds the memory that the request needs on the coordinating node regardless of its size, and pushes
+     * back on the client while the cluster is busy, since each batch goes through the indexing pressure checks of a regular bulk
+     * request. The item responses of all batches are returned as one bulk response. Since the batches are executed independently, a
+     * malformed item or a failed batch fails the request after the batches before it were executed.
+     */
+    private final class StreamedBulk implements HttpRequestBodyStream.ChunkHandler {
+
+        private final NodeClient client;
+        private final HttpRequestBodyStream stream;
+        private final BulkRequest template;
+        private final String defaultIndex;
+        private final String defaultRouting;
+        private final FetchSourceContext defaultFetchSourceContext;
+        private final String defaultPipeline;
+        private final Boolean defaultRequireAlias;
+        private final XContentType xContentType;
+        private final RestApiVersion restApiVersion;
+        private final long startTimeNanos = System.nanoTime();
+        private final List<BulkItemResponse> responses = new ArrayList<>();
+        private long ingestTookInMillis = BulkResponse.NO_INGEST_TOOK;
+
+        private Supplier<ThreadContext.StoredContext> contextSupplier;
+        private ActionListener<BulkResponse> listener;
+        private BulkRequest batch;
+        // the chunks that the items of the current batch and the leftover bytes may point into
+        private List<ReleasableBytesReference> chunks = new ArrayList<>();
+        // the bytes of the incomplete item at the end of the body received so far
+        private BytesReference leftover = BytesArray.EMPTY;
+
+        StreamedBulk(NodeClient client, HttpRequestBodyStream stream, BulkRequest template, String defaultIndex, String defaultRouting,
+                     FetchSourceContext defaultFetchSourceContext, String defaultPipeline, Boolean defaultRequireAlias,
+                     XContentType xContentType, RestApiVersion restApiVersion) {
+            this.client = client;
+            this.stream = stream;
+            this.template = template;
+            this.defaultIndex = defaultIndex;
+            this.defaultRouting = defaultRouting;
+            this.defaultFetchSourceContext = defaultFetchSourceContext;
+            this.defaultPipeline = defaultPipeline;
+            this.defaultRequireAlias = defaultRequireAlias;
+            this.xContentType = xContentType;
+            this.restApiVersion = restApiVersion;
+        }
+
+        void start(RestChannel channel) {
+            // the chunks arrive on a network thread, so they are processed in the context of the request
+            contextSupplier = client.threadPool().getThreadContext().newRestorableContext(false);
+            listener = new RestStatusToXContentListener<>(channel);
+            batch = newBatch();
+            stream.setHandler(this);
+            stream.next();
+        }
+
+        @Override
+        public void onChunk(ReleasableBytesReference chunk, boolean isLast) {
+            try (ThreadContext.StoredContext ignore = contextSupplier.get()) {
+                chunks.add(chunk);
+                try {
+                    final BytesReference data = leftover.length() == 0 ? chunk : CompositeBytesReference.of(leftover, chunk);
+                    final int consumed = batch.addIncrementally(data, defaultIndex, defaultRouting, defaultFetchSourceContext,
+                        defaultPipeline, defaultRequireAlias, allowExplicitIndex, xContentType, restApiVersion, isLast);
+                    leftover = data.slice(consumed, data.length() - consumed);
+                } catch (Exception e) {
+                    Releasables.close(chunks);
+                    listener.onFailure(e);
+                    return;
+                }
+                if (isLast || batch.estimatedSizeInBytes() >= streamingBatchSizeInBytes) {
+                    executeBatch(isLast);
+                } else {
+                    stream.next();
+                }
+            }
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            try (ThreadContext.StoredContext ignore = contextSupplier.get()) {
+                Releasables.close(chunks);
+                listener.onFailure(e);
+            }
+        }
+
+        private void executeBatch(boolean isLast) {
+            final BulkRequest request = batch;
+            final List<ReleasableBytesReference> requestChunks = chunks;
+            batch = newBatch();
+            chunks = new ArrayList<>();
+            if (isLast == false) {
+                // copy the incomplete item so that it does not keep the chunks of the executed batch around
+                leftover = new BytesArray(BytesReference.toBytes(leftover));
+            }
+            if (request.numberOfActions() == 0 && responses.isEmpty() == false) {
+                Releasables.close(requestChunks);
+                listener.onResponse(buildResponse());
+                return;
+            }
+            client.bulk(request, ActionListener.runBefore(ActionListener.wrap(response -> {
+                for (BulkItemResponse item : response.getItems()) {
+                    final int id = responses.size();
+                    responses.add(item.isFailed()
+                        ? BulkItemResponse.failure(id, item.getOpType(), item.getFailure())
+                        : BulkItemResponse.success(id, item.getOpType(), item.getResponse()));
+                }
+                if (response.getIngestTookInMillis() != BulkResponse.NO_INGEST_TOOK) {
+                    ingestTookInMillis = Math.max(ingestTookInMillis, 0L) + response.getIngestTookInMillis();
+                }
+                if (isLast) {
+                    listener.onResponse(buildResponse());
+                } else {
+                    stream.next();
+                }
+            }, listener::onFailure), () -> Releasables.close(requestChunks)));
+        }
+
+        private BulkRequest newBatch() {
+            final BulkRequest request = Requests.bulkRequest();
+            request.waitForActiveShards(template.waitForActiveShards());
+            request.timeout(template.timeout());
+            request.setRefreshPolicy(template.getRefreshPolicy());
+            return request;
+        }
+
+        private BulkResponse buildResponse() {
+            final long tookInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeNanos);
+            return new BulkResponse(responses.toArray(new BulkItemResponse[0]), tookInMillis, ingestTookInMillis);
+        }
+    }
 }
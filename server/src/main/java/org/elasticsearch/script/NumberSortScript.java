@@ -29,6 +29,26 @@ public abstract class NumberSortScript extends AbstractSortScript {
 
     public abstract double execute();
 
+    /**
+     * Computes the sort values of a block of documents of the segment into {@code values}, for scripts that don't
+     * {@link LeafFactory#needs_score() need scores}. Documents must be passed in increasing order. Scripts that can read their
+     * inputs for a whole block of documents at once override this, by default the documents are evaluated one at a time.
+     */
+    public void executeBlock(int[] docs, int count, double[] values) {
+        for (int i = 0; i < count; i++) {
+            setDocument(docs[i]);
+            values[i] = execute();
+        }
+    }
+
+    /**
+     * Whether {@link #executeBlock} computes the values of a block of documents faster than evaluating them one at a time, so that
+     * it is worth computing the values of documents before they are needed.
+     */
+    public boolean hasFastBlockExecution() {
+        return false;
+    }
+
     /**
      * A factory to construct {@link NumberSortScript} instances.
      */
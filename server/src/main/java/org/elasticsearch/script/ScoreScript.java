@@ -98,6 +98,18 @@ public abstract class ScoreScript extends DocBasedScript {
 
     public abstract double execute(ExplanationHolder explanation);
 
+    /**
+     * Scores a block of documents of the segment into {@code scores}, for scripts that don't {@link LeafFactory#needs_score() need
+     * scores}. Documents must be passed in increasing order. Scripts that can read their inputs for a whole block of documents at
+     * once override this, by default the documents are scored one at a time.
+     */
+    public void executeBlock(int[] docs, int count, double[] scores) {
+        for (int i = 0; i < count; i++) {
+            setDocument(docs[i]);
+            scores[i] = execute(null);
+        }
+    }
+
     /** Return the parameters for this script. */
     public Map<String, Object> getParams() {
         return params;
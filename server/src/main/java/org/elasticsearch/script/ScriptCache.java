@@ -94,6 +94,14 @@ public class ScriptCache {
                     logger.trace("context [{}]: compiling script, type: [{}], lang: [{}], options: [{}]", context.name, type,
                         lang, options);
                 }
+                // Scripts that the engine compiled before, e.g. before a restart, don't need to be compiled again. They are loaded before
+                // the compilation limit is checked on purpose: the limit guards against the cost of compiling, and loading only defines
+                // byte code that was compiled, and counted against the limit, when the script was first compiled. The number of scripts
+                // that can be loaded is bounded by what the engine stores.
+                Object loadedScript = scriptEngine.load(id, idOrCode, context, options);
+                if (loadedScript != null) {
+                    return loadedScript;
+                }
                 // Check whether too many compilations have happened
                 checkCompilationLimit();
                 Object compiledScript = scriptEngine.compile(id, idOrCode, context, options);
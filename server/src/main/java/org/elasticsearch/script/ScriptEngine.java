@@ -38,6 +38,24 @@ public interface ScriptEngine extends Closeable {
         Map<String, String> params
     );
 
+    /**
+     * Loads a script that this engine compiled earlier, for instance before the node restarted, without compiling it again. Loading a
+     * script does not count towards the compilation rate limit.
+     * @param name the name of the script. {@code null} if it is anonymous (inline). For a stored script, its the identifier.
+     * @param code actual source of the script
+     * @param context the context this script will be used for
+     * @param params compile-time parameters (such as flags to the compiler)
+     * @return A compiled script of the FactoryType from {@link ScriptContext}, or {@code null} if the script has to be compiled
+     */
+    default <FactoryType> FactoryType load(
+        String name,
+        String code,
+        ScriptContext<FactoryType> context,
+        Map<String, String> params
+    ) {
+        return null;
+    }
+
     @Override
     default void close() throws IOException {}
 
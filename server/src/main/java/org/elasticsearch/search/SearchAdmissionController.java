@@ -0,0 +1,487 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.common.xcontent.ToXContentObject;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.search.internal.ShardSearchRequest;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control for the shard-level phases that start a search on the {@code search} thread pool. Rather than handing every task
+ * straight to the thread pool's FIFO queue, tasks are handed over only once a thread is free to run them and until then wait in a queue
+ * that is ordered by weighted fair queueing across cost classes, so that one index that receives many expensive requests cannot starve
+ * the cheap requests of other indices.
+ * <p>
+ * The cost of a task is estimated from the recent execution time of tasks of the same class, tracked separately for requests with and
+ * without aggregations. Once the queue is {@link #SHED_THRESHOLD mostly full}, tasks of classes which already have more than their fair
+ * share of the queued tasks are rejected, and once it is completely full all tasks are rejected.
+ */
+public final class SearchAdmissionController {
+
+    public static final Setting<Boolean> SEARCH_ADMISSION_CONTROL_ENABLED_SETTING =
+        Setting.boolSetting("search.admission_control.enabled", false, Property.Dynamic, Property.NodeScope);
+
+    /**
+     * The fraction of the queue capacity beyond which tasks of classes with more than their fair share of queued tasks are rejected.
+     */
+    static final double SHED_THRESHOLD = 0.8;
+
+    /**
+     * The estimated cost of a task of a class for which no task has completed yet.
+     */
+    static final double DEFAULT_COST_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * The factor by which the estimated cost of a task with aggregations exceeds that of a task without, until a task with aggregations of
+     * its class has completed.
+     */
+    static final double AGGREGATIONS_COST_FACTOR = 4.0;
+
+    // weight of the latest observation in the moving average of the execution time of a class
+    private static final double EWMA_ALPHA = 0.3;
+
+    private final int maxRunning;
+    private final int maxQueued;
+    private final ThreadContext threadContext;
+    private final LongSupplier relativeNanoTime;
+
+    private volatile boolean enabled;
+
+    private final Object mutex = new Object();
+    // all the following fields are guarded by the mutex
+    private final PriorityQueue<QueuedTask> queue = new PriorityQueue<>();
+    private final Map<String, CostClass> costClasses = new HashMap<>();
+    private int running;
+    private double virtualTime;
+    private long sequenceNumber;
+
+    /**
+     * @param maxRunning the number of tasks that may run at once, i.e. the number of threads of the executor.
+     * @param maxQueued  the number of tasks that may wait for a thread, i.e. the queue size of the executor.
+     */
+    public SearchAdmissionController(int maxRunning, int maxQueued, ThreadContext threadContext, LongSupplier relativeNanoTime) {
+        if (maxRunning <= 0) {
+            throw new IllegalArgumentException("maxRunning must be positive but was [" + maxRunning + "]");
+        }
+        this.maxRunning = maxRunning;
+        this.maxQueued = maxQueued < 0 ? Integer.MAX_VALUE : maxQueued;
+        this.threadContext = threadContext;
+        this.relativeNanoTime = relativeNanoTime;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Execute the given task, which executes the given request, on the given executor once it is admitted. If the task is not admitted
+     * then it is notified via {@link AbstractRunnable#onRejection}.
+     */
+    public void execute(Executor executor, ShardSearchRequest request, AbstractRunnable task) {
+        final boolean hasAggregations = request.source() != null && request.source().aggregations() != null;
+        execute(executor, request.shardId().getIndexName(), hasAggregations, task);
+    }
+
+    void execute(Executor executor, String costClassName, boolean hasAggregations, AbstractRunnable task) {
+        if (enabled == false) {
+            executor.execute(task);
+            return;
+        }
+
+        final AdmittedTask admittedTask;
+        final boolean rejected;
+        synchronized (mutex) {
+            final CostClass costClass = costClasses.computeIfAbsent(costClassName, CostClass::new);
+            final double cost = costClass.estimateCost(hasAggregations);
+            if (running < maxRunning && queue.isEmpty()) {
+                running++;
+                costClass.onAdmitted(cost, 0L);
+                admittedTask = new AdmittedTask(executor, costClass, hasAggregations, task);
+                rejected = false;
+            } else if (shouldReject(costClass)) {
+                costClass.rejectedCount++;
+                admittedTask = null;
+                rejected = true;
+            } else {
+                final double start = Math.max(virtualTime, costClass.lastVirtualFinish);
+                costClass.lastVirtualFinish = start + cost;
+                costClass.queuedCount++;
+                final AbstractRunnable contextPreservingTask = (AbstractRunnable) threadContext.preserveContext(task);
+                queue.add(new QueuedTask(executor, costClass, hasAggregations, cost, contextPreservingTask, start,
+                    costClass.lastVirtualFinish, sequenceNumber++, relativeNanoTime.getAsLong()));
+                admittedTask = null;
+                rejected = false;
+            }
+        }
+
+        if (rejected) {
+            task.onRejection(new EsRejectedExecutionException("rejected execution of search task for [" + costClassName
+                + "] by admission control: too many search tasks are queued"));
+        } else if (admittedTask != null) {
+            dispatch(admittedTask);
+        }
+    }
+
+    private boolean shouldReject(CostClass costClass) {
+        assert Thread.holdsLock(mutex);
+        final int queued = queue.size();
+        if (queued >= maxQueued) {
+            return true;
+        }
+        if (queued < maxQueued * SHED_THRESHOLD) {
+            return false;
+        }
+        int queuingClasses = 0;
+        for (CostClass c : costClasses.values()) {
+            if (c.queuedCount > 0) {
+                queuingClasses++;
+            }
+        }
+        return costClass.queuedCount * queuingClasses >= queued;
+    }
+
+    /**
+     * Hand the given task to its executor. If the executor rejects it straight away then the thread it was admitted to is passed on to the
+     * next queued task, in a loop rather than recursively, so that an executor that rejects every task cannot overflow the stack.
+     */
+    private void dispatch(AdmittedTask admittedTask) {
+        AdmittedTask nextTask = admittedTask;
+        while (nextTask != null) {
+            final DispatchedTask dispatchedTask = new DispatchedTask(nextTask);
+            nextTask.executor.execute(dispatchedTask);
+            nextTask = dispatchedTask.onDispatched();
+        }
+    }
+
+    /**
+     * Release the thread used by a completed task, recording its execution time unless it is negative.
+     *
+     * @return the next queued task which was admitted to the released thread, or {@code null} if no task was queued
+     */
+    private AdmittedTask onCompletion(AdmittedTask completedTask, long executionTimeNanos) {
+        synchronized (mutex) {
+            if (executionTimeNanos >= 0L) {
+                completedTask.costClass.onCompleted(completedTask.hasAggregations, executionTimeNanos);
+            }
+            final QueuedTask queuedTask = queue.poll();
+            if (queuedTask == null) {
+                running--;
+                return null;
+            }
+            virtualTime = queuedTask.virtualStart;
+            queuedTask.costClass.queuedCount--;
+            queuedTask.costClass.onAdmitted(queuedTask.cost, relativeNanoTime.getAsLong() - queuedTask.enqueuedNanos);
+            return new AdmittedTask(queuedTask.executor, queuedTask.costClass, queuedTask.hasAggregations, queuedTask.task);
+        }
+    }
+
+    /**
+     * The runnable that is handed to the executor for an admitted task, which releases its thread once the task completes.
+     */
+    private final class DispatchedTask extends AbstractRunnable {
+
+        private final AdmittedTask admittedTask;
+        // guarded by this: whether the task is still being handed to the executor, and the next task to dispatch if it was rejected
+        private boolean dispatching = true;
+        private AdmittedTask nextTaskAfterRejection;
+
+        DispatchedTask(AdmittedTask admittedTask) {
+            this.admittedTask = admittedTask;
+        }
+
+        @Override
+        public boolean isForceExecution() {
+            return admittedTask.task.isForceExecution();
+        }
+
+        @Override
+        protected void doRun() {
+            final long startNanos = relativeNanoTime.getAsLong();
+            try {
+                admittedTask.task.run();
+            } finally {
+                dispatch(onCompletion(admittedTask, relativeNanoTime.getAsLong() - startNanos));
+            }
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            admittedTask.task.onFailure(e);
+        }
+
+        @Override
+        public void onRejection(Exception e) {
+            try {
+                admittedTask.task.onRejection(e);
+            } finally {
+                final AdmittedTask nextTask = onCompletion(admittedTask, -1L);
+                final boolean dispatchNow;
+                synchronized (this) {
+                    dispatchNow = dispatching == false;
+                    if (dispatchNow == false) {
+                        // rejected while being handed to the executor, the dispatching loop dispatches the next task
+                        nextTaskAfterRejection = nextTask;
+                    }
+                }
+                if (dispatchNow) {
+                    dispatch(nextTask);
+                }
+            }
+        }
+
+        /**
+         * @return the next task to dispatch if this task was rejected while it was handed to the executor
+         */
+        synchronized AdmittedTask onDispatched() {
+            dispatching = false;
+            return nextTaskAfterRejection;
+        }
+
+        @Override
+        public String toString() {
+            return admittedTask.task.toString();
+        }
+    }
+
+    /**
+     * Forget the statistics of the given class, e.g. because its index was removed from this node.
+     */
+    public void removeCostClass(String costClassName) {
+        synchronized (mutex) {
+            final CostClass costClass = costClasses.get(costClassName);
+            if (costClass != null && costClass.queuedCount == 0) {
+                costClasses.remove(costClassName);
+            }
+        }
+    }
+
+    /**
+     * @return the statistics of each class for which a task was submitted.
+     */
+    public Map<String, CostClassStats> stats() {
+        final Map<String, CostClassStats> stats = new HashMap<>();
+        synchronized (mutex) {
+            for (CostClass costClass : costClasses.values()) {
+                stats.put(costClass.name, new CostClassStats(costClass.admittedCount, costClass.rejectedCount, costClass.queuedCount,
+                    costClass.queueTimeNanos, (long) costClass.estimatedCostNanos, costClass.executionTimeNanos));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Statistics of the tasks of a single class.
+     */
+    public static final class CostClassStats implements Writeable, ToXContentObject {
+        private final long admittedCount;
+        private final long rejectedCount;
+        private final long queuedCount;
+        private final long queueTimeNanos;
+        private final long estimatedCostNanos;
+        private final long executionTimeNanos;
+
+        public CostClassStats(long admittedCount, long rejectedCount, long queuedCount, long queueTimeNanos, long estimatedCostNanos,
+                              long executionTimeNanos) {
+            this.admittedCount = admittedCount;
+            this.rejectedCount = rejectedCount;
+            this.queuedCount = queuedCount;
+            this.queueTimeNanos = queueTimeNanos;
+            this.estimatedCostNanos = estimatedCostNanos;
+            this.executionTimeNanos = executionTimeNanos;
+        }
+
+        public CostClassStats(StreamInput in) throws IOException {
+            this.admittedCount = in.readVLong();
+            this.rejectedCount = in.readVLong();
+            this.queuedCount = in.readVLong();
+            this.queueTimeNanos = in.readVLong();
+            this.estimatedCostNanos = in.readVLong();
+            this.executionTimeNanos = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(admittedCount);
+            out.writeVLong(rejectedCount);
+            out.writeVLong(queuedCount);
+            out.writeVLong(queueTimeNanos);
+            out.writeVLong(estimatedCostNanos);
+            out.writeVLong(executionTimeNanos);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("admitted", admittedCount);
+            builder.field("rejected", rejectedCount);
+            builder.field("queued", queuedCount);
+            builder.humanReadableField("queue_time_in_nanos", "queue_time", new TimeValue(queueTimeNanos, TimeUnit.NANOSECONDS));
+            builder.humanReadableField("estimated_cost_in_nanos", "estimated_cost",
+                new TimeValue(estimatedCostNanos, TimeUnit.NANOSECONDS));
+            builder.humanReadableField("execution_time_in_nanos", "execution_time",
+                new TimeValue(executionTimeNanos, TimeUnit.NANOSECONDS));
+            return builder.endObject();
+        }
+
+        /**
+         * @return the number of tasks which were handed to the executor.
+         */
+        public long getAdmittedCount() {
+            return admittedCount;
+        }
+
+        /**
+         * @return the number of tasks which were rejected by admission control.
+         */
+        public long getRejectedCount() {
+            return rejectedCount;
+        }
+
+        /**
+         * @return the number of tasks currently waiting for a thread.
+         */
+        public long getQueuedCount() {
+            return queuedCount;
+        }
+
+        /**
+         * @return the total time that admitted tasks spent waiting for a thread.
+         */
+        public long getQueueTimeNanos() {
+            return queueTimeNanos;
+        }
+
+        /**
+         * @return the total estimated cost of the admitted tasks.
+         */
+        public long getEstimatedCostNanos() {
+            return estimatedCostNanos;
+        }
+
+        /**
+         * @return the total time spent executing completed tasks.
+         */
+        public long getExecutionTimeNanos() {
+            return executionTimeNanos;
+        }
+    }
+
+    private static final class CostClass {
+        final String name;
+        double lastVirtualFinish;
+        int queuedCount;
+        long admittedCount;
+        long rejectedCount;
+        long queueTimeNanos;
+        double estimatedCostNanos;
+        long executionTimeNanos;
+        // moving averages of the execution time of tasks without and with aggregations, or NaN if no such task has completed yet
+        double averageNanos = Double.NaN;
+        double averageAggregationsNanos = Double.NaN;
+
+        CostClass(String name) {
+            this.name = name;
+        }
+
+        double estimateCost(boolean hasAggregations) {
+            final double base = Double.isNaN(averageNanos) ? DEFAULT_COST_NANOS : averageNanos;
+            if (hasAggregations) {
+                return Double.isNaN(averageAggregationsNanos) ? base * AGGREGATIONS_COST_FACTOR : averageAggregationsNanos;
+            }
+            return Double.isNaN(averageNanos) && Double.isNaN(averageAggregationsNanos) == false
+                ? averageAggregationsNanos / AGGREGATIONS_COST_FACTOR
+                : base;
+        }
+
+        void onAdmitted(double cost, long queueTimeNanos) {
+            admittedCount++;
+            estimatedCostNanos += cost;
+            this.queueTimeNanos += queueTimeNanos;
+        }
+
+        void onCompleted(boolean hasAggregations, long executionTimeNanos) {
+            this.executionTimeNanos += executionTimeNanos;
+            if (hasAggregations) {
+                averageAggregationsNanos = movingAverage(averageAggregationsNanos, executionTimeNanos);
+            } else {
+                averageNanos = movingAverage(averageNanos, executionTimeNanos);
+            }
+        }
+
+        private static double movingAverage(double average, long observation) {
+            return Double.isNaN(average) ? observation : average + EWMA_ALPHA * (observation - average);
+        }
+    }
+
+    private static final class AdmittedTask {
+        final Executor executor;
+        final CostClass costClass;
+        final boolean hasAggregations;
+        final AbstractRunnable task;
+
+        AdmittedTask(Executor executor, CostClass costClass, boolean hasAggregations, AbstractRunnable task) {
+            this.executor = executor;
+            this.costClass = costClass;
+            this.hasAggregations = hasAggregations;
+            this.task = task;
+        }
+    }
+
+    private static final class QueuedTask implements Comparable<QueuedTask> {
+        final Executor executor;
+        final CostClass costClass;
+        final boolean hasAggregations;
+        final double cost;
+        final AbstractRunnable task;
+        final double virtualStart;
+        final double virtualFinish;
+        final long sequenceNumber;
+        final long enqueuedNanos;
+
+        QueuedTask(Executor executor, CostClass costClass, boolean hasAggregations, double cost, AbstractRunnable task,
+                   double virtualStart, double virtualFinish, long sequenceNumber, long enqueuedNanos) {
+            this.executor = executor;
+            this.costClass = costClass;
+            this.hasAggregations = hasAggregations;
+            this.cost = cost;
+            this.task = task;
+            this.virtualStart = virtualStart;
+            this.virtualFinish = virtualFinish;
+            this.sequenceNumber = sequenceNumber;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
+        @Override
+        public int compareTo(QueuedTask other) {
+            final int byFinish = Double.compare(virtualFinish, other.virtualFinish);
+            return byFinish != 0 ? byFinish : Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistics of the admission control of the {@code search} thread pool of a node, by index name. See {@link SearchAdmissionController}.
+ */
+public class SearchAdmissionStats implements Writeable, ToXContentFragment {
+
+    private final boolean enabled;
+    private final Map<String, SearchAdmissionController.CostClassStats> indices;
+
+    public SearchAdmissionStats(boolean enabled, Map<String, SearchAdmissionController.CostClassStats> indices) {
+        this.enabled = enabled;
+        this.indices = indices;
+    }
+
+    public SearchAdmissionStats(StreamInput in) throws IOException {
+        this.enabled = in.readBoolean();
+        this.indices = in.readMap(StreamInput::readString, SearchAdmissionController.CostClassStats::new);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeBoolean(enabled);
+        out.writeMap(indices, StreamOutput::writeString, (stream, stats) -> stats.writeTo(stream));
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("search_admission");
+        builder.field("enabled", enabled);
+        builder.startObject("indices");
+        for (Map.Entry<String, SearchAdmissionController.CostClassStats> entry : new TreeMap<>(indices).entrySet()) {
+            builder.field(entry.getKey(), entry.getValue());
+        }
+        builder.endObject();
+        return builder.endObject();
+    }
+
+    /**
+     * @return whether admission control is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the statistics of each index for which a search task was submitted.
+     */
+    public Map<String, SearchAdmissionController.CostClassStats> getIndices() {
+        return indices;
+    }
+}
@@ -43,6 +43,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.CollectionUtils;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.Index;
@@ -218,6 +219,8 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
     private volatile boolean enableRewriteAggsToFilterByFilter;
 
+    private final SearchAdmissionController searchAdmissionController;
+
     private final Cancellable keepAliveReaper;
 
     private final AtomicLong idGenerator = new AtomicLong();
@@ -270,6 +273,16 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         enableRewriteAggsToFilterByFilter = ENABLE_REWRITE_AGGS_TO_FILTER_BY_FILTER.get(settings);
         clusterService.getClusterSettings()
             .addSettingsUpdateConsumer(ENABLE_REWRITE_AGGS_TO_FILTER_BY_FILTER, this::setEnableRewriteAggsToFilterByFilter);
+
+        final ThreadPool.Info searchPoolInfo = threadPool.info(Names.SEARCH);
+        this.searchAdmissionController = new SearchAdmissionController(
+            searchPoolInfo == null ? 1 : searchPoolInfo.getMax(),
+            searchPoolInfo == null || searchPoolInfo.getQueueSize() == null ? -1 : (int) searchPoolInfo.getQueueSize().singles(),
+            threadPool.getThreadContext(),
+            System::nanoTime);
+        searchAdmissionController.setEnabled(SearchAdmissionController.SEARCH_ADMISSION_CONTROL_ENABLED_SETTING.get(settings));
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(SearchAdmissionController.SEARCH_ADMISSION_CONTROL_ENABLED_SETTING,
+            searchAdmissionController::setEnabled);
     }
 
     private void validateKeepAlives(TimeValue defaultKeepAlive, TimeValue maxKeepAlive) {
@@ -320,6 +333,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         if (reason == IndexRemovalReason.DELETED || reason == IndexRemovalReason.CLOSED || reason == IndexRemovalReason.REOPENED) {
             freeAllContextForIndex(index);
         }
+        searchAdmissionController.removeCostClass(index.getName());
     }
 
     @Override
@@ -370,7 +384,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         final IndexShard shard = getShard(request);
         rewriteAndFetchShardRequest(shard, request, listener.delegateFailure((l, rewritten) -> {
             // fork the execution in the search thread pool
-            runAsync(getExecutor(shard), () -> executeDfsPhase(request, task), l);
+            runAdmitted(shard, request, () -> executeDfsPhase(request, task), l);
         }));
     }
 
@@ -422,7 +436,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                 }
             }
             // fork the execution in the search thread pool
-            runAsync(getExecutor(shard), () -> executeQueryPhase(orig, task), l);
+            runAdmitted(shard, orig, () -> executeQueryPhase(orig, task), l);
         }));
     }
 
@@ -443,6 +457,28 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         executor.execute(ActionRunnable.supply(listener, executable::get));
     }
 
+    /**
+     * Like {@link #runAsync} but subject to admission control if the request runs on the {@code search} thread pool. Only the phases that
+     * start a search on a shard go through admission control, so that searches that were already admitted are not held up.
+     */
+    private <T> void runAdmitted(IndexShard shard, ShardSearchRequest request, CheckedSupplier<T, Exception> executable,
+                                 ActionListener<T> listener) {
+        final String executorName = getExecutorName(shard);
+        final AbstractRunnable runnable = ActionRunnable.supply(listener, executable::get);
+        if (Names.SEARCH.equals(executorName)) {
+            searchAdmissionController.execute(threadPool.executor(executorName), request, runnable);
+        } else {
+            threadPool.executor(executorName).execute(runnable);
+        }
+    }
+
+    /**
+     * @return statistics of the admission control of the {@code search} thread pool, by index name.
+     */
+    public SearchAdmissionStats getSearchAdmissionStats() {
+        return new SearchAdmissionStats(searchAdmissionController.isEnabled(), searchAdmissionController.stats());
+    }
+
     private SearchPhaseResult executeQueryPhase(ShardSearchRequest request, SearchShardTask task) throws Exception {
         final ReaderContext readerContext = createOrGetReaderContext(request);
         try (Releasable ignored = readerContext.markAsUsed(getKeepAlive(request));
@@ -550,16 +586,18 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
     }
 
     private Executor getExecutor(IndexShard indexShard) {
+        return threadPool.executor(getExecutorName(indexShard));
+    }
+
+    private String getExecutorName(IndexShard indexShard) {
         assert indexShard != null;
-        final String executorName;
         if (indexShard.isSystem()) {
-            executorName = executorSelector.executorForSearch(indexShard.shardId().getIndexName());
+            return executorSelector.executorForSearch(indexShard.shardId().getIndexName());
         } else if (indexShard.indexSettings().isSearchThrottled()) {
-            executorName = Names.SEARCH_THROTTLED;
+            return Names.SEARCH_THROTTLED;
         } else {
-            executorName = Names.SEARCH;
+            return Names.SEARCH;
         }
-        return threadPool.executor(executorName);
     }
 
     public void executeFetchPhase(InternalScrollSearchRequest request, SearchShardTask task,
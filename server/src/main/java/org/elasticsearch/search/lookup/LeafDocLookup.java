@@ -24,7 +24,13 @@ import java.util.function.Function;
 
 public class LeafDocLookup implements Map<String, ScriptDocValues<?>> {
 
+    private static final int MAX_CONSTANT_FIELDS = 8;
+
     private final Map<String, ScriptDocValues<?>> localCacheFieldData = new HashMap<>(4);
+    // fields that were looked up with getConstant, found by the identity of their names
+    private final String[] constantFieldNames = new String[MAX_CONSTANT_FIELDS];
+    private final ScriptDocValues<?>[] constantFieldValues = new ScriptDocValues<?>[MAX_CONSTANT_FIELDS];
+    private int numConstantFields;
     private final Function<String, MappedFieldType> fieldTypeLookup;
     private final Function<MappedFieldType, IndexFieldData<?>> fieldDataLookup;
 
@@ -63,6 +69,30 @@ public class LeafDocLookup implements Map<String, ScriptDocValues<?>> {
             });
             localCacheFieldData.put(fieldName, scriptValues);
         }
+        return advance(scriptValues);
+    }
+
+    /**
+     * Same as {@link #get(Object)} for callers that always pass the same {@link String} instances, like scripts that access
+     * fields by names that are constants of their byte code. The doc values of the first few of these fields are found by
+     * comparing the identity of their names instead of hashing them for every document.
+     */
+    public ScriptDocValues<?> getConstant(String fieldName) {
+        for (int i = 0; i < numConstantFields; i++) {
+            if (constantFieldNames[i] == fieldName) {
+                return advance(constantFieldValues[i]);
+            }
+        }
+        ScriptDocValues<?> scriptValues = get(fieldName);
+        if (numConstantFields < MAX_CONSTANT_FIELDS) {
+            constantFieldNames[numConstantFields] = fieldName;
+            constantFieldValues[numConstantFields] = scriptValues;
+            numConstantFields++;
+        }
+        return scriptValues;
+    }
+
+    private ScriptDocValues<?> advance(ScriptDocValues<?> scriptValues) {
         try {
             scriptValues.setNextDocId(docId);
         } catch (IOException e) {
@@ -311,6 +311,9 @@ public class ScriptSortBuilder extends SortBuilder<ScriptSortBuilder> {
                     @Override
                     protected SortedNumericDoubleValues getValues(LeafReaderContext context) throws IOException {
                         leafScript = numberSortScript.newInstance(new DocValuesDocReader(searchLookup, context));
+                        if (leafScript.hasFastBlockExecution()) {
+                            return FieldData.singleton(new BlockNumberSortValues(leafScript, context.reader().maxDoc()));
+                        }
                         final NumericDoubleValues values = new NumericDoubleValues() {
                             @Override
                             public boolean advanceExact(int doc) throws IOException {
@@ -407,4 +410,55 @@ public class ScriptSortBuilder extends SortBuilder<ScriptSortBuilder> {
         }
         return new ScriptSortBuilder(this).setNestedSort(rewrite);
     }
+
+    /**
+     * The values of a {@link NumberSortScript} that are computed with {@link NumberSortScript#executeBlock} for blocks of consecutive
+     * documents, starting at the first requested document that is not in the current block. Blocks grow while most of their documents
+     * are requested, like when sorting all documents, and shrink otherwise, so that the values of few documents are computed in vain
+     * when sorting the matches of sparse queries.
+     */
+    private static final class BlockNumberSortValues extends NumericDoubleValues {
+        private static final int MAX_BLOCK_SIZE = 64;
+
+        private final NumberSortScript script;
+        private final int maxDoc;
+        private final int[] docs = new int[MAX_BLOCK_SIZE];
+        private final double[] values = new double[MAX_BLOCK_SIZE];
+        private int blockSize = 1;
+        private int start;
+        private int count;
+        private int requested;
+        private int doc = -1;
+
+        BlockNumberSortValues(NumberSortScript script, int maxDoc) {
+            this.script = script;
+            this.maxDoc = maxDoc;
+        }
+
+        @Override
+        public boolean advanceExact(int target) {
+            if (target >= start + count) {
+                if (count > 0) {
+                    blockSize = requested * 2 >= count ? Math.min(blockSize * 2, MAX_BLOCK_SIZE) : Math.max(blockSize / 2, 1);
+                }
+                start = target;
+                count = Math.min(blockSize, maxDoc - target);
+                for (int i = 0; i < count; i++) {
+                    docs[i] = target + i;
+                }
+                script.executeBlock(docs, count, values);
+                requested = 0;
+            }
+            if (target != doc) {
+                requested++;
+                doc = target;
+            }
+            return true;
+        }
+
+        @Override
+        public double doubleValue() {
+            return values[doc - start];
+        }
+    }
 }
@@ -69,6 +69,7 @@ import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Tuple;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.indices.SystemDataStreamDescriptor;
 import org.elasticsearch.indices.SystemIndices;
 import org.elasticsearch.repositories.FinalizeSnapshotContext;
@@ -2329,6 +2330,17 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
         return repositoryMetaVersion.onOrAfter(FILE_INFO_WRITER_UUIDS_IN_SHARD_DATA_VERSION);
     }
 
+    /**
+     * Checks whether the metadata version supports storing files as content-defined chunks in the shard level metadata. Older nodes
+     * fail to read shard level metadata that lists content chunks, so files are stored as parts of a fixed size below this version.
+     *
+     * @param repositoryMetaVersion version to check
+     * @return true if version supports content chunks in the shard level metadata
+     */
+    public static boolean useContentChunks(Version repositoryMetaVersion) {
+        return repositoryMetaVersion.onOrAfter(BlobStoreIndexShardSnapshot.FileInfo.CONTENT_CHUNKS_VERSION);
+    }
+
     /** Deletes snapshot from repository
      *
      * @param deleteEntry       delete entry in cluster state
@@ -30,6 +30,7 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
     private final Setting<Integer> coreSetting;
     private final Setting<Integer> maxSetting;
     private final Setting<TimeValue> keepAliveSetting;
+    private final Setting<Boolean> virtualThreadsSetting;
 
     /**
      * Construct a scaling executor builder; the settings will have the
@@ -63,11 +64,27 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
         this.maxSetting = Setting.intSetting(settingsKey(prefix, "max"), max, Setting.Property.NodeScope);
         this.keepAliveSetting =
             Setting.timeSetting(settingsKey(prefix, "keep_alive"), keepAlive, Setting.Property.NodeScope);
+        final String virtualThreadsKey = settingsKey(prefix, "virtual_threads");
+        this.virtualThreadsSetting = Setting.boolSetting(virtualThreadsKey, false,
+            value -> validateVirtualThreads(virtualThreadsKey, value), Setting.Property.NodeScope);
+    }
+
+    private static void validateVirtualThreads(final String key, final boolean virtualThreads) {
+        if (virtualThreads == false) {
+            return;
+        }
+        if (EsExecutors.virtualThreadsSupported() == false) {
+            throw new IllegalArgumentException("[" + key + "] requires a JVM that supports virtual threads");
+        }
+        if (System.getSecurityManager() != null) {
+            // virtual threads run without any permissions under the security manager, so their tasks could not access the file system
+            throw new IllegalArgumentException("[" + key + "] cannot be used while the security manager is enabled");
+        }
     }
 
     @Override
     public List<Setting<?>> getRegisteredSettings() {
-        return Arrays.asList(coreSetting, maxSetting, keepAliveSetting);
+        return Arrays.asList(coreSetting, maxSetting, keepAliveSetting, virtualThreadsSetting);
     }
 
     @Override
@@ -76,7 +93,8 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
         final int coreThreads = coreSetting.get(settings);
         final int maxThreads = maxSetting.get(settings);
         final TimeValue keepAlive = keepAliveSetting.get(settings);
-        return new ScalingExecutorSettings(nodeName, coreThreads, maxThreads, keepAlive);
+        final boolean virtualThreads = virtualThreadsSetting.get(settings);
+        return new ScalingExecutorSettings(nodeName, coreThreads, maxThreads, keepAlive, virtualThreads);
     }
 
     ThreadPool.ExecutorHolder build(final ScalingExecutorSettings settings, final ThreadContext threadContext) {
@@ -84,7 +102,15 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
         int core = settings.core;
         int max = settings.max;
         final ThreadPool.Info info = new ThreadPool.Info(name(), ThreadPool.ThreadPoolType.SCALING, core, max, keepAlive, null);
-        final ThreadFactory threadFactory = EsExecutors.daemonThreadFactory(EsExecutors.threadName(settings.nodeName, name()));
+        final String threadName = EsExecutors.threadName(settings.nodeName, name());
+        final ThreadFactory threadFactory;
+        if (settings.virtualThreads) {
+            // the pool's maximum size still bounds the number of tasks running at once, but blocked tasks do not hold on to OS threads
+            threadFactory = EsExecutors.virtualThreadFactory(threadName);
+            assert threadFactory != null : "virtual threads were enabled on a JVM that does not support them";
+        } else {
+            threadFactory = EsExecutors.daemonThreadFactory(threadName);
+        }
         final ExecutorService executor =
             EsExecutors.newScaling(
                     settings.nodeName + "/" + name(),
@@ -114,11 +140,15 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
         private final int max;
         private final TimeValue keepAlive;
 
-        ScalingExecutorSettings(final String nodeName, final int core, final int max, final TimeValue keepAlive) {
+        private final boolean virtualThreads;
+
+        ScalingExecutorSettings(final String nodeName, final int core, final int max, final TimeValue keepAlive,
+                                final boolean virtualThreads) {
             super(nodeName);
             this.core = core;
             this.max = max;
             this.keepAlive = keepAlive;
+            this.virtualThreads = virtualThreads;
         }
     }
 
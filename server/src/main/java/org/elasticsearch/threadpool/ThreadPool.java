@@ -322,6 +322,8 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler {
             long rejected = -1;
             int largest = -1;
             long completed = -1;
+            ThreadPoolStats.TaskTimeStats queueWaitTime = null;
+            ThreadPoolStats.TaskTimeStats executionTime = null;
             if (holder.executor() instanceof ThreadPoolExecutor) {
                 ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) holder.executor();
                 threads = threadPoolExecutor.getPoolSize();
@@ -334,7 +336,12 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler {
                     rejected = ((XRejectedExecutionHandler) rejectedExecutionHandler).rejected();
                 }
             }
-            stats.add(new ThreadPoolStats.Stats(name, threads, queue, active, rejected, largest, completed));
+            if (holder.executor() instanceof EsThreadPoolExecutor) {
+                EsThreadPoolExecutor esThreadPoolExecutor = (EsThreadPoolExecutor) holder.executor();
+                queueWaitTime = ThreadPoolStats.TaskTimeStats.of(esThreadPoolExecutor.getQueueWaitNanos());
+                executionTime = ThreadPoolStats.TaskTimeStats.of(esThreadPoolExecutor.getExecutionNanos());
+            }
+            stats.add(new ThreadPoolStats.Stats(name, threads, queue, active, rejected, largest, completed, queueWaitTime, executionTime));
         }
         return new ThreadPoolStats(stats);
     }
@@ -8,17 +8,23 @@
 
 package org.elasticsearch.threadpool;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.metrics.ExponentialBucketHistogram;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.TimeValue;
 
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<ThreadPoolStats.Stats> {
 
@@ -31,8 +37,17 @@ public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<
         private final long rejected;
         private final int largest;
         private final long completed;
+        @Nullable
+        private final TaskTimeStats queueWaitTime;
+        @Nullable
+        private final TaskTimeStats executionTime;
 
         public Stats(String name, int threads, int queue, int active, long rejected, int largest, long completed) {
+            this(name, threads, queue, active, rejected, largest, completed, null, null);
+        }
+
+        public Stats(String name, int threads, int queue, int active, long rejected, int largest, long completed,
+                     @Nullable TaskTimeStats queueWaitTime, @Nullable TaskTimeStats executionTime) {
             this.name = name;
             this.threads = threads;
             this.queue = queue;
@@ -40,6 +55,8 @@ public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<
             this.rejected = rejected;
             this.largest = largest;
             this.completed = completed;
+            this.queueWaitTime = queueWaitTime;
+            this.executionTime = executionTime;
         }
 
         public Stats(StreamInput in) throws IOException {
@@ -50,6 +67,13 @@ public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<
             rejected = in.readLong();
             largest = in.readInt();
             completed = in.readLong();
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                queueWaitTime = in.readOptionalWriteable(TaskTimeStats::new);
+                executionTime = in.readOptionalWriteable(TaskTimeStats::new);
+            } else {
+                queueWaitTime = null;
+                executionTime = null;
+            }
         }
 
         @Override
@@ -61,6 +85,10 @@ public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<
             out.writeLong(rejected);
             out.writeInt(largest);
             out.writeLong(completed);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeOptionalWriteable(queueWaitTime);
+                out.writeOptionalWriteable(executionTime);
+            }
         }
 
         public String getName() {
@@ -91,6 +119,22 @@ public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<
             return this.completed;
         }
 
+        /**
+         * @return the distribution of the times that tasks waited in the queue of this pool, or {@code null} if not tracked.
+         */
+        @Nullable
+        public TaskTimeStats getQueueWaitTime() {
+            return queueWaitTime;
+        }
+
+        /**
+         * @return the distribution of the times that tasks took to run on this pool, or {@code null} if not tracked.
+         */
+        @Nullable
+        public TaskTimeStats getExecutionTime() {
+            return executionTime;
+        }
+
         @Override
         public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
             builder.startObject(name);
@@ -112,6 +156,16 @@ public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<
             if (completed != -1) {
                 builder.field(Fields.COMPLETED, completed);
             }
+            if (queueWaitTime != null) {
+                builder.startObject(Fields.QUEUE_WAIT_TIME);
+                queueWaitTime.toXContent(builder, params);
+                builder.endObject();
+            }
+            if (executionTime != null) {
+                builder.startObject(Fields.EXECUTION_TIME);
+                executionTime.toXContent(builder, params);
+                builder.endObject();
+            }
             builder.endObject();
             return builder;
         }
@@ -134,6 +188,90 @@ public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<
         }
     }
 
+    /**
+     * A summary of the distribution of the times taken by the tasks of a thread pool, with percentiles that are accurate to within a factor
+     * of two as computed by an {@link ExponentialBucketHistogram}.
+     */
+    public static class TaskTimeStats implements Writeable, ToXContentFragment {
+
+        private final long count;
+        private final long p50Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        public TaskTimeStats(long count, long p50Nanos, long p99Nanos, long maxNanos) {
+            this.count = count;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public TaskTimeStats(StreamInput in) throws IOException {
+            count = in.readVLong();
+            p50Nanos = in.readVLong();
+            p99Nanos = in.readVLong();
+            maxNanos = in.readVLong();
+        }
+
+        public static TaskTimeStats of(ExponentialBucketHistogram histogram) {
+            final long[] snapshot = histogram.getSnapshot();
+            // read after the snapshot so that it bounds every observation in the snapshot
+            final long max = histogram.getMax();
+            // the percentiles are bucket upper bounds, which may exceed the largest observation in the bucket
+            return new TaskTimeStats(
+                ExponentialBucketHistogram.getCount(snapshot),
+                Math.min(max, ExponentialBucketHistogram.getPercentile(0.5, snapshot)),
+                Math.min(max, ExponentialBucketHistogram.getPercentile(0.99, snapshot)),
+                max);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(count);
+            out.writeVLong(p50Nanos);
+            out.writeVLong(p99Nanos);
+            out.writeVLong(maxNanos);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.field(Fields.COUNT, count);
+            builder.humanReadableField(Fields.P50_NANOS, Fields.P50, new TimeValue(p50Nanos, TimeUnit.NANOSECONDS));
+            builder.humanReadableField(Fields.P99_NANOS, Fields.P99, new TimeValue(p99Nanos, TimeUnit.NANOSECONDS));
+            builder.humanReadableField(Fields.MAX_NANOS, Fields.MAX, new TimeValue(maxNanos, TimeUnit.NANOSECONDS));
+            return builder;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            TaskTimeStats that = (TaskTimeStats) o;
+            return count == that.count && p50Nanos == that.p50Nanos && p99Nanos == that.p99Nanos && maxNanos == that.maxNanos;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(count, p50Nanos, p99Nanos, maxNanos);
+        }
+    }
+
     private List<Stats> stats;
 
     public ThreadPoolStats(List<Stats> stats) {
@@ -163,6 +301,15 @@ public class ThreadPoolStats implements Writeable, ToXContentFragment, Iterable<
         static final String REJECTED = "rejected";
         static final String LARGEST = "largest";
         static final String COMPLETED = "completed";
+        static final String QUEUE_WAIT_TIME = "queue_wait_time";
+        static final String EXECUTION_TIME = "execution_time";
+        static final String COUNT = "count";
+        static final String P50 = "p50";
+        static final String P50_NANOS = "p50_in_nanos";
+        static final String P99 = "p99";
+        static final String P99_NANOS = "p99_in_nanos";
+        static final String MAX = "max";
+        static final String MAX_NANOS = "max_in_nanos";
     }
 
     @Override
@@ -0,0 +1,105 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the compression ratio achieved for the messages of each action and decides whether further messages of that action are worth
+ * compressing. Once enough messages of an action have been compressed, compression is skipped for that action if the compressed messages
+ * were on average not meaningfully smaller than their uncompressed form, except for one in every {@link #RESAMPLE_INTERVAL} messages
+ * which is still compressed so that a change in the payloads of the action is eventually noticed.
+ */
+final class AdaptiveCompression {
+
+    /**
+     * The number of compressed messages of an action that must be observed before compression may be skipped for it.
+     */
+    static final int MIN_SAMPLES = 16;
+
+    /**
+     * Compression is skipped for an action if its compressed messages are on average larger than this fraction of their uncompressed size.
+     */
+    static final double MAX_USEFUL_RATIO = 0.9;
+
+    /**
+     * While compression is skipped for an action, one in this many of its messages is still compressed to re-sample its ratio.
+     */
+    static final int RESAMPLE_INTERVAL = 64;
+
+    // weight of the latest sample in the moving average of the ratio
+    private static final double SAMPLE_WEIGHT = 0.25;
+
+    private final Map<String, ActionRatio> ratios = ConcurrentCollections.newConcurrentMap();
+
+    private volatile boolean enabled;
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the scheme with which to compress the next message of the given action, which is either the given scheme or {@code null} if
+     * compression has not been worthwhile for this action recently.
+     */
+    Compression.Scheme adjustCompressionScheme(String action, Compression.Scheme compressionScheme) {
+        if (compressionScheme == null || enabled == false) {
+            return compressionScheme;
+        }
+        final ActionRatio ratio = ratios.get(action);
+        return ratio == null || ratio.shouldCompress() ? compressionScheme : null;
+    }
+
+    /**
+     * Record that a message of the given action was compressed from {@code uncompressedBytes} down to {@code compressedBytes}.
+     */
+    void onMessageCompressed(String action, long uncompressedBytes, long compressedBytes) {
+        if (enabled == false || uncompressedBytes <= 0) {
+            return;
+        }
+        ratios.computeIfAbsent(action, a -> new ActionRatio()).addSample((double) compressedBytes / uncompressedBytes);
+    }
+
+    /**
+     * The moving average of the compression ratio of an action. It is updated and read on every outbound message of the action, from
+     * many transport threads at once, so it doesn't take locks: the average is stored as the bits of a double and updated with CAS.
+     */
+    private static final class ActionRatio {
+        // the number of samples, only counted up to MIN_SAMPLES so that the counter isn't contended once the average is established
+        private final AtomicInteger samples = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicLong averageRatioBits = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+
+        void addSample(double ratio) {
+            while (true) {
+                final long currentBits = averageRatioBits.get();
+                final double current = Double.longBitsToDouble(currentBits);
+                final double next = Double.isNaN(current) ? ratio : current + SAMPLE_WEIGHT * (ratio - current);
+                if (averageRatioBits.compareAndSet(currentBits, Double.doubleToRawLongBits(next))) {
+                    break;
+                }
+            }
+            if (samples.get() < MIN_SAMPLES) {
+                samples.incrementAndGet();
+            }
+        }
+
+        boolean shouldCompress() {
+            if (samples.get() < MIN_SAMPLES || Double.longBitsToDouble(averageRatioBits.get()) <= MAX_USEFUL_RATIO) {
+                return true;
+            }
+            // still compress one in every RESAMPLE_INTERVAL messages that would be skipped, to notice if the ratio improves
+            return skipped.incrementAndGet() % RESAMPLE_INTERVAL == 0;
+        }
+    }
+}
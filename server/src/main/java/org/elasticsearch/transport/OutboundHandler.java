@@ -28,16 +28,25 @@ import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.util.Set;
 
 final class OutboundHandler {
 
     private static final Logger logger = LogManager.getLogger(OutboundHandler.class);
 
+    private static final Set<String> LATENCY_SENSITIVE_ACTIONS = Set.of(
+        "indices:data/read/search[can_match]",
+        "indices:data/read/search[phase/query]",
+        "internal:coordination/fault_detection/follower_check",
+        "internal:coordination/fault_detection/leader_check"
+    );
+
     private final String nodeName;
     private final Version version;
     private final StatsTracker statsTracker;
     private final ThreadPool threadPool;
     private final BigArrays bigArrays;
+    private final AdaptiveCompression adaptiveCompression = new AdaptiveCompression();
 
     private volatile long slowLogThresholdMs = Long.MAX_VALUE;
 
@@ -55,8 +64,17 @@ final class OutboundHandler {
         this.slowLogThresholdMs = slowLogThreshold.getMillis();
     }
 
+    /**
+     * Whether to skip compressing the messages of actions whose recent messages did not compress well.
+     *
+     * @see AdaptiveCompression
+     */
+    void setAdaptiveCompression(boolean adaptiveCompression) {
+        this.adaptiveCompression.setEnabled(adaptiveCompression);
+    }
+
     void sendBytes(TcpChannel channel, BytesReference bytes, ActionListener<Void> listener) {
-        internalSend(channel, bytes, null, listener);
+        internalSend(channel, bytes, null, false, listener);
     }
 
     /**
@@ -67,8 +85,8 @@ final class OutboundHandler {
                      final TransportRequest request, final TransportRequestOptions options, final Version channelVersion,
                      final Compression.Scheme compressionScheme, final boolean isHandshake) throws IOException, TransportException {
         Version version = Version.min(this.version, channelVersion);
-        OutboundMessage.Request message =
-            new OutboundMessage.Request(threadPool.getThreadContext(), request, version, action, requestId, isHandshake, compressionScheme);
+        OutboundMessage.Request message = new OutboundMessage.Request(threadPool.getThreadContext(), request, version, action, requestId,
+            isHandshake, adaptiveCompression.adjustCompressionScheme(action, compressionScheme));
         if (request.tryIncRef() == false) {
             assert false : "request [" + request + "] has been released already";
             throw new AlreadyClosedException("request [" + request + "] has been released already");
@@ -80,7 +98,7 @@ final class OutboundHandler {
                 request.decRef();
             }
         });
-        sendMessage(channel, message, listener);
+        sendMessage(channel, action, message, listener);
     }
 
     /**
@@ -94,7 +112,7 @@ final class OutboundHandler {
         throws IOException {
         Version version = Version.min(this.version, nodeVersion);
         OutboundMessage.Response message = new OutboundMessage.Response(threadPool.getThreadContext(), response, version,
-            requestId, isHandshake, compressionScheme);
+            requestId, isHandshake, adaptiveCompression.adjustCompressionScheme(action, compressionScheme));
         ActionListener<Void> listener = ActionListener.wrap(() -> {
                 try {
                     messageListener.onResponseSent(requestId, action, response);
@@ -102,7 +120,7 @@ final class OutboundHandler {
                     response.decRef();
                 }
         });
-        sendMessage(channel, message, listener);
+        sendMessage(channel, action, message, listener);
     }
 
     /**
@@ -116,32 +134,40 @@ final class OutboundHandler {
         OutboundMessage.Response message = new OutboundMessage.Response(threadPool.getThreadContext(), tx, version, requestId,
             false, null);
         ActionListener<Void> listener = ActionListener.wrap(() -> messageListener.onResponseSent(requestId, action, error));
-        sendMessage(channel, message, listener);
+        sendMessage(channel, action, message, listener);
     }
 
-    private void sendMessage(TcpChannel channel, OutboundMessage networkMessage, ActionListener<Void> listener) throws IOException {
+    private void sendMessage(TcpChannel channel, String action, OutboundMessage networkMessage, ActionListener<Void> listener)
+        throws IOException {
         final BytesStreamOutput bytesStreamOutput = new ReleasableBytesStreamOutput(bigArrays);
         final ActionListener<Void> wrappedListener = ActionListener.runBefore(listener, bytesStreamOutput::close);
         final BytesReference message;
         try {
+            final long startNanos = networkMessage.isCompress() ? System.nanoTime() : 0L;
             message = networkMessage.serialize(bytesStreamOutput);
+            if (networkMessage.isCompress()) {
+                final long uncompressedBytes = networkMessage.getUncompressedBytes();
+                final long compressedBytes = networkMessage.getCompressedBytes();
+                statsTracker.markMessageCompressed(uncompressedBytes, compressedBytes, System.nanoTime() - startNanos);
+                adaptiveCompression.onMessageCompressed(action, uncompressedBytes, compressedBytes);
+            }
         } catch (Exception e) {
             logger.warn(() -> new ParameterizedMessage("failed to serialize outbound message [{}]", networkMessage), e);
             wrappedListener.onFailure(e);
             throw e;
         }
-        internalSend(channel, message, networkMessage, wrappedListener);
+        internalSend(channel, message, networkMessage, isLatencySensitive(action), wrappedListener);
     }
 
     private void internalSend(TcpChannel channel, BytesReference reference, @Nullable OutboundMessage message,
-                              ActionListener<Void> listener) {
+                              boolean latencySensitive, ActionListener<Void> listener) {
         final long startTime = threadPool.relativeTimeInMillis();
         channel.getChannelStats().markAccessed(startTime);
         final long messageSize = reference.length();
         TransportLogger.logOutboundMessage(channel, reference);
         // stash thread context so that channel event loop is not polluted by thread context
         try (ThreadContext.StoredContext existing = threadPool.getThreadContext().stashContext()) {
-            channel.sendMessage(reference, new ActionListener<>() {
+            channel.sendMessage(reference, latencySensitive, new ActionListener<>() {
                 @Override
                 public void onResponse(Void v) {
                     statsTracker.markBytesWritten(messageSize);
@@ -178,6 +204,14 @@ final class OutboundHandler {
         }
     }
 
+    /**
+     * @return whether the requests and responses of the given action are small messages on the critical path of searches or of cluster
+     * fault detection, which channels may write ahead of other messages that are waiting to be written.
+     */
+    static boolean isLatencySensitive(String action) {
+        return LATENCY_SENSITIVE_ACTIONS.contains(action);
+    }
+
     void setMessageListener(TransportMessageListener listener) {
         if (messageListener == TransportMessageListener.NOOP_LISTENER) {
             messageListener = listener;
@@ -20,12 +20,18 @@ import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 abstract class OutboundMessage extends NetworkMessage {
 
     protected final Writeable message;
 
+    // the size of the message body before and after compression, or -1 if the message has not been serialized with compression
+    private long uncompressedBytes = -1;
+    private long compressedBytes = -1;
+
     OutboundMessage(ThreadContext threadContext, Version version, byte status, long requestId, Compression.Scheme compressionScheme,
                     Writeable message) {
         super(threadContext, version, status, requestId, compressionScheme);
@@ -47,7 +53,9 @@ abstract class OutboundMessage extends NetworkMessage {
         }
 
         final boolean compress = TransportStatus.isCompress(status);
-        final StreamOutput stream = compress ? wrapCompressed(bytesStream) : bytesStream;
+        final long preCompressionPosition = bytesStream.position();
+        final CountingOutputStream countingStream = compress ? new CountingOutputStream(wrapCompressed(bytesStream)) : null;
+        final StreamOutput stream = compress ? new OutputStreamStreamOutput(countingStream) : bytesStream;
         final BytesReference zeroCopyBuffer;
         try {
             stream.setVersion(version);
@@ -58,6 +66,8 @@ abstract class OutboundMessage extends NetworkMessage {
                 BytesTransportRequest bRequest = (BytesTransportRequest) message;
                 bRequest.writeThin(stream);
                 zeroCopyBuffer = bRequest.bytes;
+            } else if (compress == false && message instanceof ThinWriteable) {
+                zeroCopyBuffer = ((ThinWriteable) message).writeThin(stream);
             } else if (message instanceof RemoteTransportException) {
                 stream.writeException((RemoteTransportException) message);
                 zeroCopyBuffer = BytesArray.EMPTY;
@@ -72,6 +82,10 @@ abstract class OutboundMessage extends NetworkMessage {
                 stream.close();
             }
         }
+        if (compress) {
+            uncompressedBytes = countingStream.count;
+            compressedBytes = bytesStream.position() - preCompressionPosition;
+        }
         final BytesReference message = bytesStream.bytes();
         if (zeroCopyBuffer.length() == 0) {
             reference = message;
@@ -87,16 +101,32 @@ abstract class OutboundMessage extends NetworkMessage {
 
     // compressed stream wrapped bytes must be no-close wrapped since we need to close the compressed wrapper below to release
     // resources and write EOS marker bytes but must not yet release the bytes themselves
-    private StreamOutput wrapCompressed(BytesStreamOutput bytesStream) throws IOException {
+    private OutputStream wrapCompressed(BytesStreamOutput bytesStream) throws IOException {
         if (compressionScheme == Compression.Scheme.DEFLATE) {
-            return new OutputStreamStreamOutput(CompressorFactory.COMPRESSOR.threadLocalOutputStream(Streams.noCloseStream(bytesStream)));
+            return CompressorFactory.COMPRESSOR.threadLocalOutputStream(Streams.noCloseStream(bytesStream));
         } else if (compressionScheme == Compression.Scheme.LZ4) {
-            return new OutputStreamStreamOutput(Compression.Scheme.lz4OutputStream(Streams.noCloseStream(bytesStream)));
+            return Compression.Scheme.lz4OutputStream(Streams.noCloseStream(bytesStream));
         } else {
             throw new IllegalArgumentException("Invalid compression scheme: " + compressionScheme);
         }
     }
 
+    /**
+     * @return the number of bytes written to the compressing stream when this message was last serialized, or {@code -1} if it was not
+     * serialized with compression.
+     */
+    long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    /**
+     * @return the number of bytes the compressing stream produced when this message was last serialized, or {@code -1} if it was not
+     * serialized with compression.
+     */
+    long getCompressedBytes() {
+        return compressedBytes;
+    }
+
     protected void writeVariableHeader(StreamOutput stream) throws IOException {
         threadContext.writeTo(stream);
     }
@@ -173,4 +203,24 @@ abstract class OutboundMessage extends NetworkMessage {
                     + message.getClass() + "}";
         }
     }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
 }
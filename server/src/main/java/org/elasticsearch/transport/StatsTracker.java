@@ -17,6 +17,10 @@ public class StatsTracker {
     private final LongAdder bytesRead = new LongAdder();
     private final LongAdder messagesReceived = new LongAdder();
     private final MeanMetric writeBytesMetric = new MeanMetric();
+    private final LongAdder messagesCompressed = new LongAdder();
+    private final LongAdder bytesBeforeCompression = new LongAdder();
+    private final LongAdder bytesAfterCompression = new LongAdder();
+    private final LongAdder compressionTimeNanos = new LongAdder();
 
     public void markBytesRead(long bytesReceived) {
         bytesRead.add(bytesReceived);
@@ -30,6 +34,13 @@ public class StatsTracker {
         writeBytesMetric.inc(bytesWritten);
     }
 
+    public void markMessageCompressed(long uncompressedBytes, long compressedBytes, long tookNanos) {
+        messagesCompressed.increment();
+        bytesBeforeCompression.add(uncompressedBytes);
+        bytesAfterCompression.add(compressedBytes);
+        compressionTimeNanos.add(tookNanos);
+    }
+
     public long getBytesRead() {
         return bytesRead.sum();
     }
@@ -45,4 +56,20 @@ public class StatsTracker {
     public long getMessagesSent() {
         return writeBytesMetric.count();
     }
+
+    public long getMessagesCompressed() {
+        return messagesCompressed.sum();
+    }
+
+    public long getBytesBeforeCompression() {
+        return bytesBeforeCompression.sum();
+    }
+
+    public long getBytesAfterCompression() {
+        return bytesAfterCompression.sum();
+    }
+
+    public long getCompressionTimeNanos() {
+        return compressionTimeNanos.sum();
+    }
 }
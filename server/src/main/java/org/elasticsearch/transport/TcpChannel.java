@@ -56,6 +56,19 @@ public interface TcpChannel extends CloseableChannel {
      */
     void sendMessage(BytesReference reference, ActionListener<Void> listener);
 
+    /**
+     * Sends a tcp message to the channel like {@link #sendMessage(BytesReference, ActionListener)}. If the message is latency sensitive
+     * then the channel may write it ahead of other messages that are still waiting to be written, although never ahead of a message that
+     * it has already started writing. By default messages are always written in the order in which they were sent.
+     *
+     * @param reference to send to channel
+     * @param latencySensitive whether the message may be written ahead of other waiting messages
+     * @param listener to execute upon send completion
+     */
+    default void sendMessage(BytesReference reference, boolean latencySensitive, ActionListener<Void> listener) {
+        sendMessage(reference, listener);
+    }
+
     /**
      * Adds a listener that will be executed when the channel is connected. If the channel is still
      * unconnected when this listener is added, the listener will be executed by the thread that eventually
@@ -0,0 +1,34 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+
+import java.io.IOException;
+
+/**
+ * A {@link Writeable} message which may end in a large {@link BytesReference} that the transport layer can send directly after the rest
+ * of the serialized message, without copying it into the outbound buffer first. Like {@link BytesTransportRequest#writeThin}, but the
+ * message decides per stream version whether it can be written in this way. Messages are only written thinly if they are not
+ * compressed, since the trailing bytes are sent as-is.
+ */
+public interface ThinWriteable extends Writeable {
+
+    /**
+     * Writes this message to the given stream, except for the contents of its trailing bytes reference. The stream must end with the
+     * length of the trailing bytes, so that the stream followed by the returned bytes is exactly what {@link #writeTo} would have
+     * written.
+     *
+     * @return the bytes that were not written to the stream, or an empty reference if {@link #writeTo} was used because the version of
+     * the stream does not support writing this message thinly.
+     */
+    BytesReference writeThin(StreamOutput out) throws IOException;
+}
@@ -54,6 +54,8 @@ public final class TransportSettings {
         enumSetting(Compression.Enabled.class, "transport.compress", Compression.Enabled.INDEXING_DATA, Setting.Property.NodeScope);
     public static final Setting<Compression.Scheme> TRANSPORT_COMPRESSION_SCHEME =
         enumSetting(Compression.Scheme.class, "transport.compression_scheme", Compression.Scheme.LZ4, Setting.Property.NodeScope);
+    public static final Setting<Boolean> TRANSPORT_ADAPTIVE_COMPRESSION =
+        boolSetting("transport.adaptive_compression", false, Setting.Property.NodeScope);
     // the scheduled internal ping interval setting, defaults to disabled (-1)
     public static final Setting<TimeValue> PING_SCHEDULE =
         timeSetting("transport.ping_schedule", TimeValue.timeValueSeconds(-1), Setting.Property.NodeScope);
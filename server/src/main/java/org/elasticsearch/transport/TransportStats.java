@@ -8,14 +8,17 @@
 
 package org.elasticsearch.transport;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.core.TimeValue;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 public class TransportStats implements Writeable, ToXContentFragment {
 
@@ -25,14 +28,27 @@ public class TransportStats implements Writeable, ToXContentFragment {
     private final long rxSize;
     private final long txCount;
     private final long txSize;
+    private final long txCompressedCount;
+    private final long txSizeBeforeCompression;
+    private final long txSizeAfterCompression;
+    private final long txCompressionTimeNanos;
 
     public TransportStats(long serverOpen, long totalOutboundConnections, long rxCount, long rxSize, long txCount, long txSize) {
+        this(serverOpen, totalOutboundConnections, rxCount, rxSize, txCount, txSize, 0L, 0L, 0L, 0L);
+    }
+
+    public TransportStats(long serverOpen, long totalOutboundConnections, long rxCount, long rxSize, long txCount, long txSize,
+                          long txCompressedCount, long txSizeBeforeCompression, long txSizeAfterCompression, long txCompressionTimeNanos) {
         this.serverOpen = serverOpen;
         this.totalOutboundConnections = totalOutboundConnections;
         this.rxCount = rxCount;
         this.rxSize = rxSize;
         this.txCount = txCount;
         this.txSize = txSize;
+        this.txCompressedCount = txCompressedCount;
+        this.txSizeBeforeCompression = txSizeBeforeCompression;
+        this.txSizeAfterCompression = txSizeAfterCompression;
+        this.txCompressionTimeNanos = txCompressionTimeNanos;
     }
 
     public TransportStats(StreamInput in) throws IOException {
@@ -42,6 +58,17 @@ public class TransportStats implements Writeable, ToXContentFragment {
         rxSize = in.readVLong();
         txCount = in.readVLong();
         txSize = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            txCompressedCount = in.readVLong();
+            txSizeBeforeCompression = in.readVLong();
+            txSizeAfterCompression = in.readVLong();
+            txCompressionTimeNanos = in.readVLong();
+        } else {
+            txCompressedCount = 0L;
+            txSizeBeforeCompression = 0L;
+            txSizeAfterCompression = 0L;
+            txCompressionTimeNanos = 0L;
+        }
     }
 
     @Override
@@ -52,6 +79,12 @@ public class TransportStats implements Writeable, ToXContentFragment {
         out.writeVLong(rxSize);
         out.writeVLong(txCount);
         out.writeVLong(txSize);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeVLong(txCompressedCount);
+            out.writeVLong(txSizeBeforeCompression);
+            out.writeVLong(txSizeAfterCompression);
+            out.writeVLong(txCompressionTimeNanos);
+        }
     }
 
     public long serverOpen() {
@@ -94,6 +127,34 @@ public class TransportStats implements Writeable, ToXContentFragment {
         return txSize();
     }
 
+    /**
+     * The number of outbound messages that were compressed.
+     */
+    public long getTxCompressedCount() {
+        return txCompressedCount;
+    }
+
+    /**
+     * The total size of the compressed outbound messages before they were compressed.
+     */
+    public ByteSizeValue getTxSizeBeforeCompression() {
+        return new ByteSizeValue(txSizeBeforeCompression);
+    }
+
+    /**
+     * The total size of the compressed outbound messages after they were compressed.
+     */
+    public ByteSizeValue getTxSizeAfterCompression() {
+        return new ByteSizeValue(txSizeAfterCompression);
+    }
+
+    /**
+     * The total time spent serializing and compressing the compressed outbound messages.
+     */
+    public TimeValue getTxCompressionTime() {
+        return new TimeValue(txCompressionTimeNanos, TimeUnit.NANOSECONDS);
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(Fields.TRANSPORT);
@@ -103,6 +164,12 @@ public class TransportStats implements Writeable, ToXContentFragment {
         builder.humanReadableField(Fields.RX_SIZE_IN_BYTES, Fields.RX_SIZE, new ByteSizeValue(rxSize));
         builder.field(Fields.TX_COUNT, txCount);
         builder.humanReadableField(Fields.TX_SIZE_IN_BYTES, Fields.TX_SIZE, new ByteSizeValue(txSize));
+        builder.startObject(Fields.TX_COMPRESSION);
+        builder.field(Fields.COMPRESSED_COUNT, txCompressedCount);
+        builder.humanReadableField(Fields.UNCOMPRESSED_SIZE_IN_BYTES, Fields.UNCOMPRESSED_SIZE, getTxSizeBeforeCompression());
+        builder.humanReadableField(Fields.COMPRESSED_SIZE_IN_BYTES, Fields.COMPRESSED_SIZE, getTxSizeAfterCompression());
+        builder.humanReadableField(Fields.TIME_IN_MILLIS, Fields.TIME, getTxCompressionTime());
+        builder.endObject();
         builder.endObject();
         return builder;
     }
@@ -117,5 +184,13 @@ public class TransportStats implements Writeable, ToXContentFragment {
         static final String TX_COUNT = "tx_count";
         static final String TX_SIZE = "tx_size";
         static final String TX_SIZE_IN_BYTES = "tx_size_in_bytes";
+        static final String TX_COMPRESSION = "tx_compression";
+        static final String COMPRESSED_COUNT = "compressed_count";
+        static final String UNCOMPRESSED_SIZE = "uncompressed_size";
+        static final String UNCOMPRESSED_SIZE_IN_BYTES = "uncompressed_size_in_bytes";
+        static final String COMPRESSED_SIZE = "compressed_size";
+        static final String COMPRESSED_SIZE_IN_BYTES = "compressed_size_in_bytes";
+        static final String TIME = "time";
+        static final String TIME_IN_MILLIS = "time_in_millis";
     }
 }
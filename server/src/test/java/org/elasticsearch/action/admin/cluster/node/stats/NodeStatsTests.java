@@ -27,6 +27,8 @@ import org.elasticsearch.node.AdaptiveSelectionStats;
 import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.script.ScriptContextStats;
 import org.elasticsearch.script.ScriptStats;
+import org.elasticsearch.search.SearchAdmissionController;
+import org.elasticsearch.search.SearchAdmissionStats;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.VersionUtils;
 import org.elasticsearch.threadpool.ThreadPoolStats;
@@ -171,6 +173,8 @@ public class NodeStatsTests extends ESTestCase {
                         assertEquals(stats.getCompleted(), deserializedStats.getCompleted());
                         assertEquals(stats.getQueue(), deserializedStats.getQueue());
                         assertEquals(stats.getRejected(), deserializedStats.getRejected());
+                        assertEquals(stats.getQueueWaitTime(), deserializedStats.getQueueWaitTime());
+                        assertEquals(stats.getExecutionTime(), deserializedStats.getExecutionTime());
                     }
                 }
                 FsInfo fs = nodeStats.getFs();
@@ -213,6 +217,14 @@ public class NodeStatsTests extends ESTestCase {
                     assertEquals(nodeStats.getTransport().getServerOpen(), deserializedNodeStats.getTransport().getServerOpen());
                     assertEquals(nodeStats.getTransport().getTxCount(), deserializedNodeStats.getTransport().getTxCount());
                     assertEquals(nodeStats.getTransport().getTxSize(), deserializedNodeStats.getTransport().getTxSize());
+                    assertEquals(nodeStats.getTransport().getTxCompressedCount(),
+                        deserializedNodeStats.getTransport().getTxCompressedCount());
+                    assertEquals(nodeStats.getTransport().getTxSizeBeforeCompression(),
+                        deserializedNodeStats.getTransport().getTxSizeBeforeCompression());
+                    assertEquals(nodeStats.getTransport().getTxSizeAfterCompression(),
+                        deserializedNodeStats.getTransport().getTxSizeAfterCompression());
+                    assertEquals(nodeStats.getTransport().getTxCompressionTime(),
+                        deserializedNodeStats.getTransport().getTxCompressionTime());
                 }
                 if (nodeStats.getHttp() == null) {
                     assertNull(deserializedNodeStats.getHttp());
@@ -414,6 +426,24 @@ public class NodeStatsTests extends ESTestCase {
                         assertEquals(aStats.responseTime, bStats.responseTime, 0.01);
                     });
                 }
+                SearchAdmissionStats searchAdmissionStats = nodeStats.getSearchAdmissionStats();
+                SearchAdmissionStats deserializedSearchAdmissionStats = deserializedNodeStats.getSearchAdmissionStats();
+                if (searchAdmissionStats == null) {
+                    assertNull(deserializedSearchAdmissionStats);
+                } else {
+                    assertEquals(searchAdmissionStats.isEnabled(), deserializedSearchAdmissionStats.isEnabled());
+                    assertEquals(searchAdmissionStats.getIndices().keySet(), deserializedSearchAdmissionStats.getIndices().keySet());
+                    searchAdmissionStats.getIndices().forEach((index, stats) -> {
+                        SearchAdmissionController.CostClassStats deserializedStats =
+                            deserializedSearchAdmissionStats.getIndices().get(index);
+                        assertEquals(stats.getAdmittedCount(), deserializedStats.getAdmittedCount());
+                        assertEquals(stats.getRejectedCount(), deserializedStats.getRejectedCount());
+                        assertEquals(stats.getQueuedCount(), deserializedStats.getQueuedCount());
+                        assertEquals(stats.getQueueTimeNanos(), deserializedStats.getQueueTimeNanos());
+                        assertEquals(stats.getEstimatedCostNanos(), deserializedStats.getEstimatedCostNanos());
+                        assertEquals(stats.getExecutionTimeNanos(), deserializedStats.getExecutionTimeNanos());
+                    });
+                }
             }
         }
     }
@@ -490,7 +520,8 @@ public class NodeStatsTests extends ESTestCase {
             for (int i = 0; i < numThreadPoolStats; i++) {
                 threadPoolStatsList.add(new ThreadPoolStats.Stats(randomAlphaOfLengthBetween(3, 10), randomIntBetween(1, 1000),
                         randomIntBetween(1, 1000), randomIntBetween(1, 1000), randomNonNegativeLong(),
-                        randomIntBetween(1, 1000), randomIntBetween(1, 1000)));
+                        randomIntBetween(1, 1000), randomIntBetween(1, 1000),
+                        randomBoolean() ? null : randomTaskTimeStats(), randomBoolean() ? null : randomTaskTimeStats()));
             }
             threadPoolStats = new ThreadPoolStats(threadPoolStatsList);
         }
@@ -518,6 +549,7 @@ public class NodeStatsTests extends ESTestCase {
             fsInfo = new FsInfo(randomNonNegativeLong(), ioStats, paths);
         }
         TransportStats transportStats = frequently() ? new TransportStats(randomNonNegativeLong(), randomNonNegativeLong(),
+                randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(),
                 randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong()) : null;
         HttpStats httpStats = null;
         if (frequently()) {
@@ -666,10 +698,21 @@ public class NodeStatsTests extends ESTestCase {
             }
             adaptiveSelectionStats = new AdaptiveSelectionStats(nodeConnections, nodeStats);
         }
+        SearchAdmissionStats searchAdmissionStats = null;
+        if (frequently()) {
+            Map<String, SearchAdmissionController.CostClassStats> indices = new HashMap<>();
+            int numIndices = randomIntBetween(0, 10);
+            for (int i = 0; i < numIndices; i++) {
+                indices.put(randomAlphaOfLengthBetween(3, 10), new SearchAdmissionController.CostClassStats(randomNonNegativeLong(),
+                    randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(),
+                    randomNonNegativeLong()));
+            }
+            searchAdmissionStats = new SearchAdmissionStats(randomBoolean(), indices);
+        }
         //TODO NodeIndicesStats are not tested here, way too complicated to create, also they need to be migrated to Writeable yet
         return new NodeStats(node, randomNonNegativeLong(), null, osStats, processStats, jvmStats, threadPoolStats,
                 fsInfo, transportStats, httpStats, allCircuitBreakerStats, scriptStats, discoveryStats,
-                ingestStats, adaptiveSelectionStats, null);
+                ingestStats, adaptiveSelectionStats, null, searchAdmissionStats);
     }
 
     private static ScriptContextStats.TimeSeries randomTimeSeries() {
@@ -686,4 +729,9 @@ public class NodeStatsTests extends ESTestCase {
     private IngestStats.Stats getPipelineStats(List<IngestStats.PipelineStat> pipelineStats, String id) {
         return pipelineStats.stream().filter(p1 -> p1.getPipelineId().equals(id)).findFirst().map(p2 -> p2.getStats()).orElse(null);
     }
+
+    private static ThreadPoolStats.TaskTimeStats randomTaskTimeStats() {
+        return new ThreadPoolStats.TaskTimeStats(randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(),
+            randomNonNegativeLong());
+    }
 }
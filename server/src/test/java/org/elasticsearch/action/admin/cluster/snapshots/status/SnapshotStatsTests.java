@@ -26,6 +26,7 @@ public class SnapshotStatsTests extends AbstractXContentTestCase<SnapshotStats>
         long incrementalSize = ((long) randomIntBetween(0, Integer.MAX_VALUE)) * 2;
         long totalSize = ((long) randomIntBetween(0, Integer.MAX_VALUE)) * 2;
         long processedSize = ((long) randomIntBetween(0, Integer.MAX_VALUE)) * 2;
+        long deduplicatedSize = randomBoolean() ? 0 : ((long) randomIntBetween(0, Integer.MAX_VALUE)) * 2;
         return new SnapshotStats(
             startTime,
             time,
@@ -34,7 +35,8 @@ public class SnapshotStatsTests extends AbstractXContentTestCase<SnapshotStats>
             processedFileCount,
             incrementalSize,
             totalSize,
-            processedSize
+            processedSize,
+            deduplicatedSize
         );
     }
 
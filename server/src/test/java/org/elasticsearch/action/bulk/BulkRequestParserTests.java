@@ -11,6 +11,8 @@ package org.elasticsearch.action.bulk;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.core.RestApiVersion;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.test.ESTestCase;
 import org.hamcrest.Matchers;
@@ -58,6 +60,55 @@ public class BulkRequestParserTests extends ESTestCase {
             req -> fail(), req -> fail());
     }
 
+    public void testIncrementalParse() throws IOException {
+        final List<String> expectedIds = new ArrayList<>();
+        final StringBuilder body = new StringBuilder();
+        final int items = between(1, 20);
+        for (int i = 0; i < items; i++) {
+            final String id = "id-" + i;
+            expectedIds.add(id);
+            if (randomBoolean()) {
+                body.append("{ \"delete\":{ \"_id\": \"").append(id).append("\" } }\n");
+            } else {
+                body.append("{ \"index\":{ \"_id\": \"").append(id).append("\" } }\n");
+                body.append("{ \"field\": \"").append(randomAlphaOfLength(between(0, 20))).append("\" }\n");
+            }
+        }
+        final BytesReference data = new BytesArray(body.toString());
+        final BulkRequestParser parser = new BulkRequestParser(randomBoolean(), RestApiVersion.current());
+        final List<String> parsedIds = new ArrayList<>();
+
+        BytesReference unconsumed = BytesArray.EMPTY;
+        int chunkStart = 0;
+        while (chunkStart < data.length()) {
+            final int chunkEnd = randomBoolean() ? data.length() : between(chunkStart + 1, data.length());
+            final BytesReference buffer = CompositeBytesReference.of(unconsumed, data.slice(chunkStart, chunkEnd - chunkStart));
+            final boolean lastData = chunkEnd == data.length();
+            final int consumed = parser.incrementalParse(buffer, "foo", null, null, null, null, false, XContentType.JSON,
+                (indexRequest, type) -> parsedIds.add(indexRequest.id()), req -> fail(), deleteRequest -> parsedIds.add(deleteRequest.id()),
+                lastData);
+            if (lastData) {
+                assertEquals(buffer.length(), consumed);
+            } else {
+                assertThat(consumed, Matchers.lessThanOrEqualTo(buffer.length()));
+            }
+            unconsumed = buffer.slice(consumed, buffer.length() - consumed);
+            chunkStart = chunkEnd;
+        }
+        assertEquals(expectedIds, parsedIds);
+    }
+
+    public void testIncrementalParseRequiresTrailingNewlineInLastData() throws IOException {
+        final BytesArray request = new BytesArray("{ \"index\":{ \"_id\": \"bar\" } }\n{}");
+        final BulkRequestParser parser = new BulkRequestParser(randomBoolean(), RestApiVersion.current());
+        assertEquals(0, parser.incrementalParse(request, "foo", null, null, null, null, false, XContentType.JSON,
+            (req, type) -> fail(), req -> fail(), req -> fail(), false));
+        final IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> parser.incrementalParse(request, "foo", null, null, null, null, false, XContentType.JSON,
+                (req, type) -> fail(), req -> fail(), req -> fail(), true));
+        assertEquals("The bulk request must be terminated by a newline [\\n]", e.getMessage());
+    }
+
     public void testDeleteRequest() throws IOException {
         BytesArray request = new BytesArray("{ \"delete\":{ \"_id\": \"bar\" } }\n");
         BulkRequestParser parser = new BulkRequestParser(randomBoolean(), RestApiVersion.current());
@@ -0,0 +1,83 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.cluster.service;
+
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.test.AbstractWireSerializingTestCase;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+
+public class ClusterStateTaskExecutorStatsWireSerializationTests extends AbstractWireSerializingTestCase<ClusterStateTaskExecutorStats> {
+
+    @Override
+    protected Writeable.Reader<ClusterStateTaskExecutorStats> instanceReader() {
+        return ClusterStateTaskExecutorStats::new;
+    }
+
+    @Override
+    protected ClusterStateTaskExecutorStats createTestInstance() {
+        return new ClusterStateTaskExecutorStats(
+            randomAlphaOfLength(10),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong());
+    }
+
+    private static long not(long l) {
+        return randomValueOtherThan(l, ESTestCase::randomNonNegativeLong);
+    }
+
+    @Override
+    protected ClusterStateTaskExecutorStats mutateInstance(ClusterStateTaskExecutorStats instance) throws IOException {
+        String executor = instance.getExecutor();
+        long batchCount = instance.getBatchCount();
+        long taskCount = instance.getTaskCount();
+        long totalQueueTimeMillis = instance.getTotalQueueTimeMillis();
+        long maxQueueTimeMillis = instance.getMaxQueueTimeMillis();
+        long totalComputationTimeMillis = instance.getTotalComputationTimeMillis();
+        long maxComputationTimeMillis = instance.getMaxComputationTimeMillis();
+        switch (between(1, 7)) {
+            case 1:
+                executor = randomValueOtherThan(executor, () -> randomAlphaOfLength(10));
+                break;
+            case 2:
+                batchCount = not(batchCount);
+                break;
+            case 3:
+                taskCount = not(taskCount);
+                break;
+            case 4:
+                totalQueueTimeMillis = not(totalQueueTimeMillis);
+                break;
+            case 5:
+                maxQueueTimeMillis = not(maxQueueTimeMillis);
+                break;
+            case 6:
+                totalComputationTimeMillis = not(totalComputationTimeMillis);
+                break;
+            case 7:
+                maxComputationTimeMillis = not(maxComputationTimeMillis);
+                break;
+            default:
+                throw new AssertionError("impossible");
+        }
+        return new ClusterStateTaskExecutorStats(
+            executor,
+            batchCount,
+            taskCount,
+            totalQueueTimeMillis,
+            maxQueueTimeMillis,
+            totalComputationTimeMillis,
+            maxComputationTimeMillis);
+    }
+}
@@ -74,6 +74,7 @@ import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class MasterServiceTests extends ESTestCase {
 
@@ -1115,6 +1116,57 @@ public class MasterServiceTests extends ESTestCase {
         }
     }
 
+    public void testExecutorStats() throws InterruptedException {
+        try (MasterService masterService = createMasterService(true)) {
+            final long computationMillis = randomLongBetween(1L, 10000L);
+            final int taskCount = between(1, 10);
+            final CountDownLatch latch = new CountDownLatch(taskCount);
+
+            final ClusterStateTaskExecutor<Object> executor = new ClusterStateTaskExecutor<Object>() {
+                @Override
+                public ClusterTasksResult<Object> execute(ClusterState currentState, List<Object> tasks) {
+                    relativeTimeInMillis += computationMillis;
+                    return ClusterTasksResult.builder().successes(tasks).build(currentState);
+                }
+            };
+
+            final ClusterStateTaskListener listener = new ClusterStateTaskListener() {
+                @Override
+                public void onFailure(String source, Exception e) {
+                    throw new AssertionError(source, e);
+                }
+
+                @Override
+                public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
+                    latch.countDown();
+                }
+            };
+
+            final Map<Object, ClusterStateTaskListener> tasks = new HashMap<>();
+            for (int i = 0; i < taskCount; i++) {
+                tasks.put(new Object(), listener);
+            }
+            masterService.submitStateUpdateTasks("testExecutorStats", tasks, ClusterStateTaskConfig.build(Priority.NORMAL), executor);
+            latch.await();
+
+            final List<ClusterStateTaskExecutorStats> executorStats = masterService.getExecutorStats();
+            assertThat(executorStats.size(), equalTo(1));
+            final ClusterStateTaskExecutorStats stats = executorStats.get(0);
+            assertThat(stats.getExecutor(), equalTo(MasterService.ExecutorStatsTracker.executorName(executor)));
+            assertThat(stats.getBatchCount(), equalTo(1L));
+            assertThat(stats.getTaskCount(), equalTo((long) taskCount));
+            assertThat(stats.getTotalComputationTimeMillis(), equalTo(computationMillis));
+            assertThat(stats.getMaxComputationTimeMillis(), equalTo(computationMillis));
+            assertThat(stats.getMaxQueueTimeMillis(), lessThanOrEqualTo(stats.getTotalQueueTimeMillis()));
+        }
+    }
+
+    public void testExecutorNameOfLambda() {
+        final ClusterStateTaskExecutor<Object> executor = (currentState, tasks) -> ClusterStateTaskExecutor.ClusterTasksResult.builder()
+            .successes(tasks).build(currentState);
+        assertThat(MasterService.ExecutorStatsTracker.executorName(executor), equalTo(MasterServiceTests.class.getName()));
+    }
+
     /**
      * Returns the cluster state that the master service uses (and that is provided by the discovery layer)
      */
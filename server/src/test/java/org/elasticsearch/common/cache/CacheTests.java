@@ -37,7 +37,9 @@ import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class CacheTests extends ESTestCase {
     private int numberOfEntries;
@@ -903,6 +905,109 @@ public class CacheTests extends ESTestCase {
         assertEquals(500, cache.count());
     }
 
+    // read the same entries from many threads while other threads insert new ones, then check that the LRU list and the segments agree
+    public void testConcurrentReadsAndWrites() throws BrokenBarrierException, InterruptedException {
+        int numberOfThreads = randomIntBetween(2, 32);
+        final Cache<Integer, String> cache =
+                CacheBuilder.<Integer, String>builder()
+                        .setMaximumWeight(500)
+                        .setFrequencyBasedAdmission(randomBoolean())
+                        .build();
+
+        CyclicBarrier barrier = new CyclicBarrier(1 + numberOfThreads);
+        for (int i = 0; i < numberOfThreads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    Random random = new Random(random().nextLong());
+                    for (int j = 0; j < numberOfEntries; j++) {
+                        Integer key = random.nextInt(1000);
+                        if (random.nextBoolean()) {
+                            cache.put(key, Integer.toString(j));
+                        } else {
+                            cache.get(key);
+                        }
+                    }
+                    barrier.await();
+                } catch (BrokenBarrierException | InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            thread.start();
+        }
+
+        // wait for all threads to be ready
+        barrier.await();
+        // wait for all threads to finish
+        barrier.await();
+
+        cache.refresh();
+        assertEquals(500, cache.count());
+        int keys = 0;
+        for (Integer key : cache.keys()) {
+            keys++;
+            assertNotNull(cache.get(key));
+        }
+        assertEquals(500, keys);
+    }
+
+    // fill the cache with entries that are read often, then insert entries that are never read again and check that they are not admitted
+    public void testFrequencyBasedAdmission() {
+        int maximumWeight = randomIntBetween(10, 100);
+        List<Integer> evictedKeys = new ArrayList<>();
+        Cache<Integer, String> cache =
+                CacheBuilder.<Integer, String>builder()
+                        .setMaximumWeight(maximumWeight)
+                        .setFrequencyBasedAdmission(true)
+                        .removalListener(notification -> evictedKeys.add(notification.getKey()))
+                        .build();
+        for (int i = 0; i < maximumWeight; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < maximumWeight; i++) {
+                assertNotNull(cache.get(i));
+            }
+        }
+        for (int i = maximumWeight; i < 2 * maximumWeight; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        assertEquals(maximumWeight, cache.count());
+        // the frequencies are approximate so a new key may collide with frequent keys and be admitted, but that is rare
+        int remainingFrequentKeys = 0;
+        for (int i = 0; i < maximumWeight; i++) {
+            if (cache.get(i) != null) {
+                remainingFrequentKeys++;
+            }
+        }
+        assertThat(remainingFrequentKeys, greaterThanOrEqualTo(maximumWeight / 2));
+        assertEquals(maximumWeight, evictedKeys.size());
+
+        // a key that keeps being inserted eventually becomes frequent enough to be admitted
+        int key = 2 * maximumWeight;
+        int attempts = 0;
+        while (cache.get(key) == null) {
+            assertThat(++attempts, lessThanOrEqualTo(FrequencySketch.MAX_FREQUENCY));
+            cache.put(key, Integer.toString(key));
+        }
+        assertEquals(maximumWeight, cache.count());
+    }
+
+    // without frequency-based admission new entries always evict the least-recently-used entry
+    public void testNoFrequencyBasedAdmissionByDefault() {
+        int maximumWeight = randomIntBetween(10, 100);
+        Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().setMaximumWeight(maximumWeight).build();
+        for (int i = 0; i < maximumWeight; i++) {
+            cache.put(i, Integer.toString(i));
+            assertNotNull(cache.get(i));
+        }
+        for (int i = maximumWeight; i < 2 * maximumWeight; i++) {
+            cache.put(i, Integer.toString(i));
+            assertNotNull(cache.get(i));
+            assertNull(cache.get(i - maximumWeight));
+        }
+    }
+
     public void testRemoveUsingValuesIterator() {
         final List<RemovalNotification<Integer, String>> removalNotifications = new ArrayList<>();
         Cache<Integer, String> cache =
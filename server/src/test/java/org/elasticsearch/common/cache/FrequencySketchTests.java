@@ -0,0 +1,76 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.cache;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class FrequencySketchTests extends ESTestCase {
+
+    public void testCountsIncrementsUpToMaximum() {
+        final FrequencySketch sketch = new FrequencySketch();
+        final int hashCode = randomInt();
+        assertThat(sketch.frequency(hashCode), equalTo(0));
+        final int increments = between(1, FrequencySketch.MAX_FREQUENCY);
+        for (int i = 0; i < increments; i++) {
+            sketch.increment(hashCode);
+        }
+        assertThat(sketch.frequency(hashCode), equalTo(increments));
+        for (int i = 0; i < 10; i++) {
+            sketch.increment(hashCode);
+        }
+        assertThat(sketch.frequency(hashCode), equalTo(FrequencySketch.MAX_FREQUENCY));
+    }
+
+    public void testNeverUnderestimates() {
+        final FrequencySketch sketch = new FrequencySketch();
+        sketch.ensureCapacity(1024);
+        final int[] counts = new int[512];
+        // stay below the sample size so that no counters are halved
+        for (int i = 0; i < 5000; i++) {
+            final int key = between(0, counts.length - 1);
+            sketch.increment(key);
+            counts[key]++;
+        }
+        for (int key = 0; key < counts.length; key++) {
+            assertThat(sketch.frequency(key), greaterThanOrEqualTo(Math.min(counts[key], FrequencySketch.MAX_FREQUENCY)));
+        }
+    }
+
+    public void testGrowingKeepsFrequencies() {
+        final FrequencySketch sketch = new FrequencySketch();
+        final int[] frequencies = new int[16];
+        for (int key = 0; key < frequencies.length; key++) {
+            for (int i = 0; i < key % 8; i++) {
+                sketch.increment(key);
+            }
+            frequencies[key] = sketch.frequency(key);
+        }
+        sketch.ensureCapacity(randomLongBetween(17, 1 << 20));
+        for (int key = 0; key < frequencies.length; key++) {
+            assertThat(sketch.frequency(key), equalTo(frequencies[key]));
+        }
+    }
+
+    public void testHalvesCountersPeriodically() {
+        final FrequencySketch sketch = new FrequencySketch();
+        final int hotKey = randomInt();
+        for (int i = 0; i < FrequencySketch.MAX_FREQUENCY; i++) {
+            sketch.increment(hotKey);
+        }
+        // the sketch starts with 16 longs so it halves its counters after 160 increments
+        for (int i = 0; i < 200; i++) {
+            sketch.increment(randomValueOtherThan(hotKey, ESTestCase::randomInt));
+        }
+        assertThat(sketch.frequency(hotKey), lessThan(FrequencySketch.MAX_FREQUENCY));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.metrics;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class ExponentialBucketHistogramTests extends ESTestCase {
+
+    public void testEmpty() {
+        final ExponentialBucketHistogram histogram = new ExponentialBucketHistogram();
+        final long[] snapshot = histogram.getSnapshot();
+        assertThat(ExponentialBucketHistogram.getCount(snapshot), equalTo(0L));
+        assertThat(ExponentialBucketHistogram.getPercentile(0.5, snapshot), equalTo(0L));
+        assertThat(histogram.getMax(), equalTo(0L));
+    }
+
+    public void testBucketBoundaries() {
+        assertThat(ExponentialBucketHistogram.bucketIndex(0L), equalTo(0));
+        assertThat(ExponentialBucketHistogram.bucketIndex(1L), equalTo(1));
+        assertThat(ExponentialBucketHistogram.bucketIndex(Long.MAX_VALUE), equalTo(ExponentialBucketHistogram.BUCKET_COUNT - 1));
+        for (int i = 0; i < ExponentialBucketHistogram.BUCKET_COUNT; i++) {
+            final long upperBound = ExponentialBucketHistogram.getBucketUpperBound(i);
+            assertThat(ExponentialBucketHistogram.bucketIndex(upperBound), equalTo(i));
+            if (i < ExponentialBucketHistogram.BUCKET_COUNT - 1) {
+                assertThat(ExponentialBucketHistogram.bucketIndex(upperBound + 1), equalTo(i + 1));
+            }
+        }
+    }
+
+    public void testPercentilesAreWithinFactorOfTwo() {
+        final ExponentialBucketHistogram histogram = new ExponentialBucketHistogram();
+        final long[] values = new long[between(1, 1000)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = randomLongBetween(0L, 1L << 40);
+            histogram.addObservation(values[i]);
+        }
+        Arrays.sort(values);
+
+        final long[] snapshot = histogram.getSnapshot();
+        assertThat(ExponentialBucketHistogram.getCount(snapshot), equalTo((long) values.length));
+        assertThat(histogram.getMax(), equalTo(values[values.length - 1]));
+
+        final double percentile = randomDoubleBetween(0.0, 1.0, true);
+        final long exact = values[Math.max(0, (int) Math.ceil(percentile * values.length) - 1)];
+        final long estimate = ExponentialBucketHistogram.getPercentile(percentile, snapshot);
+        assertThat(estimate, greaterThanOrEqualTo(exact));
+        assertThat(estimate, lessThanOrEqualTo(Math.max(0L, exact * 2)));
+    }
+
+    public void testNegativeObservationsRecordedAsZero() {
+        final ExponentialBucketHistogram histogram = new ExponentialBucketHistogram();
+        histogram.addObservation(randomLongBetween(Long.MIN_VALUE, -1L));
+        final long[] snapshot = histogram.getSnapshot();
+        assertThat(snapshot[0], equalTo(1L));
+        assertThat(ExponentialBucketHistogram.getPercentile(1.0, snapshot), equalTo(0L));
+        assertThat(histogram.getMax(), equalTo(0L));
+    }
+
+    public void testConcurrentObservations() throws InterruptedException {
+        final ExponentialBucketHistogram histogram = new ExponentialBucketHistogram();
+        final int threadCount = between(2, 8);
+        final int observationsPerThread = between(1, 10000);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                for (int j = 0; j < observationsPerThread; j++) {
+                    histogram.addObservation(j);
+                }
+            });
+            threads[i].start();
+        }
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        final long[] snapshot = histogram.getSnapshot();
+        assertThat(ExponentialBucketHistogram.getCount(snapshot), equalTo((long) threadCount * observationsPerThread));
+        assertThat(histogram.getMax(), equalTo(observationsPerThread - 1L));
+        assertThat(ExponentialBucketHistogram.getPercentile(1.0, snapshot), lessThan(observationsPerThread * 2L));
+    }
+}
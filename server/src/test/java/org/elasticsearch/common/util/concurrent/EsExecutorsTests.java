@@ -8,6 +8,7 @@
 
 package org.elasticsearch.common.util.concurrent;
 
+import org.elasticsearch.common.metrics.ExponentialBucketHistogram;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.test.ESTestCase;
@@ -24,6 +25,7 @@ import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.either;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasToString;
 import static org.hamcrest.Matchers.lessThan;
 
@@ -383,6 +385,62 @@ public class EsExecutorsTests extends ESTestCase {
         }
     }
 
+    public void testTracksTaskTimes() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        EsThreadPoolExecutor executor =
+                EsExecutors.newFixed(getName(), 1, 1, EsExecutors.daemonThreadFactory("dummy"), threadContext, randomBoolean());
+        try {
+            executor.execute(() -> {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    fail();
+                }
+            });
+            executor.execute(() -> {});
+            final long submittedNanos = System.nanoTime();
+            final long minimumNanos = TimeUnit.MILLISECONDS.toNanos(1);
+            while (System.nanoTime() - submittedNanos < minimumNanos) {
+                Thread.yield();
+            }
+            latch.countDown();
+
+            assertBusy(() -> assertThat(getCount(executor.getExecutionNanos()), equalTo(2L)));
+            assertThat(getCount(executor.getQueueWaitNanos()), equalTo(2L));
+            assertThat(executor.getQueueWaitNanos().getMax(), greaterThanOrEqualTo(minimumNanos));
+            assertThat(executor.getExecutionNanos().getMax(), greaterThanOrEqualTo(minimumNanos));
+        } finally {
+            latch.countDown();
+            terminate(executor);
+        }
+    }
+
+    public void testQueueWaitIsMeasuredFromSubmission() throws Exception {
+        EsThreadPoolExecutor executor =
+                EsExecutors.newFixed(getName(), 1, 1, EsExecutors.daemonThreadFactory("dummy"), threadContext, randomBoolean());
+        try {
+            final CountDownLatch latch = new CountDownLatch(1);
+            // the command is wrapped long before it is submitted, like a scheduled task, and the time until then is not queue wait
+            final Runnable command = threadContext.preserveContext(latch::countDown);
+            final long wrappedNanos = System.nanoTime();
+            final long delayNanos = TimeUnit.MILLISECONDS.toNanos(500);
+            while (System.nanoTime() - wrappedNanos < delayNanos) {
+                Thread.yield();
+            }
+            executor.execute(command);
+            latch.await();
+
+            assertBusy(() -> assertThat(getCount(executor.getQueueWaitNanos()), equalTo(1L)));
+            assertThat(executor.getQueueWaitNanos().getMax(), lessThan(delayNanos));
+        } finally {
+            terminate(executor);
+        }
+    }
+
+    private static long getCount(ExponentialBucketHistogram histogram) {
+        return ExponentialBucketHistogram.getCount(histogram.getSnapshot());
+    }
+
     public void testNodeProcessorsBound() {
         final Setting<Integer> processorsSetting = EsExecutors.NODE_PROCESSORS_SETTING;
         final int available = Runtime.getRuntime().availableProcessors();
@@ -8,6 +8,7 @@
 package org.elasticsearch.common.util.concurrent;
 
 import org.elasticsearch.common.Priority;
+import org.elasticsearch.common.metrics.ExponentialBucketHistogram;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.test.ESTestCase;
@@ -31,6 +32,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 
 public class PrioritizedExecutorsTests extends ESTestCase {
@@ -94,6 +96,37 @@ public class PrioritizedExecutorsTests extends ESTestCase {
         terminate(executor);
     }
 
+    public void testTracksQueueWait() throws Exception {
+        PrioritizedEsThreadPoolExecutor executor = EsExecutors.newSinglePrioritizing(
+            getName(),
+            EsExecutors.daemonThreadFactory(getTestName()),
+            holder,
+            null,
+            PrioritizedEsThreadPoolExecutor.StarvationWatcher.NOOP_STARVATION_WATCHER);
+        try {
+            List<Integer> results = new ArrayList<>(3);
+            CountDownLatch awaitingLatch = new CountDownLatch(1);
+            CountDownLatch finishedLatch = new CountDownLatch(2);
+            executor.execute(new AwaitingJob(awaitingLatch));
+            executor.execute(new Job(0, Priority.NORMAL, results, finishedLatch));
+            executor.submit(new Job(1, Priority.NORMAL, results, finishedLatch));
+            final long submittedNanos = System.nanoTime();
+            final long minimumNanos = TimeUnit.MILLISECONDS.toNanos(1);
+            while (System.nanoTime() - submittedNanos < minimumNanos) {
+                Thread.yield();
+            }
+            awaitingLatch.countDown();
+            finishedLatch.await();
+
+            // both executed and submitted tasks are tracked, the latter are not wrapped to preserve the thread context
+            assertBusy(() -> assertThat(ExponentialBucketHistogram.getCount(executor.getExecutionNanos().getSnapshot()), equalTo(3L)));
+            assertThat(ExponentialBucketHistogram.getCount(executor.getQueueWaitNanos().getSnapshot()), equalTo(3L));
+            assertThat(executor.getQueueWaitNanos().getMax(), greaterThanOrEqualTo(minimumNanos));
+        } finally {
+            terminate(executor);
+        }
+    }
+
     public void testExecutePrioritizedExecutorWithRunnables() throws Exception {
         ExecutorService executor = EsExecutors.newSinglePrioritizing(
             getName(),
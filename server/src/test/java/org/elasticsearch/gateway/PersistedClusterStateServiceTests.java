@@ -10,6 +10,7 @@ package org.elasticsearch.gateway;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.Term;
@@ -18,6 +19,7 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FilterDirectory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.NIOFSDirectory;
 import org.elasticsearch.Version;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterState;
@@ -30,6 +32,7 @@ import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.MockBigArrays;
 import org.elasticsearch.common.util.MockPageCacheRecycler;
@@ -45,12 +48,18 @@ import org.elasticsearch.test.junit.annotations.TestLogging;
 
 import java.io.IOError;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
@@ -59,9 +68,12 @@ import java.util.stream.StreamSupport;
 import static org.apache.lucene.index.IndexWriter.WRITE_LOCK_NAME;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.startsWith;
 
@@ -589,7 +601,7 @@ public class PersistedClusterStateServiceTests extends ESTestCase {
                     PersistedClusterStateService.class.getCanonicalName(),
                     Level.WARN,
                     "writing cluster state took [*] which is above the warn threshold of [*]; " +
-                        "wrote full state with [0] indices"));
+                        "wrote full state with [0] indices; write latencies since startup: *"));
 
                 writeDurationMillis.set(randomLongBetween(slowWriteLoggingThresholdMillis, slowWriteLoggingThresholdMillis * 2));
                 assertExpectedLogs(1L, null, clusterState, writer, new MockLogAppender.SeenEventExpectation(
@@ -597,7 +609,7 @@ public class PersistedClusterStateServiceTests extends ESTestCase {
                     PersistedClusterStateService.class.getCanonicalName(),
                     Level.WARN,
                     "writing cluster state took [*] which is above the warn threshold of [*]; " +
-                        "wrote full state with [0] indices"));
+                        "wrote full state with [0] indices; write latencies since startup: *"));
 
                 writeDurationMillis.set(randomLongBetween(1, slowWriteLoggingThresholdMillis - 1));
                 assertExpectedLogs(1L, null, clusterState, writer, new MockLogAppender.UnseenEventExpectation(
@@ -614,7 +626,7 @@ public class PersistedClusterStateServiceTests extends ESTestCase {
                     PersistedClusterStateService.class.getCanonicalName(),
                     Level.WARN,
                     "writing cluster state took [*] which is above the warn threshold of [*]; " +
-                        "wrote full state with [0] indices"));
+                        "wrote full state with [0] indices; write latencies since startup: *"));
 
                 final ClusterState newClusterState = ClusterState.builder(clusterState)
                     .metadata(Metadata.builder(clusterState.metadata())
@@ -632,7 +644,8 @@ public class PersistedClusterStateServiceTests extends ESTestCase {
                     PersistedClusterStateService.class.getCanonicalName(),
                     Level.WARN,
                     "writing cluster state took [*] which is above the warn threshold of [*]; " +
-                        "wrote global metadata [false] and metadata for [1] indices and skipped [0] unchanged indices"));
+                        "wrote global metadata [false] and metadata for [1] indices and skipped [0] unchanged indices; " +
+                        "write latencies since startup: *"));
 
                 writeDurationMillis.set(randomLongBetween(0, writeDurationMillis.get() - 1));
                 assertExpectedLogs(1L, clusterState, newClusterState, writer, new MockLogAppender.UnseenEventExpectation(
@@ -670,6 +683,220 @@ public class PersistedClusterStateServiceTests extends ESTestCase {
         }
     }
 
+    public void testReplaysMetadataLogWithoutCommitting() throws IOException {
+        try (NodeEnvironment nodeEnvironment = newNodeEnvironment(createTempDir())) {
+            final PersistedClusterStateService persistedClusterStateService
+                = newPersistedClusterStateService(nodeEnvironment, metadataLogSettings(ByteSizeValue.ofGb(1)));
+            final Path indexPath = nodeEnvironment.nodeDataPath().resolve(PersistedClusterStateService.METADATA_DIRECTORY_NAME);
+
+            ClusterState clusterState = loadPersistedClusterState(persistedClusterStateService);
+            try (Writer writer = persistedClusterStateService.createWriter()) {
+                clusterState = changeMetadata(clusterState);
+                writer.writeFullStateAndCommit(1L, clusterState);
+                final long committedVersion = clusterState.version();
+
+                for (int i = between(1, 10); i > 0; i--) {
+                    final ClusterState previousState = clusterState;
+                    clusterState = changeMetadata(previousState);
+                    writer.writeIncrementalStateAndCommit(1L, previousState, clusterState);
+                    assertMetadataEquals(loadPersistedClusterState(persistedClusterStateService), clusterState);
+                }
+                writer.writeIncrementalTermUpdateAndCommit(2L, clusterState.version());
+
+                // the incremental writes only appended to the log
+                assertThat(commitData(indexPath).get("last_accepted_version"), equalTo(Long.toString(committedVersion)));
+                assertThat(commitData(indexPath).get("current_term"), equalTo("1"));
+            }
+
+            final PersistedClusterStateService.OnDiskState onDiskState = persistedClusterStateService.loadBestOnDiskState();
+            assertThat(onDiskState.currentTerm, equalTo(2L));
+            assertMetadataEquals(clusterStateFromMetadata(onDiskState.lastAcceptedVersion, onDiskState.metadata), clusterState);
+        }
+    }
+
+    public void testCompactsMetadataLogIntoIndex() throws IOException {
+        try (NodeEnvironment nodeEnvironment = newNodeEnvironment(createTempDir())) {
+            final PersistedClusterStateService persistedClusterStateService
+                = newPersistedClusterStateService(nodeEnvironment, metadataLogSettings(ByteSizeValue.ofBytes(between(0, 200))));
+            final Path indexPath = nodeEnvironment.nodeDataPath().resolve(PersistedClusterStateService.METADATA_DIRECTORY_NAME);
+
+            ClusterState clusterState = loadPersistedClusterState(persistedClusterStateService);
+            try (Writer writer = persistedClusterStateService.createWriter()) {
+                writer.writeFullStateAndCommit(1L, clusterState);
+                for (int i = between(10, 20); i > 0; i--) {
+                    final ClusterState previousState = clusterState;
+                    clusterState = changeMetadata(previousState);
+                    writer.writeIncrementalStateAndCommit(1L, previousState, clusterState);
+                    assertMetadataEquals(loadPersistedClusterState(persistedClusterStateService), clusterState);
+
+                    // only the log that the last commit refers to is kept
+                    final long metadataLogGeneration = Long.parseLong(commitData(indexPath).get("metadata_log_generation"));
+                    assertThat(metadataLogs(indexPath), equalTo(List.of(indexPath.resolve(MetadataLog.fileName(metadataLogGeneration)))));
+                }
+            }
+            assertThat(Long.parseLong(commitData(indexPath).get("metadata_log_generation")), greaterThan(1L));
+            assertMetadataEquals(loadPersistedClusterState(persistedClusterStateService), clusterState);
+        }
+    }
+
+    public void testIgnoresIncompleteLastEntryOfMetadataLog() throws IOException {
+        try (NodeEnvironment nodeEnvironment = newNodeEnvironment(createTempDir())) {
+            final PersistedClusterStateService persistedClusterStateService
+                = newPersistedClusterStateService(nodeEnvironment, metadataLogSettings(ByteSizeValue.ofGb(1)));
+            final Path indexPath = nodeEnvironment.nodeDataPath().resolve(PersistedClusterStateService.METADATA_DIRECTORY_NAME);
+
+            ClusterState clusterState = loadPersistedClusterState(persistedClusterStateService);
+            final ClusterState acknowledgedState;
+            final int acknowledgedSize;
+            try (Writer writer = persistedClusterStateService.createWriter()) {
+                writer.writeFullStateAndCommit(1L, clusterState);
+                for (int i = between(0, 5); i > 0; i--) {
+                    final ClusterState previousState = clusterState;
+                    clusterState = changeMetadata(previousState);
+                    writer.writeIncrementalStateAndCommit(1L, previousState, clusterState);
+                }
+                acknowledgedState = clusterState;
+                acknowledgedSize = Math.toIntExact(Files.size(metadataLogs(indexPath).get(0)));
+                clusterState = changeMetadata(acknowledgedState);
+                writer.writeIncrementalStateAndCommit(1L, acknowledgedState, clusterState);
+            }
+
+            final Path metadataLog = metadataLogs(indexPath).get(0);
+            final byte[] content = Files.readAllBytes(metadataLog);
+            final byte[] crashedContent;
+            if (randomBoolean()) {
+                // only a prefix of the last entry reached the disk
+                crashedContent = Arrays.copyOf(content, between(acknowledgedSize, content.length - 1));
+            } else {
+                // the file was extended but (some blocks of) the last entry did not reach the disk
+                crashedContent = content.clone();
+                Arrays.fill(crashedContent, randomBoolean() ? acknowledgedSize : between(acknowledgedSize + Integer.BYTES,
+                    content.length - 1), content.length, (byte) 0);
+            }
+            Files.write(metadataLog, crashedContent);
+
+            // zeroing the end of the entry might not have changed anything
+            assertMetadataEquals(loadPersistedClusterState(persistedClusterStateService),
+                Arrays.equals(crashedContent, content) ? clusterState : acknowledgedState);
+        }
+    }
+
+    public void testFailsOnCorruptMetadataLogEntry() throws IOException {
+        try (NodeEnvironment nodeEnvironment = newNodeEnvironment(createTempDir())) {
+            final PersistedClusterStateService persistedClusterStateService
+                = newPersistedClusterStateService(nodeEnvironment, metadataLogSettings(ByteSizeValue.ofGb(1)));
+            final Path indexPath = nodeEnvironment.nodeDataPath().resolve(PersistedClusterStateService.METADATA_DIRECTORY_NAME);
+
+            ClusterState clusterState = loadPersistedClusterState(persistedClusterStateService);
+            final long entryStart;
+            final long entryEnd;
+            try (Writer writer = persistedClusterStateService.createWriter()) {
+                writer.writeFullStateAndCommit(1L, clusterState);
+                entryStart = Files.size(metadataLogs(indexPath).get(0));
+                ClusterState previousState = clusterState;
+                clusterState = changeMetadata(previousState);
+                writer.writeIncrementalStateAndCommit(1L, previousState, clusterState);
+                entryEnd = Files.size(metadataLogs(indexPath).get(0));
+                previousState = clusterState;
+                writer.writeIncrementalStateAndCommit(1L, previousState, changeMetadata(previousState));
+            }
+
+            // flip a byte within the entry itself, skipping its length and checksum
+            final Path metadataLog = metadataLogs(indexPath).get(0);
+            final long position = randomLongBetween(entryStart + Integer.BYTES, entryEnd - Integer.BYTES - 1);
+            try (FileChannel channel = FileChannel.open(metadataLog, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                final ByteBuffer buffer = ByteBuffer.allocate(1);
+                channel.read(buffer, position);
+                buffer.put(0, (byte) (buffer.get(0) ^ 0xff));
+                channel.write(buffer.rewind(), position);
+            }
+
+            assertThat(expectThrows(CorruptStateException.class, () -> persistedClusterStateService.loadBestOnDiskState(false))
+                .getMessage(), containsString("has a corrupt entry at position [" + entryStart + "]"));
+        }
+    }
+
+    public void testIgnoresStaleMetadataLogsAfterCrashDuringCompaction() throws IOException {
+        try (NodeEnvironment nodeEnvironment = newNodeEnvironment(createTempDir())) {
+            final ClusterSettings clusterSettings
+                = new ClusterSettings(metadataLogSettings(ByteSizeValue.ofGb(1)), ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+            final PersistedClusterStateService persistedClusterStateService = new PersistedClusterStateService(nodeEnvironment,
+                xContentRegistry(), getBigArrays(), clusterSettings, () -> 0L);
+            final Path indexPath = nodeEnvironment.nodeDataPath().resolve(PersistedClusterStateService.METADATA_DIRECTORY_NAME);
+
+            ClusterState clusterState = loadPersistedClusterState(persistedClusterStateService);
+            final Path staleMetadataLog;
+            final byte[] staleMetadataLogContent;
+            try (Writer writer = persistedClusterStateService.createWriter()) {
+                writer.writeFullStateAndCommit(1L, clusterState);
+                for (int i = between(1, 5); i > 0; i--) {
+                    final ClusterState previousState = clusterState;
+                    clusterState = changeMetadata(previousState);
+                    writer.writeIncrementalStateAndCommit(1L, previousState, clusterState);
+                }
+                staleMetadataLog = metadataLogs(indexPath).get(0);
+                staleMetadataLogContent = Files.readAllBytes(staleMetadataLog);
+
+                clusterSettings.applySettings(Settings.builder()
+                    .put(PersistedClusterStateService.METADATA_LOG_COMPACTION_THRESHOLD.getKey(), "0b")
+                    .build());
+                final ClusterState previousState = clusterState;
+                clusterState = changeMetadata(previousState);
+                writer.writeIncrementalStateAndCommit(1L, previousState, clusterState);
+            }
+
+            // crash after committing the compacted metadata but before deleting the old log
+            final Path metadataLog = metadataLogs(indexPath).get(0);
+            assertThat(metadataLog, not(equalTo(staleMetadataLog)));
+            Files.write(staleMetadataLog, staleMetadataLogContent);
+            // ... or, after a later compaction, while creating the next log ahead of committing
+            final long metadataLogGeneration = Long.parseLong(commitData(indexPath).get("metadata_log_generation"));
+            final Path orphanedMetadataLog = indexPath.resolve(MetadataLog.fileName(metadataLogGeneration + between(1, 5)));
+            if (randomBoolean()) {
+                Files.write(orphanedMetadataLog, new byte[between(0, 10)]);
+            }
+
+            assertMetadataEquals(loadPersistedClusterState(persistedClusterStateService), clusterState);
+
+            try (Writer writer = persistedClusterStateService.createWriter()) {
+                writer.writeFullStateAndCommit(1L, clusterState);
+                final List<Path> metadataLogs = metadataLogs(indexPath);
+                assertThat(metadataLogs.size(), equalTo(1));
+                assertThat(metadataLogs.get(0), not(equalTo(staleMetadataLog)));
+                assertThat(metadataLogs.get(0), not(equalTo(orphanedMetadataLog)));
+                assertThat(metadataLogs.get(0), not(equalTo(metadataLog)));
+            }
+            assertMetadataEquals(loadPersistedClusterState(persistedClusterStateService), clusterState);
+        }
+    }
+
+    public void testReplaysMetadataLogOnceDisabled() throws IOException {
+        try (NodeEnvironment nodeEnvironment = newNodeEnvironment(createTempDir())) {
+            final Path indexPath = nodeEnvironment.nodeDataPath().resolve(PersistedClusterStateService.METADATA_DIRECTORY_NAME);
+
+            ClusterState clusterState = ClusterState.EMPTY_STATE;
+            try (Writer writer = newPersistedClusterStateService(nodeEnvironment, metadataLogSettings(ByteSizeValue.ofGb(1)))
+                .createWriter()) {
+                writer.writeFullStateAndCommit(1L, clusterState);
+                for (int i = between(1, 5); i > 0; i--) {
+                    final ClusterState previousState = clusterState;
+                    clusterState = changeMetadata(previousState);
+                    writer.writeIncrementalStateAndCommit(1L, previousState, clusterState);
+                }
+            }
+
+            final PersistedClusterStateService persistedClusterStateService = newPersistedClusterStateService(nodeEnvironment);
+            assertMetadataEquals(loadPersistedClusterState(persistedClusterStateService), clusterState);
+
+            try (Writer writer = persistedClusterStateService.createWriter()) {
+                writer.writeFullStateAndCommit(1L, clusterState);
+            }
+            assertThat(metadataLogs(indexPath), empty());
+            assertThat(commitData(indexPath).get("metadata_log_generation"), nullValue());
+            assertMetadataEquals(loadPersistedClusterState(persistedClusterStateService), clusterState);
+        }
+    }
+
     private void assertExpectedLogs(long currentTerm, ClusterState previousState, ClusterState clusterState,
                                     PersistedClusterStateService.Writer writer, MockLogAppender.LoggingExpectation expectation)
         throws IllegalAccessException, IOException {
@@ -700,6 +927,72 @@ public class PersistedClusterStateServiceTests extends ESTestCase {
             .put(Environment.PATH_HOME_SETTING.getKey(), createTempDir().toAbsolutePath()).build();
     }
 
+    private PersistedClusterStateService newPersistedClusterStateService(NodeEnvironment nodeEnvironment, Settings settings) {
+        return new PersistedClusterStateService(nodeEnvironment, xContentRegistry(), getBigArrays(),
+            new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
+            () -> 0L);
+    }
+
+    private static Settings metadataLogSettings(ByteSizeValue compactionThreshold) {
+        return Settings.builder()
+            .put(PersistedClusterStateService.METADATA_LOG_ENABLED.getKey(), true)
+            .put(PersistedClusterStateService.METADATA_LOG_COMPACTION_THRESHOLD.getKey(), compactionThreshold)
+            .build();
+    }
+
+    /**
+     * Adds, updates or deletes some indices, and possibly changes the global metadata, within the same term.
+     */
+    private static ClusterState changeMetadata(ClusterState clusterState) {
+        final Metadata.Builder builder = Metadata.builder(clusterState.metadata()).version(clusterState.metadata().version() + 1);
+        for (IndexMetadata indexMetadata : clusterState.metadata()) {
+            if (rarely()) {
+                builder.remove(indexMetadata.getIndex().getName());
+            } else if (randomBoolean()) {
+                builder.put(IndexMetadata.builder(indexMetadata).settings(Settings.builder()
+                    .put(indexMetadata.getSettings())
+                    .put(IndexMetadata.INDEX_NUMBER_OF_REPLICAS_SETTING.getKey(), between(0, 5))));
+            }
+        }
+        for (int i = between(0, 2); i > 0; i--) {
+            final String indexUUID = UUIDs.randomBase64UUID(random());
+            builder.put(IndexMetadata.builder("index-" + indexUUID.toLowerCase(Locale.ROOT))
+                .settings(Settings.builder()
+                    .put(IndexMetadata.INDEX_NUMBER_OF_SHARDS_SETTING.getKey(), 1)
+                    .put(IndexMetadata.INDEX_NUMBER_OF_REPLICAS_SETTING.getKey(), 0)
+                    .put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT)
+                    .put(IndexMetadata.SETTING_INDEX_UUID, indexUUID)));
+        }
+        if (randomBoolean()) {
+            builder.persistentSettings(Settings.builder().put("test.setting", randomAlphaOfLength(10)).build());
+        }
+        return ClusterState.builder(clusterState).metadata(builder).incrementVersion().build();
+    }
+
+    private static void assertMetadataEquals(ClusterState actual, ClusterState expected) {
+        assertThat(actual.version(), equalTo(expected.version()));
+        assertTrue(Metadata.isGlobalStateEquals(actual.metadata(), expected.metadata()));
+        assertThat(actual.metadata().indices().size(), equalTo(expected.metadata().indices().size()));
+        for (IndexMetadata indexMetadata : expected.metadata()) {
+            final IndexMetadata actualIndexMetadata = actual.metadata().index(indexMetadata.getIndex());
+            assertNotNull(indexMetadata.getIndex() + " is missing", actualIndexMetadata);
+            assertThat(actualIndexMetadata.getVersion(), equalTo(indexMetadata.getVersion()));
+            assertThat(actualIndexMetadata.getSettings(), equalTo(indexMetadata.getSettings()));
+        }
+    }
+
+    private static List<Path> metadataLogs(Path indexPath) throws IOException {
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(indexPath, "metadata-*.log")) {
+            return StreamSupport.stream(directoryStream.spliterator(), false).collect(Collectors.toList());
+        }
+    }
+
+    private static Map<String, String> commitData(Path indexPath) throws IOException {
+        try (DirectoryReader reader = DirectoryReader.open(new NIOFSDirectory(indexPath))) {
+            return reader.getIndexCommit().getUserData();
+        }
+    }
+
     private NodeEnvironment newNodeEnvironment(Path dataPath) throws IOException {
         return newNodeEnvironment(Settings.builder()
             .put(Environment.PATH_DATA_SETTING.getKey(), dataPath.toString())
@@ -24,6 +24,8 @@ import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.rest.BytesRestResponse;
+import org.elasticsearch.rest.ChunkedRestResponse;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestResponse;
@@ -37,6 +39,7 @@ import org.junit.Before;
 import org.mockito.ArgumentCaptor;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.channels.ClosedChannelException;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
@@ -263,6 +266,47 @@ public class DefaultRestChannelTests extends ESTestCase {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    public void testCloseOnChunkedResponseFailure() {
+        final Settings settings = Settings.builder().build();
+        final TestHttpRequest httpRequest = new TestHttpRequest(HttpRequest.HttpVersion.HTTP_1_1, RestRequest.Method.GET, "/");
+        final RestRequest request = RestRequest.request(xContentRegistry(), httpRequest, httpChannel);
+        HttpHandlingSettings handlingSettings = HttpHandlingSettings.fromSettings(settings);
+
+        DefaultRestChannel channel = new DefaultRestChannel(httpChannel, httpRequest, request, bigArrays, handlingSettings,
+            threadPool.getThreadContext(), CorsHandler.fromSettings(settings), null);
+        channel.sendResponse(new ChunkedRestResponse(RestStatus.OK, new ChunkedRestResponseBody() {
+            private boolean done;
+
+            @Override
+            public boolean isDone() {
+                return done;
+            }
+
+            @Override
+            public void encodeChunk(int sizeHint, OutputStream outputStream) throws IOException {
+                outputStream.write("content".getBytes(StandardCharsets.UTF_8));
+                done = true;
+            }
+
+            @Override
+            public String getResponseContentTypeString() {
+                return "text";
+            }
+        }));
+        Class<ActionListener<Void>> listenerClass = (Class<ActionListener<Void>>) (Class) ActionListener.class;
+        ArgumentCaptor<ActionListener<Void>> listenerCaptor = ArgumentCaptor.forClass(listenerClass);
+        verify(httpChannel).sendResponse(any(), listenerCaptor.capture());
+        ActionListener<Void> listener = listenerCaptor.getValue();
+        final boolean fail = randomBoolean();
+        if (fail) {
+            listener.onFailure(new IOException("simulated"));
+        } else {
+            listener.onResponse(null);
+        }
+        verify(httpChannel, times(fail ? 1 : 0)).close();
+    }
+
     public void testUnsupportedHttpMethod() {
         final boolean close = randomBoolean();
         final HttpRequest.HttpVersion httpVersion = close ? HttpRequest.HttpVersion.HTTP_1_0 : HttpRequest.HttpVersion.HTTP_1_1;
@@ -31,6 +31,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.lucene.util.RoaringBitSet;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.IndexSettingsModule;
 
@@ -39,6 +40,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
 
 public class BitSetFilterCacheTests extends ESTestCase {
 
@@ -168,6 +170,38 @@ public class BitSetFilterCacheTests extends ESTestCase {
         assertEquals(0, stats.get());
     }
 
+    public void testCompressedBitsets() throws IOException {
+        IndexWriter writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        for (int i = 0; i < 100; i++) {
+            Document document = new Document();
+            document.add(new StringField("field", i % 10 == 0 ? "parent" : "child", Field.Store.NO));
+            writer.addDocument(document);
+        }
+        writer.commit();
+        DirectoryReader reader = DirectoryReader.open(writer);
+        reader = ElasticsearchDirectoryReader.wrap(reader, new ShardId("test", "_na_", 0));
+
+        IndexSettings indexSettings = IndexSettingsModule.newIndexSettings("test",
+            Settings.builder().put(BitsetFilterCache.INDEX_COMPRESS_BITSET_FILTERS_SETTING.getKey(), true).build());
+        BitsetFilterCache cache = new BitsetFilterCache(indexSettings, new BitsetFilterCache.Listener() {
+            @Override
+            public void onCache(ShardId shardId, Accountable accountable) {
+
+            }
+
+            @Override
+            public void onRemoval(ShardId shardId, Accountable accountable) {
+
+            }
+        });
+        BitSetProducer filter = cache.getBitSetProducer(new TermQuery(new Term("field", "parent")));
+        assertThat(matchCount(filter, reader), equalTo(10));
+        for (LeafReaderContext ctx : reader.leaves()) {
+            assertThat(filter.getBitSet(ctx), instanceOf(RoaringBitSet.class));
+        }
+        IOUtils.close(reader, writer);
+    }
+
     public void testSetNullListener() {
         try {
             new BitsetFilterCache(INDEX_SETTINGS, null);
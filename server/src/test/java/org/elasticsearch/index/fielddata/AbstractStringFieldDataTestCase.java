@@ -18,6 +18,7 @@ import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.Term;
@@ -38,12 +39,14 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.TestUtil;
 import org.apache.lucene.util.UnicodeUtil;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.index.fielddata.IndexFieldData.XFieldComparatorSource.Nested;
 import org.elasticsearch.index.fielddata.fieldcomparator.BytesRefFieldComparatorSource;
 import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.search.MultiValueMode;
 
 import java.io.IOException;
@@ -634,4 +637,95 @@ public abstract class AbstractStringFieldDataTestCase extends AbstractFieldDataI
         indexService.clearCaches(false, true);
         assertThat(indicesFieldDataCache.getCache().weight(), equalTo(0L));
     }
+
+    public void testGlobalOrdinalsSharedByReadersWithSameSegmentsWithValues() throws Exception {
+        fillExtendedMvSet();
+        refreshReader();
+        final CircuitBreaker breaker = getInstanceFromNode(CircuitBreakerService.class).getBreaker(CircuitBreaker.FIELDDATA);
+        IndexOrdinalsFieldData ifd = getForField("string", "value", hasDocValues());
+        OrdinalMap ordinalMap = ifd.loadGlobal(topLevelReader).getOrdinalMap();
+        assertNotNull(ordinalMap);
+        final long used = breaker.getUsed();
+
+        // deletes don't change the terms of the segments
+        writer.deleteDocuments(new Term("_id", "1"));
+        DirectoryReader withDeletes = openReader();
+        assertThat(withDeletes.leaves().size(), equalTo(topLevelReader.leaves().size()));
+        assertThat(ifd.loadGlobal(withDeletes).getOrdinalMap(), sameInstance(ordinalMap));
+        assertThat(breaker.getUsed(), equalTo(used));
+        assertThat(cachedGlobalOrdinals(), equalTo(1));
+
+        // neither do segments without values for the field
+        Document d = new Document();
+        addField(d, "_id", "9");
+        writer.addDocument(d);
+        DirectoryReader withoutValues = openReader();
+        assertThat(withoutValues.leaves().size(), equalTo(topLevelReader.leaves().size() + 1));
+        assertThat(ifd.loadGlobal(withoutValues).getOrdinalMap(), sameInstance(ordinalMap));
+        assertThat(cachedGlobalOrdinals(), equalTo(1));
+
+        // the global ordinals stay cached as long as one of the readers that share them is open
+        topLevelReader.close();
+        withDeletes.close();
+        assertThat(cachedGlobalOrdinals(), equalTo(1));
+        assertThat(ifd.loadGlobal(withoutValues).getOrdinalMap(), sameInstance(ordinalMap));
+        // and don't depend on the reader that they were built for
+        assertGlobalOrdinalsMatchSegmentValues(ifd, withoutValues);
+
+        // segments with new values need new global ordinals
+        d = new Document();
+        addField(d, "_id", "10");
+        addField(d, "value", "11");
+        writer.addDocument(d);
+        topLevelReader = openReader();
+        OrdinalMap newOrdinalMap = ifd.loadGlobal(topLevelReader).getOrdinalMap();
+        assertThat(newOrdinalMap, not(sameInstance(ordinalMap)));
+        assertThat(newOrdinalMap.getValueCount(), equalTo(ordinalMap.getValueCount() + 1));
+        assertThat(cachedGlobalOrdinals(), equalTo(2));
+
+        withoutValues.close();
+        assertThat(cachedGlobalOrdinals(), equalTo(1));
+        assertThat(ifd.loadGlobal(topLevelReader).getOrdinalMap(), sameInstance(newOrdinalMap));
+    }
+
+    private static void assertGlobalOrdinalsMatchSegmentValues(IndexOrdinalsFieldData ifd, DirectoryReader reader) throws IOException {
+        final IndexOrdinalsFieldData globalOrdinals = ifd.loadGlobal(reader);
+        int docsWithValues = 0;
+        for (LeafReaderContext context : reader.leaves()) {
+            final SortedSetDocValues globalValues = globalOrdinals.load(context).getOrdinalsValues();
+            final SortedSetDocValues segmentValues = ifd.load(context).getOrdinalsValues();
+            for (int doc = 0; doc < context.reader().maxDoc(); doc++) {
+                final boolean hasValue = segmentValues.advanceExact(doc);
+                assertThat(globalValues.advanceExact(doc), equalTo(hasValue));
+                if (hasValue == false) {
+                    continue;
+                }
+                docsWithValues++;
+                final List<BytesRef> expected = new ArrayList<>();
+                for (long ord = segmentValues.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = segmentValues.nextOrd()) {
+                    expected.add(BytesRef.deepCopyOf(segmentValues.lookupOrd(ord)));
+                }
+                final List<BytesRef> actual = new ArrayList<>();
+                for (long ord = globalValues.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = globalValues.nextOrd()) {
+                    actual.add(BytesRef.deepCopyOf(globalValues.lookupOrd(ord)));
+                }
+                assertThat(actual, equalTo(expected));
+            }
+        }
+        assertThat(docsWithValues, not(equalTo(0)));
+    }
+
+    private DirectoryReader openReader() throws IOException {
+        return ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "_na_", 1));
+    }
+
+    private int cachedGlobalOrdinals() {
+        int count = 0;
+        for (Accountable ramUsage : indicesFieldDataCache.getCache().values()) {
+            if (ramUsage instanceof GlobalOrdinalsIndexFieldData) {
+                count++;
+            }
+        }
+        return count;
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.fielddata;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.fielddata.plain.MemoryMappedTermsLeafFieldData;
+import org.elasticsearch.index.fielddata.plain.PagedBytesIndexFieldData;
+import org.elasticsearch.index.mapper.TextFieldMapper;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
+import org.elasticsearch.search.aggregations.support.CoreValuesSourceType;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+
+/**
+ * Runs the {@link PagedBytesStringFieldDataTests} with the terms of field data memory-mapped rather than kept on heap.
+ */
+public class MemoryMappedTermsStringFieldDataTests extends PagedBytesStringFieldDataTests {
+
+    @Override
+    protected Settings nodeSettings() {
+        return Settings.builder().put(IndicesFieldDataCache.INDICES_FIELDDATA_MEMORY_MAPPED_TERMS_SETTING.getKey(), true).build();
+    }
+
+    public void testLoadsMemoryMappedTerms() throws Exception {
+        fillSingleValueAllSet();
+        IndexFieldData<?> indexFieldData = getForField("value");
+        LeafReaderContext readerContext = refreshReader().get(0);
+        LeafFieldData fieldData = indexFieldData.load(readerContext);
+        assertThat(fieldData, instanceOf(MemoryMappedTermsLeafFieldData.class));
+
+        SortedSetDocValues values = ((LeafOrdinalsFieldData) fieldData).getOrdinalsValues();
+        assertThat(values.getValueCount(), equalTo(3L));
+        assertThat(values.lookupOrd(0), equalTo(new BytesRef("1")));
+        assertThat(values.lookupOrd(2), equalTo(new BytesRef("3")));
+        assertThat(values.lookupOrd(1), equalTo(new BytesRef("2")));
+    }
+
+    public void testUnmapsTermsOnceEvictedAndNoLongerUsed() throws Exception {
+        fillSingleValueAllSet();
+        final ShardFieldData shardFieldData = new ShardFieldData();
+        final IndexFieldDataCache cache = indicesFieldDataCache.buildIndexFieldDataCache(shardFieldData, indexService.index(), "value");
+        final IndexOrdinalsFieldData indexFieldData = new PagedBytesIndexFieldData.Builder(
+            "value",
+            TextFieldMapper.Defaults.FIELDDATA_MIN_FREQUENCY,
+            TextFieldMapper.Defaults.FIELDDATA_MAX_FREQUENCY,
+            TextFieldMapper.Defaults.FIELDDATA_MIN_SEGMENT_SIZE,
+            CoreValuesSourceType.KEYWORD).build(cache, new NoneCircuitBreakerService());
+        final LeafReaderContext readerContext = refreshReader().get(0);
+        final MemoryMappedTermsLeafFieldData fieldData = (MemoryMappedTermsLeafFieldData) indexFieldData.load(readerContext);
+        assertThat(fieldData.getMappedBytes(), greaterThan(0L));
+        assertThat(shardFieldData.stats().getMemoryMappedSizeInBytes(), equalTo(fieldData.getMappedBytes()));
+        assertSame(fieldData, indexFieldData.load(readerContext));
+
+        // the reader that loaded the field data keeps using it after it is evicted
+        cache.clear();
+        assertThat(shardFieldData.stats().getEvictions(), equalTo(0L));
+        assertThat(shardFieldData.stats().getMemorySizeInBytes(), equalTo(0L));
+        assertTrue(fieldData.hasReferences());
+        assertThat(shardFieldData.stats().getMemoryMappedSizeInBytes(), equalTo(fieldData.getMappedBytes()));
+        final SortedSetDocValues values = fieldData.getOrdinalsValues();
+        assertThat(values.lookupOrd(0), equalTo(new BytesRef("1")));
+
+        // and the terms are unmapped once the reader is closed
+        topLevelReader.close();
+        topLevelReader = null;
+        assertFalse(fieldData.hasReferences());
+        assertThat(shardFieldData.stats().getMemoryMappedSizeInBytes(), equalTo(0L));
+        if (MMapDirectory.UNMAP_SUPPORTED) {
+            expectThrows(AlreadyClosedException.class, () -> values.lookupOrd(1));
+        }
+    }
+}
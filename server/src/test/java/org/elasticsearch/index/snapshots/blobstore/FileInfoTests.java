@@ -18,17 +18,22 @@ import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.ContentChunk;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.VersionUtils;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import static org.elasticsearch.index.store.StoreFileMetadata.UNAVAILABLE_WRITER_UUID;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 
 public class FileInfoTests extends ESTestCase {
     private static final org.apache.lucene.util.Version MIN_SUPPORTED_LUCENE_VERSION = org.elasticsearch.Version.CURRENT
@@ -198,4 +203,52 @@ public class FileInfoTests extends ESTestCase {
             assertEquals(numBytes, metadata.length());
         }
     }
+
+    public void testContentChunks() throws IOException {
+        final int numberOfChunks = between(1, 10);
+        final List<ContentChunk> contentChunks = new ArrayList<>();
+        long length = 0;
+        for (int i = 0; i < numberOfChunks; i++) {
+            final ContentChunk contentChunk = new ContentChunk(randomAlphaOfLength(64), randomLongBetween(1, 1 << 20));
+            contentChunks.add(contentChunk);
+            length += contentChunk.length();
+        }
+        final FileInfo info = new FileInfo(
+            "_foobar",
+            new StoreFileMetadata("foo", length, "666", MIN_SUPPORTED_LUCENE_VERSION.toString()),
+            contentChunks
+        );
+        assertThat(info.numberOfParts(), equalTo(numberOfChunks));
+        for (int i = 0; i < numberOfChunks; i++) {
+            assertThat(info.partName(i), equalTo(ContentChunk.BLOB_NAME_PREFIX + contentChunks.get(i).hash()));
+            assertThat(info.partBytes(i), equalTo(contentChunks.get(i).length()));
+        }
+
+        final XContentBuilder builder = XContentFactory.contentBuilder(XContentType.JSON);
+        FileInfo.toXContent(info, builder, ToXContent.EMPTY_PARAMS);
+        final FileInfo parsedInfo;
+        try (XContentParser parser = createParser(JsonXContent.jsonXContent, BytesReference.bytes(builder))) {
+            parser.nextToken();
+            parsedInfo = FileInfo.fromXContent(parser);
+        }
+        assertThat(parsedInfo.contentChunks(), equalTo(contentChunks));
+        assertThat(parsedInfo.partSize(), nullValue());
+        assertThat(parsedInfo.isSame(info), is(true));
+
+        final FileInfo copy = copyWriteable(info, writableRegistry(), FileInfo::new);
+        assertThat(copy.contentChunks(), equalTo(contentChunks));
+        assertThat(copy.isSame(info), is(true));
+
+        final org.elasticsearch.Version oldVersion = VersionUtils.getPreviousVersion(FileInfo.CONTENT_CHUNKS_VERSION);
+        expectThrows(IllegalArgumentException.class, () -> copyWriteable(info, writableRegistry(), FileInfo::new, oldVersion));
+
+        expectThrows(
+            IllegalArgumentException.class,
+            () -> new FileInfo(
+                "_foobar",
+                new StoreFileMetadata("foo", length + 1, "666", MIN_SUPPORTED_LUCENE_VERSION.toString()),
+                contentChunks
+            )
+        );
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.index.snapshots.blobstore;
+
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.core.internal.io.Streams;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class PrefetchingSlicedInputStreamTests extends ESTestCase {
+
+    public void testReadsAllSlicesInOrder() throws Exception {
+        final byte[][] slices = randomSlices();
+        final CheckClosedInputStream[] streams = new CheckClosedInputStream[slices.length];
+        final ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            final Executor executor = randomBoolean()
+                ? EsExecutors.DIRECT_EXECUTOR_SERVICE
+                : threadPool.executor(ThreadPool.Names.GENERIC);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (InputStream input = new PrefetchingSlicedInputStream(slices.length, between(0, 3), executor) {
+                @Override
+                protected InputStream openSliceAsync(int slice) {
+                    assertNull(streams[slice]);
+                    streams[slice] = new CheckClosedInputStream(new ByteArrayInputStream(slices[slice]));
+                    return streams[slice];
+                }
+            }) {
+                Streams.copy(input, out, new byte[between(1, 100)]);
+            }
+            assertArrayEquals(concat(slices), out.toByteArray());
+            for (CheckClosedInputStream stream : streams) {
+                assertTrue(stream.closed);
+            }
+        } finally {
+            ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        }
+    }
+
+    public void testClosesPrefetchedSlicesOnClose() throws Exception {
+        final byte[][] slices = randomSlices();
+        final int prefetchSlices = between(1, 3);
+        final CountDownLatch opened = new CountDownLatch(Math.min(slices.length, 1 + prefetchSlices));
+        final CheckClosedInputStream[] streams = new CheckClosedInputStream[slices.length];
+        final ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            final InputStream input = new PrefetchingSlicedInputStream(
+                slices.length,
+                prefetchSlices,
+                threadPool.executor(ThreadPool.Names.GENERIC)
+            ) {
+                @Override
+                protected InputStream openSliceAsync(int slice) {
+                    streams[slice] = new CheckClosedInputStream(new ByteArrayInputStream(slices[slice]));
+                    opened.countDown();
+                    return streams[slice];
+                }
+            };
+            assertThat(input.read(), equalTo(slices[0][0] & 0xff));
+            assertTrue(opened.await(10, TimeUnit.SECONDS));
+            input.close();
+            assertBusy(() -> {
+                for (CheckClosedInputStream stream : streams) {
+                    assertTrue(stream == null || stream.closed);
+                }
+            });
+        } finally {
+            ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        }
+    }
+
+    public void testOpensSlicesOnReadingThreadIfRejected() throws IOException {
+        final byte[][] slices = randomSlices();
+        final AtomicInteger rejections = new AtomicInteger();
+        final Thread readingThread = Thread.currentThread();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream input = new PrefetchingSlicedInputStream(slices.length, between(1, 3), command -> {
+            rejections.incrementAndGet();
+            throw new EsRejectedExecutionException("rejected", true);
+        }) {
+            @Override
+            protected InputStream openSliceAsync(int slice) {
+                assertThat(Thread.currentThread(), equalTo(readingThread));
+                return new ByteArrayInputStream(slices[slice]);
+            }
+        }) {
+            Streams.copy(input, out, new byte[between(1, 100)]);
+        }
+        assertArrayEquals(concat(slices), out.toByteArray());
+        assertThat(rejections.get(), equalTo(slices.length - 1));
+    }
+
+    private static byte[][] randomSlices() {
+        final byte[][] slices = new byte[between(2, 20)][];
+        for (int i = 0; i < slices.length; i++) {
+            slices[i] = randomByteArrayOfLength(between(1, 1000));
+        }
+        return slices;
+    }
+
+    private static byte[] concat(byte[][] slices) {
+        final byte[] bytes = new byte[Arrays.stream(slices).mapToInt(slice -> slice.length).sum()];
+        int offset = 0;
+        for (byte[] slice : slices) {
+            System.arraycopy(slice, 0, bytes, offset, slice.length);
+            offset += slice.length;
+        }
+        return bytes;
+    }
+
+    private static final class CheckClosedInputStream extends FilterInputStream {
+
+        volatile boolean closed = false;
+
+        CheckClosedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+}
@@ -29,11 +29,13 @@ import org.apache.lucene.store.Directory;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.index.cache.query.QueryCacheFilterStats;
 import org.elasticsearch.index.cache.query.QueryCacheStats;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
+import java.util.List;
 
 public class IndicesQueryCacheTests extends ESTestCase {
 
@@ -380,6 +382,125 @@ public class IndicesQueryCacheTests extends ESTestCase {
 
     }
 
+    public void testFilterStats() throws IOException {
+        Directory dir = newDirectory();
+        IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
+        w.addDocument(new Document());
+        DirectoryReader r = DirectoryReader.open(w);
+        w.close();
+        ShardId shard = new ShardId("index", "_na_", 0);
+        r = ElasticsearchDirectoryReader.wrap(r, shard);
+        IndexSearcher s = new IndexSearcher(r);
+        s.setQueryCachingPolicy(new QueryCachingPolicy() {
+            @Override
+            public void onUse(Query query) {}
+
+            @Override
+            public boolean shouldCache(Query query) {
+                // only cache the first dummy query
+                return ((DummyQuery) query).id == 0;
+            }
+        });
+
+        Settings settings = Settings.builder()
+                .put(IndicesQueryCache.INDICES_CACHE_QUERY_COUNT_SETTING.getKey(), 10)
+                .put(IndicesQueryCache.INDICES_QUERIES_CACHE_ALL_SEGMENTS_SETTING.getKey(), true)
+                .build();
+        IndicesQueryCache cache = new IndicesQueryCache(settings);
+        s.setQueryCache(cache);
+
+        QueryCacheStats stats = cache.getFilterStats();
+        assertEquals(0, stats.getTopCachedFilters().size());
+        assertEquals(0, stats.getTopUncachedFilters().size());
+
+        for (int i = 0; i < 3; ++i) {
+            assertEquals(1, s.count(new DummyQuery(0)));
+        }
+        for (int i = 0; i < 2; ++i) {
+            assertEquals(1, s.count(new DummyQuery(1)));
+        }
+
+        stats = cache.getFilterStats();
+        assertEquals(1, stats.getTopCachedFilters().size());
+        QueryCacheFilterStats cached = stats.getTopCachedFilters().get(0);
+        assertEquals("dummy", cached.getQuery());
+        assertEquals(3L, cached.getUseCount());
+        assertEquals(2L, cached.getHitCount());
+        assertEquals(1L, cached.getMissCount());
+        assertEquals(1L, cached.getCacheCount());
+        assertTrue(cached.getBuildSize().getBytes() > 0);
+
+        assertEquals(1, stats.getTopUncachedFilters().size());
+        QueryCacheFilterStats uncached = stats.getTopUncachedFilters().get(0);
+        assertEquals(2L, uncached.getUseCount());
+        assertEquals(0L, uncached.getHitCount());
+        assertEquals(2L, uncached.getMissCount());
+        assertEquals(0L, uncached.getCacheCount());
+
+        // the top filters of several nodes are merged, and the stats of the same filter are summed
+        QueryCacheStats total = new QueryCacheStats();
+        total.add(stats);
+        total.add(stats);
+        total.add(QueryCacheStats.ofTopFilters(
+            List.of(new QueryCacheFilterStats("other", 1L, 1L, 0L, 1L, 10L, 10L)),
+            List.of()
+        ));
+        assertEquals(2, total.getTopCachedFilters().size());
+        QueryCacheFilterStats totalCached = total.getTopCachedFilters().get(0);
+        assertEquals("dummy", totalCached.getQuery());
+        assertEquals(6L, totalCached.getUseCount());
+        assertEquals(4L, totalCached.getHitCount());
+        assertEquals(2L, totalCached.getMissCount());
+        assertEquals(2L, totalCached.getCacheCount());
+        assertEquals(2 * cached.getBuildTime().nanos(), totalCached.getBuildTime().nanos());
+        assertEquals(2 * cached.getBuildSize().getBytes(), totalCached.getBuildSize().getBytes());
+        assertEquals("other", total.getTopCachedFilters().get(1).getQuery());
+        assertEquals(1, total.getTopUncachedFilters().size());
+        assertEquals(4L, total.getTopUncachedFilters().get(0).getUseCount());
+
+        IOUtils.close(r, dir);
+        cache.onClose(shard);
+        cache.close();
+    }
+
+    public void testSavedNanosPerByte() {
+        final IndicesQueryCache.FilterUsage usage = new IndicesQueryCache.FilterUsage(new DummyQuery(0));
+        assertEquals(0d, usage.savedNanosPerByte(), 0d);
+
+        // three entries that took 600ns to build on average and 300 bytes in total, and were hit 5 times
+        usage.onCache(100, 100);
+        usage.onCache(500, 100);
+        usage.onCache(1200, 100);
+        usage.hits.add(5);
+        assertEquals(600d * 5 / 300, usage.savedNanosPerByte(), 0.0001d);
+    }
+
+    public void testRemeasuresFiltersThatDidNotPayOff() {
+        final IndicesQueryCache.FilterUsage usage = new IndicesQueryCache.FilterUsage(new DummyQuery(0));
+        // nothing measured yet
+        assertTrue(usage.shouldCache(true));
+        assertFalse(usage.shouldCache(false));
+
+        // an entry that was evicted without being hit
+        usage.uses.increment();
+        usage.onCache(1000, 1000);
+        assertFalse(usage.shouldCache(true));
+        assertFalse(usage.shouldCache(false));
+
+        // the filter is measured again once it was used often since then, if the wrapped policy wants to cache it
+        usage.uses.add(IndicesQueryCache.USES_BEFORE_REMEASURING - 1);
+        assertFalse(usage.shouldCache(true));
+        usage.uses.increment();
+        assertTrue(usage.shouldCache(true));
+        assertFalse(usage.shouldCache(false));
+
+        // entries that save enough build time are cached even if the filter is not used frequently
+        usage.onCache(1000, 1000);
+        assertFalse(usage.shouldCache(true));
+        usage.hits.add(10);
+        assertTrue(usage.shouldCache(false));
+    }
+
     public void testDelegatesScorerSupplier() throws Exception {
         Directory dir = newDirectory();
         IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
@@ -0,0 +1,105 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.elasticsearch.indices.recovery.FileChunkCongestionControl.MIN_CHUNK_SIZE_IN_BYTES;
+import static org.hamcrest.Matchers.equalTo;
+
+public class FileChunkCongestionControlTests extends ESTestCase {
+
+    private static final int CHUNK_SIZE = 512 * 1024;
+    private static final long RTT_NANOS = 1_000_000L;
+
+    public void testStartsWithConfiguredValues() {
+        final int maxWindow = between(1, 8);
+        final FileChunkCongestionControl control = new FileChunkCongestionControl(CHUNK_SIZE, 4 * CHUNK_SIZE, maxWindow);
+        assertThat(control.chunkSize(), equalTo(CHUNK_SIZE));
+        assertThat(control.window(), equalTo(maxWindow));
+    }
+
+    public void testGrowsChunkSizeUpToMaximumWithoutCongestion() {
+        final FileChunkCongestionControl control = new FileChunkCongestionControl(CHUNK_SIZE, 4 * CHUNK_SIZE, 2);
+        acknowledgeWindow(control, RTT_NANOS);
+        assertThat(control.chunkSize(), equalTo(2 * CHUNK_SIZE));
+        acknowledgeWindow(control, 2 * RTT_NANOS);
+        assertThat(control.chunkSize(), equalTo(4 * CHUNK_SIZE));
+        acknowledgeWindow(control, 4 * RTT_NANOS);
+        assertThat(control.chunkSize(), equalTo(4 * CHUNK_SIZE));
+        assertThat(control.window(), equalTo(2));
+    }
+
+    public void testShrinksWindowThenChunkSizeOnCongestion() {
+        final FileChunkCongestionControl control = new FileChunkCongestionControl(CHUNK_SIZE, CHUNK_SIZE, 8);
+        acknowledgeWindow(control, RTT_NANOS);
+        assertThat(control.window(), equalTo(8));
+
+        acknowledgeWindow(control, 3 * RTT_NANOS);
+        assertThat(control.window(), equalTo(4));
+        acknowledgeWindow(control, 3 * RTT_NANOS);
+        assertThat(control.window(), equalTo(2));
+        acknowledgeWindow(control, 3 * RTT_NANOS);
+        assertThat(control.window(), equalTo(1));
+        assertThat(control.chunkSize(), equalTo(CHUNK_SIZE));
+
+        acknowledgeWindow(control, 3 * RTT_NANOS);
+        assertThat(control.window(), equalTo(1));
+        assertThat(control.chunkSize(), equalTo(CHUNK_SIZE / 2));
+
+        // the minimum round-trip time is scaled down with the chunk size, so the same round-trip time is still congested
+        acknowledgeWindow(control, 3 * RTT_NANOS);
+        assertThat(control.chunkSize(), equalTo(CHUNK_SIZE / 4));
+
+        acknowledgeWindow(control, RTT_NANOS / 4);
+        assertThat(control.window(), equalTo(2));
+        assertThat(control.chunkSize(), equalTo(CHUNK_SIZE / 4));
+    }
+
+    public void testNeverShrinksChunkSizeBelowMinimum() {
+        final FileChunkCongestionControl control = new FileChunkCongestionControl(CHUNK_SIZE, CHUNK_SIZE, 1);
+        acknowledgeWindow(control, RTT_NANOS);
+        for (int i = 0; i < 20; i++) {
+            acknowledgeWindow(control, 3 * RTT_NANOS);
+        }
+        assertThat(control.chunkSize(), equalTo(MIN_CHUNK_SIZE_IN_BYTES));
+        assertThat(control.window(), equalTo(1));
+    }
+
+    public void testGrowsWindowAfterCongestionClears() {
+        final FileChunkCongestionControl control = new FileChunkCongestionControl(CHUNK_SIZE, CHUNK_SIZE, 4);
+        acknowledgeWindow(control, RTT_NANOS);
+        acknowledgeWindow(control, 3 * RTT_NANOS);
+        assertThat(control.window(), equalTo(2));
+        acknowledgeWindow(control, RTT_NANOS);
+        assertThat(control.window(), equalTo(3));
+        acknowledgeWindow(control, RTT_NANOS);
+        assertThat(control.window(), equalTo(4));
+        acknowledgeWindow(control, RTT_NANOS);
+        assertThat(control.window(), equalTo(4));
+    }
+
+    public void testIgnoresPartialChunks() {
+        final FileChunkCongestionControl control = new FileChunkCongestionControl(CHUNK_SIZE, CHUNK_SIZE, 2);
+        acknowledgeWindow(control, RTT_NANOS);
+        for (int i = 0; i < 10; i++) {
+            control.onChunkAcknowledged(between(1, CHUNK_SIZE - 1), randomLongBetween(0, 100 * RTT_NANOS));
+        }
+        assertThat(control.window(), equalTo(2));
+        assertThat(control.chunkSize(), equalTo(CHUNK_SIZE));
+    }
+
+    private static void acknowledgeWindow(FileChunkCongestionControl control, long rttNanos) {
+        final int window = control.window();
+        final int chunkSize = control.chunkSize();
+        for (int i = 0; i < window; i++) {
+            control.onChunkAcknowledged(chunkSize, rttNanos);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.VersionUtils;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class RecoveryFileChunkRequestTests extends ESTestCase {
+
+    public void testSerialization() throws IOException {
+        final RecoveryFileChunkRequest request = randomRequest();
+        final Version version = VersionUtils.randomCompatibleVersion(random(), Version.CURRENT);
+        final RecoveryFileChunkRequest copy = copyWriteable(request, writableRegistry(), RecoveryFileChunkRequest::new, version);
+        assertThat(copy.recoveryId(), equalTo(request.recoveryId()));
+        assertThat(copy.requestSeqNo(), equalTo(request.requestSeqNo()));
+        assertThat(copy.shardId(), equalTo(request.shardId()));
+        assertThat(copy.metadata().name(), equalTo(request.metadata().name()));
+        assertThat(copy.metadata().checksum(), equalTo(request.metadata().checksum()));
+        assertThat(copy.metadata().writtenBy(), equalTo(request.metadata().writtenBy()));
+        assertThat(copy.position(), equalTo(request.position()));
+        assertThat(copy.length(), equalTo(request.length()));
+        assertThat(copy.lastChunk(), equalTo(request.lastChunk()));
+        assertThat(copy.totalTranslogOps(), equalTo(request.totalTranslogOps()));
+        assertThat(copy.sourceThrottleTimeInNanos(), equalTo(request.sourceThrottleTimeInNanos()));
+        assertEquals(request.content(), copy.content());
+        request.decRef();
+        copy.decRef();
+    }
+
+    public void testWriteThinLeavesContentToTheCaller() throws IOException {
+        final RecoveryFileChunkRequest request = randomRequest();
+        final BytesStreamOutput fullOut = new BytesStreamOutput();
+        request.writeTo(fullOut);
+
+        final BytesStreamOutput thinOut = new BytesStreamOutput();
+        final BytesReference trailingBytes = request.writeThin(thinOut);
+        assertThat(trailingBytes, equalTo(request.content()));
+        assertEquals(fullOut.bytes(), CompositeBytesReference.of(thinOut.bytes(), trailingBytes));
+        request.decRef();
+    }
+
+    private static RecoveryFileChunkRequest randomRequest() {
+        final long length = randomLongBetween(1, Long.MAX_VALUE / 2);
+        final StoreFileMetadata metadata = new StoreFileMetadata(randomAlphaOfLength(10), length, randomAlphaOfLength(8),
+            org.apache.lucene.util.Version.LATEST.toString());
+        final ReleasableBytesReference content = ReleasableBytesReference.wrap(new BytesArray(randomByteArrayOfLength(between(0, 1024))));
+        final RecoveryFileChunkRequest request = new RecoveryFileChunkRequest(randomNonNegativeLong(), randomNonNegativeLong(),
+            new ShardId(randomAlphaOfLength(10), randomAlphaOfLength(10), between(0, 10)), metadata, randomLongBetween(0, length),
+            content, randomBoolean(), between(0, 1000), randomNonNegativeLong());
+        content.decRef();
+        return request;
+    }
+}
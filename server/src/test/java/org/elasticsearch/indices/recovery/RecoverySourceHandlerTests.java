@@ -199,6 +199,7 @@ public class RecoverySourceHandlerTests extends ESTestCase {
             request,
             Math.toIntExact(recoverySettings.getChunkSize().getBytes()),
             between(1, 5),
+            randomBoolean(),
             between(1, 5),
             between(1, 5),
             false,
@@ -0,0 +1,89 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.lucene.util;
+
+import org.apache.lucene.util.BitSetIterator;
+import org.apache.lucene.util.FixedBitSet;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.lessThan;
+
+public class RoaringBitSetTests extends ESTestCase {
+
+    public void testEmpty() throws IOException {
+        testCase(new FixedBitSet(randomIntBetween(1, 200000)));
+    }
+
+    public void testSparse() throws IOException {
+        final FixedBitSet expected = new FixedBitSet(randomIntBetween(1, 300000));
+        for (int i = randomIntBetween(0, 100); i < expected.length(); i += randomIntBetween(1, 100)) {
+            expected.set(i);
+        }
+        testCase(expected);
+    }
+
+    public void testDense() throws IOException {
+        final FixedBitSet expected = new FixedBitSet(randomIntBetween(1, 300000));
+        for (int i = 0; i < expected.length(); i++) {
+            if (randomBoolean()) {
+                expected.set(i);
+            }
+        }
+        testCase(expected);
+    }
+
+    public void testRuns() throws IOException {
+        final FixedBitSet expected = new FixedBitSet(randomIntBetween(1, 300000));
+        int start = randomIntBetween(0, 1000);
+        while (start < expected.length()) {
+            final int end = Math.min(expected.length(), start + randomIntBetween(1, 10000));
+            expected.set(start, end);
+            start = end + randomIntBetween(1, 10000);
+        }
+        testCase(expected);
+    }
+
+    public void testMixedBlocks() throws IOException {
+        final FixedBitSet expected = new FixedBitSet(5 * RoaringBitSet.BLOCK_SIZE);
+        // one block with an array, one with a bitmap, one with runs, one that is full and one that is empty
+        for (int i = 0; i < RoaringBitSet.BLOCK_SIZE; i += randomIntBetween(20, 40)) {
+            expected.set(i);
+        }
+        for (int i = RoaringBitSet.BLOCK_SIZE; i < 2 * RoaringBitSet.BLOCK_SIZE; i += randomIntBetween(1, 3)) {
+            expected.set(i);
+        }
+        expected.set(2 * RoaringBitSet.BLOCK_SIZE + 100, 2 * RoaringBitSet.BLOCK_SIZE + 20000);
+        expected.set(3 * RoaringBitSet.BLOCK_SIZE, 4 * RoaringBitSet.BLOCK_SIZE);
+        testCase(expected);
+    }
+
+    public void testTakesLessMemoryThanFixedBitSetForNestedParents() throws IOException {
+        final FixedBitSet parents = new FixedBitSet(randomIntBetween(100000, 1000000));
+        // the last document of each block of nested documents is the parent
+        for (int i = randomIntBetween(10, 50); i < parents.length(); i += randomIntBetween(20, 50)) {
+            parents.set(i);
+        }
+        final RoaringBitSet actual = RoaringBitSet.of(new BitSetIterator(parents, parents.cardinality()), parents.length());
+        assertThat(actual.ramBytesUsed(), lessThan(parents.ramBytesUsed()));
+    }
+
+    private void testCase(FixedBitSet expected) throws IOException {
+        final RoaringBitSet actual = RoaringBitSet.of(new BitSetIterator(expected, expected.cardinality()), expected.length());
+        assertEquals(expected.length(), actual.length());
+        assertEquals(expected.cardinality(), actual.cardinality());
+        for (int i = 0; i < expected.length(); ++i) {
+            assertEquals(Integer.toString(i), expected.get(i), actual.get(i));
+            assertEquals(Integer.toString(i), expected.nextSetBit(i), actual.nextSetBit(i));
+            assertEquals(Integer.toString(i), expected.prevSetBit(i), actual.prevSetBit(i));
+        }
+        expectThrows(UnsupportedOperationException.class, () -> actual.set(0));
+    }
+}
@@ -8,8 +8,12 @@
 
 package org.elasticsearch.repositories.blobstore;
 
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRunnable;
 import org.elasticsearch.action.admin.cluster.snapshots.create.CreateSnapshotResponse;
+import org.elasticsearch.action.support.GroupedActionListener;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.action.support.master.AcknowledgedResponse;
 import org.elasticsearch.client.Client;
@@ -17,10 +21,14 @@ import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.Numbers;
 import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.blobstore.BlobContainer;
+import org.elasticsearch.common.blobstore.DeleteResult;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.indices.recovery.RecoverySettings;
@@ -40,12 +48,19 @@ import org.elasticsearch.test.ESIntegTestCase;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -58,6 +73,8 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * Tests for the {@link BlobStoreRepository} and its subclasses.
@@ -327,6 +344,111 @@ public class BlobStoreRepositoryTests extends ESSingleNodeTestCase {
         snapshotDetailsAsserter.accept(PlainActionFuture.get(repository::getRepositoryData).getSnapshotDetails(snapshotId));
     }
 
+    public void testExecuteWithBoundedConcurrency() throws Exception {
+        final int maxConcurrency = between(1, 4);
+        final int taskCount = between(1, 50);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger listenerCalls = new AtomicInteger();
+        final boolean failing = randomBoolean();
+        final int failingTask = failing ? between(0, taskCount - 1) : -1;
+        final PlainActionFuture<Collection<Integer>> future = PlainActionFuture.newFuture();
+        final ActionListener<Integer> listener = new GroupedActionListener<>(ActionListener.runBefore(future, () -> {
+            assertThat(listenerCalls.incrementAndGet(), equalTo(1));
+        }), taskCount);
+        final List<AbstractRunnable> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            final int task = i;
+            tasks.add(ActionRunnable.supply(listener, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(randomIntBetween(0, 2));
+                    if (task == failingTask) {
+                        throw new IOException("simulated failure of task [" + task + "]");
+                    }
+                    return task;
+                } finally {
+                    running.decrementAndGet();
+                    completed.incrementAndGet();
+                }
+            }));
+        }
+
+        BlobStoreRepository.executeWithBoundedConcurrency(
+            getInstanceFromNode(ThreadPool.class).executor(ThreadPool.Names.GENERIC),
+            maxConcurrency,
+            tasks
+        );
+
+        if (failing) {
+            final Exception e = expectThrows(Exception.class, () -> future.actionGet(10, TimeUnit.SECONDS));
+            assertThat(
+                ExceptionsHelper.unwrap(e, IOException.class).getMessage(),
+                equalTo("simulated failure of task [" + failingTask + "]")
+            );
+        } else {
+            assertThat(future.actionGet(10, TimeUnit.SECONDS).size(), equalTo(taskCount));
+        }
+        // the remaining tasks still run after a failure
+        assertBusy(() -> assertThat(completed.get(), equalTo(taskCount)));
+        assertThat(maxRunning.get(), lessThanOrEqualTo(maxConcurrency));
+        assertThat(listenerCalls.get(), equalTo(1));
+    }
+
+    public void testCleanupStaleIndicesConcurrently() throws Exception {
+        final BlobStoreRepository repository = setupRepo();
+        final int maxConcurrency = getInstanceFromNode(ThreadPool.class).info(ThreadPool.Names.SNAPSHOT).getMax();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final Map<String, BlobContainer> foundIndices = new HashMap<>();
+        final Set<String> survivingIndexIds = new HashSet<>();
+        final Set<String> deletedIndexIds = ConcurrentCollections.newConcurrentSet();
+        long expectedBlobsDeleted = 0;
+        for (int i = between(0, 30); i > 0; i--) {
+            final String indexId = "index-" + i;
+            final long blobs = i;
+            final BlobContainer indexContainer = mock(BlobContainer.class);
+            final boolean surviving = randomBoolean();
+            final boolean failing = surviving == false && rarely();
+            if (surviving) {
+                survivingIndexIds.add(indexId);
+            } else if (failing == false) {
+                expectedBlobsDeleted += blobs;
+            }
+            when(indexContainer.delete()).thenAnswer(invocation -> {
+                assertFalse("surviving index [" + indexId + "] must not be deleted", surviving);
+                assertTrue("index [" + indexId + "] must only be deleted once", deletedIndexIds.add(indexId));
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(randomIntBetween(0, 2));
+                    if (failing) {
+                        throw new IOException("simulated failure to delete [" + indexId + "]");
+                    }
+                    return new DeleteResult(blobs, blobs * 10L);
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+            foundIndices.put(indexId, indexContainer);
+        }
+
+        final AtomicInteger listenerCalls = new AtomicInteger();
+        final PlainActionFuture<DeleteResult> future = PlainActionFuture.newFuture();
+        repository.cleanupStaleIndices(foundIndices, survivingIndexIds, ActionListener.runBefore(future, () -> {
+            assertThat(listenerCalls.incrementAndGet(), equalTo(1));
+        }));
+
+        // indices that failed to be deleted are skipped rather than failing the cleanup
+        final DeleteResult deleteResult = future.actionGet(10, TimeUnit.SECONDS);
+        assertThat(deleteResult.blobsDeleted(), equalTo(expectedBlobsDeleted));
+        assertThat(maxRunning.get(), lessThanOrEqualTo(maxConcurrency));
+        assertThat(listenerCalls.get(), equalTo(1));
+        for (String indexId : foundIndices.keySet()) {
+            assertEquals(indexId, survivingIndexIds.contains(indexId) == false, deletedIndexIds.contains(indexId));
+        }
+    }
+
     private static void writeIndexGen(BlobStoreRepository repository, RepositoryData repositoryData, long generation) throws Exception {
         PlainActionFuture.<RepositoryData, Exception>get(
             f -> repository.writeIndexGen(repositoryData, generation, Version.CURRENT, Function.identity(), f)
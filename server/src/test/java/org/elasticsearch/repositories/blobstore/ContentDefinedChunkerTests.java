@@ -0,0 +1,101 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.common.hash.MessageDigests;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.ContentChunk;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class ContentDefinedChunkerTests extends ESTestCase {
+
+    private static final int MIN = 1024;
+    private static final int AVERAGE = 4096;
+    private static final int MAX = 16384;
+
+    public void testEmptyStreamHasNoChunks() throws IOException {
+        assertThat(newChunker().chunk(new ByteArrayInputStream(new byte[0])), empty());
+    }
+
+    public void testChunksCoverStreamWithinSizeBounds() throws IOException {
+        final byte[] bytes = randomByteArrayOfLength(between(1, 200_000));
+        final List<ContentChunk> chunks = newChunker().chunk(new ByteArrayInputStream(bytes));
+        int offset = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            final ContentChunk chunk = chunks.get(i);
+            assertThat(chunk.length(), lessThanOrEqualTo((long) MAX));
+            if (i < chunks.size() - 1) {
+                assertThat(chunk.length(), greaterThanOrEqualTo((long) MIN));
+            }
+            final byte[] chunkBytes = Arrays.copyOfRange(bytes, offset, offset + (int) chunk.length());
+            assertThat(chunk.hash(), equalTo(MessageDigests.toHexString(MessageDigests.sha256().digest(chunkBytes))));
+            offset += chunk.length();
+        }
+        assertThat(offset, equalTo(bytes.length));
+    }
+
+    public void testChunksDoNotDependOnBufferSize() throws IOException {
+        final byte[] bytes = randomByteArrayOfLength(between(1, 200_000));
+        final List<ContentChunk> chunks = newChunker().chunk(new ByteArrayInputStream(bytes));
+        final ContentDefinedChunker otherChunker = new ContentDefinedChunker(MIN, AVERAGE, MAX, between(1, 10_000));
+        assertThat(otherChunker.chunk(new ByteArrayInputStream(bytes)), equalTo(chunks));
+    }
+
+    public void testInsertionOnlyChangesNearbyChunks() throws IOException {
+        final byte[] bytes = randomByteArrayOfLength(500_000);
+        final int insertAt = between(0, bytes.length);
+        final byte[] inserted = randomByteArrayOfLength(between(1, 100));
+        final byte[] edited = new byte[bytes.length + inserted.length];
+        System.arraycopy(bytes, 0, edited, 0, insertAt);
+        System.arraycopy(inserted, 0, edited, insertAt, inserted.length);
+        System.arraycopy(bytes, insertAt, edited, insertAt + inserted.length, bytes.length - insertAt);
+
+        final ContentDefinedChunker chunker = newChunker();
+        final List<ContentChunk> originalChunks = chunker.chunk(new ByteArrayInputStream(bytes));
+        final List<ContentChunk> editedChunks = chunker.chunk(new ByteArrayInputStream(edited));
+        assertThat(originalChunks.size(), greaterThan(10));
+
+        final Set<ContentChunk> changedChunks = new HashSet<>(editedChunks);
+        changedChunks.removeAll(originalChunks);
+        // the chunk containing the edit changes and the boundaries just after it may move, but then the chunks resynchronise; allow some
+        // slack for the rare cases where the minimum or maximum chunk size shifts a boundary
+        assertThat(changedChunks.size(), lessThanOrEqualTo(4));
+    }
+
+    public void testRepetitiveContentIsSplitIntoIdenticalChunks() throws IOException {
+        final byte[] bytes = new byte[between(2 * MAX, 10 * MAX)];
+        final List<ContentChunk> chunks = newChunker().chunk(new ByteArrayInputStream(bytes));
+        assertThat(chunks.size(), greaterThan(1));
+        for (int i = 0; i < chunks.size() - 1; i++) {
+            assertThat(chunks.get(i), equalTo(chunks.get(0)));
+        }
+    }
+
+    public void testRejectsInvalidSizes() {
+        expectThrows(IllegalArgumentException.class, () -> new ContentDefinedChunker(MIN, AVERAGE + 1, MAX, 1024));
+        expectThrows(IllegalArgumentException.class, () -> new ContentDefinedChunker(AVERAGE * 2, AVERAGE, MAX, 1024));
+        expectThrows(IllegalArgumentException.class, () -> new ContentDefinedChunker(MIN, AVERAGE, AVERAGE - 1, 1024));
+    }
+
+    private static ContentDefinedChunker newChunker() {
+        return new ContentDefinedChunker(MIN, AVERAGE, MAX, between(1, 10_000));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.rest;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.collect.Iterators;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.rest.FakeRestChannel;
+import org.elasticsearch.test.rest.FakeRestRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.startsWith;
+
+public class ChunkedRestResponseBodyTests extends ESTestCase {
+
+    public void testEncodesFragmentsInChunks() throws IOException {
+        final int fieldCount = between(10, 100);
+        final ChunkedRestResponseBody body = ChunkedRestResponseBody.fromXContent(
+            fragments(fieldCount),
+            ToXContent.EMPTY_PARAMS,
+            new FakeRestChannel(new FakeRestRequest(), true, 1));
+
+        final List<BytesReference> chunks = new ArrayList<>();
+        while (body.isDone() == false) {
+            final BytesStreamOutput out = new BytesStreamOutput();
+            body.encodeChunk(between(1, 20), out);
+            chunks.add(out.bytes());
+        }
+        assertThat(chunks.size(), greaterThan(1));
+        assertThat(body.getResponseContentTypeString(), startsWith("application/json"));
+
+        final XContentBuilder expected = JsonXContent.contentBuilder().startObject();
+        for (int i = 0; i < fieldCount; i++) {
+            expected.field("field_" + i, "value_" + i);
+        }
+        expected.endObject();
+        assertEquals(BytesReference.bytes(expected), CompositeBytesReference.of(chunks.toArray(new BytesReference[0])));
+    }
+
+    public void testHonoursFilterPath() throws IOException {
+        final FakeRestRequest request = new FakeRestRequest.Builder(xContentRegistry())
+            .withParams(Map.of("filter_path", "field_0")).build();
+        final FakeRestChannel channel = new FakeRestChannel(request, true, 1);
+        final ChunkedRestResponse response = new ChunkedRestResponse(RestStatus.OK,
+            ChunkedRestResponseBody.fromXContent(fragments(between(1, 10)), ToXContent.EMPTY_PARAMS, channel));
+        assertEquals("{\"field_0\":\"value_0\"}", response.content().utf8ToString());
+    }
+
+    private static Iterator<ToXContent> fragments(int fieldCount) {
+        final List<ToXContent> fragments = new ArrayList<>();
+        for (int i = 0; i < fieldCount; i++) {
+            final int field = i;
+            fragments.add((builder, params) -> builder.field("field_" + field, "value_" + field));
+        }
+        return Iterators.concat(
+            Iterators.<ToXContent>single((builder, params) -> builder.startObject()),
+            fragments.iterator(),
+            Iterators.<ToXContent>single((builder, params) -> builder.endObject()));
+    }
+}
@@ -56,6 +56,7 @@ import java.util.stream.Collectors;
 
 import static org.elasticsearch.rest.RestRequest.Method.GET;
 import static org.elasticsearch.rest.RestRequest.Method.OPTIONS;
+import static org.elasticsearch.rest.RestRequest.Method.POST;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
@@ -515,6 +516,26 @@ public class RestControllerTests extends ESTestCase {
         assertTrue(channel.getSendResponseCalled());
     }
 
+    public void testSupportsStreamedBody() {
+        restController.registerHandler(new Route(POST, "/streamed"), new RestHandler() {
+            @Override
+            public void handleRequest(RestRequest request, RestChannel channel, NodeClient client) {
+                channel.sendResponse(new BytesRestResponse(RestStatus.OK, BytesRestResponse.TEXT_CONTENT_TYPE, BytesArray.EMPTY));
+            }
+
+            @Override
+            public boolean supportsStreamedBody() {
+                return true;
+            }
+        });
+
+        assertTrue(restController.supportsStreamedBody(POST, "/streamed"));
+        assertTrue(restController.supportsStreamedBody(POST, "/streamed?refresh=true"));
+        assertFalse(restController.supportsStreamedBody(GET, "/streamed"));
+        assertFalse(restController.supportsStreamedBody(GET, "/"));
+        assertFalse(restController.supportsStreamedBody(POST, "/unknown"));
+    }
+
     public void testDispatchBadRequest() {
         final FakeRestRequest fakeRestRequest = new FakeRestRequest.Builder(NamedXContentRegistry.EMPTY).build();
         final AssertingChannel channel = new AssertingChannel(fakeRestRequest, true, RestStatus.BAD_REQUEST);
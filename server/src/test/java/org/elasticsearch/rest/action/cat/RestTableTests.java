@@ -9,8 +9,10 @@
 package org.elasticsearch.rest.action.cat;
 
 import org.elasticsearch.common.Table;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.rest.AbstractRestChannel;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestResponse;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.rest.FakeRestRequest;
@@ -20,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import static org.elasticsearch.rest.action.cat.RestTable.buildDisplayHeaders;
@@ -242,6 +245,37 @@ public class RestTableTests extends ESTestCase {
         assertEquals(Arrays.asList(1,0,2), rowOrder);
     }
 
+    public void testPlainTextResponseInChunks() throws Exception {
+        final int rows = between(1, 20);
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            // values of the same width, so that the cells are not padded
+            final String value = String.format(Locale.ROOT, "r%02d", i);
+            table.startRow();
+            for (int col = 0; col < 8; col++) {
+                table.addCell(value);
+            }
+            table.endRow();
+            expected.append(String.join(" ", Collections.nCopies(8, value))).append('\n');
+        }
+        final RestResponse response = buildResponse(table, new AbstractRestChannel(restRequest, true) {
+            @Override
+            public void sendResponse(RestResponse response) {
+            }
+        });
+        final ChunkedRestResponseBody body = response.chunkedContent();
+        assertNotNull(body);
+        final BytesStreamOutput out = new BytesStreamOutput();
+        int chunks = 0;
+        while (body.isDone() == false) {
+            body.encodeChunk(1, out);
+            chunks++;
+        }
+        // each chunk holds a single row since the size hint is smaller than a row
+        assertThat(chunks, equalTo(rows));
+        assertThat(out.bytes().utf8ToString(), equalTo(expected.toString()));
+    }
+
     private RestResponse assertResponseContentType(Map<String, List<String>> headers, String mediaType) throws Exception {
         FakeRestRequest requestWithAcceptHeader = new FakeRestRequest.Builder(xContentRegistry()).withHeaders(headers).build();
         table.startRow();
@@ -11,22 +11,42 @@ package org.elasticsearch.rest.action.document;
 import org.apache.lucene.util.SetOnce;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.ObjectPath;
+import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.http.HttpRequestBodyStream;
+import org.elasticsearch.http.HttpTransportSettings;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.client.NoOpNodeClient;
+import org.elasticsearch.test.rest.FakeRestChannel;
 import org.elasticsearch.test.rest.FakeRestRequest;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Mockito.mock;
 
@@ -66,4 +86,154 @@ public class RestBulkActionTests extends ESTestCase {
             assertThat(bulkCalled.get(), equalTo(true));
         }
     }
+
+    public void testStreamedBulkExecutesOneBatchAtATime() throws Exception {
+        final int numItems = between(5, 20);
+        final StringBuilder body = new StringBuilder();
+        for (int i = 0; i < numItems; i++) {
+            body.append("{\"index\":{\"_id\":\"").append(i).append("\"}}\n{\"field\":\"value-").append(i).append("\"}\n");
+        }
+        final List<ReleasableBytesReference> chunks = randomChunks(body.toString());
+        final List<BulkRequest> batches = new ArrayList<>();
+        final AtomicReference<ActionListener<BulkResponse>> runningBatch = new AtomicReference<>();
+        try (NodeClient client = new NoOpNodeClient(getTestName()) {
+            @Override
+            public void bulk(BulkRequest request, ActionListener<BulkResponse> listener) {
+                assertTrue("only one batch executes at a time", runningBatch.compareAndSet(null, listener));
+                batches.add(request);
+            }
+        }) {
+            final TestBodyStream stream = new TestBodyStream();
+            final RestRequest request = new FakeRestRequest.Builder(xContentRegistry()).withPath("my_index/_bulk")
+                .withMethod(RestRequest.Method.POST).withContentStream(stream, XContentType.JSON).build();
+            final FakeRestChannel channel = new FakeRestChannel(request, true, 1);
+            final RestBulkAction action = new RestBulkAction(streamingSettings("100b"));
+            assertTrue(action.supportsStreamedBody());
+            action.handleRequest(request, channel, client);
+
+            final Iterator<ReleasableBytesReference> remainingChunks = chunks.iterator();
+            while (channel.responses().get() == 0) {
+                final ActionListener<BulkResponse> listener = runningBatch.getAndSet(null);
+                if (listener != null) {
+                    // the body is not read any further while a batch executes
+                    assertFalse(stream.requested);
+                    listener.onResponse(successResponse(batches.get(batches.size() - 1)));
+                } else {
+                    assertTrue(stream.requested);
+                    stream.requested = false;
+                    final ReleasableBytesReference chunk = remainingChunks.next();
+                    stream.handler.onChunk(chunk, remainingChunks.hasNext() == false);
+                }
+            }
+
+            assertThat(batches.size(), greaterThan(1));
+            final List<String> executedIds = new ArrayList<>();
+            for (BulkRequest batch : batches) {
+                for (DocWriteRequest<?> item : batch.requests()) {
+                    assertThat(item.index(), equalTo("my_index"));
+                    executedIds.add(item.id());
+                }
+            }
+            final List<String> expectedIds = IntStream.range(0, numItems).mapToObj(Integer::toString).collect(Collectors.toList());
+            assertThat(executedIds, equalTo(expectedIds));
+
+            assertThat(channel.errors().get(), equalTo(0));
+            assertThat(channel.capturedResponse().status(), equalTo(RestStatus.OK));
+            final Map<String, Object> response =
+                XContentHelper.convertToMap(channel.capturedResponse().content(), false, XContentType.JSON).v2();
+            final List<?> items = (List<?>) response.get("items");
+            assertThat(items, hasSize(numItems));
+            for (int i = 0; i < numItems; i++) {
+                assertThat(ObjectPath.eval("index._id", items.get(i)), equalTo(Integer.toString(i)));
+            }
+            for (ReleasableBytesReference chunk : chunks) {
+                assertFalse(chunk.hasReferences());
+            }
+        }
+    }
+
+    public void testStreamedBulkFailsOnMalformedItem() throws Exception {
+        final String body = "{\"index\":{\"_id\":\"1\"}}\n{\"field\":\"value\"}\n"
+            + "{\"index\":{\"_id\":\"2\",\"unknown\":\"value\"}}\n{\"field\":\"value\"}\n";
+        final List<ReleasableBytesReference> chunks = randomChunks(body);
+        try (NodeClient client = new NoOpNodeClient(getTestName()) {
+            @Override
+            public void bulk(BulkRequest request, ActionListener<BulkResponse> listener) {
+                fail("the batch must not execute since it ends with a malformed item");
+            }
+        }) {
+            final TestBodyStream stream = new TestBodyStream();
+            final RestRequest request = new FakeRestRequest.Builder(xContentRegistry()).withPath("my_index/_bulk")
+                .withMethod(RestRequest.Method.POST).withContentStream(stream, XContentType.JSON).build();
+            final FakeRestChannel channel = new FakeRestChannel(request, true, 1);
+            new RestBulkAction(streamingSettings("1mb")).handleRequest(request, channel, client);
+
+            final Iterator<ReleasableBytesReference> remainingChunks = chunks.iterator();
+            while (channel.responses().get() == 0) {
+                assertTrue(stream.requested);
+                stream.requested = false;
+                final ReleasableBytesReference chunk = remainingChunks.next();
+                stream.handler.onChunk(chunk, remainingChunks.hasNext() == false);
+            }
+
+            assertFalse(stream.requested);
+            assertThat(channel.capturedResponse().status(), equalTo(RestStatus.BAD_REQUEST));
+            while (remainingChunks.hasNext()) {
+                remainingChunks.next().close();
+            }
+            for (ReleasableBytesReference chunk : chunks) {
+                assertFalse(chunk.hasReferences());
+            }
+        }
+    }
+
+    public void testStreamingIsOptIn() {
+        assertFalse(new RestBulkAction(settings(Version.CURRENT).build()).supportsStreamedBody());
+    }
+
+    private static Settings streamingSettings(String batchSize) {
+        return settings(Version.CURRENT)
+            .put(HttpTransportSettings.SETTING_HTTP_BULK_STREAMING_ENABLED.getKey(), true)
+            .put(HttpTransportSettings.SETTING_HTTP_BULK_STREAMING_BATCH_SIZE.getKey(), batchSize)
+            .build();
+    }
+
+    private static List<ReleasableBytesReference> randomChunks(String body) {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        final List<ReleasableBytesReference> chunks = new ArrayList<>();
+        int from = 0;
+        while (from < bytes.length) {
+            final int length = Math.min(bytes.length - from, between(1, 64));
+            chunks.add(new ReleasableBytesReference(new BytesArray(bytes, from, length), () -> {}));
+            from += length;
+        }
+        return chunks;
+    }
+
+    private static BulkResponse successResponse(BulkRequest batch) {
+        final BulkItemResponse[] items = new BulkItemResponse[batch.numberOfActions()];
+        for (int i = 0; i < items.length; i++) {
+            final DocWriteRequest<?> item = batch.requests().get(i);
+            items[i] = BulkItemResponse.success(i, DocWriteRequest.OpType.INDEX,
+                new IndexResponse(new ShardId(item.index(), "_na_", 0), item.id(), 1, 1, 1, true));
+        }
+        return new BulkResponse(items, 1);
+    }
+
+    private static class TestBodyStream implements HttpRequestBodyStream {
+
+        private ChunkHandler handler;
+        private boolean requested;
+
+        @Override
+        public void setHandler(ChunkHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void next() {
+            assertFalse("the next chunk was already requested", requested);
+            requested = true;
+        }
+    }
 }
@@ -0,0 +1,220 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+public class SearchAdmissionControllerTests extends ESTestCase {
+
+    private final List<Runnable> executorQueue = new ArrayList<>();
+    private final Executor executor = executorQueue::add;
+    private final List<String> executed = new ArrayList<>();
+    private final List<String> rejected = new ArrayList<>();
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+
+    public void testExecutesDirectlyWhenDisabled() {
+        final SearchAdmissionController controller = new SearchAdmissionController(1, 1, threadContext, nanoTime::get);
+        for (int i = 0; i < 5; i++) {
+            controller.execute(executor, "index", randomBoolean(), task("task-" + i));
+        }
+        assertThat(executorQueue.size(), equalTo(5));
+        assertTrue(rejected.isEmpty());
+        assertTrue(controller.stats().isEmpty());
+    }
+
+    public void testSharesThreadsFairlyBetweenClasses() {
+        final SearchAdmissionController controller = new SearchAdmissionController(1, 100, threadContext, nanoTime::get);
+        controller.setEnabled(true);
+        controller.execute(executor, "busy", false, task("busy-0"));
+        for (int i = 1; i <= 5; i++) {
+            controller.execute(executor, "busy", false, task("busy-" + i));
+        }
+        controller.execute(executor, "quiet", false, task("quiet-0"));
+        assertThat("only one task may run at once", executorQueue.size(), equalTo(1));
+
+        runAll();
+        assertThat(executed, equalTo(List.of("busy-0", "busy-1", "quiet-0", "busy-2", "busy-3", "busy-4", "busy-5")));
+    }
+
+    public void testTasksWithAggregationsAreMoreExpensive() {
+        final SearchAdmissionController controller = new SearchAdmissionController(1, 100, threadContext, nanoTime::get);
+        controller.setEnabled(true);
+        controller.execute(executor, "running", false, task("running"));
+        controller.execute(executor, "aggs", true, task("aggs-0"));
+        controller.execute(executor, "aggs", true, task("aggs-1"));
+        for (int i = 0; i < 3; i++) {
+            controller.execute(executor, "plain", false, task("plain-" + i));
+        }
+
+        runAll();
+        assertThat(executed, equalTo(List.of("running", "plain-0", "plain-1", "plain-2", "aggs-0", "aggs-1")));
+    }
+
+    public void testEstimatesCostFromExecutionTime() {
+        final SearchAdmissionController controller = new SearchAdmissionController(1, 100, threadContext, nanoTime::get);
+        controller.setEnabled(true);
+        final long slowNanos = TimeUnit.MILLISECONDS.toNanos(100);
+        controller.execute(executor, "slow", false, task("slow-0", slowNanos));
+        controller.execute(executor, "fast", false, task("fast-0", 1));
+        runAll();
+
+        controller.execute(executor, "running", false, task("running"));
+        controller.execute(executor, "slow", false, task("slow-1", slowNanos));
+        for (int i = 1; i <= 5; i++) {
+            controller.execute(executor, "fast", false, task("fast-" + i, 1));
+        }
+        executed.clear();
+        runAll();
+        assertThat(executed, equalTo(List.of("running", "fast-1", "fast-2", "fast-3", "fast-4", "fast-5", "slow-1")));
+
+        final SearchAdmissionController.CostClassStats slowStats = controller.stats().get("slow");
+        assertThat(slowStats.getAdmittedCount(), equalTo(2L));
+        assertThat(slowStats.getExecutionTimeNanos(), equalTo(2 * slowNanos));
+    }
+
+    public void testShedsLoadOfClassesAboveTheirFairShare() {
+        final SearchAdmissionController controller = new SearchAdmissionController(1, 10, threadContext, nanoTime::get);
+        controller.setEnabled(true);
+        controller.execute(executor, "busy", false, task("running"));
+        for (int i = 0; i < 8; i++) {
+            controller.execute(executor, "busy", false, task("busy-" + i));
+        }
+        assertTrue(rejected.isEmpty());
+
+        controller.execute(executor, "busy", false, task("busy-rejected"));
+        assertThat(rejected, equalTo(List.of("busy-rejected")));
+
+        controller.execute(executor, "quiet", false, task("quiet-0"));
+        controller.execute(executor, "quiet", false, task("quiet-1"));
+        assertThat(rejected, equalTo(List.of("busy-rejected")));
+
+        controller.execute(executor, "quiet", false, task("quiet-rejected"));
+        assertThat("the queue is full", rejected, equalTo(List.of("busy-rejected", "quiet-rejected")));
+
+        assertThat(controller.stats().get("busy").getRejectedCount(), equalTo(1L));
+        assertThat(controller.stats().get("busy").getQueuedCount(), equalTo(8L));
+        assertThat(controller.stats().get("quiet").getRejectedCount(), equalTo(1L));
+        runAll();
+        assertThat(executed.size(), equalTo(11));
+        assertThat(controller.stats().get("busy").getQueuedCount(), equalTo(0L));
+    }
+
+    public void testTracksQueueTime() {
+        final SearchAdmissionController controller = new SearchAdmissionController(1, 10, threadContext, nanoTime::get);
+        controller.setEnabled(true);
+        controller.execute(executor, "index", false, task("first", 10));
+        controller.execute(executor, "index", false, task("second", 20));
+        controller.execute(executor, "index", false, task("third", 30));
+        runAll();
+        final SearchAdmissionController.CostClassStats stats = controller.stats().get("index");
+        assertThat(stats.getAdmittedCount(), equalTo(3L));
+        assertThat(stats.getExecutionTimeNanos(), equalTo(60L));
+        assertThat(stats.getQueueTimeNanos(), equalTo(10L + 30L));
+    }
+
+    public void testReleasesThreadOnRejectionByExecutor() {
+        final SearchAdmissionController controller = new SearchAdmissionController(1, 10, threadContext, nanoTime::get);
+        controller.setEnabled(true);
+        final Executor rejectingExecutor = r -> ((AbstractRunnable) r).onRejection(new EsRejectedExecutionException("rejected"));
+        controller.execute(rejectingExecutor, "index", false, task("rejected"));
+        controller.execute(executor, "index", false, task("accepted"));
+        assertThat(rejected, equalTo(List.of("rejected")));
+        runAll();
+        assertThat(executed, equalTo(List.of("accepted")));
+    }
+
+    public void testReleasesThreadsOfManyTasksRejectedByExecutor() {
+        final int queued = 100_000;
+        final SearchAdmissionController controller = new SearchAdmissionController(1, queued, threadContext, nanoTime::get);
+        controller.setEnabled(true);
+        controller.execute(executor, "index", false, task("running"));
+        final Executor rejectingExecutor = r -> ((AbstractRunnable) r).onRejection(new EsRejectedExecutionException("rejected"));
+        for (int i = 0; i < queued; i++) {
+            controller.execute(rejectingExecutor, "index", false, task("rejected-" + i));
+        }
+        // all the queued tasks are rejected once the running task completes, without overflowing the stack
+        runAll();
+        assertThat(executed, equalTo(List.of("running")));
+        assertThat(rejected.size(), equalTo(queued));
+        assertThat(controller.stats().get("index").getQueuedCount(), equalTo(0L));
+
+        controller.execute(executor, "index", false, task("accepted"));
+        runAll();
+        assertThat(executed, equalTo(List.of("running", "accepted")));
+    }
+
+    public void testPreservesThreadContextOfQueuedTasks() {
+        final SearchAdmissionController controller = new SearchAdmissionController(1, 10, threadContext, nanoTime::get);
+        controller.setEnabled(true);
+        controller.execute(executor, "index", false, task("running"));
+        final List<String> headers = new ArrayList<>();
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            threadContext.putHeader("header", "value");
+            controller.execute(executor, "index", false, new AbstractRunnable() {
+                @Override
+                protected void doRun() {
+                    headers.add(threadContext.getHeader("header"));
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+        }
+        runAll();
+        assertThat(headers, equalTo(List.of("value")));
+        assertNull(threadContext.getHeader("header"));
+    }
+
+    private void runAll() {
+        while (executorQueue.isEmpty() == false) {
+            executorQueue.remove(0).run();
+        }
+    }
+
+    private AbstractRunnable task(String name) {
+        return task(name, 0);
+    }
+
+    private AbstractRunnable task(String name, long executionNanos) {
+        return new AbstractRunnable() {
+            @Override
+            protected void doRun() {
+                executed.add(name);
+                nanoTime.addAndGet(executionNanos);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                throw new AssertionError(e);
+            }
+
+            @Override
+            public void onRejection(Exception e) {
+                assertThat(e, instanceOf(EsRejectedExecutionException.class));
+                rejected.add(name);
+            }
+        };
+    }
+}
@@ -17,12 +17,15 @@ import org.elasticsearch.index.mapper.flattened.FlattenedFieldMapper;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Before;
 
+import java.io.IOException;
 import java.util.function.Function;
 
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class LeafDocLookupTests extends ESTestCase {
@@ -50,6 +53,18 @@ public class LeafDocLookupTests extends ESTestCase {
         assertEquals(docValues, fetchedDocValues);
     }
 
+    public void testConstantLookup() throws IOException {
+        docLookup.setDocument(3);
+        assertEquals(docValues, docLookup.getConstant("field"));
+        docLookup.setDocument(5);
+        assertEquals(docValues, docLookup.getConstant("field"));
+        assertEquals(docValues, docLookup.getConstant(new String("field")));
+        verify(docValues).setNextDocId(3);
+        verify(docValues, times(2)).setNextDocId(5);
+
+        expectThrows(IllegalArgumentException.class, () -> docLookup.getConstant("missing"));
+    }
+
     public void testFieldAliases() {
         ScriptDocValues<?> fetchedDocValues = docLookup.get("alias");
         assertEquals(docValues, fetchedDocValues);
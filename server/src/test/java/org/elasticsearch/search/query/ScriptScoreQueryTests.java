@@ -15,9 +15,14 @@ import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.Directory;
 import org.elasticsearch.Version;
@@ -33,6 +38,7 @@ import org.junit.After;
 import org.junit.Before;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import static org.hamcrest.CoreMatchers.containsString;
@@ -131,6 +137,52 @@ public class ScriptScoreQueryTests extends ESTestCase {
         assertTrue(e.getMessage().contains("Must be a non-negative score!"));
     }
 
+    public void testScoresInBlocksWithoutScores() throws IOException {
+        // more documents than fit in a block
+        for (int i = 0; i < 150; i++) {
+            Document d = new Document();
+            d.add(new TextField("field", "some other text", Field.Store.NO));
+            w.addDocument(d);
+        }
+        Script script = new Script("script that doesn't need scores");
+        AtomicInteger scored = new AtomicInteger();
+        ScoreScript.LeafFactory factory = new ScoreScript.LeafFactory() {
+            @Override
+            public boolean needs_score() {
+                return false;
+            }
+
+            @Override
+            public ScoreScript newInstance(DocReader docReader) {
+                return new ScoreScript(script.getParams(), lookup, docReader) {
+                    @Override
+                    public double execute(ExplanationHolder explanation) {
+                        throw new AssertionError("documents should be scored in blocks");
+                    }
+
+                    @Override
+                    public void executeBlock(int[] docs, int count, double[] scores) {
+                        for (int i = 0; i < count; i++) {
+                            assertTrue(i == 0 || docs[i] > docs[i - 1]);
+                            scores[i] = 2.0;
+                        }
+                        scored.addAndGet(count);
+                    }
+                };
+            }
+        };
+        ScriptScoreQuery query = new ScriptScoreQuery(new TermQuery(new Term("field", "text")), script, factory, lookup, null, "index",
+            0, Version.CURRENT);
+        try (DirectoryReader reader = DirectoryReader.open(w)) {
+            TopDocs topDocs = newSearcher(reader).search(new BoostQuery(query, 3f), 200);
+            assertThat(topDocs.totalHits.value, equalTo(151L));
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                assertThat(scoreDoc.score, equalTo(6f));
+            }
+            assertThat(scored.get(), equalTo(151));
+        }
+    }
+
     private ScoreScript.LeafFactory newFactory(Script script, boolean needsScore,
                                                Function<ScoreScript.ExplanationHolder, Double> function) {
         SearchLookup lookup = mock(SearchLookup.class);
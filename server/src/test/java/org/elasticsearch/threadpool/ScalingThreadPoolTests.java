@@ -10,10 +10,15 @@ package org.elasticsearch.threadpool;
 
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
@@ -21,7 +26,10 @@ import java.util.function.BiConsumer;
 import java.util.function.Function;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
 
 public class ScalingThreadPoolTests extends ESThreadPoolTestCase {
 
@@ -174,6 +182,60 @@ public class ScalingThreadPoolTests extends ESThreadPoolTestCase {
         }));
     }
 
+    public void testScalingThreadPoolWithVirtualThreads() throws InterruptedException {
+        final String threadPoolName = randomThreadPool(ThreadPool.ThreadPoolType.SCALING);
+        final int size = randomIntBetween(1, 16);
+        final Settings settings = Settings.builder()
+            .put("thread_pool." + threadPoolName + ".max", size)
+            .put("thread_pool." + threadPoolName + ".virtual_threads", true)
+            .build();
+        if (EsExecutors.virtualThreadsSupported() == false || System.getSecurityManager() != null) {
+            final Settings nodeSettings =
+                Settings.builder().put(settings).put("node.name", "testScalingThreadPoolWithVirtualThreads").build();
+            final IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> new ThreadPool(nodeSettings));
+            assertThat(e.getMessage(), containsString("[thread_pool." + threadPoolName + ".virtual_threads]"));
+            return;
+        }
+        runScalingThreadPoolTest(settings, (clusterSettings, threadPool) -> {
+            final CountDownLatch latch = new CountDownLatch(1);
+            final int numberOfTasks = 2 * size;
+            final CountDownLatch taskLatch = new CountDownLatch(numberOfTasks);
+            final Set<String> threadNames = ConcurrentCollections.newConcurrentSet();
+            final Queue<Throwable> failures = ConcurrentCollections.newQueue();
+            final String header = randomAlphaOfLength(10);
+            try (ThreadContext.StoredContext ignored = threadPool.getThreadContext().stashContext()) {
+                threadPool.getThreadContext().putHeader("header", header);
+                for (int i = 0; i < numberOfTasks; i++) {
+                    threadPool.executor(threadPoolName).execute(() -> {
+                        try {
+                            latch.await();
+                            assertThat(threadPool.getThreadContext().getHeader("header"), equalTo(header));
+                            threadNames.add(Thread.currentThread().getName());
+                        } catch (final Throwable t) {
+                            failures.add(t);
+                        } finally {
+                            taskLatch.countDown();
+                        }
+                    });
+                }
+            }
+            final ThreadPoolStats.Stats stats = stats(threadPool, threadPoolName);
+            assertThat(stats.getQueue(), equalTo(numberOfTasks - size));
+            assertThat(stats.getLargest(), equalTo(size));
+            latch.countDown();
+            try {
+                taskLatch.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            assertThat(failures, empty());
+            assertThat(threadNames, not(empty()));
+            for (String threadName : threadNames) {
+                assertThat(threadName, containsString("[" + threadPoolName + "][VT#"));
+            }
+        });
+    }
+
     public void runScalingThreadPoolTest(
             final Settings settings,
             final BiConsumer<ClusterSettings, ThreadPool> consumer) throws InterruptedException {
@@ -9,6 +9,7 @@
 package org.elasticsearch.threadpool;
 
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.metrics.ExponentialBucketHistogram;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentParser;
@@ -23,6 +24,7 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class ThreadPoolStatsTests extends ESTestCase {
     public void testThreadPoolStatsSort() throws IOException {
@@ -51,6 +53,34 @@ public class ThreadPoolStatsTests extends ESTestCase {
         assertThat(threads, contains(-1, -1, 1, 2, 3,-1,-1));
     }
 
+    public void testTaskTimeStatsPercentilesDoNotExceedMax() {
+        final ExponentialBucketHistogram histogram = new ExponentialBucketHistogram();
+        ThreadPoolStats.TaskTimeStats stats = ThreadPoolStats.TaskTimeStats.of(histogram);
+        assertThat(stats.getCount(), equalTo(0L));
+        assertThat(stats.getP50Nanos(), equalTo(0L));
+        assertThat(stats.getP99Nanos(), equalTo(0L));
+        assertThat(stats.getMaxNanos(), equalTo(0L));
+
+        // 1000 falls in the bucket [512, 1023], whose upper bound is larger than any observation
+        final int observations = between(1, 100);
+        for (int i = 0; i < observations; i++) {
+            histogram.addObservation(between(512, 1000));
+        }
+        histogram.addObservation(1000);
+        stats = ThreadPoolStats.TaskTimeStats.of(histogram);
+        assertThat(stats.getCount(), equalTo(observations + 1L));
+        assertThat(stats.getMaxNanos(), equalTo(1000L));
+        assertThat(stats.getP50Nanos(), equalTo(1000L));
+        assertThat(stats.getP99Nanos(), equalTo(1000L));
+
+        final long small = between(0, 100);
+        final ExponentialBucketHistogram single = new ExponentialBucketHistogram();
+        single.addObservation(small);
+        stats = ThreadPoolStats.TaskTimeStats.of(single);
+        assertThat(stats.getP50Nanos(), lessThanOrEqualTo(small));
+        assertThat(stats.getP99Nanos(), lessThanOrEqualTo(small));
+    }
+
     public void testThreadPoolStatsToXContent() throws IOException {
         try (BytesStreamOutput os = new BytesStreamOutput()) {
 
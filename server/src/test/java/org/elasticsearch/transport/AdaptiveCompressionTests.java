@@ -0,0 +1,54 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.lessThan;
+
+public class AdaptiveCompressionTests extends ESTestCase {
+
+    public void testDisabledNeverSkipsCompression() {
+        final AdaptiveCompression adaptiveCompression = new AdaptiveCompression();
+        final Compression.Scheme scheme = randomFrom(Compression.Scheme.values());
+        for (int i = 0; i < AdaptiveCompression.MIN_SAMPLES * 2; i++) {
+            adaptiveCompression.onMessageCompressed("action", 100, 100);
+            assertSame(scheme, adaptiveCompression.adjustCompressionScheme("action", scheme));
+        }
+    }
+
+    public void testNeverEnablesCompression() {
+        final AdaptiveCompression adaptiveCompression = new AdaptiveCompression();
+        adaptiveCompression.setEnabled(true);
+        assertNull(adaptiveCompression.adjustCompressionScheme("action", null));
+    }
+
+    public void testResumesCompressionWhenRatioImproves() {
+        final AdaptiveCompression adaptiveCompression = new AdaptiveCompression();
+        adaptiveCompression.setEnabled(true);
+        final Compression.Scheme scheme = randomFrom(Compression.Scheme.values());
+        for (int i = 0; i < AdaptiveCompression.MIN_SAMPLES; i++) {
+            assertSame(scheme, adaptiveCompression.adjustCompressionScheme("action", scheme));
+            adaptiveCompression.onMessageCompressed("action", 100, between(95, 110));
+        }
+        assertNull(adaptiveCompression.adjustCompressionScheme("action", scheme));
+        assertSame("other actions are unaffected", scheme, adaptiveCompression.adjustCompressionScheme("other", scheme));
+
+        int attempts = 0;
+        while (adaptiveCompression.adjustCompressionScheme("action", scheme) == null) {
+            attempts++;
+            assertThat(attempts, lessThan(AdaptiveCompression.RESAMPLE_INTERVAL));
+        }
+        // the payloads of the action have become compressible, so once the moving average catches up we stop skipping compression
+        for (int i = 0; i < AdaptiveCompression.MIN_SAMPLES; i++) {
+            adaptiveCompression.onMessageCompressed("action", 100, 10);
+        }
+        assertSame(scheme, adaptiveCompression.adjustCompressionScheme("action", scheme));
+    }
+}
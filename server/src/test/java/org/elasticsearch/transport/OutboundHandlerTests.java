@@ -14,7 +14,9 @@ import org.apache.logging.log4j.Logger;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchTransportService;
 import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.cluster.coordination.FollowersChecker;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
@@ -23,6 +25,7 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.core.Tuple;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.transport.TransportAddress;
 import org.elasticsearch.core.TimeValue;
@@ -47,6 +50,8 @@ import java.util.function.LongSupplier;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.instanceOf;
 
 public class OutboundHandlerTests extends ESTestCase {
@@ -59,6 +64,7 @@ public class OutboundHandlerTests extends ESTestCase {
     private FakeTcpChannel channel;
     private DiscoveryNode node;
     private Compression.Scheme compressionScheme;
+    private StatsTracker statsTracker;
 
     @Before
     public void setUp() throws Exception {
@@ -66,7 +72,7 @@ public class OutboundHandlerTests extends ESTestCase {
         channel = new FakeTcpChannel(randomBoolean(), buildNewFakeTransportAddress().address(), buildNewFakeTransportAddress().address());
         TransportAddress transportAddress = buildNewFakeTransportAddress();
         node = new DiscoveryNode("", transportAddress, Version.CURRENT);
-        StatsTracker statsTracker = new StatsTracker();
+        statsTracker = new StatsTracker();
         compressionScheme = randomFrom(Compression.Scheme.DEFLATE, Compression.Scheme.LZ4);
         handler = new OutboundHandler("node", Version.CURRENT, statsTracker, threadPool, BigArrays.NON_RECYCLING_INSTANCE);
 
@@ -184,6 +190,84 @@ public class OutboundHandlerTests extends ESTestCase {
         assertEquals("header_value", header.getHeaders().v1().get("header"));
     }
 
+    public void testLatencySensitiveActions() throws IOException {
+        assertTrue(OutboundHandler.isLatencySensitive(SearchTransportService.QUERY_CAN_MATCH_NAME));
+        assertTrue(OutboundHandler.isLatencySensitive(SearchTransportService.QUERY_ACTION_NAME));
+        assertTrue(OutboundHandler.isLatencySensitive(FollowersChecker.FOLLOWER_CHECK_ACTION_NAME));
+        assertFalse(OutboundHandler.isLatencySensitive(SearchTransportService.FETCH_ID_ACTION_NAME));
+
+        final String action = randomFrom(SearchTransportService.QUERY_ACTION_NAME, SearchTransportService.FETCH_ID_ACTION_NAME);
+        final boolean latencySensitive = action.equals(SearchTransportService.QUERY_ACTION_NAME);
+        if (randomBoolean()) {
+            handler.sendRequest(node, channel, 1, action, new TestRequest("request"), options, Version.CURRENT, null, false);
+        } else {
+            handler.sendResponse(Version.CURRENT, channel, 1, action, new TestResponse("response"), null, false);
+        }
+        assertEquals(latencySensitive, channel.isLastMessageLatencySensitive());
+
+        handler.sendErrorResponse(Version.CURRENT, channel, 1, action, new ElasticsearchException("boom"));
+        assertEquals(latencySensitive, channel.isLastMessageLatencySensitive());
+
+        handler.sendBytes(channel, new BytesArray("ping"), ActionListener.wrap(() -> {}));
+        assertFalse(channel.isLastMessageLatencySensitive());
+    }
+
+    public void testTracksCompressionStats() throws IOException {
+        final String value = randomAlphaOfLength(between(1, 1000)).repeat(between(1, 10));
+        final int messages = between(1, 5);
+        for (int i = 0; i < messages; i++) {
+            handler.sendRequest(node, channel, i, "action", new TestRequest(value), options, Version.CURRENT, compressionScheme, false);
+        }
+        handler.sendRequest(node, channel, messages, "action", new TestRequest(value), options, Version.CURRENT, null, false);
+
+        assertEquals(messages, statsTracker.getMessagesCompressed());
+        assertThat(statsTracker.getBytesBeforeCompression(), greaterThan((long) value.length() * messages));
+        assertThat(statsTracker.getBytesAfterCompression(), greaterThan(0L));
+        assertThat(statsTracker.getCompressionTimeNanos(), greaterThanOrEqualTo(0L));
+    }
+
+    public void testAdaptiveCompressionSkipsActionsThatDoNotCompress() throws IOException {
+        handler.setAdaptiveCompression(true);
+        final BytesReference incompressible = new BytesArray(randomByteArrayOfLength(1024));
+        final BytesReference compressible = new BytesArray(new byte[1024]);
+        int compressedRequests = 0;
+        for (int i = 0; i < AdaptiveCompression.MIN_SAMPLES + AdaptiveCompression.RESAMPLE_INTERVAL - 1; i++) {
+            handler.sendRequest(node, channel, i, "incompressible", new BytesRequest(incompressible), options, Version.CURRENT,
+                compressionScheme, false);
+            if (isCompressed(channel.getMessageCaptor().get())) {
+                compressedRequests++;
+            }
+            handler.sendRequest(node, channel, i, "compressible", new BytesRequest(compressible), options, Version.CURRENT,
+                compressionScheme, false);
+            assertTrue(isCompressed(channel.getMessageCaptor().get()));
+        }
+        assertEquals(AdaptiveCompression.MIN_SAMPLES, compressedRequests);
+
+        // the incompressible action is still sampled occasionally
+        handler.sendRequest(node, channel, 0, "incompressible", new BytesRequest(incompressible), options, Version.CURRENT,
+            compressionScheme, false);
+        assertTrue(isCompressed(channel.getMessageCaptor().get()));
+    }
+
+    private static boolean isCompressed(BytesReference message) {
+        final int statusPosition = TcpHeader.MARKER_BYTES_SIZE + TcpHeader.MESSAGE_LENGTH_SIZE + TcpHeader.REQUEST_ID_SIZE;
+        return TransportStatus.isCompress(message.get(statusPosition));
+    }
+
+    private static class BytesRequest extends TransportRequest {
+        private final BytesReference bytes;
+
+        BytesRequest(BytesReference bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeBytesReference(bytes);
+        }
+    }
+
     public void testSendResponse() throws IOException {
         ThreadContext threadContext = threadPool.getThreadContext();
         Version version = randomFrom(Version.CURRENT, Version.CURRENT.minimumCompatibilityVersion());
@@ -24,6 +24,7 @@ public class FakeTcpChannel implements TcpChannel {
     private final CompletableContext<Void> closeContext = new CompletableContext<>();
     private final AtomicReference<BytesReference> messageCaptor;
     private final AtomicReference<ActionListener<Void>> listenerCaptor;
+    private volatile boolean lastMessageLatencySensitive;
 
     public FakeTcpChannel() {
         this(false, "profile", new AtomicReference<>());
@@ -78,8 +79,14 @@ public class FakeTcpChannel implements TcpChannel {
 
     @Override
     public void sendMessage(BytesReference reference, ActionListener<Void> listener) {
+        sendMessage(reference, false, listener);
+    }
+
+    @Override
+    public void sendMessage(BytesReference reference, boolean latencySensitive, ActionListener<Void> listener) {
         messageCaptor.set(reference);
         listenerCaptor.set(listener);
+        lastMessageLatencySensitive = latencySensitive;
     }
 
     @Override
@@ -111,6 +118,10 @@ public class FakeTcpChannel implements TcpChannel {
         return messageCaptor;
     }
 
+    public boolean isLastMessageLatencySensitive() {
+        return lastMessageLatencySensitive;
+    }
+
     public AtomicReference<ActionListener<Void>> getListenerCaptor() {
         return listenerCaptor;
     }
@@ -146,6 +146,9 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
         private final TimedCounter optimizedBytesRead;
         private final Counter blobStoreBytesRequested;
         private final Counter luceneBytesRead;
+        private final Counter readAheadBytes;
+        private final Counter readAheadHitBytes;
+        private final Counter readAheadWastedBytes;
         private final long currentIndexCacheFills;
 
         public CacheIndexInputStats(String fileExt, long numFiles, ByteSizeValue totalSize, ByteSizeValue minSize, ByteSizeValue maxSize,
@@ -156,6 +159,7 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
                                     Counter cachedBytesRead, Counter indexCacheBytesRead,
                                     TimedCounter cachedBytesWritten, TimedCounter directBytesRead, TimedCounter optimizedBytesRead,
                                     Counter blobStoreBytesRequested, Counter luceneBytesRead,
+                                    Counter readAheadBytes, Counter readAheadHitBytes, Counter readAheadWastedBytes,
                                     long currentIndexCacheFills) {
             this.fileExt = fileExt;
             this.numFiles = numFiles;
@@ -177,6 +181,9 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
             this.optimizedBytesRead = optimizedBytesRead;
             this.blobStoreBytesRequested = blobStoreBytesRequested;
             this.luceneBytesRead = luceneBytesRead;
+            this.readAheadBytes = readAheadBytes;
+            this.readAheadHitBytes = readAheadHitBytes;
+            this.readAheadWastedBytes = readAheadWastedBytes;
             this.currentIndexCacheFills = currentIndexCacheFills;
         }
 
@@ -217,6 +224,15 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
             } else {
                 this.luceneBytesRead = new Counter(0, 0, 0, 0);
             }
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                this.readAheadBytes = new Counter(in);
+                this.readAheadHitBytes = new Counter(in);
+                this.readAheadWastedBytes = new Counter(in);
+            } else {
+                this.readAheadBytes = new Counter(0, 0, 0, 0);
+                this.readAheadHitBytes = new Counter(0, 0, 0, 0);
+                this.readAheadWastedBytes = new Counter(0, 0, 0, 0);
+            }
             this.currentIndexCacheFills = in.readVLong();
         }
 
@@ -247,6 +263,9 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
                 cis1.optimizedBytesRead.add(cis2.optimizedBytesRead),
                 cis1.blobStoreBytesRequested.add(cis2.blobStoreBytesRequested),
                 cis1.luceneBytesRead.add(cis2.luceneBytesRead),
+                cis1.readAheadBytes.add(cis2.readAheadBytes),
+                cis1.readAheadHitBytes.add(cis2.readAheadHitBytes),
+                cis1.readAheadWastedBytes.add(cis2.readAheadWastedBytes),
                 cis1.currentIndexCacheFills + cis2.currentIndexCacheFills
             );
         }
@@ -286,6 +305,11 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
             if (out.getVersion().onOrAfter(Version.V_7_13_0)) {
                 luceneBytesRead.writeTo(out);
             }
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                readAheadBytes.writeTo(out);
+                readAheadHitBytes.writeTo(out);
+                readAheadWastedBytes.writeTo(out);
+            }
             out.writeVLong(currentIndexCacheFills);
         }
 
@@ -374,6 +398,18 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
             return luceneBytesRead;
         }
 
+        public Counter getReadAheadBytes() {
+            return readAheadBytes;
+        }
+
+        public Counter getReadAheadHitBytes() {
+            return readAheadHitBytes;
+        }
+
+        public Counter getReadAheadWastedBytes() {
+            return readAheadWastedBytes;
+        }
+
         public long getCurrentIndexCacheFills() {
             return currentIndexCacheFills;
         }
@@ -415,6 +451,13 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
                 }
                 builder.field("blob_store_bytes_requested", getBlobStoreBytesRequested(), params);
                 builder.field("lucene_bytes_read", getLuceneBytesRead(), params);
+                {
+                    builder.startObject("read_ahead");
+                    builder.field("bytes", getReadAheadBytes(), params);
+                    builder.field("hit_bytes", getReadAheadHitBytes(), params);
+                    builder.field("wasted_bytes", getReadAheadWastedBytes(), params);
+                    builder.endObject();
+                }
                 builder.field("current_index_cache_fills", getCurrentIndexCacheFills());
             }
             return builder.endObject();
@@ -449,6 +492,9 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
                 && Objects.equals(optimizedBytesRead, stats.optimizedBytesRead)
                 && Objects.equals(blobStoreBytesRequested, stats.blobStoreBytesRequested)
                 && Objects.equals(luceneBytesRead, stats.luceneBytesRead)
+                && Objects.equals(readAheadBytes, stats.readAheadBytes)
+                && Objects.equals(readAheadHitBytes, stats.readAheadHitBytes)
+                && Objects.equals(readAheadWastedBytes, stats.readAheadWastedBytes)
                 && currentIndexCacheFills == stats.currentIndexCacheFills;
         }
 
@@ -462,7 +508,9 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
                 contiguousReads, nonContiguousReads,
                 cachedBytesRead, indexCacheBytesRead,
                 cachedBytesWritten, directBytesRead, optimizedBytesRead,
-                blobStoreBytesRequested, luceneBytesRead, currentIndexCacheFills);
+                blobStoreBytesRequested, luceneBytesRead,
+                readAheadBytes, readAheadHitBytes, readAheadWastedBytes,
+                currentIndexCacheFills);
         }
     }
 
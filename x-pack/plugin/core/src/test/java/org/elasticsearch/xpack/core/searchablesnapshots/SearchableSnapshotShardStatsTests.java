@@ -51,7 +51,8 @@ public class SearchableSnapshotShardStatsTests extends AbstractWireSerializingTe
             randomCounter(), randomCounter(),
             randomCounter(), randomCounter(), randomTimedCounter(),
             randomTimedCounter(), randomTimedCounter(),
-            randomCounter(), randomCounter(), randomNonNegativeLong());
+            randomCounter(), randomCounter(),
+            randomCounter(), randomCounter(), randomCounter(), randomNonNegativeLong());
     }
 
     private Counter randomCounter() {
@@ -208,6 +208,21 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
         Setting.Property.NotCopyableOnResize
     );
 
+    /**
+     * Index setting for the maximum number of bytes that a cached index input reads ahead of a sequential reader. Reading ahead starts
+     * with a single range once an input is read sequentially and the window doubles while reads stay sequential. Metadata files and the
+     * terms index, which Lucene reads fully when opening a segment, read ahead the whole window from their first read. Zero disables
+     * reading ahead.
+     */
+    public static final Setting<ByteSizeValue> SNAPSHOT_CACHE_READ_AHEAD_MAX_SIZE_SETTING = Setting.byteSizeSetting(
+        "index.store.snapshot.cache.read_ahead.max_size",
+        ByteSizeValue.ZERO,
+        ByteSizeValue.ZERO,
+        new ByteSizeValue(Integer.MAX_VALUE, ByteSizeUnit.BYTES),
+        Setting.Property.IndexScope,
+        Setting.Property.NotCopyableOnResize
+    );
+
     public static final String SNAPSHOT_BLOB_CACHE_INDEX = ".snapshot-blob-cache";
     public static final String SNAPSHOT_BLOB_CACHE_INDEX_PATTERN = SNAPSHOT_BLOB_CACHE_INDEX + "*";
     public static final String SNAPSHOT_BLOB_CACHE_METADATA_FILES_MAX_LENGTH = "index.store.snapshot.blob_cache.metadata_files.max_length";
@@ -298,6 +313,7 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
             SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING,
             SNAPSHOT_CACHE_EXCLUDED_FILE_TYPES_SETTING,
             SNAPSHOT_UNCACHED_CHUNK_SIZE_SETTING,
+            SNAPSHOT_CACHE_READ_AHEAD_MAX_SIZE_SETTING,
             DELETE_SEARCHABLE_SNAPSHOT_ON_INDEX_DELETION,
             SearchableSnapshotsConstants.SNAPSHOT_PARTIAL_SETTING,
             SNAPSHOT_BLOB_CACHE_METADATA_FILES_MAX_LENGTH_SETTING,
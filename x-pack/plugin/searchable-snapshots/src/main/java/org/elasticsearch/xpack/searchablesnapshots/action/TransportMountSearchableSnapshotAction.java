@@ -28,6 +28,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.ListenableFuture;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.indices.ShardLimitValidator;
 import org.elasticsearch.indices.SystemIndices;
 import org.elasticsearch.license.XPackLicenseState;
@@ -35,7 +36,9 @@ import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.repositories.Repository;
 import org.elasticsearch.repositories.RepositoryData;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
 import org.elasticsearch.snapshots.SnapshotId;
+import org.elasticsearch.snapshots.SnapshotMissingException;
 import org.elasticsearch.tasks.Task;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
@@ -180,7 +183,7 @@ public class TransportMountSearchableSnapshotAction extends TransportMasterNodeA
         // Retrieve IndexId and SnapshotId instances, which are then used to create a new restore
         // request, which is then sent on to the actual snapshot restore mechanism
         final Repository repository = repositoriesService.repository(repoName);
-        SearchableSnapshots.getSearchableRepository(repository); // just check it's valid
+        final BlobStoreRepository blobStoreRepository = SearchableSnapshots.getSearchableRepository(repository);
 
         final ListenableFuture<RepositoryData> repositoryDataListener = new ListenableFuture<>();
         repository.getRepositoryData(repositoryDataListener);
@@ -219,6 +222,8 @@ public class TransportMountSearchableSnapshotAction extends TransportMasterNodeA
                 );
             }
 
+            ensureNoContentChunks(blobStoreRepository, snapshotId, indexId, indexMetadata.getNumberOfShards());
+
             final Set<String> ignoreIndexSettings = new LinkedHashSet<>(Arrays.asList(request.ignoreIndexSettings()));
             ignoreIndexSettings.add(IndexMetadata.SETTING_DATA_PATH);
             for (final String indexSettingKey : indexMetadata.getSettings().keySet()) {
@@ -280,4 +285,35 @@ public class TransportMountSearchableSnapshotAction extends TransportMasterNodeA
                 );
         }, listener::onFailure), threadPool.executor(ThreadPool.Names.SNAPSHOT_META), null);
     }
+
+    /**
+     * Searchable snapshots read the parts of a file assuming that all parts but the last have the same size, so they cannot read files
+     * that were snapshotted as content-defined chunks.
+     */
+    private static void ensureNoContentChunks(BlobStoreRepository repository, SnapshotId snapshotId, IndexId indexId, int numberOfShards) {
+        for (int shardId = 0; shardId < numberOfShards; shardId++) {
+            final BlobStoreIndexShardSnapshot shardSnapshot;
+            try {
+                shardSnapshot = repository.loadShardSnapshot(repository.shardContainer(indexId, shardId), snapshotId);
+            } catch (SnapshotMissingException e) {
+                // the shard failed to snapshot, which the restore reports
+                continue;
+            }
+            for (BlobStoreIndexShardSnapshot.FileInfo file : shardSnapshot.indexFiles()) {
+                if (file.contentChunks() != null) {
+                    throw new IllegalArgumentException(
+                        "cannot mount snapshot ["
+                            + snapshotId
+                            + "] as a searchable snapshot because file ["
+                            + file.physicalName()
+                            + "] of shard ["
+                            + shardId
+                            + "] of index ["
+                            + indexId.getName()
+                            + "] was snapshotted with content-defined chunking"
+                    );
+                }
+            }
+        }
+    }
 }
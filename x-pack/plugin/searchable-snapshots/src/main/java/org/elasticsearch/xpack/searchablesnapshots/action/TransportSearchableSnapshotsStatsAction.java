@@ -119,6 +119,9 @@ public class TransportSearchableSnapshotsStatsAction extends AbstractTransportSe
             toTimedCounter(inputStats.getOptimizedBytesRead()),
             toCounter(inputStats.getBlobStoreBytesRequested()),
             toCounter(inputStats.getLuceneBytesRead()),
+            toCounter(inputStats.getReadAheadBytes()),
+            toCounter(inputStats.getReadAheadHitBytes()),
+            toCounter(inputStats.getReadAheadWastedBytes()),
             inputStats.getCurrentIndexCacheFills()
         );
     }
@@ -6,6 +6,7 @@
  */
 package org.elasticsearch.xpack.searchablesnapshots.action.cache;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionType;
 import org.elasticsearch.action.FailedNodeException;
 import org.elasticsearch.action.support.ActionFilters;
@@ -25,6 +26,7 @@ import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.ToXContentObject;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.license.XPackLicenseState;
 import org.elasticsearch.tasks.Task;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -134,7 +136,9 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
             frozenCacheStats.getWriteBytes(),
             frozenCacheStats.getReadCount(),
             frozenCacheStats.getReadBytes(),
-            frozenCacheStats.getEvictCount()
+            frozenCacheStats.getEvictCount(),
+            frozenCacheStats.getLockAcquisitions(),
+            frozenCacheStats.getLockHoldTimeNanos()
         );
     }
 
@@ -178,6 +182,8 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
         private final long reads;
         private final long bytesRead;
         private final long evictions;
+        private final long lockAcquisitions;
+        private final long lockHoldTimeNanos;
 
         public NodeCachesStatsResponse(
             DiscoveryNode node,
@@ -188,7 +194,9 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
             long bytesWritten,
             long reads,
             long bytesRead,
-            long evictions
+            long evictions,
+            long lockAcquisitions,
+            long lockHoldTimeNanos
         ) {
             super(node);
             this.numRegions = numRegions;
@@ -199,6 +207,8 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
             this.reads = reads;
             this.bytesRead = bytesRead;
             this.evictions = evictions;
+            this.lockAcquisitions = lockAcquisitions;
+            this.lockHoldTimeNanos = lockHoldTimeNanos;
         }
 
         public NodeCachesStatsResponse(StreamInput in) throws IOException {
@@ -211,6 +221,13 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
             this.reads = in.readVLong();
             this.bytesRead = in.readVLong();
             this.evictions = in.readVLong();
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                this.lockAcquisitions = in.readVLong();
+                this.lockHoldTimeNanos = in.readVLong();
+            } else {
+                this.lockAcquisitions = 0L;
+                this.lockHoldTimeNanos = 0L;
+            }
         }
 
         @Override
@@ -224,6 +241,10 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
             out.writeVLong(reads);
             out.writeVLong(bytesRead);
             out.writeVLong(evictions);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeVLong(lockAcquisitions);
+                out.writeVLong(lockHoldTimeNanos);
+            }
         }
 
         @Override
@@ -237,6 +258,12 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
                     builder.field("writes", writes);
                     builder.humanReadableField("bytes_written_in_bytes", "bytes_written", ByteSizeValue.ofBytes(bytesWritten));
                     builder.field("evictions", evictions);
+                    builder.field("lock_acquisitions", lockAcquisitions);
+                    builder.humanReadableField(
+                        "lock_hold_time_in_millis",
+                        "lock_hold_time",
+                        TimeValue.timeValueNanos(lockHoldTimeNanos)
+                    );
                     builder.field("num_regions", numRegions);
                     builder.humanReadableField("size_in_bytes", "size", ByteSizeValue.ofBytes(size));
                     builder.humanReadableField("region_size_in_bytes", "region_size", ByteSizeValue.ofBytes(regionSize));
@@ -278,6 +305,14 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
         public long getEvictions() {
             return evictions;
         }
+
+        public long getLockAcquisitions() {
+            return lockAcquisitions;
+        }
+
+        public long getLockHoldTimeNanos() {
+            return lockHoldTimeNanos;
+        }
     }
 
     public static class NodesCachesStatsResponse extends BaseNodesResponse<NodeCachesStatsResponse> implements ToXContentObject {
@@ -245,6 +245,14 @@ public class FrozenCacheService implements Releasable {
 
     private final LongAdder evictCount = new LongAdder();
 
+    // entries whose frequency should be bumped, recorded on cache hits without taking the lock and applied in batches under the lock
+    private final ConcurrentLinkedQueue<Entry<CacheFileRegion>> pendingPromotions = new ConcurrentLinkedQueue<>();
+    // whether a thread is applying pending promotions, so that other threads recording promotions do not wait for the lock
+    private final AtomicBoolean applyingPromotions = new AtomicBoolean();
+
+    private final LongAdder lockAcquisitions = new LongAdder();
+    private final LongAdder lockHoldTimeNanos = new LongAdder();
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public FrozenCacheService(NodeEnvironment environment, Settings settings, ThreadPool threadPool) {
         this.currentTimeSupplier = threadPool::relativeTimeInMillis;
@@ -374,42 +382,81 @@ public class FrozenCacheService implements Releasable {
                     // no need to evict an item, just add
                     entry.chunk.sharedBytesPos = freeSlot;
                     assert regionOwners[freeSlot].compareAndSet(null, entry.chunk);
-                    synchronized (this) {
-                        pushEntryToBack(entry);
-                    }
+                    runLocked(() -> pushEntryToBack(entry));
                 } else {
-                    // need to evict something
-                    synchronized (this) {
+                    // need to evict something, apply any pending promotions first so that we do not evict a recently used region
+                    runLocked(() -> {
+                        drainPendingPromotions();
                         maybeEvict();
-                    }
+                    });
                     final Integer freeSlotRetry = freeRegions.poll();
                     if (freeSlotRetry != null) {
                         entry.chunk.sharedBytesPos = freeSlotRetry;
                         assert regionOwners[freeSlotRetry].compareAndSet(null, entry.chunk);
-                        synchronized (this) {
-                            pushEntryToBack(entry);
-                        }
+                        runLocked(() -> pushEntryToBack(entry));
                     } else {
                         boolean removed = keyMapping.remove(regionKey, entry);
                         assert removed;
                         throw new AlreadyClosedException("no free region found");
                     }
                 }
-            } else {
-                // check if we need to promote item
-                synchronized (this) {
-                    if (now - entry.lastAccessed >= minTimeDelta && entry.freq + 1 < maxFreq) {
-                        unlink(entry);
-                        entry.freq++;
-                        entry.lastAccessed = now;
-                        pushEntryToBack(entry);
-                    }
+            } else if (now - entry.lastAccessed >= minTimeDelta && entry.freq + 1 < maxFreq) {
+                // we need to promote the item: record the promotion without taking the lock, it is applied together with any other
+                // pending promotions by whichever thread gets to apply them first
+                if (entry.promotionPending.compareAndSet(false, true)) {
+                    pendingPromotions.add(entry);
                 }
+                applyPendingPromotions();
             }
             return entry.chunk;
         }
     }
 
+    /**
+     * Applies the pending promotions unless another thread is already applying them, in which case that thread will pick up the
+     * promotions recorded by this one.
+     */
+    private void applyPendingPromotions() {
+        while (pendingPromotions.isEmpty() == false && applyingPromotions.compareAndSet(false, true)) {
+            try {
+                runLocked(this::drainPendingPromotions);
+            } finally {
+                applyingPromotions.set(false);
+            }
+        }
+    }
+
+    private void drainPendingPromotions() {
+        assert Thread.holdsLock(this);
+        final long now = currentTimeSupplier.getAsLong();
+        Entry<CacheFileRegion> entry;
+        while ((entry = pendingPromotions.poll()) != null) {
+            entry.promotionPending.set(false);
+            // the entry may have been evicted or promoted by another batch since its promotion was recorded
+            if (entry.prev != null && now - entry.lastAccessed >= minTimeDelta && entry.freq + 1 < maxFreq) {
+                unlink(entry);
+                entry.freq++;
+                entry.lastAccessed = now;
+                pushEntryToBack(entry);
+            }
+        }
+    }
+
+    /**
+     * Runs the given action while holding the lock that protects the frequency lists, and records how long the lock was held.
+     */
+    private void runLocked(Runnable action) {
+        synchronized (this) {
+            final long startNanos = System.nanoTime();
+            try {
+                action.run();
+            } finally {
+                lockHoldTimeNanos.add(System.nanoTime() - startNanos);
+                lockAcquisitions.increment();
+            }
+        }
+    }
+
     public void onClose(CacheFileRegion chunk) {
         assert regionOwners[chunk.sharedBytesPos].compareAndSet(chunk, null);
         freeRegions.add(chunk.sharedBytesPos);
@@ -429,7 +476,9 @@ public class FrozenCacheService implements Releasable {
             writeCount.sum(),
             writeBytes.sum(),
             readCount.sum(),
-            readBytes.sum()
+            readBytes.sum(),
+            lockAcquisitions.sum(),
+            lockHoldTimeNanos.sum()
         );
     }
 
@@ -529,7 +578,8 @@ public class FrozenCacheService implements Releasable {
     }
 
     private void computeDecay() {
-        synchronized (this) {
+        runLocked(() -> {
+            drainPendingPromotions();
             long now = currentTimeSupplier.getAsLong();
             for (int i = 0; i < maxFreq; i++) {
                 for (Entry<CacheFileRegion> entry = freqs[i]; entry != null; entry = entry.next) {
@@ -542,7 +592,7 @@ public class FrozenCacheService implements Releasable {
                     }
                 }
             }
-        }
+        });
     }
 
     public void removeFromCache(CacheKey cacheKey) {
@@ -565,7 +615,7 @@ public class FrozenCacheService implements Releasable {
             }
         });
         if (matchingEntries.isEmpty() == false) {
-            synchronized (this) {
+            runLocked(() -> {
                 for (Entry<CacheFileRegion> entry : matchingEntries) {
                     boolean evicted = entry.chunk.forceEvict();
                     if (evicted) {
@@ -573,7 +623,7 @@ public class FrozenCacheService implements Releasable {
                         keyMapping.remove(entry.chunk.regionKey, entry);
                     }
                 }
-            }
+            });
         }
     }
 
@@ -647,8 +697,10 @@ public class FrozenCacheService implements Releasable {
         final T chunk;
         Entry<T> prev;
         Entry<T> next;
-        int freq;
-        long lastAccessed;
+        // only written while holding the lock but read without it to decide whether the entry needs to be promoted
+        volatile int freq;
+        volatile long lastAccessed;
+        final AtomicBoolean promotionPending = new AtomicBoolean();
 
         Entry(T chunk, long lastAccessed) {
             this.chunk = chunk;
@@ -917,7 +969,7 @@ public class FrozenCacheService implements Releasable {
 
     public static class Stats {
 
-        public static final Stats EMPTY = new Stats(0, 0L, 0L, 0L, 0L, 0L, 0L, 0L);
+        public static final Stats EMPTY = new Stats(0, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L);
 
         private final int numberOfRegions;
         private final long size;
@@ -927,6 +979,8 @@ public class FrozenCacheService implements Releasable {
         private final long writeBytes;
         private final long readCount;
         private final long readBytes;
+        private final long lockAcquisitions;
+        private final long lockHoldTimeNanos;
 
         private Stats(
             int numberOfRegions,
@@ -936,7 +990,9 @@ public class FrozenCacheService implements Releasable {
             long writeCount,
             long writeBytes,
             long readCount,
-            long readBytes
+            long readBytes,
+            long lockAcquisitions,
+            long lockHoldTimeNanos
         ) {
             this.numberOfRegions = numberOfRegions;
             this.size = size;
@@ -946,6 +1002,8 @@ public class FrozenCacheService implements Releasable {
             this.writeBytes = writeBytes;
             this.readCount = readCount;
             this.readBytes = readBytes;
+            this.lockAcquisitions = lockAcquisitions;
+            this.lockHoldTimeNanos = lockHoldTimeNanos;
         }
 
         public int getNumberOfRegions() {
@@ -979,5 +1037,20 @@ public class FrozenCacheService implements Releasable {
         public long getReadBytes() {
             return readBytes;
         }
+
+        /**
+         * Number of times the lock protecting the frequency lists was taken, e.g. to assign a region, to apply a batch of promotions,
+         * to evict regions or to decay frequencies.
+         */
+        public long getLockAcquisitions() {
+            return lockAcquisitions;
+        }
+
+        /**
+         * Total time the lock protecting the frequency lists was held, in nanoseconds.
+         */
+        public long getLockHoldTimeNanos() {
+            return lockHoldTimeNanos;
+        }
     }
 }
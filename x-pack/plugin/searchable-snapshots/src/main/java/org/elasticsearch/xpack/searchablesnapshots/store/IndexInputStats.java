@@ -57,6 +57,10 @@ public class IndexInputStats {
 
     private final Counter luceneBytesRead = new Counter();
 
+    private final Counter readAheadBytes = new Counter();
+    private final Counter readAheadHitBytes = new Counter();
+    private final Counter readAheadWastedBytes = new Counter();
+
     public IndexInputStats(long numFiles, long totalSize, long minSize, long maxSize, LongSupplier currentTimeNanos) {
         this(numFiles, totalSize, minSize, maxSize, SEEKING_THRESHOLD.getBytes(), currentTimeNanos);
     }
@@ -155,6 +159,18 @@ public class IndexInputStats {
         luceneBytesRead.add(bytesRead);
     }
 
+    public void addReadAheadBytes(long bytes) {
+        readAheadBytes.add(bytes);
+    }
+
+    public void addReadAheadHitBytes(long bytes) {
+        readAheadHitBytes.add(bytes);
+    }
+
+    public void addReadAheadWastedBytes(long bytes) {
+        readAheadWastedBytes.add(bytes);
+    }
+
     public long getNumFiles() {
         return numFiles;
     }
@@ -231,6 +247,18 @@ public class IndexInputStats {
         return luceneBytesRead;
     }
 
+    public Counter getReadAheadBytes() {
+        return readAheadBytes;
+    }
+
+    public Counter getReadAheadHitBytes() {
+        return readAheadHitBytes;
+    }
+
+    public Counter getReadAheadWastedBytes() {
+        return readAheadWastedBytes;
+    }
+
     @SuppressForbidden(reason = "Handles Long.MIN_VALUE before using Math.abs()")
     public boolean isLargeSeek(long delta) {
         return delta != Long.MIN_VALUE && Math.abs(delta) > seekingThreshold;
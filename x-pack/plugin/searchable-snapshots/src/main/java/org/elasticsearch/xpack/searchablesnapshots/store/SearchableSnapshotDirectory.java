@@ -93,6 +93,7 @@ import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SN
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_ENABLED_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_EXCLUDED_FILE_TYPES_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING;
+import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_READ_AHEAD_MAX_SIZE_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_INDEX_ID_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_INDEX_NAME_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_REPOSITORY_NAME_SETTING;
@@ -137,6 +138,7 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
     private final boolean partial;
     private final FrozenCacheService frozenCacheService;
     private final ByteSizeValue blobStoreCacheMaxLength;
+    private final long readAheadMaxSize;
 
     // volatile fields are updated once under `this` lock, all together, iff loaded is not true.
     private volatile BlobStoreIndexShardSnapshot snapshot;
@@ -180,6 +182,7 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
         this.excludedFileTypes = new HashSet<>(SNAPSHOT_CACHE_EXCLUDED_FILE_TYPES_SETTING.get(indexSettings));
         this.uncachedChunkSize = SNAPSHOT_UNCACHED_CHUNK_SIZE_SETTING.get(indexSettings).getBytes();
         this.blobStoreCacheMaxLength = SNAPSHOT_BLOB_CACHE_METADATA_FILES_MAX_LENGTH_SETTING.get(indexSettings);
+        this.readAheadMaxSize = SNAPSHOT_CACHE_READ_AHEAD_MAX_SIZE_SETTING.get(indexSettings).getBytes();
         this.threadPool = threadPool;
         this.loaded = false;
         this.frozenCacheService = frozenCacheService;
@@ -222,8 +225,21 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
             synchronized (this) {
                 alreadyLoaded = this.loaded;
                 if (alreadyLoaded == false) {
+                    final BlobStoreIndexShardSnapshot snapshot = snapshotSupplier.get();
+                    for (BlobStoreIndexShardSnapshot.FileInfo file : snapshot.indexFiles()) {
+                        if (file.contentChunks() != null) {
+                            // reads map positions to parts assuming that all parts but the last have the same size
+                            throw new IllegalArgumentException(
+                                "cannot mount snapshot ["
+                                    + snapshotId
+                                    + "] as a searchable snapshot because file ["
+                                    + file.physicalName()
+                                    + "] was snapshotted with content-defined chunking"
+                            );
+                        }
+                    }
                     this.blobContainer = blobContainerSupplier.get();
-                    this.snapshot = snapshotSupplier.get();
+                    this.snapshot = snapshot;
                     this.loaded = true;
                     cleanExistingRegularShardFiles();
                     waitForPendingEvictions();
@@ -377,6 +393,13 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
         return cacheService.get(cacheKey, fileLength, cacheDir);
     }
 
+    /**
+     * @return the maximum number of bytes that cached index inputs read ahead of sequential readers, or zero if they do not read ahead
+     */
+    public long getReadAheadMaxSize() {
+        return readAheadMaxSize;
+    }
+
     public Executor cacheFetchAsyncExecutor() {
         return threadPool.executor(SearchableSnapshots.CACHE_FETCH_ASYNC_THREAD_POOL_NAME);
     }
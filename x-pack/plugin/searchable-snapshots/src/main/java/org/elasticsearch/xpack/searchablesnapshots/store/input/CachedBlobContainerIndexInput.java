@@ -136,6 +136,15 @@ public class CachedBlobContainerIndexInput extends MetadataCachingIndexInput {
         assert bytesRead == length : bytesRead + " vs " + length;
     }
 
+    @Override
+    protected void readAhead(ByteRange range) throws Exception {
+        final CacheFile cacheFile = cacheFileReference.get();
+        if (cacheFile.getAbsentRangeWithin(range) != null) {
+            final int length = toIntBytes(range.length());
+            cacheFile.populateAndRead(range, range, channel -> length, this::writeCacheFile, directory.cacheFetchAsyncExecutor());
+        }
+    }
+
     /**
      * Prefetches a complete part and writes it in cache. This method is used to prewarm the cache.
      * @return a tuple with {@code Tuple<Persistent Cache Length, Prefetched Length>} values
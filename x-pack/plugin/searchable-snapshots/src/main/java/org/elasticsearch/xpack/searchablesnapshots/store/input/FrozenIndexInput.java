@@ -19,6 +19,7 @@ import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
 import org.elasticsearch.xpack.searchablesnapshots.cache.common.ByteRange;
 import org.elasticsearch.xpack.searchablesnapshots.cache.shared.FrozenCacheService.FrozenCacheFile;
+import org.elasticsearch.xpack.searchablesnapshots.cache.shared.FrozenCacheService.RangeMissingHandler;
 import org.elasticsearch.xpack.searchablesnapshots.cache.shared.SharedBytes;
 import org.elasticsearch.xpack.searchablesnapshots.store.IndexInputStats;
 import org.elasticsearch.xpack.searchablesnapshots.store.SearchableSnapshotDirectory;
@@ -154,14 +155,7 @@ public class FrozenIndexInput extends MetadataCachingIndexInput {
                     luceneByteBufLock,
                     stopAsyncReads
                 ),
-                (channel, channelPos, relativePos, len, progressUpdater) -> {
-                    final long startTimeNanos = stats.currentTimeNanos();
-                    final long streamStartPosition = rangeToWrite.start() + relativePos;
-
-                    try (InputStream input = openInputStreamFromBlobStore(streamStartPosition, len)) {
-                        writeCacheFile(channel, input, channelPos, relativePos, len, progressUpdater, startTimeNanos);
-                    }
-                },
+                cacheFileWriter(rangeToWrite),
                 directory.cacheFetchAsyncExecutor()
             );
 
@@ -176,6 +170,28 @@ public class FrozenIndexInput extends MetadataCachingIndexInput {
         }
     }
 
+    @Override
+    protected void readAhead(ByteRange range) {
+        frozenCacheFile.populateAndRead(
+            range,
+            range,
+            (channel, channelPos, relativePos, len) -> Math.toIntExact(len),
+            cacheFileWriter(range),
+            directory.cacheFetchAsyncExecutor()
+        );
+    }
+
+    private RangeMissingHandler cacheFileWriter(ByteRange rangeToWrite) {
+        return (channel, channelPos, relativePos, len, progressUpdater) -> {
+            final long startTimeNanos = stats.currentTimeNanos();
+            final long streamStartPosition = rangeToWrite.start() + relativePos;
+
+            try (InputStream input = openInputStreamFromBlobStore(streamStartPosition, len)) {
+                writeCacheFile(channel, input, channelPos, relativePos, len, progressUpdater, startTimeNanos);
+            }
+        };
+    }
+
     private static int positionalWrite(SharedBytes.IO fc, long start, ByteBuffer byteBuffer) throws IOException {
         assert assertCurrentThreadMayWriteCacheFile();
         byteBuffer.flip();
@@ -20,6 +20,7 @@ import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.SuppressForbidden;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.store.LuceneFilesExtensions;
 import org.elasticsearch.xpack.searchablesnapshots.cache.blob.BlobStoreCacheService;
 import org.elasticsearch.xpack.searchablesnapshots.cache.blob.CachedBlob;
 import org.elasticsearch.xpack.searchablesnapshots.cache.common.ByteRange;
@@ -48,6 +49,11 @@ public abstract class MetadataCachingIndexInput extends BaseSearchableSnapshotIn
 
     protected static final int COPY_BUFFER_SIZE = ByteSizeUnit.KB.toIntBytes(8);
 
+    /**
+     * Number of contiguous reads after which an index input is considered to be read sequentially and starts reading ahead.
+     */
+    static final int SEQUENTIAL_READS_THRESHOLD = 2;
+
     protected final CacheFileReference cacheFileReference;
 
     /**
@@ -64,6 +70,17 @@ public abstract class MetadataCachingIndexInput extends BaseSearchableSnapshotIn
     // last seek position is kept around in order to detect forward/backward seeks for stats
     protected long lastSeekPosition;
 
+    // maximum number of bytes to read ahead of a sequential reader, zero if reading ahead is disabled
+    protected final long readAheadMaxSize;
+    // metadata files and the terms index are fully read by Lucene when a segment is opened, so they read ahead from their first read
+    private final boolean readAheadEagerly;
+
+    // the read ahead state is specific to each reader so it is reset when cloning
+    private int sequentialReads;
+    private long readAheadSize;
+    private long readAheadStart;
+    private long readAheadEnd;
+
     public MetadataCachingIndexInput(
         Logger logger,
         String name,
@@ -87,6 +104,8 @@ public abstract class MetadataCachingIndexInput extends BaseSearchableSnapshotIn
         this.recoveryRangeSize = recoveryRangeSize;
         this.lastReadPosition = offset;
         this.lastSeekPosition = offset;
+        this.readAheadMaxSize = directory.getReadAheadMaxSize();
+        this.readAheadEagerly = isReadFully(name);
         assert offset >= compoundFileOffset;
         assert getBufferSize() <= BlobStoreCacheService.DEFAULT_CACHED_BLOB_SIZE; // must be able to cache at least one buffer's worth
     }
@@ -117,6 +136,11 @@ public abstract class MetadataCachingIndexInput extends BaseSearchableSnapshotIn
 
     protected abstract void readWithoutBlobCache(ByteBuffer b) throws Exception;
 
+    /**
+     * Populates the cache with the given range of the file in the background, without waiting for it to be available.
+     */
+    protected abstract void readAhead(ByteRange range) throws Exception;
+
     private void readWithBlobCache(ByteBuffer b, ByteRange blobCacheByteRange) throws Exception {
         final long position = getAbsolutePosition();
         final int length = b.remaining();
@@ -229,10 +253,79 @@ public abstract class MetadataCachingIndexInput extends BaseSearchableSnapshotIn
 
     private void readComplete(long position, int length) {
         stats.incrementBytesRead(lastReadPosition, position, length);
+        if (readAheadMaxSize > 0L) {
+            maybeReadAhead(position, length);
+        }
         lastReadPosition = position + length;
         lastSeekPosition = lastReadPosition;
     }
 
+    /**
+     * Reads ahead of the given read if this index input is being read sequentially, i.e. after {@link #SEQUENTIAL_READS_THRESHOLD}
+     * contiguous reads or straight away for files that Lucene reads fully. The read ahead window starts right after the range that
+     * contains the end of the read, and is extended each time the reader gets within one range of its end. The window starts with a
+     * single range and doubles each time it is extended, up to {@link #readAheadMaxSize}; files that Lucene reads fully start with the
+     * largest window. A non-contiguous read abandons the window.
+     */
+    private void maybeReadAhead(long position, int length) {
+        final long end = position + length;
+        if (position < readAheadEnd && readAheadStart < end) {
+            stats.addReadAheadHitBytes(Math.min(end, readAheadEnd) - Math.max(position, readAheadStart));
+        }
+        if (position == lastReadPosition) {
+            sequentialReads += 1;
+        } else {
+            abandonReadAhead();
+        }
+        if (sequentialReads < SEQUENTIAL_READS_THRESHOLD && readAheadEagerly == false) {
+            return;
+        }
+        final long rangeSize = getDefaultRangeSize();
+        if (end + rangeSize < readAheadEnd) {
+            return;
+        }
+        final long start = Math.max(readAheadEnd, computeRange(end - 1L).end());
+        final long limit = computeRange(this.offset + length() - 1L).end();
+        if (start >= limit) {
+            return;
+        }
+        if (readAheadSize == 0L) {
+            readAheadSize = readAheadEagerly ? readAheadMaxSize : rangeSize;
+        } else {
+            readAheadSize = Math.min(readAheadSize * 2L, readAheadMaxSize);
+        }
+        final ByteRange range = ByteRange.of(start, Math.min(start + Math.max(readAheadSize, rangeSize), limit));
+        if (start != readAheadEnd) {
+            readAheadStart = start;
+        }
+        readAheadEnd = range.end();
+        stats.addReadAheadBytes(range.length());
+        try {
+            logger.trace("reading ahead [{}-{}] of [{}]", range.start(), range.end(), this);
+            readAhead(range);
+        } catch (Exception e) {
+            logger.debug(() -> new ParameterizedMessage("failed to read ahead [{}-{}] of [{}]", range.start(), range.end(), this), e);
+        }
+    }
+
+    /**
+     * Resets the read ahead state of this index input, counting the bytes of the current window that were not read sequentially as wasted.
+     */
+    private void abandonReadAhead() {
+        if (readAheadEnd > lastReadPosition) {
+            stats.addReadAheadWastedBytes(readAheadEnd - Math.max(readAheadStart, lastReadPosition));
+        }
+        sequentialReads = 0;
+        readAheadSize = 0L;
+        readAheadStart = 0L;
+        readAheadEnd = 0L;
+    }
+
+    private static boolean isReadFully(String name) {
+        final LuceneFilesExtensions extension = LuceneFilesExtensions.fromFile(name);
+        return extension != null && (extension.isMetadata() || extension == LuceneFilesExtensions.TIP);
+    }
+
     protected int readCacheFile(final FileChannel fc, final long position, final ByteBuffer buffer) throws IOException {
         assert assertFileChannelOpen(fc);
         final int bytesRead = Channels.readFromFileChannel(fc, position, buffer);
@@ -434,8 +527,19 @@ public abstract class MetadataCachingIndexInput extends BaseSearchableSnapshotIn
         lastSeekPosition = position;
     }
 
+    @Override
+    public MetadataCachingIndexInput clone() {
+        final MetadataCachingIndexInput clone = (MetadataCachingIndexInput) super.clone();
+        clone.sequentialReads = 0;
+        clone.readAheadSize = 0L;
+        clone.readAheadStart = 0L;
+        clone.readAheadEnd = 0L;
+        return clone;
+    }
+
     @Override
     public void doClose() {
+        abandonReadAhead();
         if (isClone == false) {
             cacheFileReference.releaseOnClose();
         }
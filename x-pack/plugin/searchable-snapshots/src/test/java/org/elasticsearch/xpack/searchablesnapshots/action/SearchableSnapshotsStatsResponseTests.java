@@ -118,6 +118,9 @@ public class SearchableSnapshotsStatsResponseTests extends ESTestCase {
             randomTimedCounter(),
             randomCounter(),
             randomCounter(),
+            randomCounter(),
+            randomCounter(),
+            randomCounter(),
             randomNonNegativeLong()
         );
     }
@@ -28,10 +28,12 @@ import org.elasticsearch.xpack.searchablesnapshots.cache.shared.FrozenCacheServi
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
 import java.util.stream.Collectors;
 
 import static org.elasticsearch.node.Node.NODE_NAME_SETTING;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
@@ -205,6 +207,52 @@ public class FrozenCacheServiceTests extends ESTestCase {
         }
     }
 
+    public void testConcurrentHitsPromoteOnce() throws Exception {
+        Settings settings = Settings.builder()
+            .put(NODE_NAME_SETTING.getKey(), "node")
+            .put(FrozenCacheService.SNAPSHOT_CACHE_SIZE_SETTING.getKey(), new ByteSizeValue(size(500)).getStringRep())
+            .put(FrozenCacheService.SNAPSHOT_CACHE_REGION_SIZE_SETTING.getKey(), new ByteSizeValue(size(100)).getStringRep())
+            .put("path.home", createTempDir())
+            .build();
+        final DeterministicTaskQueue taskQueue = new DeterministicTaskQueue();
+        try (
+            NodeEnvironment environment = new NodeEnvironment(settings, TestEnvironment.newEnvironment(settings));
+            FrozenCacheService cacheService = new FrozenCacheService(environment, settings, taskQueue.getThreadPool())
+        ) {
+            final CacheKey cacheKey = generateCacheKey();
+            final CacheFileRegion region = cacheService.get(cacheKey, size(250), 0);
+            assertEquals(0, cacheService.getFreq(region));
+            final long lockAcquisitions = cacheService.getStats().getLockAcquisitions();
+            assertThat(lockAcquisitions, greaterThan(0L));
+
+            // hits within the minimum time delta do not need the lock
+            cacheService.get(cacheKey, size(250), 0);
+            assertEquals(lockAcquisitions, cacheService.getStats().getLockAcquisitions());
+
+            taskQueue.advanceTime();
+            taskQueue.runAllRunnableTasks();
+
+            final Thread[] threads = new Thread[between(2, 10)];
+            final CyclicBarrier barrier = new CyclicBarrier(threads.length);
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    try {
+                        barrier.await();
+                    } catch (Exception e) {
+                        throw new AssertionError(e);
+                    }
+                    assertSame(region, cacheService.get(cacheKey, size(250), 0));
+                });
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(1, cacheService.getFreq(region));
+            assertThat(cacheService.getStats().getLockAcquisitions(), greaterThan(lockAcquisitions));
+        }
+    }
+
     public void testCacheSizeRejectedOnNonFrozenNodes() {
         String cacheSize = randomBoolean() ? new ByteSizeValue(size(500)).getStringRep() : new RatioValue(between(1, 100)).toString();
         final Settings settings = Settings.builder()
@@ -13,6 +13,7 @@ import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.common.blobstore.BlobContainer;
 import org.elasticsearch.common.blobstore.support.FilterBlobContainer;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.core.Tuple;
 import org.elasticsearch.index.shard.ShardId;
@@ -27,6 +28,7 @@ import org.elasticsearch.xpack.searchablesnapshots.cache.common.TestUtils;
 import org.elasticsearch.xpack.searchablesnapshots.cache.common.TestUtils.NoopBlobStoreCacheService;
 import org.elasticsearch.xpack.searchablesnapshots.cache.full.CacheService;
 import org.elasticsearch.xpack.searchablesnapshots.cache.shared.FrozenCacheService;
+import org.elasticsearch.xpack.searchablesnapshots.store.IndexInputStats;
 import org.elasticsearch.xpack.searchablesnapshots.store.SearchableSnapshotDirectory;
 
 import java.io.EOFException;
@@ -44,10 +46,12 @@ import java.util.concurrent.atomic.LongAdder;
 
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_ENABLED_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING;
+import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_READ_AHEAD_MAX_SIZE_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.cache.common.TestUtils.singleBlobContainer;
 import static org.elasticsearch.xpack.searchablesnapshots.cache.common.TestUtils.singleSplitBlobContainer;
 import static org.elasticsearch.xpack.searchablesnapshots.cache.full.CacheService.resolveSnapshotCache;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
@@ -257,6 +261,98 @@ public class CachedBlobContainerIndexInputTests extends AbstractSearchableSnapsh
         }
     }
 
+    public void testReadsAheadOfSequentialReads() throws Exception {
+        final ByteSizeValue rangeSize = new ByteSizeValue(4, ByteSizeUnit.KB);
+        try (CacheService cacheService = createCacheService(rangeSize)) {
+            cacheService.start();
+
+            SnapshotId snapshotId = new SnapshotId("_name", "_uuid");
+            IndexId indexId = new IndexId("_name", "_uuid");
+            ShardId shardId = new ShardId("_name", "_uuid", 0);
+
+            final String fileName = randomAlphaOfLength(5) + ".dvd";
+            final Tuple<String, byte[]> bytes = randomChecksumBytes(randomIntBetween(10 * rangeSize.bytesAsInt(), 100_000));
+
+            final byte[] input = bytes.v2();
+            final String blobName = randomUnicodeOfLength(10);
+            final StoreFileMetadata metadata = new StoreFileMetadata(
+                fileName,
+                input.length,
+                bytes.v1(),
+                Version.CURRENT.luceneVersion.toString()
+            );
+            final BlobStoreIndexShardSnapshot snapshot = new BlobStoreIndexShardSnapshot(
+                snapshotId.getName(),
+                0L,
+                List.of(new BlobStoreIndexShardSnapshot.FileInfo(blobName, metadata, new ByteSizeValue(input.length))),
+                0L,
+                0L,
+                0,
+                0L
+            );
+
+            final CountingBlobContainer blobContainer = new CountingBlobContainer(singleBlobContainer(blobName, input));
+            final Path shardDir = shardPath(shardId);
+            final ShardPath shardPath = new ShardPath(false, shardDir, shardDir, shardId);
+            final Path cacheDir = Files.createDirectories(resolveSnapshotCache(shardDir).resolve(snapshotId.getUUID()));
+            final FrozenCacheService frozenCacheService = defaultFrozenCacheService();
+            try (
+                SearchableSnapshotDirectory directory = new SearchableSnapshotDirectory(
+                    () -> blobContainer,
+                    () -> snapshot,
+                    new NoopBlobStoreCacheService(),
+                    "_repo",
+                    snapshotId,
+                    indexId,
+                    shardId,
+                    Settings.builder()
+                        .put(SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING.getKey(), false)
+                        .put(SNAPSHOT_CACHE_READ_AHEAD_MAX_SIZE_SETTING.getKey(), new ByteSizeValue(between(1, 4) * rangeSize.getBytes()))
+                        .build(),
+                    () -> 0L,
+                    cacheService,
+                    cacheDir,
+                    shardPath,
+                    threadPool,
+                    frozenCacheService
+                )
+            ) {
+                final PlainActionFuture<Void> future = PlainActionFuture.newFuture();
+                assertThat("Failed to load snapshot", directory.loadSnapshot(createRecoveryState(true), future), is(true));
+                future.get();
+
+                try (IndexInput indexInput = directory.openInput(fileName, randomIOContext())) {
+                    assertThat(indexInput, instanceOf(CachedBlobContainerIndexInput.class));
+                    final byte[] output = new byte[input.length];
+                    int position = 0;
+                    while (position < output.length) {
+                        final int length = Math.min(between(1, 1024), output.length - position);
+                        indexInput.readBytes(output, position, length);
+                        position += length;
+                    }
+                    assertArrayEquals(input, output);
+                }
+
+                final IndexInputStats inputStats = directory.getStats().get("dvd");
+                assertThat(inputStats, notNullValue());
+                assertThat(inputStats.getReadAheadBytes().total(), greaterThan(0L));
+                assertThat(inputStats.getReadAheadHitBytes().total(), greaterThan(0L));
+                assertThat(
+                    inputStats.getReadAheadHitBytes().total() + inputStats.getReadAheadWastedBytes().total(),
+                    lessThanOrEqualTo(inputStats.getReadAheadBytes().total())
+                );
+            } finally {
+                frozenCacheService.close();
+            }
+
+            // reading ahead must not fetch any byte more than once
+            assertThat(blobContainer.totalBytes.sum(), lessThanOrEqualTo((long) input.length));
+            assertBusy(() -> assertEquals("All open streams should have been closed", 0, blobContainer.openStreams.get()));
+        } finally {
+            assertThreadPoolNotBusy(threadPool);
+        }
+    }
+
     private boolean containsEOFException(Throwable throwable, HashSet<Throwable> seenThrowables) {
         if (throwable == null || seenThrowables.add(throwable) == false) {
             return false;